@@ -66,6 +66,12 @@ class OffsetIndexItem {
 
     }
 
+    OffsetIndexItem(final long indexIdentifier, final long fileOffset, final int size) {
+        this.indexIdentifier = indexIdentifier;
+        this.fileOffset = fileOffset;
+        this.size = size;
+    }
+
     @Override
     public String toString() {
         return (
@@ -98,7 +98,7 @@ public class PSTAttachment extends PSTObject {
     public PSTMessage getEmbeddedPSTMessage() throws IOException, PSTException {
         PSTNodeInputStream in = null;
         if (this.getIntItem(0x3705) == PSTAttachment.ATTACHMENT_METHOD_EMBEDDED) {
-            final PSTTableBCItem item = this.items.get(0x3701);
+            final PSTTableBCItem item = this.table.getItem(0x3701);
             if (item.entryValueType == 0x0102) {
                 if (!item.isExternalValueReference) {
                     in = new PSTNodeInputStream(this.pstFile, item.data);
@@ -154,20 +154,23 @@ public class PSTAttachment extends PSTObject {
 
     /**
      * Gets file input stream.
+     * <p>
+     * Compressed attachment content is inflated on the fly, block by block, so the stream can be piped to its
+     * destination without holding the whole attachment in memory. The stream is not seekable.
      *
      * @return the file input stream
      * @throws IOException  the io exception
      * @throws PSTException the pst exception
      */
     public InputStream getFileInputStream() throws IOException, PSTException {
-        final PSTTableBCItem attachmentDataObject = this.items.get(0x3701);
+        final PSTTableBCItem attachmentDataObject = this.table.getItem(0x3701);
 
         if (null == attachmentDataObject) {
             return new ByteArrayInputStream(new byte[0]);
         } else if (attachmentDataObject.isExternalValueReference) {
             final PSTDescriptorItem descriptorItemNested =
                 this.localDescriptorItems.get(attachmentDataObject.entryValueReference);
-            return new PSTNodeInputStream(this.pstFile, descriptorItemNested);
+            return PSTNodeInputStream.openStreamed(this.pstFile, descriptorItemNested);
         } else {
             // internal value references are never encrypted
             return new PSTNodeInputStream(this.pstFile, attachmentDataObject.data, false);
@@ -182,7 +185,7 @@ public class PSTAttachment extends PSTObject {
      * @throws IOException  the io exception
      */
     public int getFilesize() throws PSTException, IOException {
-        final PSTTableBCItem attachmentDataObject = this.items.get(0x3701);
+        final PSTTableBCItem attachmentDataObject = this.table.getItem(0x3701);
         if (attachmentDataObject.isExternalValueReference) {
             final PSTDescriptorItem descriptorItemNested =
                 this.localDescriptorItems.get(attachmentDataObject.entryValueReference);
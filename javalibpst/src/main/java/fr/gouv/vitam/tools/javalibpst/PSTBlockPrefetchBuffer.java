@@ -0,0 +1,117 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffer of PST file spans read ahead by a {@link PSTMessagePrefetcher}, keyed by span file offset.
+ * <p>
+ * Block reads of the parser are first looked up in these spans, and only go to the file content if
+ * the whole asked range is not in one span. All methods are thread safe, hits are counted to make
+ * the prefetch efficiency visible.
+ */
+class PSTBlockPrefetchBuffer {
+
+    private final ConcurrentSkipListMap<Long, byte[]> spans = new ConcurrentSkipListMap<>();
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Puts a span read from the file.
+     *
+     * @param fileOffset the span file offset
+     * @param span       the span data
+     */
+    void put(final long fileOffset, final byte[] span) {
+        this.spans.put(fileOffset, span);
+    }
+
+    /**
+     * Removes a span.
+     *
+     * @param fileOffset the span file offset
+     */
+    void remove(final long fileOffset) {
+        this.spans.remove(fileOffset);
+    }
+
+    /**
+     * Tests if a range is entirely in one of the spans.
+     *
+     * @param position the absolute position in the file
+     * @param length   the number of bytes
+     * @return true if the range is buffered
+     */
+    boolean contains(final long position, final int length) {
+        final Map.Entry<Long, byte[]> entry = this.spans.floorEntry(position);
+        return entry != null && position - entry.getKey() + length <= entry.getValue().length;
+    }
+
+    /**
+     * Reads a range from the spans, if it's entirely in one of them.
+     *
+     * @param position the absolute position in the file
+     * @param target   the buffer to fill
+     * @param offset   the start offset in the buffer
+     * @param length   the number of bytes to read
+     * @return true if the range has been read, false if it's not buffered
+     */
+    boolean read(final long position, final byte[] target, final int offset, final int length) {
+        if (this.spans.isEmpty()) {
+            return false;
+        }
+        final Map.Entry<Long, byte[]> entry = this.spans.floorEntry(position);
+        if (entry == null) {
+            return false;
+        }
+        final long start = position - entry.getKey();
+        final byte[] span = entry.getValue();
+        if (start + length > span.length) {
+            return false;
+        }
+        System.arraycopy(span, (int) start, target, offset, length);
+        this.hits.incrementAndGet();
+        return true;
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+}
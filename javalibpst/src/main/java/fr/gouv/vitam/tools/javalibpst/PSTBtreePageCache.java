@@ -0,0 +1,148 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of B-Tree pages read from a PST file, keyed by page file offset.
+ * <p>
+ * Pages are evicted in least recently used order when the total size of cached pages exceeds the byte budget.
+ * All methods are thread safe, hits and misses are counted to make lookups cost visible.
+ */
+class PSTBtreePageCache {
+
+    /**
+     * Default byte budget (8MB, that is 2048 pages of 2013 unicode files or 16384 pages of older ones).
+     */
+    static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    private final LinkedHashMap<Long, byte[]> pages = new LinkedHashMap<>(256, 0.75f, true);
+    private long maxBytes;
+    private long currentBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PSTBtreePageCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets a cached page, counting hit or miss.
+     *
+     * @param pageOffset the page file offset
+     * @return the page data, or null if not cached
+     */
+    byte[] get(final long pageOffset) {
+        final byte[] page;
+        synchronized (this.pages) {
+            page = this.pages.get(pageOffset);
+        }
+        if (page == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return page;
+    }
+
+    /**
+     * Puts a page in cache, evicting least recently used ones if needed.
+     *
+     * @param pageOffset the page file offset
+     * @param page       the page data
+     */
+    void put(final long pageOffset, final byte[] page) {
+        synchronized (this.pages) {
+            if (page.length > this.maxBytes) {
+                return;
+            }
+            final byte[] previous = this.pages.put(pageOffset, page);
+            if (previous != null) {
+                this.currentBytes -= previous.length;
+            }
+            this.currentBytes += page.length;
+            this.evict();
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Long, byte[]>> it = this.pages.entrySet().iterator();
+        while ((this.currentBytes > this.maxBytes) && it.hasNext()) {
+            this.currentBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    long getMaxBytes() {
+        synchronized (this.pages) {
+            return this.maxBytes;
+        }
+    }
+
+    void setMaxBytes(final long maxBytes) {
+        synchronized (this.pages) {
+            this.maxBytes = maxBytes;
+            this.evict();
+        }
+    }
+
+    long getCurrentBytes() {
+        synchronized (this.pages) {
+            return this.currentBytes;
+        }
+    }
+
+    void clear() {
+        synchronized (this.pages) {
+            this.pages.clear();
+            this.currentBytes = 0;
+        }
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+}
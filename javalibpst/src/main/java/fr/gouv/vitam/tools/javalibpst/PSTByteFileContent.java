@@ -90,6 +90,16 @@ public class PSTByteFileContent extends PSTFileContent {
         return this.content[this.index++];
     }
 
+    @Override
+    public int read(final long position, final byte[] target, final int offset, final int length) {
+        if (position >= this.content.length) {
+            return -1;
+        }
+        final int read = (int) Math.min(length, this.content.length - position);
+        System.arraycopy(this.content, (int) position, target, offset, read);
+        return read;
+    }
+
     @Override
     public void close() {
         // Do nothing
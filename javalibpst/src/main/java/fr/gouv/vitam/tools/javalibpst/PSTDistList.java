@@ -265,7 +265,9 @@ public class PSTDistList extends PSTMessage {
      *         or a PSTObject, generally PSTContact.
      */
     public Object[] getDistributionListMembers() throws PSTException, IOException {
-        final PSTTableBCItem item = this.items.get(this.pstFile.getNameToIdMapItem(0x8055, PSTFile.PSETID_Address));
+        final PSTTableBCItem item = this.table.getItem(
+            this.pstFile.getNameToIdMapItem(0x8055, PSTFile.PSETID_Address)
+        );
         Object[] out = {};
         if (item != null) {
             int pos = 0;
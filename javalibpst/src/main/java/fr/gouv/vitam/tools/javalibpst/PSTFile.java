@@ -106,6 +106,7 @@ public class PSTFile {
 
     // our all important tree.
     private LinkedHashMap<Integer, LinkedList<DescriptorIndexNode>> childrenDescriptorTree = null;
+    private final Object childrenDescriptorTreeLock = new Object();
 
     private final HashMap<Long, Integer> nameToId = new HashMap<>();
     private final HashMap<String, Integer> stringToId = new HashMap<>();
@@ -117,6 +118,17 @@ public class PSTFile {
 
     private final PSTFileContent in;
 
+    // B-Tree root pages offsets, read once at open time
+    private long offsetBtreeRootOffset;
+    private long descriptorBtreeRootOffset;
+
+    // in memory offset index, if loaded, used instead of offset B-Tree lookups
+    private volatile PSTOffsetIndex offsetIndex = null;
+
+    // cache of B-Tree pages used by offset and descriptor index lookups
+    private final PSTBtreePageCache btreePageCache = new PSTBtreePageCache(PSTBtreePageCache.DEFAULT_MAX_BYTES);
+    private final PSTBlockPrefetchBuffer blockPrefetchBuffer = new PSTBlockPrefetchBuffer();
+
     /**
      * constructor
      *
@@ -171,56 +183,62 @@ public class PSTFile {
         this.in = content;
 
         // get the first 4 bytes, should be !BDN
-        synchronized (in) {
-            try {
-                final byte[] temp = new byte[4];
-                this.in.seek(0);
-                this.in.readCompletely(temp);
-                final String strValue = new String(temp);
-                if (!strValue.equals("!BDN")) {
-                    throw new PSTException("Invalid file header: " + strValue + ", expected: !BDN");
-                }
+        try {
+            final byte[] temp = new byte[4];
+            this.in.readCompletely(0, temp);
+            final String strValue = new String(temp);
+            if (!strValue.equals("!BDN")) {
+                throw new PSTException("Invalid file header: " + strValue + ", expected: !BDN");
+            }
 
-                // make sure we are using a supported version of a PST...
-                final byte[] fileTypeBytes = new byte[2];
-                this.in.seek(10);
-                this.in.readCompletely(fileTypeBytes);
-                // ANSI file types can be 14 or 15:
-                if (fileTypeBytes[0] == PSTFile.PST_TYPE_ANSI_2) {
-                    fileTypeBytes[0] = PSTFile.PST_TYPE_ANSI;
-                }
-                if (
-                    fileTypeBytes[0] != PSTFile.PST_TYPE_ANSI &&
-                    fileTypeBytes[0] != PSTFile.PST_TYPE_UNICODE &&
-                    fileTypeBytes[0] != PSTFile.PST_TYPE_2013_UNICODE
-                ) {
-                    throw new PSTException("Unrecognised PST File version: " + fileTypeBytes[0]);
-                }
-                this.pstFileType = fileTypeBytes[0];
+            // make sure we are using a supported version of a PST...
+            final byte[] fileTypeBytes = new byte[2];
+            this.in.readCompletely(10, fileTypeBytes);
+            // ANSI file types can be 14 or 15:
+            if (fileTypeBytes[0] == PSTFile.PST_TYPE_ANSI_2) {
+                fileTypeBytes[0] = PSTFile.PST_TYPE_ANSI;
+            }
+            if (
+                fileTypeBytes[0] != PSTFile.PST_TYPE_ANSI &&
+                fileTypeBytes[0] != PSTFile.PST_TYPE_UNICODE &&
+                fileTypeBytes[0] != PSTFile.PST_TYPE_2013_UNICODE
+            ) {
+                throw new PSTException("Unrecognised PST File version: " + fileTypeBytes[0]);
+            }
+            this.pstFileType = fileTypeBytes[0];
 
-                // make sure encryption is turned off at this stage...
-                if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                    this.in.seek(461);
-                } else {
-                    this.in.seek(513);
-                }
-                this.encryptionType = this.in.readByte();
-                if (this.encryptionType == 0x02) {
-                    throw new PSTException("Only unencrypted and compressable PST files are supported at this time");
-                }
+            // make sure encryption is turned off at this stage...
+            final byte[] encryptionTypeBytes = new byte[1];
+            if (this.getPSTFileType() == PST_TYPE_ANSI) {
+                this.in.readCompletely(461, encryptionTypeBytes);
+            } else {
+                this.in.readCompletely(513, encryptionTypeBytes);
+            }
+            this.encryptionType = encryptionTypeBytes[0];
+            if (this.encryptionType == 0x02) {
+                throw new PSTException("Only unencrypted and compressable PST files are supported at this time");
+            }
 
-                // build out name to id map.
-                this.processNameToIdMap(this.in);
-
-                // get the default codepage
-                globalCodepage = inferGlobalCodepage();
-            } catch (final IOException err) {
-                if (closeFileContant) this.in.close();
-                throw new PSTException("Unable to read PST Sig", err);
-            } catch (Exception overException) {
-                if (closeFileContant) this.in.close();
-                throw overException;
+            // find the B-Tree roots
+            if (this.getPSTFileType() == PST_TYPE_ANSI) {
+                this.offsetBtreeRootOffset = this.extractLEFileOffset(196);
+                this.descriptorBtreeRootOffset = this.extractLEFileOffset(188);
+            } else {
+                this.offsetBtreeRootOffset = this.extractLEFileOffset(240);
+                this.descriptorBtreeRootOffset = this.extractLEFileOffset(224);
             }
+
+            // build out name to id map.
+            this.processNameToIdMap(this.in);
+
+            // get the default codepage
+            globalCodepage = inferGlobalCodepage();
+        } catch (final IOException err) {
+            if (closeFileContant) this.in.close();
+            throw new PSTException("Unable to read PST Sig", err);
+        } catch (Exception overException) {
+            if (closeFileContant) this.in.close();
+            throw overException;
         }
     }
 
@@ -294,7 +312,7 @@ public class PSTFile {
         //nodein.readCompletely(tmp);
         final PSTTableBC bcTable = new PSTTableBC(nodein);
 
-        final HashMap<Integer, PSTTableBCItem> tableItems = (bcTable.getItems());
+        final Map<Integer, PSTTableBCItem> tableItems = (bcTable.getItems());
         // Get the guids
         final PSTTableBCItem guidEntry = tableItems.get(2); // PidTagNameidStreamGuid
         this.guids = this.getData(guidEntry, localDescriptorItems);
@@ -608,10 +626,7 @@ public class PSTFile {
 
         // we only need the first 8 bytes
         final byte[] data = new byte[8];
-        synchronized (in) {
-            this.in.seek(offsetItem.fileOffset);
-            this.in.readCompletely(data);
-        }
+        this.readBlockCompletely(offsetItem.fileOffset, data);
 
         // we are an array, get the sum of the sizes...
         return (int) PSTObject.convertLittleEndianBytesToLong(data, 4, 8);
@@ -628,31 +643,190 @@ public class PSTFile {
      * @throws IOException the io exception
      */
     private long extractLEFileOffset(final long startOffset) throws IOException {
-        long offset = 0;
+        final byte[] temp;
         if (this.getPSTFileType() == PSTFile.PST_TYPE_ANSI) {
-            this.in.seek(startOffset);
-            final byte[] temp = new byte[4];
-            this.in.readCompletely(temp);
-            offset |= temp[3] & 0xff;
-            offset <<= 8;
-            offset |= temp[2] & 0xff;
-            offset <<= 8;
-            offset |= temp[1] & 0xff;
-            offset <<= 8;
-            offset |= temp[0] & 0xff;
+            temp = new byte[4];
         } else {
-            this.in.seek(startOffset);
-            final byte[] temp = new byte[8];
-            this.in.readCompletely(temp);
-            offset = temp[7] & 0xff;
-            long tmpLongValue;
-            for (int x = 6; x >= 0; x--) {
-                offset = offset << 8;
-                tmpLongValue = (long) temp[x] & 0xff;
-                offset |= tmpLongValue;
-            }
+            temp = new byte[8];
+        }
+        this.in.readCompletely(startOffset, temp);
+        return PSTObject.convertLittleEndianBytesToLong(temp);
+    }
+
+    /**
+     * Read a file offset from a B-Tree page already in memory
+     *
+     * @param page   the page data
+     * @param offset where to read the 4 or 8 bytes from in the page
+     * @return long representing the read location
+     */
+    private long extractLEFileOffset(final byte[] page, final int offset) {
+        if (this.getPSTFileType() == PSTFile.PST_TYPE_ANSI) {
+            return PSTObject.convertLittleEndianBytesToLong(page, offset, offset + 4);
         }
-        return offset;
+        return PSTObject.convertLittleEndianBytesToLong(page, offset, offset + 8);
+    }
+
+    /**
+     * Read a whole B-Tree page (512 bytes, or 4096 bytes for 2013 unicode files)
+     * with one positional read.
+     *
+     * @param pageOffset the page file offset
+     * @return the page data
+     * @throws IOException the io exception
+     */
+    private byte[] readBtreePage(final long pageOffset) throws IOException {
+        final byte[] page;
+        if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
+            page = new byte[0x1000];
+        } else {
+            page = new byte[512];
+        }
+        this.in.readCompletely(pageOffset, page);
+        return page;
+    }
+
+    /**
+     * Get a B-Tree page from the page cache, or read it and put it in cache.
+     *
+     * @param pageOffset the page file offset
+     * @return the page data
+     * @throws IOException the io exception
+     */
+    private byte[] getBtreePage(final long pageOffset) throws IOException {
+        byte[] page = this.btreePageCache.get(pageOffset);
+        if (page == null) {
+            page = this.readBtreePage(pageOffset);
+            this.btreePageCache.put(pageOffset, page);
+        }
+        return page;
+    }
+
+    /**
+     * Gets the byte budget of the B-Tree page cache.
+     *
+     * @return the max bytes
+     */
+    public long getBtreePageCacheMaxBytes() {
+        return this.btreePageCache.getMaxBytes();
+    }
+
+    /**
+     * Sets the byte budget of the B-Tree page cache, 0 disables the cache.
+     *
+     * @param maxBytes the max bytes
+     */
+    public void setBtreePageCacheMaxBytes(final long maxBytes) {
+        this.btreePageCache.setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Gets the number of B-Tree page lookups served from the page cache.
+     *
+     * @return the hits count
+     */
+    public long getBtreePageCacheHits() {
+        return this.btreePageCache.getHits();
+    }
+
+    /**
+     * Gets the number of B-Tree page lookups that needed a file read.
+     *
+     * @return the misses count
+     */
+    public long getBtreePageCacheMisses() {
+        return this.btreePageCache.getMisses();
+    }
+
+    PSTBlockPrefetchBuffer getBlockPrefetchBuffer() {
+        return this.blockPrefetchBuffer;
+    }
+
+    /**
+     * Gets the number of block reads served from spans read ahead by a {@link PSTMessagePrefetcher}.
+     *
+     * @return the hits count
+     */
+    public long getBlockPrefetchHits() {
+        return this.blockPrefetchBuffer.getHits();
+    }
+
+    /**
+     * Read bytes of data blocks at an absolute position, from the prefetched spans if possible.
+     *
+     * @param position the absolute position in the file
+     * @param target   the buffer to fill
+     * @param offset   the start offset in the buffer
+     * @param length   the maximum number of bytes to read
+     * @return the number of bytes read, or -1 if the position is at or beyond the end of content
+     * @throws IOException the io exception
+     */
+    int readBlock(final long position, final byte[] target, final int offset, final int length) throws IOException {
+        if (this.blockPrefetchBuffer.read(position, target, offset, length)) {
+            return length;
+        }
+        return this.in.read(position, target, offset, length);
+    }
+
+    /**
+     * Read bytes of data blocks at an absolute position, trying to fill the given part of the buffer,
+     * from the prefetched spans if possible.
+     *
+     * @param position the absolute position in the file
+     * @param target   the buffer to fill
+     * @param offset   the start offset in the buffer
+     * @param length   the number of bytes to read
+     * @throws IOException the io exception
+     */
+    void readBlockCompletely(final long position, final byte[] target, final int offset, final int length)
+        throws IOException {
+        if (!this.blockPrefetchBuffer.read(position, target, offset, length)) {
+            this.in.readCompletely(position, target, offset, length);
+        }
+    }
+
+    void readBlockCompletely(final long position, final byte[] target) throws IOException {
+        this.readBlockCompletely(position, target, 0, target.length);
+    }
+
+    /**
+     * Offset of the page type byte in a B-Tree page
+     */
+    private int getBtreePageTypeOffset() {
+        if (this.getPSTFileType() == PST_TYPE_ANSI) {
+            return 500;
+        } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
+            return 0x1000 - 24;
+        }
+        return 496;
+    }
+
+    /**
+     * Offset of the items count in a B-Tree page, after the entries area
+     */
+    private int getBtreePageTrailerOffset() {
+        if (this.getPSTFileType() == PST_TYPE_ANSI) {
+            return 496;
+        } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
+            return 4056;
+        }
+        return 488;
+    }
+
+    private int getBtreePageNumberOfItems(final byte[] page) {
+        final int trailer = this.getBtreePageTrailerOffset();
+        if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
+            return (int) PSTObject.convertLittleEndianBytesToLong(page, trailer, trailer + 2);
+        }
+        return page[trailer] & 0xff;
+    }
+
+    private int getBtreePageLevelsToLeaf(final byte[] page) {
+        final int trailer = this.getBtreePageTrailerOffset();
+        if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
+            return page[trailer + 5] & 0xff;
+        }
+        return page[trailer + 3] & 0xff;
     }
 
     /**
@@ -668,182 +842,66 @@ public class PSTFile {
      */
     private byte[] findBtreeItem(final PSTFileContent in, final long index, final boolean descTree)
         throws IOException, PSTException {
-        synchronized (in) {
-            long btreeStartOffset;
-            int fileTypeAdjustment;
-            // first find the starting point for the offset index
-            if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                btreeStartOffset = this.extractLEFileOffset(196);
-                if (descTree) {
-                    btreeStartOffset = this.extractLEFileOffset(188);
+        // first find the starting point for the offset index
+        long btreeStartOffset = descTree ? this.descriptorBtreeRootOffset : this.offsetBtreeRootOffset;
+
+        final boolean ansi = this.getPSTFileType() == PST_TYPE_ANSI;
+        final int pageTypeOffset = this.getBtreePageTypeOffset();
+        // branch entries are (key, block reference, child offset)
+        final int branchEntrySize = ansi ? 12 : 24;
+        final int branchChildOffset = ansi ? 8 : 16;
+
+        // okay, what we want to do is navigate the tree until you reach the
+        // bottom....
+        // try and read the index b-tree
+        byte[] page = this.getBtreePage(btreeStartOffset);
+        while (
+            (page[pageTypeOffset] == (byte) 0x80 && page[pageTypeOffset + 1] == (byte) 0x80 && !descTree) ||
+            (page[pageTypeOffset] == (byte) 0x81 && page[pageTypeOffset + 1] == (byte) 0x81 && descTree)
+        ) {
+            final int numberOfItems = this.getBtreePageNumberOfItems(page);
+            final int levelsToLeaf = this.getBtreePageLevelsToLeaf(page);
+
+            if (levelsToLeaf > 0) {
+                // the child is the last one with a first key lower or equal to the index,
+                // it must be in the very last branch if none is greater
+                int childItem = numberOfItems - 1;
+                for (int x = 0; x < numberOfItems; x++) {
+                    final long indexIdOfFirstChildNode = this.extractLEFileOffset(page, x * branchEntrySize);
+                    if (indexIdOfFirstChildNode > index) {
+                        childItem = Math.max(x - 1, 0);
+                        break;
+                    }
                 }
+                btreeStartOffset = this.extractLEFileOffset(page, childItem * branchEntrySize + branchChildOffset);
+                page = this.getBtreePage(btreeStartOffset);
             } else {
-                btreeStartOffset = this.extractLEFileOffset(240);
+                // we are at the bottom of the tree...
+                // we want to get our file offset!
+                final int leafEntrySize;
                 if (descTree) {
-                    btreeStartOffset = this.extractLEFileOffset(224);
-                }
-            }
-
-            // okay, what we want to do is navigate the tree until you reach the
-            // bottom....
-            // try and read the index b-tree
-            byte[] temp = new byte[2];
-            if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                fileTypeAdjustment = 500;
-            } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-                fileTypeAdjustment = 0x1000 - 24;
-            } else {
-                fileTypeAdjustment = 496;
-            }
-            in.seek(btreeStartOffset + fileTypeAdjustment);
-            in.readCompletely(temp);
-
-            while (
-                (temp[0] == 0xffffff80 && temp[1] == 0xffffff80 && !descTree) ||
-                (temp[0] == 0xffffff81 && temp[1] == 0xffffff81 && descTree)
-            ) {
-                // get the rest of the data....
-                byte[] branchNodeItems;
-                if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                    branchNodeItems = new byte[496];
-                } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-                    branchNodeItems = new byte[4056];
+                    leafEntrySize = ansi ? 16 : 32;
                 } else {
-                    branchNodeItems = new byte[488];
+                    leafEntrySize = ansi ? 12 : 24;
                 }
-                in.seek(btreeStartOffset);
-                in.readCompletely(branchNodeItems);
-
-                long numberOfItems = 0;
-                if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-                    final byte[] numberOfItemsBytes = new byte[2];
-                    in.readCompletely(numberOfItemsBytes);
-                    numberOfItems = PSTObject.convertLittleEndianBytesToLong(numberOfItemsBytes);
-                    in.readCompletely(numberOfItemsBytes);
-                    final long maxNumberOfItems = PSTObject.convertLittleEndianBytesToLong(numberOfItemsBytes);
-                } else {
-                    numberOfItems = in.read();
-                    in.read(); // maxNumberOfItems
-                }
-                final int itemSize = in.read(); // itemSize
-                final int levelsToLeaf = in.read();
-
-                if (levelsToLeaf > 0) {
-                    boolean found = false;
-                    for (long x = 0; x < numberOfItems; x++) {
-                        if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                            final long indexIdOfFirstChildNode = this.extractLEFileOffset(btreeStartOffset + (x * 12));
-                            if (indexIdOfFirstChildNode > index) {
-                                // get the address for the child first node in this
-                                // group
-                                btreeStartOffset = this.extractLEFileOffset(btreeStartOffset + ((x - 1) * 12) + 8);
-                                in.seek(btreeStartOffset + 500);
-                                in.readCompletely(temp);
-                                found = true;
-                                break;
-                            }
-                        } else {
-                            final long indexIdOfFirstChildNode = this.extractLEFileOffset(btreeStartOffset + (x * 24));
-                            if (indexIdOfFirstChildNode > index) {
-                                // get the address for the child first node in this
-                                // group
-                                btreeStartOffset = this.extractLEFileOffset(btreeStartOffset + ((x - 1) * 24) + 16);
-                                in.seek(btreeStartOffset + fileTypeAdjustment);
-                                in.readCompletely(temp);
-                                found = true;
-                                break;
-                            }
-                        }
-                    }
-                    if (!found) {
-                        // it must be in the very last branch...
-                        if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                            btreeStartOffset = this.extractLEFileOffset(
-                                    btreeStartOffset + ((numberOfItems - 1) * 12) + 8
-                                );
-                            in.seek(btreeStartOffset + 500);
-                            in.readCompletely(temp);
-                        } else {
-                            btreeStartOffset = this.extractLEFileOffset(
-                                    btreeStartOffset + ((numberOfItems - 1) * 24) + 16
-                                );
-                            in.seek(btreeStartOffset + fileTypeAdjustment);
-                            in.readCompletely(temp);
-                        }
+                for (int x = 0; x < numberOfItems; x++) {
+                    final int itemOffset = x * leafEntrySize;
+                    final long itemIdentifier;
+                    if (descTree) {
+                        // descriptor identifiers are always on 4 bytes
+                        itemIdentifier = PSTObject.convertLittleEndianBytesToLong(page, itemOffset, itemOffset + 4);
+                    } else {
+                        itemIdentifier = this.extractLEFileOffset(page, itemOffset);
                     }
-                } else {
-                    // System.out.println(String.format("At bottom, looking through
-                    // %d items", numberOfItems));
-                    // we are at the bottom of the tree...
-                    // we want to get our file offset!
-                    for (long x = 0; x < numberOfItems; x++) {
-                        if (this.getPSTFileType() == PSTFile.PST_TYPE_ANSI) {
-                            if (descTree) {
-                                // The 32-bit descriptor index b-tree leaf node item
-                                in.seek(btreeStartOffset + (x * 16));
-                                temp = new byte[4];
-                                in.readCompletely(temp);
-                                if (PSTObject.convertLittleEndianBytesToLong(temp) == index) {
-                                    // give me the offset index please!
-                                    in.seek(btreeStartOffset + (x * 16));
-                                    temp = new byte[16];
-                                    in.readCompletely(temp);
-                                    return temp;
-                                }
-                            } else {
-                                // The 32-bit (file) offset index item
-                                final long indexIdOfFirstChildNode =
-                                    this.extractLEFileOffset(btreeStartOffset + (x * 12));
-
-                                if (indexIdOfFirstChildNode == index) {
-                                    // we found it!!!! OMG
-                                    // System.out.println("item found as item #"+x);
-                                    in.seek(btreeStartOffset + (x * 12));
-
-                                    temp = new byte[12];
-                                    in.readCompletely(temp);
-                                    return temp;
-                                }
-                            }
-                        } else {
-                            if (descTree) {
-                                // The 64-bit descriptor index b-tree leaf node item
-                                in.seek(btreeStartOffset + (x * 32));
-
-                                temp = new byte[4];
-                                in.readCompletely(temp);
-                                if (PSTObject.convertLittleEndianBytesToLong(temp) == index) {
-                                    // give me the offset index please!
-                                    in.seek(btreeStartOffset + (x * 32));
-                                    temp = new byte[32];
-                                    in.readCompletely(temp);
-                                    // System.out.println("item found!!!");
-                                    // PSTObject.printHexFormatted(temp, true);
-                                    return temp;
-                                }
-                            } else {
-                                // The 64-bit (file) offset index item
-                                final long indexIdOfFirstChildNode =
-                                    this.extractLEFileOffset(btreeStartOffset + (x * 24));
-
-                                if (indexIdOfFirstChildNode == index) {
-                                    // we found it!!!! OMG
-                                    // System.out.println("item found as item #"+x +
-                                    // " size (should be 24): "+itemSize);
-                                    in.seek(btreeStartOffset + (x * 24));
-
-                                    temp = new byte[24];
-                                    in.readCompletely(temp);
-                                    return temp;
-                                }
-                            }
-                        }
+                    if (itemIdentifier == index) {
+                        // give me the offset index please!
+                        return Arrays.copyOfRange(page, itemOffset, itemOffset + leafEntrySize);
                     }
-                    throw new PSTException("Unable to find " + index + " is desc: " + descTree);
                 }
+                throw new PSTException("Unable to find " + index + " is desc: " + descTree);
             }
-            throw new PSTException("Unable to find node: " + index + " is desc: " + descTree);
         }
+        throw new PSTException("Unable to find node: " + index + " is desc: " + descTree);
     }
 
     /**
@@ -867,9 +925,137 @@ public class PSTFile {
      * @throws PSTException the pst exception
      */
     OffsetIndexItem getOffsetIndexNode(final long identifier) throws IOException, PSTException {
+        final PSTOffsetIndex index = this.offsetIndex;
+        if (index != null) {
+            final OffsetIndexItem item = index.find(identifier);
+            if (item == null) {
+                throw new PSTException("Unable to find " + identifier + " is desc: false");
+            }
+            return item;
+        }
         return new OffsetIndexItem(this.findBtreeItem(this.in, identifier, false), this.getPSTFileType());
     }
 
+    /**
+     * Load the whole offset index (block B-Tree) in memory, so that all following block lookups are done by
+     * binary search without any I/O.
+     * <p>
+     * This is meant for full store extraction, where almost every block is read anyway. Branch pages are read
+     * first, then all leaf pages in ascending file offset order. It costs about 20 bytes per block.
+     *
+     * @throws IOException  the io exception
+     * @throws PSTException the pst exception
+     */
+    public void loadOffsetIndexInMemory() throws IOException, PSTException {
+        if (this.offsetIndex != null) {
+            return;
+        }
+
+        // collect leaf pages in key order
+        final List<Long> leafOffsets = new ArrayList<>();
+        this.collectOffsetBtreeLeaves(this.offsetBtreeRootOffset, leafOffsets);
+
+        // read them in file order
+        final Integer[] readOrder = new Integer[leafOffsets.size()];
+        for (int i = 0; i < readOrder.length; i++) {
+            readOrder[i] = i;
+        }
+        Arrays.sort(readOrder, Comparator.comparing(leafOffsets::get));
+
+        final boolean ansi = this.getPSTFileType() == PST_TYPE_ANSI;
+        final int entrySize = ansi ? 12 : 24;
+        final long[][] leafIdentifiers = new long[readOrder.length][];
+        final long[][] leafFileOffsets = new long[readOrder.length][];
+        final int[][] leafSizes = new int[readOrder.length][];
+        int total = 0;
+        for (final int leaf : readOrder) {
+            final byte[] page = this.readBtreePage(leafOffsets.get(leaf));
+            final int numberOfItems = this.getBtreePageNumberOfItems(page);
+            leafIdentifiers[leaf] = new long[numberOfItems];
+            leafFileOffsets[leaf] = new long[numberOfItems];
+            leafSizes[leaf] = new int[numberOfItems];
+            for (int x = 0; x < numberOfItems; x++) {
+                final OffsetIndexItem item = new OffsetIndexItem(
+                    Arrays.copyOfRange(page, x * entrySize, (x + 1) * entrySize),
+                    this.getPSTFileType()
+                );
+                leafIdentifiers[leaf][x] = item.indexIdentifier;
+                leafFileOffsets[leaf][x] = item.fileOffset;
+                leafSizes[leaf][x] = item.size;
+            }
+            total += numberOfItems;
+        }
+
+        // and concatenate them in key order
+        final long[] identifiers = new long[total];
+        final long[] fileOffsets = new long[total];
+        final int[] sizes = new int[total];
+        int pos = 0;
+        for (int leaf = 0; leaf < readOrder.length; leaf++) {
+            final int count = leafIdentifiers[leaf].length;
+            System.arraycopy(leafIdentifiers[leaf], 0, identifiers, pos, count);
+            System.arraycopy(leafFileOffsets[leaf], 0, fileOffsets, pos, count);
+            System.arraycopy(leafSizes[leaf], 0, sizes, pos, count);
+            pos += count;
+        }
+
+        if (!PSTOffsetIndex.isSorted(identifiers)) {
+            if (PSTFile.isPrintErrors()) System.err.println(
+                "Offset index B-Tree is not sorted, in memory offset index is not used"
+            );
+            return;
+        }
+        this.offsetIndex = new PSTOffsetIndex(identifiers, fileOffsets, sizes);
+    }
+
+    /**
+     * Checks if the offset index is loaded in memory.
+     *
+     * @return true if loaded
+     */
+    public boolean isOffsetIndexInMemory() {
+        return this.offsetIndex != null;
+    }
+
+    /**
+     * Recursive function collecting the offset B-Tree leaf pages, used by
+     * loadOffsetIndexInMemory
+     *
+     * @param btreeStartOffset the BTree page offset
+     * @param leafOffsets      the leaf page offsets list to complete
+     * @throws IOException  the io exception
+     * @throws PSTException the pst exception
+     */
+    private void collectOffsetBtreeLeaves(final long btreeStartOffset, final List<Long> leafOffsets)
+        throws IOException, PSTException {
+        final byte[] page = this.getBtreePage(btreeStartOffset);
+        final int pageTypeOffset = this.getBtreePageTypeOffset();
+        if (page[pageTypeOffset] != (byte) 0x80 || page[pageTypeOffset + 1] != (byte) 0x80) {
+            throw new PSTException("Unable to read offset index node, is not an offset index node");
+        }
+        final int levelsToLeaf = this.getBtreePageLevelsToLeaf(page);
+        if (levelsToLeaf == 0) {
+            // only if the root is a leaf
+            leafOffsets.add(btreeStartOffset);
+            return;
+        }
+        final int numberOfItems = this.getBtreePageNumberOfItems(page);
+        for (int x = 0; x < numberOfItems; x++) {
+            final long childOffset;
+            if (this.getPSTFileType() == PST_TYPE_ANSI) {
+                childOffset = this.extractLEFileOffset(page, (12 * x) + 8);
+            } else {
+                childOffset = this.extractLEFileOffset(page, (24 * x) + 16);
+            }
+            // leaves are not read here, but later in file order
+            if (levelsToLeaf == 1) {
+                leafOffsets.add(childOffset);
+            } else {
+                this.collectOffsetBtreeLeaves(childOffset, leafOffsets);
+            }
+        }
+    }
+
     /**
      * parse a PSTDescriptor and get all of its items
      */
@@ -934,16 +1120,10 @@ public class PSTFile {
      * @throws PSTException the pst exception
      */
     LinkedHashMap<Integer, LinkedList<DescriptorIndexNode>> getChildDescriptorTree() throws IOException, PSTException {
-        synchronized (in) {
+        synchronized (this.childrenDescriptorTreeLock) {
             if (this.childrenDescriptorTree == null) {
-                long btreeStartOffset = 0;
-                if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                    btreeStartOffset = this.extractLEFileOffset(188);
-                } else {
-                    btreeStartOffset = this.extractLEFileOffset(224);
-                }
                 this.childrenDescriptorTree = new LinkedHashMap<>();
-                this.processDescriptorBTree(btreeStartOffset);
+                this.processDescriptorBTree(this.descriptorBtreeRootOffset);
             }
         }
         return this.childrenDescriptorTree;
@@ -958,66 +1138,33 @@ public class PSTFile {
      * @throws PSTException the pst exception
      */
     private void processDescriptorBTree(final long btreeStartOffset) throws IOException, PSTException {
-        int fileTypeAdjustment;
+        // full scan, pages are not kept in cache not to evict the ones used by lookups
+        final byte[] page = this.readBtreePage(btreeStartOffset);
+        final int pageTypeOffset = this.getBtreePageTypeOffset();
 
-        byte[] temp = new byte[2];
-        if (this.getPSTFileType() == PST_TYPE_ANSI) {
-            fileTypeAdjustment = 500;
-        } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-            fileTypeAdjustment = 0x1000 - 24;
-        } else {
-            fileTypeAdjustment = 496;
-        }
-        this.in.seek(btreeStartOffset + fileTypeAdjustment);
-        this.in.readCompletely(temp);
-
-        if ((temp[0] == 0xffffff81 && temp[1] == 0xffffff81)) {
-            if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                this.in.seek(btreeStartOffset + 496);
-            } else if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-                this.in.seek(btreeStartOffset + 4056);
-            } else {
-                this.in.seek(btreeStartOffset + 488);
-            }
-
-            long numberOfItems = 0;
-            if (this.getPSTFileType() == PST_TYPE_2013_UNICODE) {
-                final byte[] numberOfItemsBytes = new byte[2];
-                this.in.readCompletely(numberOfItemsBytes);
-                numberOfItems = PSTObject.convertLittleEndianBytesToLong(numberOfItemsBytes);
-                this.in.readCompletely(numberOfItemsBytes);
-                final long maxNumberOfItems = PSTObject.convertLittleEndianBytesToLong(numberOfItemsBytes);
-            } else {
-                numberOfItems = this.in.read();
-                this.in.read(); // maxNumberOfItems
-            }
-            this.in.read(); // itemSize
-            final int levelsToLeaf = this.in.read();
+        if ((page[pageTypeOffset] == (byte) 0x81 && page[pageTypeOffset + 1] == (byte) 0x81)) {
+            final int numberOfItems = this.getBtreePageNumberOfItems(page);
+            final int levelsToLeaf = this.getBtreePageLevelsToLeaf(page);
 
             if (levelsToLeaf > 0) {
-                for (long x = 0; x < numberOfItems; x++) {
+                for (int x = 0; x < numberOfItems; x++) {
                     if (this.getPSTFileType() == PST_TYPE_ANSI) {
-                        final long branchNodeItemStartIndex = (btreeStartOffset + (12 * x));
-                        final long nextLevelStartsAt = this.extractLEFileOffset(branchNodeItemStartIndex + 8);
+                        final long nextLevelStartsAt = this.extractLEFileOffset(page, (12 * x) + 8);
                         this.processDescriptorBTree(nextLevelStartsAt);
                     } else {
-                        final long branchNodeItemStartIndex = (btreeStartOffset + (24 * x));
-                        final long nextLevelStartsAt = this.extractLEFileOffset(branchNodeItemStartIndex + 16);
+                        final long nextLevelStartsAt = this.extractLEFileOffset(page, (24 * x) + 16);
                         this.processDescriptorBTree(nextLevelStartsAt);
                     }
                 }
             } else {
-                for (long x = 0; x < numberOfItems; x++) {
+                for (int x = 0; x < numberOfItems; x++) {
                     // The 64-bit descriptor index b-tree leaf node item
                     // give me the offset index please!
+                    final byte[] temp;
                     if (this.getPSTFileType() == PSTFile.PST_TYPE_ANSI) {
-                        this.in.seek(btreeStartOffset + (x * 16));
-                        temp = new byte[16];
-                        this.in.readCompletely(temp);
+                        temp = Arrays.copyOfRange(page, x * 16, (x + 1) * 16);
                     } else {
-                        this.in.seek(btreeStartOffset + (x * 32));
-                        temp = new byte[32];
-                        this.in.readCompletely(temp);
+                        temp = Arrays.copyOfRange(page, x * 32, (x + 1) * 32);
                     }
 
                     final DescriptorIndexNode tempNode = new DescriptorIndexNode(temp, this.getPSTFileType());
@@ -1040,12 +1187,13 @@ public class PSTFile {
                 }
             }
         } else {
-            PSTObject.printHexFormatted(temp, true);
+            PSTObject.printHexFormatted(Arrays.copyOfRange(page, pageTypeOffset, pageTypeOffset + 2), true);
             throw new PSTException("Unable to read descriptor node, is not a descriptor");
         }
     }
 
     public void close() throws IOException {
+        this.btreePageCache.clear();
         this.in.close();
     }
 
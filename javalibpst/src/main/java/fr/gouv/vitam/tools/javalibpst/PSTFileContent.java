@@ -77,6 +77,70 @@ public abstract class PSTFileContent {
 
     public abstract byte readByte() throws IOException;
 
+    /**
+     * Read bytes at an absolute position in the content, without relying on the shared file pointer.
+     * <p>
+     * This default implementation seeks and reads under the content lock, so it is safe but serialized.
+     * Sub-classes able to do positional reads (file channel, memory mapping, byte array...) override it
+     * so that concurrent readers never contend for the file pointer.
+     *
+     * @param position the absolute position in the content
+     * @param target   the buffer to fill
+     * @param offset   the start offset in the buffer
+     * @param length   the maximum number of bytes to read
+     * @return the number of bytes read, or -1 if the position is at or beyond the end of content
+     * @throws IOException the io exception
+     */
+    public int read(final long position, final byte[] target, final int offset, final int length)
+        throws IOException {
+        synchronized (this) {
+            this.seek(position);
+            if ((offset == 0) && (length == target.length)) {
+                return this.read(target);
+            }
+            final byte[] buffer = new byte[length];
+            final int read = this.read(buffer);
+            if (read > 0) {
+                System.arraycopy(buffer, 0, target, offset, read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Read bytes at an absolute position in the content, trying to fill the given part of the buffer.
+     * <p>
+     * As {@link #readCompletely(byte[])}, it silently stops at the end of content.
+     *
+     * @param position the absolute position in the content
+     * @param target   the buffer to fill
+     * @param offset   the start offset in the buffer
+     * @param length   the number of bytes to read
+     * @throws IOException the io exception
+     */
+    public final void readCompletely(final long position, final byte[] target, final int offset, final int length)
+        throws IOException {
+        int done = 0;
+        while (done < length) {
+            final int read = this.read(position + done, target, offset + done, length - done);
+            if (read <= 0) {
+                break;
+            }
+            done += read;
+        }
+    }
+
+    /**
+     * Read bytes at an absolute position in the content, trying to fill the whole buffer.
+     *
+     * @param position the absolute position in the content
+     * @param target   the buffer to fill
+     * @throws IOException the io exception
+     */
+    public final void readCompletely(final long position, final byte[] target) throws IOException {
+        this.readCompletely(position, target, 0, target.length);
+    }
+
     public abstract void close() throws IOException;
     /**
      * Audit the code execution to better understand calls to `seek` and `read` operations
@@ -84,23 +148,12 @@ public abstract class PSTFileContent {
      * blocks where necessary, at lowest level.
      *
      * Actions Taken:
-     * - In the `PSTFile` class, the `synchronized(PSTFileContent)` block has already been applied to:
-     *     - `findBtreeItem`,
-     *     - `getLeafSize`,
-     *     - `getChildDescriptorTree`.
-     *
-     * - Synchronization has NOT been added to:
-     *     - `processDescriptorBTree` (private, only called by `getChildDescriptorTree`),
-     *     - `extractLEFileOffset` (private, only called by `findBtreeItem`, `processDescriptorBTree` and `getChildDescriptorTree`).
+     * - All `PSTFile` and `PSTNodeInputStream` accesses to the content are done through positional
+     *   reads (`read(long, byte[], int, int)` and `readCompletely(long, byte[]...)`), which never use
+     *   the shared file pointer, so there is no more `synchronized(PSTFileContent)` block in the parser.
      *
-     * - In the `PSTNodeInputStream` class, the `synchronized(PSTFileContent)` block
-     *   has already been added to:
-     *     - `loadFromOffsetItem`,
-     *     - `getBlockSkipPoints`,
-     *     - `detectZlib`,
-     *     - `read`.
-     * - Synchronization has NOT been added to:
-     *     - `seek` (not needed, as the last unused call to `PSTFileContent.seek` has already been removed).
+     * - `seek` and sequential `read` calls are only kept for external users of the content and for the
+     *   default positional read implementation, which synchronizes on the content itself.
      *
 
      HashMap<String, Boolean> traceLines = new HashMap<String, Boolean>();
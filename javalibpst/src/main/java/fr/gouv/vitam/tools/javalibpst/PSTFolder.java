@@ -38,6 +38,7 @@
 package fr.gouv.vitam.tools.javalibpst;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -99,13 +100,9 @@ public class PSTFolder extends PSTObject {
         final Vector<PSTFolder> output = new Vector<>();
         try {
             this.initSubfoldersTable();
-            final List<HashMap<Integer, PSTTable7CItem>> itemMapSet = this.subfoldersTable.getItems();
-            for (final HashMap<Integer, PSTTable7CItem> itemMap : itemMapSet) {
-                final PSTTable7CItem item = itemMap.get(26610);
-                final PSTFolder folder = (PSTFolder) PSTObject.detectAndLoadPSTObject(
-                    this.pstFile,
-                    item.entryValueReference
-                );
+            final int[] rowIds = this.subfoldersTable.getRowIds(-1, -1);
+            for (final int rowId : rowIds) {
+                final PSTFolder folder = (PSTFolder) PSTObject.detectAndLoadPSTObject(this.pstFile, rowId);
                 output.add(folder);
             }
         } catch (final PSTException err) {
@@ -274,18 +271,15 @@ public class PSTFolder extends PSTObject {
 
         final Vector<PSTObject> output = new Vector<>();
         if (this.emailsTable != null) {
-            final List<HashMap<Integer, PSTTable7CItem>> rows =
-                this.emailsTable.getItems(this.currentEmailIndex, numberToReturn);
+            final int[] rowIds = this.emailsTable.getRowIds(this.currentEmailIndex, numberToReturn);
 
-            for (int x = 0; x < rows.size(); x++) {
+            for (int x = 0; x < rowIds.length; x++) {
                 if (this.currentEmailIndex >= this.getContentCount()) {
                     // no more!
                     break;
                 }
                 // get the emails from the rows
-                final PSTTable7CItem emailRow = rows.get(x).get(0x67F2);
-                final DescriptorIndexNode childDescriptor =
-                    this.pstFile.getDescriptorIndexNode(emailRow.entryValueReference);
+                final DescriptorIndexNode childDescriptor = this.pstFile.getDescriptorIndexNode(rowIds[x]);
                 final PSTObject child = PSTObject.detectAndLoadPSTObject(this.pstFile, childDescriptor);
                 output.add(child);
                 this.currentEmailIndex++;
@@ -322,22 +316,78 @@ public class PSTFolder extends PSTObject {
             return new LinkedList<>();
         }
         final LinkedList<Integer> output = new LinkedList<>();
-        final List<HashMap<Integer, PSTTable7CItem>> rows = this.emailsTable.getItems();
-        for (final HashMap<Integer, PSTTable7CItem> row : rows) {
+        final int[] rowIds = this.emailsTable.getRowIds(-1, -1);
+        for (final int rowId : rowIds) {
             // get the emails from the rows
             if (this.currentEmailIndex == this.getContentCount()) {
                 // no more!
                 break;
             }
-            final PSTTable7CItem emailRow = row.get(0x67F2);
-            if (emailRow.entryValueReference == 0) {
+            if (rowId == 0) {
                 break;
             }
-            output.add(emailRow.entryValueReference);
+            output.add(rowId);
+        }
+        return output;
+    }
+
+    /**
+     * Gets the descriptor identifiers of all the children items of this folder,
+     * in the same order and within the same limits as the {@link #getNextChild()} cursor.
+     * <p>
+     * Contrary to the cursor operations, no child object is loaded and the folder
+     * cursor is not moved, so that the children can then be loaded independently,
+     * and concurrently, with {@link PSTObject#detectAndLoadPSTObject(PSTFile, long)}.
+     *
+     * @return the child descriptor identifiers
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    public List<Integer> getChildDescriptorIdentifiers() throws PSTException, IOException {
+        this.initEmailsTable();
+
+        final List<Integer> output = new ArrayList<>();
+        final int contentCount = this.getContentCount();
+        if (this.emailsTable != null) {
+            final int[] rowIds = this.emailsTable.getRowIds(-1, -1);
+            for (final int rowId : rowIds) {
+                if (output.size() >= contentCount) {
+                    // no more!
+                    break;
+                }
+                if (rowId == 0) {
+                    continue;
+                }
+                output.add(rowId);
+            }
+        } else if (this.fallbackEmailsTable != null) {
+            for (final DescriptorIndexNode childDescriptor : this.fallbackEmailsTable) {
+                if (output.size() >= contentCount) {
+                    // no more!
+                    break;
+                }
+                output.add(childDescriptor.descriptorIdentifier);
+            }
         }
         return output;
     }
 
+    /**
+     * Gets a cursor on all the children items of this folder, loading them by batches with a read
+     * ahead of their data blocks in file order.
+     * <p>
+     * The children are the same as with {@link #getChildDescriptorIdentifiers()}, and the folder
+     * cursor is not moved.
+     *
+     * @param batchSize the number of children prefetched together
+     * @return the prefetching cursor
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    public PSTMessagePrefetcher getChildrenPrefetcher(final int batchSize) throws PSTException, IOException {
+        return new PSTMessagePrefetcher(this.pstFile, this.getChildDescriptorIdentifiers(), batchSize);
+    }
+
     /**
      * Get the next child of this folder
      * As there could be thousands of emails, we have these kind of cursor
@@ -351,7 +401,7 @@ public class PSTFolder extends PSTObject {
         this.initEmailsTable();
 
         if (this.emailsTable != null) {
-            final List<HashMap<Integer, PSTTable7CItem>> rows = this.emailsTable.getItems(this.currentEmailIndex, 1);
+            final int[] rowIds = this.emailsTable.getRowIds(this.currentEmailIndex, 1);
 
             if (this.currentEmailIndex == this.getContentCount()) {
                 // no more!
@@ -359,9 +409,7 @@ public class PSTFolder extends PSTObject {
             }
             this.currentEmailIndex++;
             // get the emails from the rows
-            final PSTTable7CItem emailRow = rows.get(0).get(0x67F2);
-            final DescriptorIndexNode childDescriptor =
-                this.pstFile.getDescriptorIndexNode(emailRow.entryValueReference);
+            final DescriptorIndexNode childDescriptor = this.pstFile.getDescriptorIndexNode(rowIds[0]);
             final PSTObject child = PSTObject.detectAndLoadPSTObject(this.pstFile, childDescriptor);
 
             return child;
@@ -0,0 +1,184 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * PSTFileContent implementation backed by read-only memory mapping of the file.
+ * <p>
+ * The file is mapped in fixed size windows, as a mapped buffer can't exceed 2GB. Positional reads only use
+ * independent views on these windows, so they need no lock and can be done concurrently by any number of
+ * threads. Reading a mapped window is not interruptible, so cancelling a reading thread can't close the content
+ * under the other ones. The sequential seek/read API keeps its own file pointer and, as in other implementations, is not
+ * thread safe.
+ * <p>
+ * Mapped windows are released by the garbage collector, not by {@link #close()}.
+ */
+public class PSTMappedFileContent extends PSTFileContent {
+
+    /**
+     * Default size of each mapped window (1GB).
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer[] windows;
+    private final int windowSize;
+    private final long length;
+    private long index;
+
+    /**
+     * Instantiates a new memory mapped content on the given file, with default window size.
+     *
+     * @param file the file
+     * @throws IOException the io exception
+     */
+    public PSTMappedFileContent(final File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Instantiates a new memory mapped content on the given file.
+     *
+     * @param file       the file
+     * @param windowSize the size of each mapped window
+     * @throws IOException the io exception
+     */
+    public PSTMappedFileContent(final File file, final int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Mapped window size must be positive");
+        }
+        this.file = new RandomAccessFile(file, "r");
+        this.windowSize = windowSize;
+        try {
+            final FileChannel channel = this.file.getChannel();
+            this.length = channel.size();
+            final int windowCount = (int) ((this.length + windowSize - 1) / windowSize);
+            this.windows = new MappedByteBuffer[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                final long start = (long) i * windowSize;
+                this.windows[i] = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    start,
+                    Math.min(windowSize, this.length - start)
+                );
+            }
+        } catch (final IOException e) {
+            this.file.close();
+            throw e;
+        }
+        this.index = 0;
+    }
+
+    /**
+     * Gets the content length.
+     *
+     * @return the length
+     */
+    public long length() {
+        return this.length;
+    }
+
+    @Override
+    public void seek(final long index) {
+        this.index = index;
+    }
+
+    @Override
+    public long getFilePointer() {
+        return this.index;
+    }
+
+    @Override
+    public int read() {
+        if (this.index >= this.length) {
+            return -1;
+        }
+        return this.byteAt(this.index++) & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] target) {
+        final int read = this.read(this.index, target, 0, target.length);
+        if (read > 0) {
+            this.index += read;
+        }
+        return read;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        if (this.index >= this.length) {
+            throw new IOException("End of mapped PST content reached");
+        }
+        return this.byteAt(this.index++);
+    }
+
+    @Override
+    public int read(final long position, final byte[] target, final int offset, final int length) {
+        if (position >= this.length) {
+            return -1;
+        }
+        final int toRead = (int) Math.min(length, this.length - position);
+        int done = 0;
+        while (done < toRead) {
+            final long current = position + done;
+            final ByteBuffer view = this.windows[(int) (current / this.windowSize)].duplicate();
+            view.position((int) (current % this.windowSize));
+            final int chunk = Math.min(toRead - done, view.remaining());
+            view.get(target, offset + done, chunk);
+            done += chunk;
+        }
+        return done;
+    }
+
+    private byte byteAt(final long position) {
+        return this.windows[(int) (position / this.windowSize)].get((int) (position % this.windowSize));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+}
@@ -106,9 +106,9 @@ public class PSTMessage extends PSTObject {
      */
     public String getRTFBody() throws PSTException, IOException {
         // do we have an entry for it?
-        if (this.items.containsKey(0x1009)) {
+        if (this.table.containsItem(0x1009)) {
             // is it a reference?
-            final PSTTableBCItem item = this.items.get(0x1009);
+            final PSTTableBCItem item = this.table.getItem(0x1009);
             if (item.data.length > 0) {
                 return (LZFu.decode(item.data));
             }
@@ -893,9 +893,9 @@ public class PSTMessage extends PSTObject {
      */
     public String getBody() {
         String cp = null;
-        PSTTableBCItem cpItem = this.items.get(0x3FFD); // PidTagMessageCodepage
+        PSTTableBCItem cpItem = this.table.getItem(0x3FFD); // PidTagMessageCodepage
         if (cpItem == null) {
-            cpItem = this.items.get(0x3FDE); // PidTagInternetCodepage
+            cpItem = this.table.getItem(0x3FDE); // PidTagInternetCodepage
         }
         if (cpItem != null) {
             cp = PSTFile.getInternetCodePageCharset(cpItem.entryValueReference);
@@ -967,9 +967,9 @@ public class PSTMessage extends PSTObject {
      */
     public String getBodyHTML() {
         String cp = null;
-        PSTTableBCItem cpItem = this.items.get(0x3FDE); // PidTagInternetCodepage
+        PSTTableBCItem cpItem = this.table.getItem(0x3FDE); // PidTagInternetCodepage
         if (cpItem == null) {
-            cpItem = this.items.get(0x3FFD); // PidTagMessageCodepage
+            cpItem = this.table.getItem(0x3FFD); // PidTagMessageCodepage
         }
         if (cpItem != null) {
             cp = PSTFile.getInternetCodePageCharset(cpItem.entryValueReference);
@@ -1233,9 +1233,9 @@ public class PSTMessage extends PSTObject {
         final int keywordCategory = this.pstFile.getPublicStringToIdMapItem("Keywords");
 
         String[] categories = new String[0];
-        if (this.items.containsKey(keywordCategory)) {
+        if (this.table.containsItem(keywordCategory)) {
             try {
-                final PSTTableBCItem item = this.items.get(keywordCategory);
+                final PSTTableBCItem item = this.table.getItem(keywordCategory);
                 if (item.data.length == 0) {
                     return categories;
                 }
@@ -1318,10 +1318,7 @@ public class PSTMessage extends PSTObject {
 
         // we process the C7 table here, basically we just want the attachment
         // local descriptor...
-        final HashMap<Integer, PSTTable7CItem> attachmentDetails =
-            this.attachmentTable.getItems().get(attachmentNumber);
-        final PSTTable7CItem attachmentTableItem = attachmentDetails.get(0x67f2);
-        final int descriptorItemId = attachmentTableItem.entryValueReference;
+        final int descriptorItemId = this.attachmentTable.getRowIds(attachmentNumber, 1)[0];
 
         // get the local descriptor for the attachmentDetails table.
         final PSTDescriptorItem descriptorItem = this.localDescriptorItems.get(descriptorItemId);
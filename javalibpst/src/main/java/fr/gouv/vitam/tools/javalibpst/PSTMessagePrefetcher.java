@@ -0,0 +1,266 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cursor loading PST objects from a list of descriptor identifiers, typically the children of a folder,
+ * with a read ahead of the data blocks of each batch of objects.
+ * <p>
+ * For each batch, the descriptor nodes are resolved, then the data blocks, local descriptors blocks and
+ * the blocks of their subnodes (recipients and attachments tables, bodies...) are read in rounds, each
+ * one being sorted by file offset and read in one ascending sweep, with close blocks coalesced in one
+ * read. The objects are then built from memory, and their block reads are served from the prefetched
+ * spans until the next batch is prefetched. On rotating disks, this turns a seek per block into a
+ * near-sequential read.
+ * <p>
+ * Objects returned by the cursor stay valid after their batch is released, their data is then read
+ * directly from the file. The cursor is not thread safe, but several cursors can be used concurrently
+ * on the same file.
+ */
+public class PSTMessagePrefetcher implements AutoCloseable {
+
+    /**
+     * Default byte budget of prefetched data for one batch (16MB).
+     */
+    public static final long DEFAULT_MAX_BATCH_BYTES = 16L * 1024 * 1024;
+
+    // max gap between two blocks read in one span, cheaper to read than to seek on rotating disks
+    private static final int MAX_GAP = 32 * 1024;
+    // max size of one span read
+    private static final int MAX_SPAN = 1024 * 1024;
+    // max number of read rounds for one batch (nodes, subnodes, xblocks and xxblocks children)
+    private static final int MAX_ROUNDS = 4;
+
+    private final PSTFile pstFile;
+    private final List<Integer> descriptorIdentifiers;
+    private final int batchSize;
+    private long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
+    private int nextToPrefetch = 0;
+    private final ArrayDeque<Integer> prefetched = new ArrayDeque<>();
+    private final List<Long> spanOffsets = new ArrayList<>();
+
+    /**
+     * Instantiates a new prefetcher.
+     *
+     * @param pstFile               the pst file
+     * @param descriptorIdentifiers the descriptor identifiers of the objects to load, in order
+     * @param batchSize             the number of objects prefetched together
+     */
+    public PSTMessagePrefetcher(final PSTFile pstFile, final List<Integer> descriptorIdentifiers, final int batchSize) {
+        this.pstFile = pstFile;
+        this.descriptorIdentifiers = descriptorIdentifiers;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Sets the byte budget of prefetched data for one batch, blocks beyond being read on demand.
+     *
+     * @param maxBatchBytes the max bytes
+     */
+    public void setMaxBatchBytes(final long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    /**
+     * Test if there is a next object.
+     *
+     * @return true if there is a next object
+     */
+    public boolean hasNext() {
+        return !this.prefetched.isEmpty() || this.nextToPrefetch < this.descriptorIdentifiers.size();
+    }
+
+    /**
+     * Get the next object, prefetching the next batch if needed.
+     * <p>
+     * If an object can't be loaded the exception is thrown, and the cursor can still be used for the
+     * next objects.
+     *
+     * @return the next object, or null if at the end
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    public PSTObject next() throws PSTException, IOException {
+        if (this.prefetched.isEmpty()) {
+            if (this.nextToPrefetch >= this.descriptorIdentifiers.size()) {
+                this.close();
+                return null;
+            }
+            this.prefetchNextBatch();
+        }
+        return PSTObject.detectAndLoadPSTObject(this.pstFile, this.prefetched.poll());
+    }
+
+    /**
+     * Release the prefetched spans.
+     */
+    @Override
+    public void close() {
+        final PSTBlockPrefetchBuffer buffer = this.pstFile.getBlockPrefetchBuffer();
+        for (final long spanOffset : this.spanOffsets) {
+            buffer.remove(spanOffset);
+        }
+        this.spanOffsets.clear();
+    }
+
+    // read ahead all the blocks of the next batch objects
+    private void prefetchNextBatch() throws IOException {
+        this.close();
+        final int end = Math.min(this.nextToPrefetch + this.batchSize, this.descriptorIdentifiers.size());
+        final Set<Long> bids = new HashSet<>();
+        final List<Long> localDescriptorsBids = new ArrayList<>();
+        for (int i = this.nextToPrefetch; i < end; i++) {
+            final int descriptorIdentifier = this.descriptorIdentifiers.get(i);
+            this.prefetched.add(descriptorIdentifier);
+            try {
+                final DescriptorIndexNode node = this.pstFile.getDescriptorIndexNode(descriptorIdentifier);
+                bids.add(node.dataOffsetIndexIdentifier);
+                if (node.localDescriptorsOffsetIndexIdentifier != 0) {
+                    bids.add(node.localDescriptorsOffsetIndexIdentifier);
+                    localDescriptorsBids.add(node.localDescriptorsOffsetIndexIdentifier);
+                }
+            } catch (final PSTException e) {
+                // the error will be thrown when loading this object
+            }
+        }
+        this.nextToPrefetch = end;
+
+        final Set<Long> done = new HashSet<>();
+        long budget = this.maxBatchBytes;
+        for (int round = 0; round < MAX_ROUNDS && !bids.isEmpty() && budget > 0; round++) {
+            done.addAll(bids);
+            final Set<Long> nextBids = new HashSet<>();
+            budget -= this.sweep(bids, nextBids, budget);
+            if (round == 0) {
+                // local descriptors are now in memory, get the subnodes blocks
+                for (final long localDescriptorsBid : localDescriptorsBids) {
+                    try {
+                        final HashMap<Integer, PSTDescriptorItem> items = this.pstFile.getPSTDescriptorItems(
+                            localDescriptorsBid
+                        );
+                        for (final PSTDescriptorItem item : items.values()) {
+                            nextBids.add((long) item.offsetIndexIdentifier);
+                            if (item.subNodeOffsetIndexIdentifier != 0) {
+                                nextBids.add((long) item.subNodeOffsetIndexIdentifier);
+                            }
+                        }
+                    } catch (final PSTException e) {
+                        // the error will be thrown when loading this object
+                    }
+                }
+            }
+            nextBids.removeAll(done);
+            bids.clear();
+            bids.addAll(nextBids);
+        }
+    }
+
+    // read the blocks in ascending file offset order, coalescing close ones, and collect the
+    // children blocks of the xblocks, returns the number of bytes read
+    private long sweep(final Set<Long> bids, final Set<Long> childrenBids, final long budget) throws IOException {
+        final PSTBlockPrefetchBuffer buffer = this.pstFile.getBlockPrefetchBuffer();
+        final List<OffsetIndexItem> blocks = new ArrayList<>(bids.size());
+        for (final long bid : bids) {
+            try {
+                blocks.add(this.pstFile.getOffsetIndexNode(bid));
+            } catch (final PSTException e) {
+                // the error will be thrown when loading the object
+            }
+        }
+        blocks.sort(Comparator.comparingLong(b -> b.fileOffset));
+
+        long read = 0;
+        int first = 0;
+        while (first < blocks.size() && read < budget) {
+            final long spanStart = blocks.get(first).fileOffset;
+            long spanEnd = spanStart + blocks.get(first).size;
+            int last = first;
+            while (last + 1 < blocks.size()) {
+                final OffsetIndexItem next = blocks.get(last + 1);
+                final long nextEnd = Math.max(spanEnd, next.fileOffset + next.size);
+                if (next.fileOffset > spanEnd + MAX_GAP || nextEnd - spanStart > MAX_SPAN) {
+                    break;
+                }
+                spanEnd = nextEnd;
+                last++;
+            }
+            if (!buffer.contains(spanStart, (int) (spanEnd - spanStart))) {
+                final byte[] span = new byte[(int) (spanEnd - spanStart)];
+                this.pstFile.getContentHandle().readCompletely(spanStart, span);
+                buffer.put(spanStart, span);
+                this.spanOffsets.add(spanStart);
+                read += span.length;
+            }
+            for (int i = first; i <= last; i++) {
+                this.addXBlockChildren(blocks.get(i), childrenBids);
+            }
+            first = last + 1;
+        }
+        return read;
+    }
+
+    // add the children of an xblock or xxblock, read from the prefetched spans
+    private void addXBlockChildren(final OffsetIndexItem block, final Set<Long> childrenBids) throws IOException {
+        if ((block.indexIdentifier & 0x02) == 0 || block.size < 8) {
+            return;
+        }
+        final byte[] data = new byte[block.size];
+        this.pstFile.readBlockCompletely(block.fileOffset, data);
+        if (data[0] != 0x1) {
+            return;
+        }
+        final int numberOfEntries = (int) PSTObject.convertLittleEndianBytesToLong(data, 2, 4);
+        final int arraySize = this.pstFile.getPSTFileType() == PSTFile.PST_TYPE_ANSI ? 4 : 8;
+        int offset = 8;
+        for (int x = 0; x < numberOfEntries && offset + arraySize <= data.length; x++) {
+            final long bid = PSTObject.convertLittleEndianBytesToLong(data, offset, offset + arraySize);
+            childrenBids.add(bid & 0xfffffffe);
+            offset += arraySize;
+        }
+    }
+}
@@ -61,8 +61,8 @@ public class PSTMessageStore extends PSTObject {
     public UUID getTagRecordKeyAsUUID() {
         // attempt to find in the table.
         final int guidEntryType = 0x0ff9;
-        if (this.items.containsKey(guidEntryType)) {
-            final PSTTableBCItem item = this.items.get(guidEntryType);
+        if (this.table.containsItem(guidEntryType)) {
+            final PSTTableBCItem item = this.table.getItem(guidEntryType);
             final int offset = 0;
             final byte[] bytes = item.data;
             final long mostSigBits =
@@ -82,7 +82,7 @@ public class PSTMessageStore extends PSTObject {
     public String getDisplayName() {
         // attempt to find in the table.
         final int displayNameEntryType = 0x3001;
-        if (this.items.containsKey(displayNameEntryType)) {
+        if (this.table.containsItem(displayNameEntryType)) {
             return this.getStringItem(displayNameEntryType);
             // PSTTableBCItem item =
             // (PSTTableBCItem)this.items.get(displayNameEntryType);
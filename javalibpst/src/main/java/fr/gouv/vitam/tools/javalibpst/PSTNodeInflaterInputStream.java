@@ -0,0 +1,169 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Sequential input stream inflating zlib compressed node content on the fly.
+ * <p>
+ * The node content is either one zlib stream spread over all the blocks, read through the raw node input stream,
+ * or one zlib stream per block, each block being read in turn in a reused buffer. In both cases only one
+ * {@link Inflater} and one block sized buffer are used, whatever the node size.
+ */
+class PSTNodeInflaterInputStream extends InputStream {
+
+    // size of compressed data chunks read from the raw node stream
+    private static final int CHUNK_SIZE = 8176;
+
+    private final Inflater inflater = new Inflater();
+    private final PSTNodeInputStream source;
+    private final PSTFileContent in;
+    private final List<OffsetIndexItem> blocks;
+    private int nextBlock;
+    private byte[] buffer;
+    private final byte[] singleByte = new byte[1];
+    private boolean eof;
+
+    /**
+     * Instantiates a new inflater input stream for one zlib stream over the whole node.
+     *
+     * @param source the raw node input stream, positioned at start
+     */
+    PSTNodeInflaterInputStream(final PSTNodeInputStream source) {
+        this.source = source;
+        this.in = null;
+        this.blocks = null;
+        this.buffer = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * Instantiates a new inflater input stream for one zlib stream per block.
+     *
+     * @param in     the pst file content
+     * @param blocks the node blocks
+     */
+    PSTNodeInflaterInputStream(final PSTFileContent in, final List<OffsetIndexItem> blocks) {
+        this.source = null;
+        this.in = in;
+        this.blocks = blocks;
+        this.nextBlock = 0;
+        this.buffer = new byte[0];
+        // no input yet, first read will load the first block
+    }
+
+    private boolean isMultiStreams() {
+        return this.blocks != null;
+    }
+
+    // load next block as a new zlib stream, returns false when no more block
+    private boolean nextBlockStream() throws IOException {
+        if (this.nextBlock >= this.blocks.size()) {
+            return false;
+        }
+        final OffsetIndexItem block = this.blocks.get(this.nextBlock++);
+        if (this.buffer.length < block.size) {
+            this.buffer = new byte[block.size];
+        }
+        this.in.readCompletely(block.fileOffset, this.buffer, 0, block.size);
+        this.inflater.reset();
+        this.inflater.setInput(this.buffer, 0, block.size);
+        return true;
+    }
+
+    // feed next compressed chunk from the raw node stream, returns false when no more data
+    private boolean fillFromSource() throws IOException {
+        final int read = this.source.read(this.buffer, 0, this.buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        this.inflater.setInput(this.buffer, 0, read);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int read = this.read(this.singleByte, 0, 1);
+        return read <= 0 ? -1 : this.singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!this.eof) {
+            final int inflated;
+            try {
+                inflated = this.inflater.inflate(b, off, len);
+            } catch (final DataFormatException e) {
+                throw new IOException("Unable to decompress reportedly compressed block", e);
+            }
+            if (inflated > 0) {
+                return inflated;
+            }
+            if (this.inflater.needsDictionary()) {
+                throw new IOException("Unable to decompress reportedly compressed block, dictionary needed");
+            }
+            final boolean more;
+            if (this.isMultiStreams()) {
+                // end of this block stream, or truncated one, go on with the next block
+                more = this.nextBlockStream();
+            } else {
+                more = !this.inflater.finished() && this.fillFromSource();
+            }
+            if (!more) {
+                this.eof = true;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.eof = true;
+        this.inflater.end();
+        if (this.source != null) {
+            this.source.close();
+        }
+    }
+}
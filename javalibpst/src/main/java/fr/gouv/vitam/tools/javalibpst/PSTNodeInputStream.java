@@ -40,6 +40,7 @@ package fr.gouv.vitam.tools.javalibpst;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.zip.InflaterOutputStream;
 
@@ -64,6 +65,9 @@ public class PSTNodeInputStream extends InputStream {
 
     private boolean encrypted = false;
 
+    // buffer for single byte positional reads
+    private final byte[] singleByte = new byte[1];
+
     PSTNodeInputStream(final PSTFile pstFile, final byte[] attachmentData) throws PSTException {
         this.in = pstFile.getContentHandle();
         this.pstFile = pstFile;
@@ -88,6 +92,14 @@ public class PSTNodeInputStream extends InputStream {
     }
 
     PSTNodeInputStream(final PSTFile pstFile, final PSTDescriptorItem descriptorItem) throws IOException, PSTException {
+        this(pstFile, descriptorItem, true);
+    }
+
+    private PSTNodeInputStream(
+        final PSTFile pstFile,
+        final PSTDescriptorItem descriptorItem,
+        final boolean decompressWhole
+    ) throws IOException, PSTException {
         this.in = pstFile.getContentHandle();
         this.pstFile = pstFile;
         this.encrypted = pstFile.getEncryptionType() == PSTFile.ENCRYPTION_TYPE_COMPRESSIBLE;
@@ -98,7 +110,45 @@ public class PSTNodeInputStream extends InputStream {
         this.loadFromOffsetItem(offsetItem);
         this.currentBlock = 0;
         this.currentLocation = 0;
-        this.detectZlib();
+        if (decompressWhole) {
+            this.detectZlib();
+        }
+    }
+
+    /**
+     * Open a sequential stream on a node content, decompressed on the fly if zlib compressed.
+     * <p>
+     * Contrary to the PSTNodeInputStream constructors, compressed content is never decompressed as a whole in
+     * memory, but read and inflated block by block, so that big attachments can be piped with one block in heap.
+     * The returned stream is not seekable.
+     *
+     * @param pstFile        the pst file
+     * @param descriptorItem the descriptor item of the node
+     * @return the input stream
+     * @throws IOException  the io exception
+     * @throws PSTException the pst exception
+     */
+    static InputStream openStreamed(final PSTFile pstFile, final PSTDescriptorItem descriptorItem)
+        throws IOException, PSTException {
+        final PSTNodeInputStream raw = new PSTNodeInputStream(pstFile, descriptorItem, false);
+        if (raw.length < 4) {
+            return raw;
+        }
+        if (raw.read() == 0x78 && raw.read() == 0x9c) {
+            // same detection as detectZlib, one zlib stream per block or one for the whole node
+            if (raw.indexItems.size() > 1) {
+                final OffsetIndexItem i = raw.indexItems.get(1);
+                final byte[] header = new byte[2];
+                raw.pstFile.readBlockCompletely(i.fileOffset, header);
+                if ((header[0] & 0xff) == 0x78 && (header[1] & 0xff) == 0x9c) {
+                    return new PSTNodeInflaterInputStream(raw.in, new ArrayList<>(raw.indexItems));
+                }
+            }
+            raw.seek(0);
+            return new PSTNodeInflaterInputStream(raw);
+        }
+        raw.seek(0);
+        return raw;
     }
 
     PSTNodeInputStream(final PSTFile pstFile, final OffsetIndexItem offsetItem) throws IOException, PSTException {
@@ -120,68 +170,66 @@ public class PSTNodeInputStream extends InputStream {
         if (this.length < 4) {
             return;
         }
-        synchronized (in) {
-            try {
-                if (this.read() == 0x78 && this.read() == 0x9c) {
-                    boolean multiStreams = false;
-                    if (this.indexItems.size() > 1) {
-                        final OffsetIndexItem i = this.indexItems.get(1);
-                        this.in.seek(i.fileOffset);
-                        multiStreams = (this.in.read() == 0x78 && this.in.read() == 0x9c);
-                    }
-                    // we are a compressed block, decompress the whole thing into a
-                    // buffer
-                    // and replace our contents with that.
-                    // firstly, if we have blocks, use that as the length
-                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) this.length);
-                    if (multiStreams) {
-                        int y = 0;
-                        for (final OffsetIndexItem i : this.indexItems) {
-                            final byte[] inData = new byte[i.size];
-                            this.in.seek(i.fileOffset);
-                            this.in.readCompletely(inData);
-                            final InflaterOutputStream inflaterStream = new InflaterOutputStream(outputStream);
-                            //try {
-                            inflaterStream.write(inData);
-                            inflaterStream.close();
-                            //} catch (Exception err) {
-                            //    System.out.println("Y: " + y);
-                            //    System.out.println(err);
-                            //    PSTObject.printHexFormatted(inData, true);
-                            //    System.exit(0);
-                            //}
-                            y++;
-                        }
-                        this.indexItems.clear();
-                        this.skipPoints.clear();
-                    } else {
-                        int compressedLength = (int) this.length;
-                        if (this.indexItems.size() > 0) {
-                            compressedLength = 0;
-                            for (final OffsetIndexItem i : this.indexItems) {
-                                //System.out.println(i);
-                                compressedLength += i.size;
-                            }
-                        }
-                        final byte[] inData = new byte[compressedLength];
-                        this.seek(0);
-                        this.readCompletely(inData);
-
+        try {
+            if (this.read() == 0x78 && this.read() == 0x9c) {
+                boolean multiStreams = false;
+                if (this.indexItems.size() > 1) {
+                    final OffsetIndexItem i = this.indexItems.get(1);
+                    final byte[] header = new byte[2];
+                    this.pstFile.readBlockCompletely(i.fileOffset, header);
+                    multiStreams = ((header[0] & 0xff) == 0x78 && (header[1] & 0xff) == 0x9c);
+                }
+                // we are a compressed block, decompress the whole thing into a
+                // buffer
+                // and replace our contents with that.
+                // firstly, if we have blocks, use that as the length
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) this.length);
+                if (multiStreams) {
+                    int y = 0;
+                    for (final OffsetIndexItem i : this.indexItems) {
+                        final byte[] inData = new byte[i.size];
+                        this.pstFile.readBlockCompletely(i.fileOffset, inData);
                         final InflaterOutputStream inflaterStream = new InflaterOutputStream(outputStream);
+                        //try {
                         inflaterStream.write(inData);
                         inflaterStream.close();
+                        //} catch (Exception err) {
+                        //    System.out.println("Y: " + y);
+                        //    System.out.println(err);
+                        //    PSTObject.printHexFormatted(inData, true);
+                        //    System.exit(0);
+                        //}
+                        y++;
+                    }
+                    this.indexItems.clear();
+                    this.skipPoints.clear();
+                } else {
+                    int compressedLength = (int) this.length;
+                    if (this.indexItems.size() > 0) {
+                        compressedLength = 0;
+                        for (final OffsetIndexItem i : this.indexItems) {
+                            //System.out.println(i);
+                            compressedLength += i.size;
+                        }
                     }
-                    outputStream.close();
-                    final byte[] output = outputStream.toByteArray();
-                    this.allData = output;
-                    this.currentLocation = 0;
-                    this.currentBlock = 0;
-                    this.length = this.allData.length;
+                    final byte[] inData = new byte[compressedLength];
+                    this.seek(0);
+                    this.readCompletely(inData);
+
+                    final InflaterOutputStream inflaterStream = new InflaterOutputStream(outputStream);
+                    inflaterStream.write(inData);
+                    inflaterStream.close();
                 }
-                this.seek(0);
-            } catch (final IOException err) {
-                throw new PSTException("Unable to decompress reportedly compressed block", err);
+                outputStream.close();
+                final byte[] output = outputStream.toByteArray();
+                this.allData = output;
+                this.currentLocation = 0;
+                this.currentBlock = 0;
+                this.length = this.allData.length;
             }
+            this.seek(0);
+        } catch (final IOException err) {
+            throw new PSTException("Unable to decompress reportedly compressed block", err);
         }
     }
 
@@ -189,11 +237,8 @@ public class PSTNodeInputStream extends InputStream {
         boolean bInternal = (offsetItem.indexIdentifier & 0x02) != 0;
 
         final byte[] data = new byte[offsetItem.size];
-        synchronized (in) {
-            this.in.seek(offsetItem.fileOffset);
-            this.in.readCompletely(data);
-            // PSTObject.printHexFormatted(data, true);
-        }
+        this.pstFile.readBlockCompletely(offsetItem.fileOffset, data);
+        // PSTObject.printHexFormatted(data, true);
         if (bInternal) {
             // All internal blocks are at least 8 bytes long...
             if (offsetItem.size < 8) {
@@ -242,10 +287,7 @@ public class PSTNodeInputStream extends InputStream {
                 // get the details in this block and
                 final OffsetIndexItem offsetItem = this.pstFile.getOffsetIndexNode(bid);
                 final byte[] blockData = new byte[offsetItem.size];
-                synchronized (in) {
-                    this.in.seek(offsetItem.fileOffset);
-                    this.in.readCompletely(blockData);
-                }
+                this.pstFile.readBlockCompletely(offsetItem.fileOffset, blockData);
                 this.getBlockSkipPoints(blockData);
                 offset += arraySize;
             }
@@ -302,15 +344,10 @@ public class PSTNodeInputStream extends InputStream {
 
         // get the next byte.
         final long pos = (item.fileOffset + (this.currentLocation - skipPoint));
-        synchronized (in) {
-            if (this.in.getFilePointer() != pos) {
-                this.in.seek(pos);
-            }
-            output = this.in.read();
-        }
-        if (output < 0) {
+        if (this.pstFile.readBlock(pos, this.singleByte, 0, 1) <= 0) {
             return -1;
         }
+        output = this.singleByte[0] & 0xFF;
         if (this.encrypted) {
             output = PSTObject.compEnc[output];
         }
@@ -382,44 +419,37 @@ public class PSTNodeInputStream extends InputStream {
         boolean filled = false;
         int totalBytesFilled = 0;
         // while we still need to fill the array
-        synchronized (in) {
-            while (!filled) {
-                // fill up the output from where we are
-                // get the current block, either to the end, or until the length of
-                // the output
-                final OffsetIndexItem offset = this.indexItems.get(this.currentBlock);
-                final long skipPoint = this.skipPoints.get(this.currentBlock);
-                final int currentPosInBlock = (int) (this.currentLocation - skipPoint);
-                this.in.seek(offset.fileOffset + currentPosInBlock);
-
-                final long nextSkipPoint = skipPoint + offset.size;
-                int bytesRemaining = (output.length - totalBytesFilled);
-                // if the total bytes remaining if going to take us past our size
-                if (bytesRemaining > ((int) (this.length - this.currentLocation))) {
-                    // we only have so much to give
-                    bytesRemaining = (int) (this.length - this.currentLocation);
-                }
-
-                if (nextSkipPoint >= this.currentLocation + bytesRemaining) {
-                    // we can fill the output with the rest of our current block!
-                    final byte[] chunk = new byte[bytesRemaining];
-                    this.in.readCompletely(chunk);
+        while (!filled) {
+            // fill up the output from where we are
+            // get the current block, either to the end, or until the length of
+            // the output
+            final OffsetIndexItem offset = this.indexItems.get(this.currentBlock);
+            final long skipPoint = this.skipPoints.get(this.currentBlock);
+            final int currentPosInBlock = (int) (this.currentLocation - skipPoint);
+            final long filePosition = offset.fileOffset + currentPosInBlock;
+
+            final long nextSkipPoint = skipPoint + offset.size;
+            int bytesRemaining = (output.length - totalBytesFilled);
+            // if the total bytes remaining if going to take us past our size
+            if (bytesRemaining > ((int) (this.length - this.currentLocation))) {
+                // we only have so much to give
+                bytesRemaining = (int) (this.length - this.currentLocation);
+            }
 
-                    System.arraycopy(chunk, 0, output, totalBytesFilled, bytesRemaining);
-                    totalBytesFilled += bytesRemaining;
-                    // we are done!
-                    filled = true;
-                    this.currentLocation += bytesRemaining;
-                } else {
-                    // we need to read out a whole chunk and keep going
-                    final int bytesToRead = offset.size - currentPosInBlock;
-                    final byte[] chunk = new byte[bytesToRead];
-                    this.in.readCompletely(chunk);
-                    System.arraycopy(chunk, 0, output, totalBytesFilled, bytesToRead);
-                    totalBytesFilled += bytesToRead;
-                    this.currentBlock++;
-                    this.currentLocation += bytesToRead;
-                }
+            if (nextSkipPoint >= this.currentLocation + bytesRemaining) {
+                // we can fill the output with the rest of our current block!
+                this.pstFile.readBlockCompletely(filePosition, output, totalBytesFilled, bytesRemaining);
+                totalBytesFilled += bytesRemaining;
+                // we are done!
+                filled = true;
+                this.currentLocation += bytesRemaining;
+            } else {
+                // we need to read out a whole chunk and keep going
+                final int bytesToRead = offset.size - currentPosInBlock;
+                this.pstFile.readBlockCompletely(filePosition, output, totalBytesFilled, bytesToRead);
+                totalBytesFilled += bytesToRead;
+                this.currentBlock++;
+                this.currentLocation += bytesToRead;
             }
         }
 
@@ -444,6 +474,11 @@ public class PSTNodeInputStream extends InputStream {
             length = output.length;
         }
 
+        // no intermediate buffer when reading the whole array
+        if ((offset == 0) && (length == output.length)) {
+            return this.read(output);
+        }
+
         final byte[] buf = new byte[length];
         final int lengthRead = this.read(buf);
 
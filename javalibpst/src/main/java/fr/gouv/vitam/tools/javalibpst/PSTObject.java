@@ -196,7 +196,7 @@ public class PSTObject {
     /**
      * The Items.
      */
-    protected HashMap<Integer, PSTTableBCItem> items;
+    protected Map<Integer, PSTTableBCItem> items;
     /**
      * The Local descriptor items.
      */
@@ -231,6 +231,7 @@ public class PSTObject {
         );
         // System.out.println(table);
         this.items = table.getItems();
+        this.table = table;
 
         if (descriptorIndexNode.localDescriptorsOffsetIndexIdentifier != 0) {
             // PSTDescriptor descriptor = new PSTDescriptor(theFile,
@@ -331,8 +332,8 @@ public class PSTObject {
      * @return the int item
      */
     protected int getIntItem(final int identifier, final int defaultValue) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             return item.entryValueReference;
         }
         return defaultValue;
@@ -356,8 +357,8 @@ public class PSTObject {
      * @return the boolean item
      */
     protected boolean getBooleanItem(final int identifier, final boolean defaultValue) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             return item.entryValueReference != 0;
         }
         return defaultValue;
@@ -381,8 +382,8 @@ public class PSTObject {
      * @return the double item
      */
     protected double getDoubleItem(final int identifier, final double defaultValue) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             final long longVersion = PSTObject.convertLittleEndianBytesToLong(item.data);
             return Double.longBitsToDouble(longVersion);
         }
@@ -407,8 +408,8 @@ public class PSTObject {
      * @return the long item
      */
     protected long getLongItem(final int identifier, final long defaultValue) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             if (item.entryValueType == 0x0003) {
                 // we are really just an int
                 return item.entryValueReference;
@@ -458,7 +459,7 @@ public class PSTObject {
      * @return the string item
      */
     protected String getStringItem(final int identifier, int stringType, String codepage) {
-        final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
         if (item != null) {
             if (codepage == null) {
                 codepage = this.getStringCodepage();
@@ -564,11 +565,11 @@ public class PSTObject {
     public String getStringCodepage() {
         if (codepage == null) {
             // try and get the codepage
-            PSTTableBCItem cpItem = this.items.get(0x3FFD); // PidTagMessageCodepage
+            PSTTableBCItem cpItem = this.table.getItem(0x3FFD); // PidTagMessageCodepage
             if (cpItem == null) {
-                cpItem = this.items.get(0x66C3); // PidTagCodepage
+                cpItem = this.table.getItem(0x66C3); // PidTagCodepage
                 if (cpItem == null) {
-                    cpItem = this.items.get(0x3FDE); // PidTagInternetCodepage
+                    cpItem = this.table.getItem(0x3FDE); // PidTagInternetCodepage
                 }
             }
             if (cpItem != null) codepage = PSTFile.getInternetCodePageCharset(cpItem.entryValueReference);
@@ -584,8 +585,8 @@ public class PSTObject {
      * @return the date item
      */
     public Date getDateItem(final int identifier) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             if (item.data.length == 0) {
                 return new Date(0);
             }
@@ -604,8 +605,8 @@ public class PSTObject {
      * @return the byte [ ]
      */
     protected byte[] getBinaryItem(final int identifier) {
-        if (this.items.containsKey(identifier)) {
-            final PSTTableBCItem item = this.items.get(identifier);
+        final PSTTableBCItem item = this.table.getItem(identifier);
+        if (item != null) {
             if (item.entryValueType == 0x0102) {
                 if (!item.isExternalValueReference) {
                     return item.data;
@@ -0,0 +1,104 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import java.util.Arrays;
+
+/**
+ * In memory copy of the whole offset index (block B-Tree) of a PST file.
+ * <p>
+ * Blocks are kept in primitive arrays sorted by block identifier, about 20 bytes per block, and found by binary
+ * search, so that a lookup needs no I/O and no allocation other than the returned item.
+ */
+class PSTOffsetIndex {
+
+    private final long[] identifiers;
+    private final long[] fileOffsets;
+    private final int[] sizes;
+
+    /**
+     * Instantiates a new offset index, arrays must be sorted by identifier.
+     *
+     * @param identifiers the block identifiers
+     * @param fileOffsets the block file offsets
+     * @param sizes       the block sizes
+     */
+    PSTOffsetIndex(final long[] identifiers, final long[] fileOffsets, final int[] sizes) {
+        this.identifiers = identifiers;
+        this.fileOffsets = fileOffsets;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Find the offset index item of a block.
+     *
+     * @param identifier the block identifier
+     * @return the offset index item, or null if not found
+     */
+    OffsetIndexItem find(final long identifier) {
+        final int i = Arrays.binarySearch(this.identifiers, identifier);
+        if (i < 0) {
+            return null;
+        }
+        return new OffsetIndexItem(this.identifiers[i], this.fileOffsets[i], this.sizes[i]);
+    }
+
+    /**
+     * Gets the number of indexed blocks.
+     *
+     * @return the size
+     */
+    int size() {
+        return this.identifiers.length;
+    }
+
+    /**
+     * Check if identifiers are strictly ascending, as needed by binary search.
+     *
+     * @param identifiers the identifiers
+     * @return true if sorted
+     */
+    static boolean isSorted(final long[] identifiers) {
+        for (int i = 1; i < identifiers.length; i++) {
+            if (identifiers[i - 1] >= identifiers[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -41,13 +41,24 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class PSTRAFileContent extends PSTFileContent {
 
     protected RandomAccessFile file;
 
+    private final Path path;
+    private volatile FileChannel channel;
+    private volatile boolean closed;
+
     public PSTRAFileContent(final File file) throws FileNotFoundException {
         this.file = new RandomAccessFile(file, "r");
+        this.path = file.toPath();
     }
 
     public RandomAccessFile getFile() {
@@ -87,9 +98,58 @@ public class PSTRAFileContent extends PSTFileContent {
         return this.file.readByte();
     }
 
+    /**
+     * Positional read through a dedicated file channel, which doesn't use nor move the file pointer and can be done
+     * concurrently by several threads.
+     * <p>
+     * A file channel is closed for all its users when a thread reading it is interrupted. In that case the
+     * interrupted reader fails, as expected, but the channel is reopened so that concurrent and following reads go
+     * on. The sequential API uses the {@link RandomAccessFile}, which is not interruptible.
+     */
+    @Override
+    public int read(final long position, final byte[] target, final int offset, final int length)
+        throws IOException {
+        while (true) {
+            final FileChannel current = this.getChannel();
+            try {
+                return current.read(ByteBuffer.wrap(target, offset, length), position);
+            } catch (final ClosedByInterruptException e) {
+                this.reopenChannel(current);
+                throw e;
+            } catch (final ClosedChannelException e) {
+                // closed under this reader by another interrupted one, retry unless the content itself is closed
+                this.reopenChannel(current);
+            }
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        final FileChannel current = this.channel;
+        if (current != null) {
+            return current;
+        }
+        return this.reopenChannel(null);
+    }
+
+    private synchronized FileChannel reopenChannel(final FileChannel stale) throws IOException {
+        if (this.closed) {
+            throw new ClosedChannelException();
+        }
+        if ((this.channel == null) || (this.channel == stale)) {
+            this.channel = FileChannel.open(this.path, StandardOpenOption.READ);
+        }
+        return this.channel;
+    }
+
     @Override
     public void close() throws IOException {
         //    systemOutTraceLines(); cf PSTFileContent
+        synchronized (this) {
+            this.closed = true;
+            if (this.channel != null) {
+                this.channel.close();
+            }
+        }
         this.file.close();
     }
 }
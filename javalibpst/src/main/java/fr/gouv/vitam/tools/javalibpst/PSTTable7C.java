@@ -425,6 +425,180 @@ class PSTTable7C extends PSTTable {
         return itemList;
     }
 
+    // offset of a row in the row matrix, rows never spanning a block boundary
+    private int getRowOffset(final int rowIndex) {
+        final int numberOfRowsPerBlock = this.BLOCK_SIZE / this.TCI_bm;
+        return (
+            ((rowIndex / numberOfRowsPerBlock) * this.BLOCK_SIZE) + ((rowIndex % numberOfRowsPerBlock) * this.TCI_bm)
+        );
+    }
+
+    // number of rows in a range, -1 as start meaning all the rows
+    private int getRangeSize(final int startAtRecord, final int numberOfRecordsToReturn) {
+        if (startAtRecord == -1) {
+            return this.getRowCount();
+        }
+        return Math.max(0, Math.min(numberOfRecordsToReturn, this.getRowCount() - startAtRecord));
+    }
+
+    /**
+     * get the index of a column descriptor from the column id.
+     *
+     * @param columnId the column id (property tag)
+     * @return the column index, or -1 if the column is not in this table or not decoded
+     */
+    int getColumnIndex(final int columnId) {
+        if (this.columnDescriptors == null) {
+            return -1;
+        }
+        final int firstCol = this.overrideCol > -1 ? this.overrideCol : 0;
+        for (int col = firstCol; col < this.cCols; ++col) {
+            if (this.columnDescriptors[col].id == columnId) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * get the row ids (PidTagLtpRowId, 0x67F2) of some rows, which are the
+     * descriptor ids of the folder children or of the message attachments.
+     * <p>
+     * Only the first 4 bytes of each row are read, no item is created.
+     *
+     * @param startAtRecord           the first row, or -1 for all the rows
+     * @param numberOfRecordsToReturn the number of rows
+     * @return the row ids
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    int[] getRowIds(final int startAtRecord, final int numberOfRecordsToReturn) throws PSTException, IOException {
+        final int start = startAtRecord == -1 ? 0 : startAtRecord;
+        final int[] rowIds = new int[this.getRangeSize(startAtRecord, numberOfRecordsToReturn)];
+        final byte[] buffer = new byte[4];
+        for (int rowCounter = 0; rowCounter < rowIds.length; rowCounter++) {
+            this.rowNodeInfo.in.seek(this.rowNodeInfo.startOffset + this.getRowOffset(start + rowCounter));
+            this.rowNodeInfo.in.readCompletely(buffer);
+            rowIds[rowCounter] = (int) PSTObject.convertLittleEndianBytesToLong(buffer);
+        }
+        return rowIds;
+    }
+
+    /**
+     * get some columns of some rows, decoded in primitive arrays.
+     * <p>
+     * Only the fixed size value of the cell is decoded, that is the value for
+     * 1, 2 and 4 bytes integer types and the heap or subnode reference for
+     * variable size types. 8 bytes cells are truncated. Absent cells and columns
+     * not in this table are set to 0. The row id column (0x67F2) is always given
+     * from the row id.
+     *
+     * @param columnIds               the column ids (property tags)
+     * @param startAtRecord           the first row, or -1 for all the rows
+     * @param numberOfRecordsToReturn the number of rows
+     * @return the values, by column in the columnIds order and then by row
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    int[][] getIntColumns(final int[] columnIds, final int startAtRecord, final int numberOfRecordsToReturn)
+        throws PSTException, IOException {
+        final int start = startAtRecord == -1 ? 0 : startAtRecord;
+        final int numberOfRows = this.getRangeSize(startAtRecord, numberOfRecordsToReturn);
+        final int[][] values = new int[columnIds.length][numberOfRows];
+        final int[] columnIndexes = new int[columnIds.length];
+        for (int i = 0; i < columnIds.length; i++) {
+            columnIndexes[i] = this.getColumnIndex(columnIds[i]);
+        }
+
+        final RowCursor cursor = new RowCursor();
+        for (int rowCounter = 0; rowCounter < numberOfRows; rowCounter++) {
+            cursor.moveTo(start + rowCounter);
+            for (int i = 0; i < columnIds.length; i++) {
+                if (columnIds[i] == 0x67F2) {
+                    values[i][rowCounter] = cursor.getRowId();
+                } else if (columnIndexes[i] > -1 && cursor.hasColumn(columnIndexes[i])) {
+                    values[i][rowCounter] = (int) cursor.getValue(columnIndexes[i]);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * get a cursor on the rows of this table.
+     *
+     * @return the row cursor
+     */
+    RowCursor getRowCursor() {
+        return new RowCursor();
+    }
+
+    /**
+     * Cursor on the row matrix.
+     * <p>
+     * Each row is read once in a buffer reused for all the rows, and the cells
+     * are decoded on demand from this buffer, so that going through a table does
+     * not allocate anything per row, contrary to {@link #getItems()}.
+     */
+    class RowCursor {
+
+        private final byte[] row = new byte[PSTTable7C.this.TCI_bm];
+        private int rowIndex = -1;
+
+        /**
+         * move the cursor to a row, and read it.
+         *
+         * @param rowIndex the row index
+         * @throws PSTException the pst exception
+         * @throws IOException  the io exception
+         */
+        void moveTo(final int rowIndex) throws PSTException, IOException {
+            if (rowIndex < 0 || rowIndex >= PSTTable7C.this.getRowCount()) {
+                throw new PSTException(
+                    "unable to read row " + rowIndex + ", only " + PSTTable7C.this.getRowCount() + " in this table"
+                );
+            }
+            final NodeInfo rowNodeInfo = PSTTable7C.this.rowNodeInfo;
+            rowNodeInfo.in.seek(rowNodeInfo.startOffset + PSTTable7C.this.getRowOffset(rowIndex));
+            rowNodeInfo.in.readCompletely(this.row);
+            this.rowIndex = rowIndex;
+        }
+
+        int getRowIndex() {
+            return this.rowIndex;
+        }
+
+        int getRowId() {
+            return (int) PSTObject.convertLittleEndianBytesToLong(this.row, 0, 4);
+        }
+
+        /**
+         * test if a column exists for the current row, using the cell existence bitmap.
+         *
+         * @param columnIndex the column index, as given by {@link PSTTable7C#getColumnIndex(int)}
+         * @return true if the cell exists
+         */
+        boolean hasColumn(final int columnIndex) {
+            final int iBit = PSTTable7C.this.columnDescriptors[columnIndex].iBit;
+            final int bitIndex = PSTTable7C.this.TCI_1b + iBit / 8;
+            return bitIndex < this.row.length && (this.row[bitIndex] & (1 << (iBit % 8))) != 0;
+        }
+
+        /**
+         * get the raw fixed size value of a cell of the current row.
+         *
+         * @param columnIndex the column index, as given by {@link PSTTable7C#getColumnIndex(int)}
+         * @return the value, on 1, 2, 4 or 8 bytes depending on the column
+         */
+        long getValue(final int columnIndex) {
+            final ColumnDescriptor descriptor = PSTTable7C.this.columnDescriptors[columnIndex];
+            final int cbData = descriptor.cbData == 1 || descriptor.cbData == 2 || descriptor.cbData == 8
+                ? descriptor.cbData
+                : 4;
+            return PSTObject.convertLittleEndianBytesToLong(this.row, descriptor.ibData, descriptor.ibData + cbData);
+        }
+    }
+
     class ColumnDescriptor {
 
         ColumnDescriptor(final NodeInfo nodeInfo, final int offset) throws PSTException, IOException {
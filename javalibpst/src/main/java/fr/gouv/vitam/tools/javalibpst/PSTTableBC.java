@@ -37,17 +37,44 @@
  */
 package fr.gouv.vitam.tools.javalibpst;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * The BC Table type. (Property Context)
  * Used by pretty much everything.
+ * <p>
+ * The properties are not decoded when the table is read. The raw heap-on-node
+ * is kept with a compact index of the property tags sorted for binary search,
+ * and an item is only materialized, with a copy of its data, when it's asked
+ * for.
  *
  * @author Richard Johnson
  */
 class PSTTableBC extends PSTTable {
 
-    private final HashMap<Integer, PSTTableBCItem> items = new HashMap<>();
+    // raw heap-on-node content
+    private final byte[] heap;
+
+    // property index, sorted by tag
+    private final int[] tags;
+    private final int[] itemIndexes;
+    private final int[] valueTypes;
+    private final int[] valueReferences;
+    // data position in the heap, start being -1 if no data in the heap
+    private final int[] dataStarts;
+    private final int[] dataEnds;
+
+    // materialized items, by rank in the index
+    private final PSTTableBCItem[] materializedItems;
+
+    private final Map<Integer, PSTTableBCItem> items = new ItemsView();
 
     private final StringBuilder descBuffer = new StringBuilder();
     private boolean isDescNotYetInitiated = false;
@@ -61,137 +88,189 @@ class PSTTableBC extends PSTTable {
             throw new PSTException("unable to create PSTTableBC, table does not appear to be a bc!");
         }
 
-        // go through each of the entries.
-        // byte[] keyTableInfo = getNodeInfo(hidRoot);
-        final NodeInfo keyTableInfoNodeInfo = this.getNodeInfo(this.hidRoot);
-        final byte[] keyTableInfo = new byte[keyTableInfoNodeInfo.length()];
-        keyTableInfoNodeInfo.in.seek(keyTableInfoNodeInfo.startOffset);
-        keyTableInfoNodeInfo.in.readCompletely(keyTableInfo);
+        // read once the whole heap-on-node, all the nodes being then resolved in this buffer
+        this.heap = new byte[(int) in.length()];
+        in.seek(0);
+        in.readCompletely(this.heap);
 
-        // PSTObject.printHexFormatted(keyTableInfo, true);
-        // System.out.println(in.length());
-        // System.exit(0);
-        this.numberOfKeys = keyTableInfo.length / (this.sizeOfItemKey + this.sizeOfItemValue);
+        // go through each of the entries.
+        final int[] keyTableBounds = this.getHeapNodeBounds(this.hidRoot);
+        final int keyTableStart = keyTableBounds[0];
+        final int keyTableLength = keyTableBounds[1] - keyTableBounds[0];
+        this.numberOfKeys = keyTableLength / (this.sizeOfItemKey + this.sizeOfItemValue);
 
         this.descBuffer.append("Number of entries: " + this.numberOfKeys + "\n");
 
-        // Read the key table
-        int offset = 0;
+        // sort the keys by tag, keeping their position, and dedup keeping the last one
+        final long[] sortedKeys = new long[this.numberOfKeys];
         for (int x = 0; x < this.numberOfKeys; x++) {
-            final PSTTableBCItem item = new PSTTableBCItem();
-            item.itemIndex = x;
-            item.entryType = (int) PSTObject.convertLittleEndianBytesToLong(keyTableInfo, offset + 0, offset + 2);
-            // item.entryType =(int)in.seekAndReadLong(offset, 2);
-            item.entryValueType = (int) PSTObject.convertLittleEndianBytesToLong(keyTableInfo, offset + 2, offset + 4);
-            // item.entryValueType = (int)in.seekAndReadLong(offset+2, 2);
-            item.entryValueReference = (int) PSTObject.convertLittleEndianBytesToLong(
-                keyTableInfo,
-                offset + 4,
-                offset + 8
-            );
-            // item.entryValueReference = (int)in.seekAndReadLong(offset+4, 4);
+            final int offset = keyTableStart + x * 8;
+            final long tag = PSTObject.convertLittleEndianBytesToLong(this.heap, offset, offset + 2);
+            sortedKeys[x] = (tag << 32) | x;
+        }
+        Arrays.sort(sortedKeys);
+        int count = 0;
+        for (int x = 0; x < sortedKeys.length; x++) {
+            if (count > 0 && (sortedKeys[count - 1] >>> 32) == (sortedKeys[x] >>> 32)) {
+                count--;
+            }
+            sortedKeys[count++] = sortedKeys[x];
+        }
+
+        this.tags = new int[count];
+        this.itemIndexes = new int[count];
+        this.valueTypes = new int[count];
+        this.valueReferences = new int[count];
+        this.dataStarts = new int[count];
+        this.dataEnds = new int[count];
+        this.materializedItems = new PSTTableBCItem[count];
+
+        // Read the key table
+        for (int i = 0; i < count; i++) {
+            final int x = (int) sortedKeys[i];
+            final int offset = keyTableStart + x * 8;
+            this.tags[i] = (int) (sortedKeys[i] >>> 32);
+            this.itemIndexes[i] = x;
+            this.valueTypes[i] = (int) PSTObject.convertLittleEndianBytesToLong(this.heap, offset + 2, offset + 4);
+            int valueReference = (int) PSTObject.convertLittleEndianBytesToLong(this.heap, offset + 4, offset + 8);
+            this.dataStarts[i] = -1;
 
             // Data is in entryValueReference for all types <= 4 bytes long
-            switch (item.entryValueType) {
+            switch (this.valueTypes[i]) {
                 case 0x0002: // 16bit integer
-                    item.entryValueReference &= 0xFFFF;
+                    valueReference &= 0xFFFF;
                 case 0x0003: // 32bit integer
                 case 0x000A: // 32bit error code
-                /*
-                 * System.out.printf("Integer%s: 0x%04X:%04X, %d\n",
-                 * (item.entryValueType == 0x0002) ? "16" : "32",
-                 * item.entryType, item.entryValueType,
-                 * item.entryValueReference);
-                 * /
-                 **/
                 case 0x0001: // Place-holder
                 case 0x0004: // 32bit floating
-                    item.isExternalValueReference = true;
                     break;
                 case 0x000b: // Boolean - a single byte
-                    item.entryValueReference &= 0xFF;
-                    /*
-                     * System.out.printf("boolean: 0x%04X:%04X, %s\n",
-                     * item.entryType, item.entryValueType,
-                     * (item.entryValueReference == 0) ? "false" : "true");
-                     * /
-                     **/
-                    item.isExternalValueReference = true;
+                    valueReference &= 0xFF;
                     break;
                 case 0x000D:
                 default:
-                    // Is it in the local heap?
-                    item.isExternalValueReference = true; // Assume not
-                    // System.out.println(item.entryValueReference);
-                    // byte[] nodeInfo = getNodeInfo(item.entryValueReference);
-                    final NodeInfo nodeInfoNodeInfo = this.getNodeInfo(item.entryValueReference);
-                    if (nodeInfoNodeInfo == null) {
-                        // It's an external reference that we don't deal with here.
-                        /*
-                         * System.out.printf("%s: %shid 0x%08X\n",
-                         * (item.entryValueType == 0x1f || item.entryValueType ==
-                         * 0x1e) ? "String" : "Other",
-                         * PSTFile.getPropertyDescription(item.entryType,
-                         * item.entryValueType),
-                         * item.entryValueReference);
-                         * /
-                         **/
-                    } else {
-                        // Make a copy of the data
-                        // item.data = new
-                        // byte[nodeInfo.endOffset-nodeInfo.startOffset];
-                        final byte[] nodeInfo = new byte[nodeInfoNodeInfo.length()];
-                        nodeInfoNodeInfo.in.seek(nodeInfoNodeInfo.startOffset);
-                        nodeInfoNodeInfo.in.readCompletely(nodeInfo);
-                        item.data = nodeInfo; // should be new array, so just use it
-                        // System.arraycopy(nodeInfo.data, nodeInfo.startOffset,
-                        // item.data, 0, item.data.length);
-                        item.isExternalValueReference = false;
-                        /*
-                         * if ( item.entryValueType == 0x1f ||
-                         * item.entryValueType == 0x1e )
-                         * {
-                         * try {
-                         * // if ( item.entryType == 0x0037 )
-                         * {
-                         * String temp = new String(item.data, item.entryValueType
-                         * == 0x1E ? "UTF8" : "UTF-16LE");
-                         * System.out.printf("String: 0x%04X:%04X, \"%s\"\n",
-                         * item.entryType, item.entryValueType, temp);
-                         * }
-                         * } catch (UnsupportedEncodingException e) {
-                         * e.printStackTrace();
-                         * }
-                         * }
-                         * else
-                         * {
-                         *
-                         * System.out.printf("Other: 0x%04X:%04X, %d bytes\n",
-                         * item.entryType, item.entryValueType, item.data.length);
-                         *
-                         * }
-                         * /
-                         **/
+                    // Is it in the local heap? if not, it's an external reference that we don't deal with here.
+                    final int[] bounds = this.getHeapNodeBounds(valueReference);
+                    if (bounds != null) {
+                        this.dataStarts[i] = bounds[0];
+                        this.dataEnds[i] = bounds[1];
                     }
                     break;
             }
+            this.valueReferences[i] = valueReference;
+        }
 
-            offset = offset + 8;
+        this.releaseRawData();
+    }
 
-            this.items.put(item.entryType, item);
-            // description += item.toString()+"\n\n";
+    // get the start and end of a node in the heap, as getNodeInfo() but without reading the stream
+    // or null for an external reference
+    private int[] getHeapNodeBounds(final int hnid) throws PSTException {
+        // Zero-length node?
+        if (hnid == 0) {
+            return new int[] { 0, 0 };
+        }
 
+        if ((hnid & 0x1F) != 0) {
+            // Some kind of external node
+            return null;
         }
 
-        this.releaseRawData();
+        final int whichBlock = (hnid >>> 16);
+        if (whichBlock > this.arrayBlocks.length) {
+            // Block doesn't exist!
+            String err = String.format("getNodeInfo: block doesn't exist! hnid = 0x%08X\n", hnid);
+            err += String.format("getNodeInfo: block doesn't exist! whichBlock = 0x%08X\n", whichBlock);
+            err += "\n" + (this.arrayBlocks.length);
+            throw new PSTException(err);
+        }
+
+        // A normal node in a local heap
+        final int index = (hnid & 0xFFFF) >> 5;
+        int blockOffset = 0;
+        if (whichBlock > 0) {
+            blockOffset = this.arrayBlocks[whichBlock - 1].intValue();
+        }
+        try {
+            // Get offset of HN page map
+            int iHeapNodePageMap = this.readHeapShort(blockOffset) + blockOffset;
+            final int cAlloc = this.readHeapShort(iHeapNodePageMap);
+            if (index >= cAlloc + 1) {
+                throw new PSTException(String.format("getNodeInfo: node index doesn't exist! nid = 0x%08X\n", hnid));
+            }
+            iHeapNodePageMap += (2 * index) + 2;
+            final int start = this.readHeapShort(iHeapNodePageMap) + blockOffset;
+            final int end = this.readHeapShort(iHeapNodePageMap + 2) + blockOffset;
+            if (start > end || end > this.heap.length) {
+                throw new PSTException(
+                    String.format("Invalid NodeInfo parameters: start %1$d is greater than end %2$d", start, end)
+                );
+            }
+            return new int[] { start, end };
+        } catch (final ArrayIndexOutOfBoundsException e) {
+            throw new PSTException(String.format("getNodeInfo: node out of heap! nid = 0x%08X\n", hnid), e);
+        }
+    }
+
+    private int readHeapShort(final int offset) {
+        return (int) PSTObject.convertLittleEndianBytesToLong(this.heap, offset, offset + 2);
+    }
+
+    // rank of a tag in the index, or -1
+    private int getRank(final int tag) {
+        final int rank = Arrays.binarySearch(this.tags, tag);
+        return rank < 0 ? -1 : rank;
+    }
+
+    // materialize an item, copying its data from the heap
+    private PSTTableBCItem getItemByRank(final int rank) {
+        PSTTableBCItem item = this.materializedItems[rank];
+        if (item == null) {
+            item = new PSTTableBCItem();
+            item.itemIndex = this.itemIndexes[rank];
+            item.entryType = this.tags[rank];
+            item.entryValueType = this.valueTypes[rank];
+            item.entryValueReference = this.valueReferences[rank];
+            if (this.dataStarts[rank] >= 0) {
+                item.data = Arrays.copyOfRange(this.heap, this.dataStarts[rank], this.dataEnds[rank]);
+                item.isExternalValueReference = false;
+            } else {
+                item.isExternalValueReference = true;
+            }
+            this.materializedItems[rank] = item;
+        }
+        return item;
+    }
+
+    /**
+     * test if a property is in this table.
+     *
+     * @param tag the property tag
+     * @return true if the property is in this table
+     */
+    boolean containsItem(final int tag) {
+        return this.getRank(tag) >= 0;
+    }
+
+    /**
+     * get a property item, decoded on demand.
+     *
+     * @param tag the property tag
+     * @return the item, or null if the property is not in this table
+     */
+    PSTTableBCItem getItem(final int tag) {
+        final int rank = this.getRank(tag);
+        return rank < 0 ? null : this.getItemByRank(rank);
     }
 
     /**
      * get the items parsed out of this table.
+     * <p>
+     * This is a read only view, the items being decoded when accessed.
      *
      * @return items
      */
-    public HashMap<Integer, PSTTableBCItem> getItems() {
+    public Map<Integer, PSTTableBCItem> getItems() {
         return this.items;
     }
 
@@ -208,4 +287,59 @@ class PSTTableBC extends PSTTable {
 
         return this.description + this.descBuffer.toString();
     }
+
+    /**
+     * Read only map view on the properties, decoding items when accessed.
+     */
+    private class ItemsView extends AbstractMap<Integer, PSTTableBCItem> {
+
+        @Override
+        public PSTTableBCItem get(final Object key) {
+            return key instanceof Integer ? PSTTableBC.this.getItem((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof Integer && PSTTableBC.this.containsItem((Integer) key);
+        }
+
+        @Override
+        public int size() {
+            return PSTTableBC.this.tags.length;
+        }
+
+        @Override
+        public Set<Entry<Integer, PSTTableBCItem>> entrySet() {
+            return new AbstractSet<Entry<Integer, PSTTableBCItem>>() {
+                @Override
+                public Iterator<Entry<Integer, PSTTableBCItem>> iterator() {
+                    return new Iterator<Entry<Integer, PSTTableBCItem>>() {
+                        private int rank = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.rank < PSTTableBC.this.tags.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, PSTTableBCItem> next() {
+                            if (!this.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int current = this.rank++;
+                            return new SimpleImmutableEntry<>(
+                                PSTTableBC.this.tags[current],
+                                PSTTableBC.this.getItemByRank(current)
+                            );
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PSTTableBC.this.tags.length;
+                }
+            };
+        }
+    }
 }
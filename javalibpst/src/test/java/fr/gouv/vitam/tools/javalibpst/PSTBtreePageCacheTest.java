@@ -0,0 +1,88 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+@RunWith(JUnit4.class)
+public class PSTBtreePageCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        PSTBtreePageCache cache = new PSTBtreePageCache(1024);
+        cache.put(0, new byte[512]);
+        cache.put(512, new byte[512]);
+        // touch first page so that the second one is the least recently used
+        Assert.assertNotNull(cache.get(0));
+        cache.put(1024, new byte[512]);
+
+        Assert.assertNotNull(cache.get(0));
+        Assert.assertNull(cache.get(512));
+        Assert.assertNotNull(cache.get(1024));
+        Assert.assertEquals(1024, cache.getCurrentBytes());
+        Assert.assertEquals(3, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        cache.setMaxBytes(0);
+        Assert.assertEquals(0, cache.getCurrentBytes());
+        cache.put(0, new byte[512]);
+        Assert.assertNull(cache.get(0));
+    }
+
+    @Test
+    public void testPSTFileLookupsUseCache() throws PSTException, IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        PSTFile pstFile = new PSTFile(new File(dirUrl.toURI()));
+        long misses = pstFile.getBtreePageCacheMisses();
+        PSTObject.detectAndLoadPSTObject(pstFile, 2097188);
+        long hits = pstFile.getBtreePageCacheHits();
+        PSTObject.detectAndLoadPSTObject(pstFile, 2097188);
+
+        Assert.assertTrue(misses > 0);
+        Assert.assertTrue(pstFile.getBtreePageCacheHits() > hits);
+        pstFile.close();
+    }
+}
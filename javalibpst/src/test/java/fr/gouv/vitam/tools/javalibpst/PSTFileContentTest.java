@@ -37,11 +37,18 @@
  */
 package fr.gouv.vitam.tools.javalibpst;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RunWith(JUnit4.class)
 public class PSTFileContentTest {
@@ -87,4 +94,76 @@ public class PSTFileContentTest {
 
         pstFileContent.readCompletely(new byte[10]);
     }
+
+    @Test
+    public void testPositionalRead() throws IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        File file = new File(dirUrl.toURI());
+        byte[] expected = Files.readAllBytes(file.toPath());
+
+        // small windows to have reads crossing window boundaries
+        PSTFileContent[] contents = new PSTFileContent[] {
+            new PSTRAFileContent(file),
+            new PSTByteFileContent(expected),
+            new PSTMappedFileContent(file, 1000),
+        };
+        for (PSTFileContent content : contents) {
+            byte[] buffer = new byte[3000];
+            for (long position = 0; position < expected.length; position += 777) {
+                int length = (int) Math.min(buffer.length, expected.length - position);
+                content.readCompletely(position, buffer, 0, length);
+                for (int i = 0; i < length; i++) {
+                    Assert.assertEquals(
+                        content.getClass().getSimpleName() + " byte at " + (position + i),
+                        expected[(int) position + i],
+                        buffer[i]
+                    );
+                }
+            }
+            Assert.assertEquals(-1, content.read(expected.length, buffer, 0, 1));
+            content.close();
+        }
+    }
+
+    @Test
+    public void testPositionalReadAfterInterruptedReader() throws Exception {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        File file = new File(dirUrl.toURI());
+        byte[] expected = Files.readAllBytes(file.toPath());
+        PSTFileContent content = new PSTRAFileContent(file);
+        byte[] buffer = new byte[100];
+        content.readCompletely(0, buffer, 0, buffer.length);
+
+        // an interrupted reader fails, and closes the underlying channel
+        AtomicReference<Throwable> readerFailure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            Thread.currentThread().interrupt();
+            try {
+                content.read(0, new byte[100], 0, 100);
+            } catch (Throwable t) {
+                readerFailure.set(t);
+            }
+        });
+        reader.start();
+        reader.join();
+        Assert.assertTrue(readerFailure.get() instanceof ClosedByInterruptException);
+
+        // but other readers go on, as well as the sequential API
+        content.readCompletely(200, buffer, 0, buffer.length);
+        for (int i = 0; i < buffer.length; i++) {
+            Assert.assertEquals(expected[200 + i], buffer[i]);
+        }
+        content.seek(10);
+        Assert.assertEquals(expected[10] & 0xFF, content.read());
+        content.close();
+    }
+
+    @Test
+    public void testMappedPSTFile() throws PSTException, IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        PSTFile pstFile = new PSTFile(new PSTMappedFileContent(new File(dirUrl.toURI()), 4096));
+        PSTDistList obj = (PSTDistList) PSTObject.detectAndLoadPSTObject(pstFile, 2097188);
+        Assert.assertEquals("Correct number of members", 3, obj.getDistributionListMembers().length);
+        pstFile.close();
+    }
 }
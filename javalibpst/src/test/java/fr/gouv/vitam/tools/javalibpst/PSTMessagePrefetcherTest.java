@@ -0,0 +1,102 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class PSTMessagePrefetcherTest {
+
+    @Test
+    public void testPrefetcherMatchesChildrenCursor() throws PSTException, IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        PSTFile pstFile = new PSTFile(new File(dirUrl.toURI()));
+        int childCount = checkFolder(pstFile.getRootFolder());
+        Assert.assertTrue(childCount > 0);
+        Assert.assertTrue(pstFile.getBlockPrefetchHits() > 0);
+        pstFile.close();
+    }
+
+    private int checkFolder(PSTFolder folder) throws PSTException, IOException {
+        int childCount = 0;
+        if (folder.getContentCount() > 0) {
+            List<PSTObject> expected = new ArrayList<>();
+            PSTObject child = folder.getNextChild();
+            while (child != null) {
+                expected.add(child);
+                child = folder.getNextChild();
+            }
+
+            // small batches to go through several batches
+            PSTMessagePrefetcher prefetcher = folder.getChildrenPrefetcher(2);
+            for (PSTObject expectedChild : expected) {
+                Assert.assertTrue(prefetcher.hasNext());
+                PSTObject prefetchedChild = prefetcher.next();
+                Assert.assertEquals(expectedChild.getDescriptorNodeId(), prefetchedChild.getDescriptorNodeId());
+                Assert.assertEquals(expectedChild.getClass(), prefetchedChild.getClass());
+                if (expectedChild instanceof PSTMessage) {
+                    PSTMessage expectedMessage = (PSTMessage) expectedChild;
+                    PSTMessage prefetchedMessage = (PSTMessage) prefetchedChild;
+                    Assert.assertEquals(expectedMessage.getSubject(), prefetchedMessage.getSubject());
+                    Assert.assertEquals(expectedMessage.getBody(), prefetchedMessage.getBody());
+                    Assert.assertEquals(expectedMessage.getNumberOfRecipients(), prefetchedMessage.getNumberOfRecipients());
+                    Assert.assertEquals(expectedMessage.getNumberOfAttachments(), prefetchedMessage.getNumberOfAttachments());
+                }
+            }
+            Assert.assertFalse(prefetcher.hasNext());
+            Assert.assertNull(prefetcher.next());
+            childCount += expected.size();
+        }
+        if (folder.hasSubfolders()) {
+            for (PSTFolder subFolder : folder.getSubFolders()) {
+                childCount += checkFolder(subFolder);
+            }
+        }
+        return childCount;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+@RunWith(JUnit4.class)
+public class PSTNodeInflaterInputStreamTest {
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(baos)) {
+            dos.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream is, int bufferSize) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            baos.write(buffer, 0, read);
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testOneZlibStreamPerBlock() throws IOException {
+        // three blocks, each one its own zlib stream, stored with a gap between them
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        List<OffsetIndexItem> blocks = new ArrayList<>();
+        for (int b = 0; b < 3; b++) {
+            byte[] plain = new byte[20000 + b];
+            for (int i = 0; i < plain.length; i++) {
+                plain[i] = (byte) ((i * (b + 1)) % 251);
+            }
+            expected.write(plain);
+            byte[] compressed = deflate(plain);
+            file.write(new byte[17]);
+            blocks.add(new OffsetIndexItem(b * 2 + 4, file.size(), compressed.length));
+            file.write(compressed);
+        }
+
+        PSTFileContent content = new PSTByteFileContent(file.toByteArray());
+        for (int bufferSize : new int[] { 1, 100, 8192, 100000 }) {
+            InputStream is = new PSTNodeInflaterInputStream(content, blocks);
+            Assert.assertArrayEquals(expected.toByteArray(), readAll(is, bufferSize));
+            Assert.assertEquals(-1, is.read());
+            is.close();
+        }
+    }
+}
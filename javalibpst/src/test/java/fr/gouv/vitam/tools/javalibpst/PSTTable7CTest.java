@@ -0,0 +1,124 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class PSTTable7CTest {
+
+    @Test
+    public void testColumnarReadingMatchesItems() throws PSTException, IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        PSTFile pstFile = new PSTFile(new File(dirUrl.toURI()));
+        int rowCount = checkFolder(pstFile, pstFile.getRootFolder());
+        Assert.assertTrue(rowCount > 0);
+        pstFile.close();
+    }
+
+    private PSTTable7C getContentsTable(PSTFile pstFile, PSTFolder folder) throws PSTException, IOException {
+        DescriptorIndexNode folderDescriptor = pstFile.getDescriptorIndexNode(folder.getDescriptorNodeId() + 12);
+        HashMap<Integer, PSTDescriptorItem> localDescriptorItems = null;
+        if (folderDescriptor.localDescriptorsOffsetIndexIdentifier > 0) {
+            localDescriptorItems = pstFile.getPSTDescriptorItems(
+                folderDescriptor.localDescriptorsOffsetIndexIdentifier
+            );
+        }
+        return new PSTTable7C(
+            new PSTNodeInputStream(pstFile, pstFile.getOffsetIndexNode(folderDescriptor.dataOffsetIndexIdentifier)),
+            localDescriptorItems
+        );
+    }
+
+    private int checkFolder(PSTFile pstFile, PSTFolder folder) throws PSTException, IOException {
+        int rowCount = 0;
+        if (folder.getContentCount() > 0 && folder.getNodeType() != PSTObject.NID_TYPE_SEARCH_FOLDER) {
+            PSTTable7C table = getContentsTable(pstFile, folder);
+            List<HashMap<Integer, PSTTable7CItem>> items = table.getItems(-1, -1);
+            int[] rowIds = table.getRowIds(-1, -1);
+            Assert.assertEquals(items.size(), rowIds.length);
+
+            // all the fixed size integer columns
+            int[] columnIds = new int[table.columnDescriptors.length + 1];
+            columnIds[0] = 0x67F2;
+            for (int col = 0; col < table.columnDescriptors.length; col++) {
+                columnIds[col + 1] = table.columnDescriptors[col].id;
+            }
+            int[][] columns = table.getIntColumns(columnIds, -1, -1);
+
+            PSTTable7C.RowCursor cursor = table.getRowCursor();
+            for (int row = 0; row < items.size(); row++) {
+                HashMap<Integer, PSTTable7CItem> item = items.get(row);
+                Assert.assertEquals(item.get(0x67F2).entryValueReference, rowIds[row]);
+                Assert.assertEquals(rowIds[row], columns[0][row]);
+                cursor.moveTo(row);
+                Assert.assertEquals(rowIds[row], cursor.getRowId());
+                for (int col = 0; col < table.columnDescriptors.length; col++) {
+                    PSTTable7C.ColumnDescriptor descriptor = table.columnDescriptors[col];
+                    PSTTable7CItem cell = item.get(descriptor.id);
+                    if (descriptor.id == 0x67F2) continue;
+                    Assert.assertEquals(cell != null, cursor.hasColumn(col));
+                    if (cell == null) {
+                        Assert.assertEquals(0, columns[col + 1][row]);
+                    } else if (descriptor.cbData == 8) {
+                        Assert.assertEquals(PSTObject.convertLittleEndianBytesToLong(cell.data), cursor.getValue(col));
+                    } else if (descriptor.cbData != 4 || cell.isExternalValueReference) {
+                        Assert.assertEquals(cell.entryValueReference, columns[col + 1][row]);
+                    }
+                }
+            }
+            rowCount += rowIds.length;
+        }
+        if (folder.hasSubfolders()) {
+            for (PSTFolder subFolder : folder.getSubFolders()) {
+                rowCount += checkFolder(pstFile, subFolder);
+            }
+        }
+        return rowCount;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.javalibpst;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public class PSTTableBCTest {
+
+    @Test
+    public void testLazyItemsMatchHeapNodes() throws PSTException, IOException, URISyntaxException {
+        URL dirUrl = ClassLoader.getSystemResource("dist-list.pst");
+        PSTFile pstFile = new PSTFile(new File(dirUrl.toURI()));
+        int itemCount = checkFolder(pstFile, pstFile.getRootFolder());
+        Assert.assertTrue(itemCount > 0);
+        pstFile.close();
+    }
+
+    private int checkObject(PSTFile pstFile, PSTObject object) throws PSTException, IOException {
+        DescriptorIndexNode descriptor = pstFile.getDescriptorIndexNode(object.getDescriptorNodeId());
+        PSTTableBC table = new PSTTableBC(
+            new PSTNodeInputStream(pstFile, pstFile.getOffsetIndexNode(descriptor.dataOffsetIndexIdentifier))
+        );
+        Map<Integer, PSTTableBCItem> items = table.getItems();
+        int count = 0;
+        int previousTag = -1;
+        for (Map.Entry<Integer, PSTTableBCItem> entry : items.entrySet()) {
+            int tag = entry.getKey();
+            PSTTableBCItem item = entry.getValue();
+            Assert.assertTrue(tag > previousTag);
+            previousTag = tag;
+            Assert.assertEquals(tag, item.entryType);
+            Assert.assertTrue(table.containsItem(tag));
+            Assert.assertSame(item, table.getItem(tag));
+            Assert.assertSame(item, items.get(tag));
+            if (!item.isExternalValueReference) {
+                // the data copied from the heap buffer is the node read from the stream
+                PSTTable.NodeInfo nodeInfo = table.getNodeInfo(item.entryValueReference);
+                byte[] expected = new byte[nodeInfo.length()];
+                nodeInfo.in.seek(nodeInfo.startOffset);
+                nodeInfo.in.readCompletely(expected);
+                Assert.assertTrue(Arrays.equals(expected, item.data));
+            }
+            count++;
+        }
+        Assert.assertEquals(items.size(), count);
+        Assert.assertFalse(table.containsItem(-1));
+        Assert.assertNull(table.getItem(-1));
+        return count;
+    }
+
+    private int checkFolder(PSTFile pstFile, PSTFolder folder) throws PSTException, IOException {
+        int itemCount = checkObject(pstFile, folder);
+        PSTObject child;
+        while ((child = folder.getNextChild()) != null) {
+            itemCount += checkObject(pstFile, child);
+        }
+        if (folder.hasSubfolders()) {
+            for (PSTFolder subFolder : folder.getSubFolders()) {
+                itemCount += checkFolder(pstFile, subFolder);
+            }
+        }
+        return itemCount;
+    }
+}
@@ -93,6 +93,7 @@ import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger
  * <tr><td>--user x</td><td>Username for authentication</td></tr>
  * <tr><td>--password x</td><td>Password for authentication</td></tr>
  * <tr><td>--server HostName:port</td><td>Mail server to connect</td></tr>
+ * <tr><td>--mboxindexdir x</td><td>Work directory keeping mbox messages indexes between extractions</td></tr>
  * <!-- Add other rows similarly -->
  * </tbody>
  * </table>
@@ -211,6 +212,14 @@ public class MailExtractApp {
         Option model = new Option("model", "model", true, "model of metadata extraction on disk 1 or 2 (default 2)");
         options.addOption(model);
 
+        Option mboxindexdir = new Option(
+            "mi",
+            "mboxindexdir",
+            true,
+            "work directory keeping mbox and thunderbird messages indexes between extractions [default none]"
+        );
+        options.addOption(mboxindexdir);
+
         Option warning = new Option(
             "w",
             "warning",
@@ -455,6 +464,9 @@ public class MailExtractApp {
             extractTextMetadata.contains("a"), // extract file text metadata
             model
         );
+        if (cmd.hasOption("mboxindexdir")) {
+            storeExtractorOptions.mboxIndexDirectory = noNullString(cmd.getOptionValue("mboxindexdir"));
+        }
 
         // init default store extractors
         // Prevent running external tools during apache-tika text extraction (tesseract, ffmpeg...).
@@ -49,6 +49,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger.doProgressLog;
 
@@ -282,6 +284,10 @@ public class StoreAttachment {
      * Extract all attachments as children node of a specific ArchiveUnit node.
      * <p>
      * It also extract recursively store attachment if any.
+     * <p>
+     * If the parallel attachments option is set, the text extraction of the file attachments is forked in the
+     * extractor scheduler. Archive units are still created, extracted and written in the attachments order by the
+     * calling thread, so that names and output are the same as in sequential mode.
      *
      * @param attachments the attachments
      * @param messageNode the message node
@@ -295,35 +301,80 @@ public class StoreAttachment {
         boolean writeFlag
     ) throws MailExtractLibException, InterruptedException {
         if (attachments != null) {
-            for (StoreAttachment a : attachments) {
-                // message identification
-                if (a.attachmentType == StoreAttachment.STORE_ATTACHMENT) {
-                    // recursive extraction of a message in attachment...
-                    doProgressLog(
-                        a.fatherElement.getProgressLogger(),
-                        MailExtractProgressLogger.MESSAGE_DETAILS,
-                        "mailextractlib: attached message extraction",
-                        null
-                    );
-                    if (a.extractAsStoreAttachment(messageNode, writeFlag)) continue;
-                    doProgressLog(
-                        a.fatherElement.getProgressLogger(),
-                        MailExtractProgressLogger.MESSAGE_DETAILS,
-                        "mailextractlib: can't extract as an attached message, extract as standard attachment",
-                        null
-                    );
+            FutureTask<String>[] textExtractions = forkTextExtractions(attachments);
+            try {
+                for (int i = 0; i < attachments.size(); i++) {
+                    StoreAttachment a = attachments.get(i);
+                    // message identification
+                    if (a.attachmentType == StoreAttachment.STORE_ATTACHMENT) {
+                        // recursive extraction of a message in attachment...
+                        doProgressLog(
+                            a.fatherElement.getProgressLogger(),
+                            MailExtractProgressLogger.MESSAGE_DETAILS,
+                            "mailextractlib: attached message extraction",
+                            null
+                        );
+                        if (a.extractAsStoreAttachment(messageNode, writeFlag)) continue;
+                        doProgressLog(
+                            a.fatherElement.getProgressLogger(),
+                            MailExtractProgressLogger.MESSAGE_DETAILS,
+                            "mailextractlib: can't extract as an attached message, extract as standard attachment",
+                            null
+                        );
+                    }
+                    // standard attachment file
+                    a.extractAsFileOrInlineAttachment(messageNode, writeFlag, textExtractions[i]);
+                }
+            } finally {
+                // forked extractions not joined after a failure
+                for (FutureTask<String> textExtraction : textExtractions) {
+                    if (textExtraction != null) textExtraction.cancel(true);
                 }
-                // standard attachment file
-                a.extractAsFileOrInlineAttachment(messageNode, writeFlag);
             }
         }
     }
 
+    // fork the text extraction of file attachments if asked for and worth it, null for the others
+    @SuppressWarnings("unchecked")
+    private static FutureTask<String>[] forkTextExtractions(List<StoreAttachment> attachments) {
+        FutureTask<String>[] textExtractions = new FutureTask[attachments.size()];
+        if (attachments.size() < 2) return textExtractions;
+        StoreExtractor fatherExtractor = attachments.get(0).fatherElement.getStoreExtractor();
+        StoreExtractorOptions options = fatherExtractor.options;
+        if (!options.parallelAttachments || !(options.extractFileTextFile || options.extractFileTextMetadata)) {
+            return textExtractions;
+        }
+        StoreExtractorScheduler scheduler = fatherExtractor.getScheduler();
+        for (int i = 0; i < attachments.size(); i++) {
+            StoreAttachment a = attachments.get(i);
+            if ((a.attachmentType != StoreAttachment.STORE_ATTACHMENT) && (a.attachmentContent instanceof byte[])) {
+                final byte[] content = (byte[]) a.attachmentContent;
+                textExtractions[i] = scheduler.fork(() -> TikaExtractor.getInstance().extractTextFromBinary(content));
+            }
+        }
+        return textExtractions;
+    }
+
+    // get the text extraction result, computed in the calling thread if not forked or not started
+    private String getTextExtract(FutureTask<String> textExtraction)
+        throws MailExtractLibException, InterruptedException {
+        if (textExtraction == null) return TikaExtractor.getInstance().extractTextFromBinary(getRawAttachmentContent());
+        try {
+            return StoreExtractorScheduler.join(textExtraction);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MailExtractLibException) throw (MailExtractLibException) e.getCause();
+            throw new MailExtractLibException("mailextractlib: text extraction failure", e.getCause());
+        }
+    }
+
     /**
      * Extract a file or inline message attachment.
      */
-    private void extractAsFileOrInlineAttachment(ArchiveUnit node, boolean writeFlag)
-        throws MailExtractLibException, InterruptedException {
+    private void extractAsFileOrInlineAttachment(
+        ArchiveUnit node,
+        boolean writeFlag,
+        FutureTask<String> textExtraction
+    ) throws MailExtractLibException, InterruptedException {
         ArchiveUnit attachmentNode;
         StoreExtractor fatherExtractor = fatherElement.getStoreExtractor();
 
@@ -352,7 +403,7 @@ public class StoreAttachment {
         // Text object extraction
         String textExtract = null;
         if (fatherExtractor.options.extractFileTextFile || fatherExtractor.options.extractFileTextMetadata) try {
-            textExtract = TikaExtractor.getInstance().extractTextFromBinary(getRawAttachmentContent());
+            textExtract = getTextExtract(textExtraction);
         } catch (MailExtractLibException ee) {
             doProgressLog(
                 fatherExtractor.getProgressLogger(),
@@ -472,7 +523,8 @@ public class StoreAttachment {
                         true
                     );
                 }
-                if (writeFlag) node.write();
+                // a non container embedded store is extracted in the father unit, written by its owner
+                if (writeFlag && isContainerScheme) node.write();
                 doProgressLog(
                     fatherExtractor.getProgressLogger(),
                     MailExtractProgressLogger.MESSAGE_DETAILS,
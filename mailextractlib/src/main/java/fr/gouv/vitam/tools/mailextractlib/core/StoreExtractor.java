@@ -38,6 +38,8 @@
 package fr.gouv.vitam.tools.mailextractlib.core;
 
 import fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnit;
+import fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnitSink;
+import fr.gouv.vitam.tools.mailextractlib.nodes.DirectoryArchiveUnitSink;
 import fr.gouv.vitam.tools.mailextractlib.store.javamail.JMStoreExtractor;
 import fr.gouv.vitam.tools.mailextractlib.store.microsoft.msg.MsgStoreExtractor;
 import fr.gouv.vitam.tools.mailextractlib.store.microsoft.pst.PstStoreExtractor;
@@ -445,6 +447,26 @@ public abstract class StoreExtractor {
     private static final double THREAD_MULTIPLIER = Double.parseDouble(System.getProperty("thread.factor", "1.5"));
     private int maxParallelThreads = (int) Math.round(Runtime.getRuntime().availableProcessors() * THREAD_MULTIPLIER);
 
+    /**
+     * The number of pending tasks (running or waiting) allowed per thread in the scheduler.
+     */
+    private static final int PENDING_TASKS_PER_THREAD = 2;
+
+    /**
+     * The extractor-wide scheduler, only for the root store extractor, created at first use.
+     */
+    private StoreExtractorScheduler scheduler;
+
+    /**
+     * The index of written objects for deduplication, only for the root store extractor, created at first use.
+     */
+    private StoreExtractorObjectsIndex objectsIndex;
+
+    /**
+     * The sink receiving the written ArchiveUnits, only for the root store extractor, by default writing them on disk.
+     */
+    private ArchiveUnitSink archiveUnitSink;
+
     /**
      * Add mimetypes, scheme, isContainer, store extractor known relation.
      * <p>
@@ -735,6 +757,7 @@ public abstract class StoreExtractor {
         this.fatherElement = fatherElement;
         if (fatherStoreExtractor == null) this.rootStoreExtractor = this;
         else this.rootStoreExtractor = fatherStoreExtractor.rootStoreExtractor;
+        this.archiveUnitSink = new DirectoryArchiveUnitSink();
         this.logger = logger;
 
         this.description = ":p:" + scheme + ":u:" + user;
@@ -1075,6 +1098,11 @@ public abstract class StoreExtractor {
         if (subElementSummary.isEmpty()) summary += " without embedded elements";
         else summary += " with" + subElementSummary + " embedded";
         summary += " for a total size of " + readableFileSize(getTotalRawSize());
+        if ((objectsIndex != null) && (objectsIndex.getDeduplicatedObjectsCount() > 0)) summary +=
+            ", " +
+            objectsIndex.getDeduplicatedObjectsCount() +
+            " deduplicated objects saving " +
+            readableFileSize(objectsIndex.getSavedBytes());
         return summary;
     }
 
@@ -1172,6 +1200,12 @@ public abstract class StoreExtractor {
      */
     public void endStoreExtractor() throws MailExtractLibException {
         closeGlobalListsPSMap();
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
     }
 
     /**
@@ -1246,6 +1280,63 @@ public abstract class StoreExtractor {
         this.maxParallelThreads = maxParallelThreads;
     }
 
+    /**
+     * Gets the extractor-wide scheduler, owned by the root store extractor and created at first use.
+     * <p>
+     * It is sized by the maximum number of parallel threads, so this one has to be set before. Only root level
+     * folders submit tasks, nested extractions being already done in a scheduler thread.
+     *
+     * @return the scheduler
+     */
+    public StoreExtractorScheduler getScheduler() {
+        if (!isRoot()) return rootStoreExtractor.getScheduler();
+        synchronized (this) {
+            if (scheduler == null) scheduler = new StoreExtractorScheduler(
+                maxParallelThreads,
+                maxParallelThreads * PENDING_TASKS_PER_THREAD,
+                options.virtualThreads
+            );
+            return scheduler;
+        }
+    }
+
+    /**
+     * Gets the extractor-wide index of written objects, owned by the root store extractor and created at first use,
+     * or null if the deduplicate objects option is not set.
+     *
+     * @return the objects index or null
+     */
+    public StoreExtractorObjectsIndex getObjectsIndex() {
+        if (!isRoot()) return rootStoreExtractor.getObjectsIndex();
+        if (!options.deduplicateObjects) return null;
+        synchronized (this) {
+            if (objectsIndex == null) objectsIndex = new StoreExtractorObjectsIndex();
+            return objectsIndex;
+        }
+    }
+
+    /**
+     * Gets the sink receiving the written ArchiveUnits, defined on the root store extractor.
+     *
+     * @return the ArchiveUnit sink
+     */
+    public ArchiveUnitSink getArchiveUnitSink() {
+        if (!isRoot()) return rootStoreExtractor.getArchiveUnitSink();
+        return archiveUnitSink;
+    }
+
+    /**
+     * Sets the sink receiving the written ArchiveUnits instead of the on disk representation.
+     * <p>
+     * It has to be set on the root store extractor, before extraction.
+     *
+     * @param archiveUnitSink the ArchiveUnit sink, or null to write ArchiveUnits on disk
+     */
+    public void setArchiveUnitSink(ArchiveUnitSink archiveUnitSink) {
+        if (archiveUnitSink == null) this.archiveUnitSink = new DirectoryArchiveUnitSink();
+        else this.archiveUnitSink = archiveUnitSink;
+    }
+
     /**
      * Gets the root store extractor in nested extractions.
      *
@@ -0,0 +1,135 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.core;
+
+import fr.gouv.vitam.tools.mailextractlib.formattools.TikaExtractor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extractor-wide index of the object files written on disk, by content digest, for the objects deduplication.
+ * <p>
+ * It is owned by the root {@link StoreExtractor} when the deduplicate objects option is set. When an object with
+ * the same content as an already written one has to be written, a hard link to the existing file is created
+ * instead, and the saved bytes are counted. If the file system doesn't support hard links the object is written
+ * as usual.
+ * <p>
+ * Digests are the SHA-256 ones, as the {@link TikaExtractor} text cache keys.
+ */
+public class StoreExtractorObjectsIndex {
+
+    /**
+     * Minimum size of the deduplicated objects, smaller ones being simply written.
+     */
+    public static final int MIN_DEDUPLICATED_SIZE = 1024;
+
+    private final Map<String, Path> filesByDigest = new ConcurrentHashMap<>();
+    private final AtomicInteger deduplicatedObjectsCount = new AtomicInteger();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Gets the digest of an object content, or null if the object is too small to be deduplicated.
+     *
+     * @param content the object content
+     * @return the digest or null
+     */
+    public String getDigest(byte[] content) {
+        if ((content == null) || (content.length < MIN_DEDUPLICATED_SIZE)) return null;
+        return TikaExtractor.getDigest(content);
+    }
+
+    /**
+     * Create the object file as a hard link to an already written file with the same digest, if any.
+     * <p>
+     * A file already existing at this place, for example from a previous extraction in the same directory, is
+     * first deleted, as it may itself be a link shared with other files.
+     *
+     * @param digest the object content digest
+     * @param file   the object file to create
+     * @param size   the object size
+     * @return true, if the file was created as a link
+     */
+    public boolean link(String digest, Path file, long size) {
+        Path existing = filesByDigest.get(digest);
+        if ((existing == null) || existing.equals(file)) return false;
+        try {
+            Files.deleteIfExists(file);
+            Files.createLink(file, existing);
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            // no link possible (file system...), the object will be written
+            return false;
+        }
+        deduplicatedObjectsCount.incrementAndGet();
+        savedBytes.addAndGet(size);
+        return true;
+    }
+
+    /**
+     * Register a written object file, if no file is already registered for this digest.
+     *
+     * @param digest the object content digest
+     * @param file   the written object file
+     */
+    public void put(String digest, Path file) {
+        filesByDigest.putIfAbsent(digest, file);
+    }
+
+    /**
+     * Gets the number of objects created as links.
+     *
+     * @return the deduplicated objects count
+     */
+    public int getDeduplicatedObjectsCount() {
+        return deduplicatedObjectsCount.get();
+    }
+
+    /**
+     * Gets the number of bytes not written thanks to deduplication.
+     *
+     * @return the saved bytes
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+}
@@ -90,6 +90,26 @@ public class StoreExtractorOptions {
     /** The model of extraction on disk. */
     public int model;
 
+    /** The virtual threads mode flag, for I/O-bound stores (only effective on Java 21 and later). */
+    public boolean virtualThreads;
+
+    /**
+     * The parallel attachments flag, to fork the text extraction of the attachments of one message in the
+     * extractor scheduler.
+     */
+    public boolean parallelAttachments;
+
+    /**
+     * The deduplicate objects flag, to write identical objects files once on disk and hard link the copies.
+     */
+    public boolean deduplicateObjects;
+
+    /**
+     * The work directory in which mbox messages indexes are kept, to avoid scanning again unchanged mbox files, or
+     * null for no indexes.
+     */
+    public String mboxIndexDirectory;
+
     /**
      * Instantiates a new store extractor options.
      */
@@ -109,6 +129,10 @@ public class StoreExtractorOptions {
         extractFileTextMetadata = false;
         defaultCharsetName = "windows-1252";
         model = 2;
+        virtualThreads = false;
+        parallelAttachments = false;
+        deduplicateObjects = false;
+        mboxIndexDirectory = null;
     }
 
     /**
@@ -0,0 +1,307 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.core;
+
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extractor-wide scheduler for the parallel processing of store elements.
+ * <p>
+ * It is owned by the root {@link StoreExtractor} and shared by all the folders of the extraction, so that threads
+ * are created once for the whole extraction and not for each folder.
+ * <p>
+ * Submissions are bounded: at most {@link #getMaxPendingTasks()} tasks can be running or waiting at the same time,
+ * and a submission blocks until a slot is freed. The number of elements alive at the same time is then proportional
+ * to the number of threads and not to the folder size.
+ * <p>
+ * In virtual threads mode, adapted to I/O-bound stores, each task runs in its own virtual thread when the running
+ * JVM provides them (Java 21 and later), the number of concurrent tasks being still bounded by the pending tasks
+ * limit. Otherwise platform threads are used.
+ * <p>
+ * Beside task groups, computations can be forked from within a task, for example the text extraction of the
+ * attachments of one message, and then joined in the calling thread.
+ */
+public class StoreExtractorScheduler {
+
+    /**
+     * Maximum wait, in seconds, for a slot or a task completion before the folder processing is aborted.
+     */
+    public static final int TASK_TIMEOUT_SECONDS = 60;
+
+    private final ExecutorService executor;
+    private final Semaphore pendingTasksSlots;
+    private final int maxPendingTasks;
+    private final boolean virtualThreads;
+
+    /**
+     * Instantiates a new store extractor scheduler.
+     *
+     * @param threads         the number of platform threads
+     * @param maxPendingTasks the maximum number of running or waiting tasks
+     * @param virtualThreads  the virtual threads mode flag
+     */
+    public StoreExtractorScheduler(int threads, int maxPendingTasks, boolean virtualThreads) {
+        ExecutorService virtualThreadsExecutor = virtualThreads ? createVirtualThreadsExecutor() : null;
+        this.virtualThreads = virtualThreadsExecutor != null;
+        this.executor = this.virtualThreads
+            ? virtualThreadsExecutor
+            : Executors.newFixedThreadPool(Math.max(1, threads));
+        this.maxPendingTasks = Math.max(1, maxPendingTasks);
+        this.pendingTasksSlots = new Semaphore(this.maxPendingTasks);
+    }
+
+    // get a virtual thread per task executor by reflection, the compilation target preceding virtual threads
+    private static ExecutorService createVirtualThreadsExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the maximum number of running or waiting tasks.
+     *
+     * @return the maximum pending tasks
+     */
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    /**
+     * Is the scheduler using virtual threads.
+     * <p>
+     * This is false if virtual threads mode was asked for but the running JVM doesn't provide them.
+     *
+     * @return true, if using virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Creates a new task group, used to submit the tasks of one folder and to wait for their completion.
+     *
+     * @param logger  the progress logger used to report task failures
+     * @param context the context prefix of log and exception messages (for example "mailextractlib.javamail")
+     * @return the task group
+     */
+    public TaskGroup createTaskGroup(MailExtractProgressLogger logger, String context) {
+        return new TaskGroup(logger, context);
+    }
+
+    /**
+     * Fork a computation, run in the scheduler if a slot is free, and otherwise by the calling thread when joined.
+     * <p>
+     * The result has to be obtained with {@link #join(FutureTask)}, which runs the computation in the calling thread
+     * if no scheduler thread has started it yet. A task waiting for its own computations then never starves the
+     * scheduler, even if all the threads are busy with such tasks.
+     *
+     * @param <T>         the result type
+     * @param computation the computation
+     * @return the forked computation
+     */
+    public <T> FutureTask<T> fork(Callable<T> computation) {
+        ForkedComputation<T> forked = new ForkedComputation<>(computation);
+        if (pendingTasksSlots.tryAcquire()) {
+            forked.holdsSlot = true;
+            try {
+                executor.execute(forked);
+            } catch (RejectedExecutionException e) {
+                forked.holdsSlot = false;
+                pendingTasksSlots.release();
+            }
+        }
+        return forked;
+    }
+
+    /**
+     * Join a forked computation, running it in the calling thread if not yet started.
+     *
+     * @param <T>    the result type
+     * @param forked the forked computation
+     * @return the computation result
+     * @throws ExecutionException   if the computation threw an exception
+     * @throws InterruptedException the interrupted exception
+     */
+    public static <T> T join(FutureTask<T> forked) throws ExecutionException, InterruptedException {
+        forked.run();
+        return forked.get();
+    }
+
+    // computation releasing its scheduler slot when completed or cancelled
+    private class ForkedComputation<T> extends FutureTask<T> {
+
+        private volatile boolean holdsSlot;
+
+        private ForkedComputation(Callable<T> computation) {
+            super(computation);
+        }
+
+        @Override
+        protected void done() {
+            if (holdsSlot) pendingTasksSlots.release();
+        }
+    }
+
+    /**
+     * Shutdown the scheduler, interrupting running tasks.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Element processing task.
+     */
+    @FunctionalInterface
+    public interface StoreTask {
+        /**
+         * Do the task.
+         *
+         * @throws Exception any exception, logged and dropped by the task group
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * Group of tasks submitted to the scheduler, typically all the elements of one folder.
+     * <p>
+     * Tasks failures are logged and the failed element is dropped, as the other elements of the folder are
+     * processed.
+     */
+    public class TaskGroup {
+
+        private final CompletionService<Void> completionService;
+        private final MailExtractProgressLogger logger;
+        private final String context;
+        private int submittedTasks;
+        private int completedTasks;
+
+        private TaskGroup(MailExtractProgressLogger logger, String context) {
+            this.completionService = new ExecutorCompletionService<>(executor);
+            this.logger = logger;
+            this.context = context;
+        }
+
+        /**
+         * Submit a task, waiting for a free slot if the scheduler is saturated.
+         *
+         * @param task the task
+         * @throws MailExtractLibException if no slot is freed within {@link #TASK_TIMEOUT_SECONDS}
+         * @throws InterruptedException    the interrupted exception
+         */
+        public void submit(StoreTask task) throws MailExtractLibException, InterruptedException {
+            if (!pendingTasksSlots.tryAcquire(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) throw timeoutException();
+            try {
+                completionService.submit(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        pendingTasksSlots.release();
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                pendingTasksSlots.release();
+                throw e;
+            }
+            submittedTasks++;
+            collectCompletedTasks();
+        }
+
+        // log results of already completed tasks, so that they are not kept until the end of the folder
+        private void collectCompletedTasks() {
+            Future<Void> future;
+            while ((future = completionService.poll()) != null) collect(future);
+        }
+
+        private void collect(Future<Void> future) {
+            completedTasks++;
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                MailExtractProgressLogger.doProgressLogWithoutInterruption(
+                    logger,
+                    MailExtractProgressLogger.MESSAGE,
+                    context + ": Error during a message processing, it's dropped.",
+                    e
+                );
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Wait for the completion of all the submitted tasks.
+         *
+         * @throws MailExtractLibException if no task completes within {@link #TASK_TIMEOUT_SECONDS}
+         * @throws InterruptedException    the interrupted exception
+         */
+        public void waitForAll() throws MailExtractLibException, InterruptedException {
+            while (completedTasks < submittedTasks) {
+                Future<Void> future = completionService.poll(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (future == null) throw timeoutException();
+                collect(future);
+            }
+        }
+
+        private MailExtractLibException timeoutException() {
+            return new MailExtractLibException(
+                context +
+                ": Timeout: no element processed within " +
+                TASK_TIMEOUT_SECONDS +
+                " seconds, folder processing aborted.",
+                null
+            );
+        }
+    }
+}
@@ -39,24 +39,99 @@ package fr.gouv.vitam.tools.mailextractlib.formattools;
 
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
 import org.apache.tika.Tika;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
+import org.xml.sax.SAXException;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Singleton class for the text extraction tool. It uses Tika library.
+ * <p>
+ * Text extraction is thread-safe and bounded: at most a pool size number of documents are parsed at the same time,
+ * each one within a time limit and an extracted text length limit, the text being truncated beyond. A parsing
+ * which doesn't stop on timeout is abandoned and its slot given to a new one, up to a pool size number of
+ * abandoned parsings, beyond which slots are given back only when the parsings end. Texts
+ * extracted from binary contents are kept in a cache keyed by the content SHA-256 digest, so that a content
+ * attached many times (signature logo, forwarded document...) is parsed only once.
  */
 public class TikaExtractor {
 
+    /** Default maximum number of documents parsed at the same time. */
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    /** Default maximum length of an extracted text, the same as the Tika facade one. */
+    public static final int DEFAULT_MAX_TEXT_LENGTH = 100 * 1000;
+
+    /** Default maximum duration of one document parsing, in seconds. */
+    public static final int DEFAULT_TIMEOUT_SECONDS = 120;
+
+    /** Default maximum number of characters of the texts kept in cache. */
+    public static final long DEFAULT_CACHE_MAX_CHARS = 16L * 1024 * 1024;
+
     /** Singleton instance **/
-    private static TikaExtractor INSTANCE = null;
+    private static volatile TikaExtractor INSTANCE = null;
 
     /** Tika object **/
     private Tika tika;
 
-    /** Private constructor */
+    /** Parsing slots and threads, parsing threads being interrupted on timeout **/
+    private final Semaphore parsingSlots;
+    private final ExecutorService parsingExecutor;
+
+    /** Parsings abandoned on timeout but still running, whose slots have been given back **/
+    private final AtomicInteger abandonedParsings = new AtomicInteger();
+    private final int maxAbandonedParsings;
+
+    /** Parsing states, the slot being given back by the parsing end or by its abandonment **/
+    private static final int PARSING_NEW = 0;
+    private static final int PARSING_RUNNING = 1;
+    private static final int PARSING_DONE = 2;
+    private static final int PARSING_ABANDONED = 3;
+
+    /** Limits **/
+    private final int maxTextLength;
+    private final int timeoutSeconds;
+
+    /** Extracted texts cache **/
+    private final TextCache textCache;
+
+    /** Constructor with default limits */
     public TikaExtractor() {
+        this(DEFAULT_POOL_SIZE, DEFAULT_MAX_TEXT_LENGTH, DEFAULT_TIMEOUT_SECONDS, DEFAULT_CACHE_MAX_CHARS);
+    }
+
+    /**
+     * Constructor with specific limits.
+     *
+     * @param poolSize       the maximum number of documents parsed at the same time
+     * @param maxTextLength  the maximum length of an extracted text, or -1 for no limit
+     * @param timeoutSeconds the maximum duration of one document parsing, in seconds
+     * @param cacheMaxChars  the maximum number of characters of the texts kept in cache, 0 for no cache
+     */
+    public TikaExtractor(int poolSize, int maxTextLength, int timeoutSeconds, long cacheMaxChars) {
         Level memLevel;
         Logger logger;
 
@@ -65,6 +140,17 @@ public class TikaExtractor {
         if (memLevel != Level.FINEST) logger.setLevel(Level.OFF);
         tika = new Tika();
         logger.setLevel(memLevel);
+
+        this.parsingSlots = new Semaphore(Math.max(1, poolSize));
+        this.maxAbandonedParsings = Math.max(1, poolSize);
+        this.parsingExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mailextractlib-tika");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxTextLength = maxTextLength;
+        this.timeoutSeconds = timeoutSeconds;
+        this.textCache = new TextCache(cacheMaxChars);
     }
 
     /**
@@ -73,12 +159,29 @@ public class TikaExtractor {
      * @return single instance of FileTextExtractor
      */
     public static TikaExtractor getInstance() {
-        if (INSTANCE == null) INSTANCE = new TikaExtractor();
+        if (INSTANCE == null) {
+            synchronized (TikaExtractor.class) {
+                if (INSTANCE == null) INSTANCE = new TikaExtractor();
+            }
+        }
         return INSTANCE;
     }
 
+    /**
+     * Set the FileTextExtractor singleton, for example to change limits.
+     *
+     * @param tikaExtractor the tika extractor
+     */
+    public static void setInstance(TikaExtractor tikaExtractor) {
+        synchronized (TikaExtractor.class) {
+            INSTANCE = tikaExtractor;
+        }
+    }
+
     /**
      * Gets the text form of the file raw content.
+     * <p>
+     * The result is taken from the cache if the same content was already extracted.
      *
      * @param rawContent
      *            the raw content
@@ -87,7 +190,30 @@ public class TikaExtractor {
      *             if text extract was not possible
      */
     public String extractTextFromBinary(byte[] rawContent) throws MailExtractLibException {
-        String s = null;
+        if (rawContent.length == 0) return null;
+        String digest = textCache.isEnabled() ? getDigest(rawContent) : null;
+        String s = (digest == null ? null : textCache.get(digest));
+        if (s == null) {
+            s = extractText(new ByteArrayInputStream(rawContent));
+            if (digest != null) textCache.put(digest, s);
+        }
+        return s;
+    }
+
+    /**
+     * Gets the text form of the file content read from a stream, which is closed at the end.
+     * <p>
+     * The result is not cached.
+     *
+     * @param contentStream
+     *            the content stream
+     * @return the text String
+     * @throws MailExtractLibException
+     *             if text extract was not possible
+     */
+    public String extractText(InputStream contentStream) throws MailExtractLibException {
+        Future<String> parsing = null;
+        AtomicInteger parsingState = new AtomicInteger(PARSING_NEW);
         Level memLevel;
         Logger logger;
 
@@ -95,14 +221,103 @@ public class TikaExtractor {
         memLevel = logger.getLevel();
         if (memLevel != Level.FINEST) logger.setLevel(Level.OFF);
         try {
-            if (rawContent.length > 0) s = tika.parseToString(new ByteArrayInputStream(rawContent));
+            if (!parsingSlots.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) throw new MailExtractLibException(
+                "mailextractlib.formattools: can't extract text content, no parser available",
+                null
+            );
+            try {
+                parsing = parsingExecutor.submit(() -> {
+                    if (!parsingState.compareAndSet(PARSING_NEW, PARSING_RUNNING)) return null;
+                    try {
+                        return parseToString(contentStream);
+                    } finally {
+                        if (parsingState.compareAndSet(PARSING_RUNNING, PARSING_DONE)) parsingSlots.release();
+                        else abandonedParsings.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                parsingSlots.release();
+                throw e;
+            }
+            return parsing.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new MailExtractLibException(
+                "mailextractlib.formattools: can't extract text content, timeout after " + timeoutSeconds + " seconds",
+                e
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailExtractLibException("mailextractlib.formattools: can't extract text content, interrupted", e);
+        } catch (ExecutionException e) {
+            throw new MailExtractLibException("mailextractlib.formattools: can't extract text content", e.getCause());
+        } catch (MailExtractLibException e) {
+            throw e;
         } catch (Throwable e) {
             throw new MailExtractLibException("mailextractlib.formattools: can't extract text content", e);
         } finally {
+            if ((parsing != null) && !parsing.isDone()) abandonParsing(parsing, parsingState);
             logger.setLevel(memLevel);
         }
+    }
+
+    // interrupt a parsing and, as the parser may ignore it, give back its slot if not too many are abandoned
+    private void abandonParsing(Future<String> parsing, AtomicInteger parsingState) {
+        parsing.cancel(true);
+        if (parsingState.compareAndSet(PARSING_NEW, PARSING_DONE)) {
+            // never started
+            parsingSlots.release();
+            return;
+        }
+        if (abandonedParsings.incrementAndGet() > maxAbandonedParsings) {
+            // the slot will be given back when the parsing ends
+            abandonedParsings.decrementAndGet();
+            return;
+        }
+        if (parsingState.compareAndSet(PARSING_RUNNING, PARSING_ABANDONED)) parsingSlots.release();
+        else abandonedParsings.decrementAndGet();
+    }
 
-        return s;
+    /**
+     * Gets the number of parsings abandoned on timeout and still running.
+     *
+     * @return the abandoned parsings count
+     */
+    public int getAbandonedParsingsCount() {
+        return abandonedParsings.get();
+    }
+
+    // parse to a length limited text, as the Tika facade does
+    private String parseToString(InputStream contentStream) throws Exception {
+        WriteOutContentHandler handler = new WriteOutContentHandler(maxTextLength);
+        ParseContext context = new ParseContext();
+        context.set(Parser.class, tika.getParser());
+        try {
+            tika.getParser().parse(contentStream, new BodyContentHandler(handler), new Metadata(), context);
+        } catch (SAXException e) {
+            if (!WriteLimitReachedException.isWriteLimitReached(e)) throw e;
+        } finally {
+            contentStream.close();
+        }
+        return handler.toString();
+    }
+
+    /**
+     * Gets the hexadecimal SHA-256 digest of a content, used as cache key.
+     *
+     * @param rawContent
+     *            the raw content
+     * @return the digest
+     */
+    public static String getDigest(byte[] rawContent) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            Formatter formatter = new Formatter();
+            for (byte b : md.digest(rawContent)) formatter.format("%02x", b);
+            return formatter.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // can't happen, SHA-256 is always provided
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -133,4 +348,45 @@ public class TikaExtractor {
         }
         return result;
     }
+
+    // least recently used texts, limited in total number of characters
+    private static class TextCache extends LinkedHashMap<String, String> {
+
+        private final long maxChars;
+        private long chars;
+
+        private TextCache(long maxChars) {
+            super(16, 0.75f, true);
+            this.maxChars = maxChars;
+        }
+
+        private boolean isEnabled() {
+            return maxChars > 0;
+        }
+
+        @Override
+        public synchronized String get(Object digest) {
+            return super.get(digest);
+        }
+
+        @Override
+        public synchronized String put(String digest, String text) {
+            if (text.length() > maxChars) return null;
+            String previous = super.put(digest, text);
+            chars += text.length() - (previous == null ? 0 : previous.length());
+            return previous;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (chars <= maxChars) return false;
+            // remove as many least recently used entries as needed
+            Iterator<Map.Entry<String, String>> iterator = entrySet().iterator();
+            while (chars > maxChars && iterator.hasNext()) {
+                chars -= iterator.next().getValue().length();
+                iterator.remove();
+            }
+            return false;
+        }
+    }
 }
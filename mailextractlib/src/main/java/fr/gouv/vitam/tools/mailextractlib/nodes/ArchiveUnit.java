@@ -43,10 +43,9 @@ import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger.doProgressLog;
@@ -57,7 +56,8 @@ import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger
  *
  * <p>
  * Other classes create Archive Units on the fly with extracted information and
- * content. This class write on disk representation with convenient
+ * content. This class gives them, when written, to the ArchiveUnit sink of the
+ * store extractor, by default writing the on disk representation with convenient
  * directory/file structure and ArchiveUnitContent.xml files for metadata.
  * <p>
  * All the files, if not pure binary, are UTF-8 encoded, as the file names.
@@ -71,8 +71,10 @@ public class ArchiveUnit {
     private MetadataXMLList contentmetadatalist = new MetadataXMLList();
     private List<ArchiveObject> objects = new ArrayList<ArchiveObject>();
 
-    // Utility class containing one Object of the ObjectGroup
-    private class ArchiveObject {
+    /**
+     * Utility class containing one Object of the ObjectGroup.
+     */
+    public static class ArchiveObject {
 
         /**
          * The Filename.
@@ -105,6 +107,42 @@ public class ArchiveUnit {
             this.usage = usage;
             this.version = version;
         }
+
+        /**
+         * Gets the filename.
+         *
+         * @return the filename
+         */
+        public String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Gets the usage.
+         *
+         * @return the usage
+         */
+        public String getUsage() {
+            return usage;
+        }
+
+        /**
+         * Gets the version.
+         *
+         * @return the version
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the raw content.
+         *
+         * @return the raw content
+         */
+        public byte[] getRawContent() {
+            return rawContent;
+        }
     }
 
     /**
@@ -144,6 +182,15 @@ public class ArchiveUnit {
         this.rootPath = father.getFullName();
     }
 
+    /**
+     * Gets the store extractor of the Archive Unit.
+     *
+     * @return the store extractor
+     */
+    public StoreExtractor getStoreExtractor() {
+        return storeExtractor;
+    }
+
     /**
      * Gets the logger created during the store extractor construction, and used
      * in all mailextract classes.
@@ -495,102 +542,59 @@ public class ArchiveUnit {
         objects.add(new ArchiveObject(byteContent, normalizeFilename(filename), usage, version));
     }
 
-    // create all the directories hierarchy
-    // synchronized to prevent conflicts or errors caused by concurrent directory creation.
-    private void createDirectory(String dirname) throws MailExtractLibException {
-        synchronized (storeExtractor.getRootStoreExtractor()) {
-            File dir = new File(dirname);
-            if (!dir.isDirectory() && !dir.mkdirs()) {
-                throw new MailExtractLibException(
-                    "mailextractlib: can't create destination directory[" +
-                    dirname +
-                    "] for writing unit \"" +
-                    name +
-                    "\"",
-                    null
-                );
-            }
-        }
+    /**
+     * Gets the objects of the Archive Unit.
+     *
+     * @return the unmodifiable objects list
+     */
+    public List<ArchiveObject> getObjects() {
+        return Collections.unmodifiableList(objects);
     }
 
-    // create a file from byte array
-    private void writeFile(String dirPath, String filename, byte[] byteContent) throws MailExtractLibException {
-        try (FileOutputStream fos = new FileOutputStream(dirPath + File.separator + filename)) {
-            if (byteContent != null) fos.write(byteContent);
-        } catch (IOException ex) {
-            if (dirPath.length() + filename.length() > 250) {
-                throw new MailExtractLibException(
-                    "mailextractlib: illegal destination file (may be too long pathname), writing unit \"" +
-                    name +
-                    "\"" +
-                    " dir=" +
-                    dirPath +
-                    " filename=" +
-                    filename,
-                    ex
-                );
-            } else {
-                throw new MailExtractLibException(
-                    "mailextractlib: illegal destination file, writing unit \"" +
-                    name +
-                    "\"" +
-                    " dir=" +
-                    dirPath +
-                    " filename=" +
-                    filename,
-                    ex
-                );
-            }
-        }
+    /**
+     * Gets the metadata XML representation, as written in the Archive Unit metadata file.
+     *
+     * @return the metadata XML String
+     */
+    public String getMetadataXml() {
+        return new MetadataXMLNode("Content", contentmetadatalist).writeXML();
     }
 
     /**
-     * Write the Archive Unit representation on disk.
+     * Gets the file name of an object in the on disk representation, prefixed by usage and version.
      *
-     * @throws MailExtractLibException Any unrecoverable extraction exception (access trouble, major                             format problems...)
+     * @param archiveObject the archive object
+     * @return the object file name
      */
-    public void write() throws MailExtractLibException {
-        String dirPath;
+    public String getObjectFilename(ArchiveObject archiveObject) {
         String filename;
 
-        // different name if groupe unit or unit with objects
-        dirPath = getFullName();
-
-        // write unit directory
-        createDirectory(dirPath);
-
-        // add content surrounding metadata
-        MetadataXMLNode contentmetadata = new MetadataXMLNode("Content", contentmetadatalist);
-
-        // write unit metadata file
-        if (storeExtractor.getOptions().model == StoreExtractorOptions.MODEL_V1) writeFile(
-            dirPath,
-            "ArchiveUnitContent.xml",
-            contentmetadata.writeXML().getBytes(StandardCharsets.UTF_8)
-        );
-        else writeFile(
-            dirPath,
-            "__ArchiveUnitMetadata.xml",
-            contentmetadata.writeXML().getBytes(StandardCharsets.UTF_8)
+        if (archiveObject.filename == null || archiveObject.filename.isEmpty()) filename = "undefined";
+        else filename = archiveObject.filename;
+        if (storeExtractor.getOptions().model == StoreExtractorOptions.MODEL_V1) return (
+            "__" + archiveObject.usage + "_" + Integer.toString(archiveObject.version) + "_" + filename
         );
+        else return "__" + archiveObject.usage + "_" + Integer.toString(archiveObject.version) + "__" + filename;
+    }
 
-        // write objects files
-        if (!objects.isEmpty()) {
-            for (ArchiveObject o : objects) {
-                if (o.filename == null || o.filename.isEmpty()) filename = "undefined";
-                else filename = o.filename;
-                if (storeExtractor.getOptions().model == StoreExtractorOptions.MODEL_V1) writeFile(
-                    dirPath,
-                    "__" + o.usage + "_" + Integer.toString(o.version) + "_" + filename,
-                    o.rawContent
-                );
-                else writeFile(
-                    dirPath,
-                    "__" + o.usage + "_" + Integer.toString(o.version) + "__" + filename,
-                    o.rawContent
-                );
-            }
-        }
+    /**
+     * Gets the file name of the metadata file in the on disk representation.
+     *
+     * @return the metadata file name
+     */
+    public String getMetadataFilename() {
+        if (storeExtractor.getOptions().model == StoreExtractorOptions.MODEL_V1) return "ArchiveUnitContent.xml";
+        else return "__ArchiveUnitMetadata.xml";
+    }
+
+    /**
+     * Write the Archive Unit representation, through the ArchiveUnit sink of the
+     * store extractor, by default on disk.
+     *
+     * @throws MailExtractLibException Any unrecoverable extraction exception (access trouble, major                             format problems...)
+     */
+    public void write() throws MailExtractLibException {
+        storeExtractor.getArchiveUnitSink().write(this);
     }
 
     // reduce if needed a filename conserving the extension
@@ -0,0 +1,167 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.nodes;
+
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractorObjectsIndex;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * ArchiveUnit sink writing the on disk representation, the default one.
+ * <p>
+ * Each Archive Unit is written in its own directory, with the metadata file and
+ * one file by object, named with usage and version. If the deduplicate objects
+ * option is set, an object identical to an already written one is created as a
+ * hard link to this file.
+ */
+public class DirectoryArchiveUnitSink implements ArchiveUnitSink {
+
+    // lock preventing conflicts or errors caused by concurrent directory creation
+    private static final Object DIRECTORY_CREATION_LOCK = new Object();
+
+    @Override
+    public void write(ArchiveUnit archiveUnit) throws MailExtractLibException {
+        // different name if groupe unit or unit with objects
+        String dirPath = archiveUnit.getFullName();
+
+        // write unit directory
+        createDirectory(archiveUnit, dirPath);
+
+        // write unit metadata file
+        writeFile(
+            archiveUnit,
+            dirPath,
+            archiveUnit.getMetadataFilename(),
+            archiveUnit.getMetadataXml().getBytes(StandardCharsets.UTF_8)
+        );
+
+        // write objects files
+        writeObjectFiles(archiveUnit, dirPath);
+    }
+
+    /**
+     * Write only the objects files of the Archive Unit on disk, the directory
+     * being created only if there are objects.
+     * <p>
+     * This is used by ArchiveUnit sinks which keep the metadata in memory.
+     *
+     * @param archiveUnit the archive unit
+     * @throws MailExtractLibException Any unrecoverable extraction exception (access trouble...)
+     */
+    public void writeObjects(ArchiveUnit archiveUnit) throws MailExtractLibException {
+        if (archiveUnit.getObjects().isEmpty()) return;
+        String dirPath = archiveUnit.getFullName();
+        createDirectory(archiveUnit, dirPath);
+        writeObjectFiles(archiveUnit, dirPath);
+    }
+
+    // write all the objects files in the unit directory, as links to identical files if deduplicating
+    private void writeObjectFiles(ArchiveUnit archiveUnit, String dirPath) throws MailExtractLibException {
+        StoreExtractorObjectsIndex objectsIndex = archiveUnit.getStoreExtractor().getObjectsIndex();
+        for (ArchiveUnit.ArchiveObject o : archiveUnit.getObjects()) {
+            String filename = archiveUnit.getObjectFilename(o);
+            String digest = (objectsIndex == null ? null : objectsIndex.getDigest(o.getRawContent()));
+            Path file = Paths.get(dirPath, filename);
+            if ((digest != null) && objectsIndex.link(digest, file, o.getRawContent().length)) continue;
+            writeFile(archiveUnit, dirPath, filename, o.getRawContent());
+            if (digest != null) objectsIndex.put(digest, file);
+        }
+    }
+
+    // create all the directories hierarchy
+    private void createDirectory(ArchiveUnit archiveUnit, String dirname) throws MailExtractLibException {
+        synchronized (DIRECTORY_CREATION_LOCK) {
+            File dir = new File(dirname);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new MailExtractLibException(
+                    "mailextractlib: can't create destination directory[" +
+                    dirname +
+                    "] for writing unit \"" +
+                    archiveUnit.getName() +
+                    "\"",
+                    null
+                );
+            }
+        }
+    }
+
+    // create a file from byte array, an existing file being first deleted as it may be a hard link
+    // shared with other files by a previous deduplicating extraction, which must not be rewritten
+    private void writeFile(ArchiveUnit archiveUnit, String dirPath, String filename, byte[] byteContent)
+        throws MailExtractLibException {
+        try {
+            Path file = Paths.get(dirPath, filename);
+            Files.deleteIfExists(file);
+            try (FileOutputStream fos = new FileOutputStream(file.toFile())) {
+                if (byteContent != null) fos.write(byteContent);
+            }
+        } catch (IOException | InvalidPathException ex) {
+            if (dirPath.length() + filename.length() > 250) {
+                throw new MailExtractLibException(
+                    "mailextractlib: illegal destination file (may be too long pathname), writing unit \"" +
+                    archiveUnit.getName() +
+                    "\"" +
+                    " dir=" +
+                    dirPath +
+                    " filename=" +
+                    filename,
+                    ex
+                );
+            } else {
+                throw new MailExtractLibException(
+                    "mailextractlib: illegal destination file, writing unit \"" +
+                    archiveUnit.getName() +
+                    "\"" +
+                    " dir=" +
+                    dirPath +
+                    " filename=" +
+                    filename,
+                    ex
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.nodes;
+
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ArchiveUnit sink writing directly a SEDA 2.1 SIP zip file.
+ * <p>
+ * The objects are appended as "content/ID..." entries as soon as their Archive
+ * Unit is written, and the manifest.xml is built incrementally in two temporary
+ * parts, one for the DataObjectGroups and one for the ArchiveUnits, in the same
+ * directory as the SIP. The manifest is added as the last zip entry when the
+ * sink is closed, so that the whole SIP is written sequentially.
+ * <p>
+ * All the ArchiveUnits are declared at the DescriptiveMetadata level, each one
+ * referencing its children by ArchiveUnitRefId. This relies on the extraction
+ * writing the Archive Units after their content, as it does for folders, messages
+ * and containers. An Archive Unit written after its father can't be referenced
+ * anymore, it is then left at root level and the closing of the sink fails to
+ * report it, once the SIP completed. The BinaryDataObjects have digest, size and filename but no
+ * format identification, which is left to the archiving system.
+ * <p>
+ * The sink has to be closed at the end of the extraction to complete the SIP,
+ * and to remove the temporary parts, even if the extraction failed.
+ */
+public class SedaSipArchiveUnitSink implements ArchiveUnitSink, AutoCloseable {
+
+    // size of the buffers before files
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final String sipFileName;
+    private final ZipOutputStream zipOutputStream;
+    private final Path dataObjectsPartPath;
+    private final Path archiveUnitsPartPath;
+    private final Writer dataObjectsPartWriter;
+    private final Writer archiveUnitsPartWriter;
+
+    // the ids of the written ArchiveUnits waiting for their father, by father full name
+    private final Map<String, List<String>> childrenIdsMap;
+    private int idCounter;
+    private int refIdCounter;
+
+    // global metadata
+    private String comment;
+    private String messageIdentifier;
+    private String archivalAgreement;
+    private String archivalAgencyIdentifier;
+    private String transferringAgencyIdentifier;
+    private String originatingAgencyIdentifier;
+
+    /**
+     * Instantiates a new SEDA SIP ArchiveUnit sink.
+     *
+     * @param sipFileName the SIP zip file name
+     * @throws MailExtractLibException if the SIP file or the temporary manifest parts can't be created
+     */
+    public SedaSipArchiveUnitSink(String sipFileName) throws MailExtractLibException {
+        this.sipFileName = sipFileName;
+        this.childrenIdsMap = new HashMap<>();
+        this.idCounter = 0;
+        this.refIdCounter = 0;
+        this.comment = "mailextractlib generated";
+        this.messageIdentifier = "SIP " + UUID.randomUUID();
+        Path sipPath = Paths.get(sipFileName).toAbsolutePath().normalize();
+        ZipOutputStream zos = null;
+        Path doPartPath = null;
+        Path auPartPath = null;
+        Writer doPartWriter = null;
+        Writer auPartWriter;
+        try {
+            zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(sipPath), BUFFER_SIZE));
+            doPartPath = Files.createTempFile(sipPath.getParent(), "manifest-dataobjects-", ".part");
+            auPartPath = Files.createTempFile(sipPath.getParent(), "manifest-archiveunits-", ".part");
+            doPartWriter = new BufferedWriter(Files.newBufferedWriter(doPartPath, StandardCharsets.UTF_8), BUFFER_SIZE);
+            auPartWriter = new BufferedWriter(Files.newBufferedWriter(auPartPath, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            closeQuietly(doPartWriter);
+            closeQuietly(zos);
+            deleteQuietly(doPartPath);
+            deleteQuietly(auPartPath);
+            throw new MailExtractLibException("mailextractlib: can't create SIP file [" + sipFileName + "]", e);
+        }
+        this.zipOutputStream = zos;
+        this.dataObjectsPartPath = doPartPath;
+        this.archiveUnitsPartPath = auPartPath;
+        this.dataObjectsPartWriter = doPartWriter;
+        this.archiveUnitsPartWriter = auPartWriter;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // forget it
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // forget it
+            }
+        }
+    }
+
+    /**
+     * Sets the comment of the SIP.
+     *
+     * @param comment the comment
+     */
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    /**
+     * Sets the message identifier of the SIP, by default a random one.
+     *
+     * @param messageIdentifier the message identifier
+     */
+    public void setMessageIdentifier(String messageIdentifier) {
+        this.messageIdentifier = messageIdentifier;
+    }
+
+    /**
+     * Sets the archival agreement of the SIP.
+     *
+     * @param archivalAgreement the archival agreement
+     */
+    public void setArchivalAgreement(String archivalAgreement) {
+        this.archivalAgreement = archivalAgreement;
+    }
+
+    /**
+     * Sets the archival agency identifier of the SIP.
+     *
+     * @param archivalAgencyIdentifier the archival agency identifier
+     */
+    public void setArchivalAgencyIdentifier(String archivalAgencyIdentifier) {
+        this.archivalAgencyIdentifier = archivalAgencyIdentifier;
+    }
+
+    /**
+     * Sets the transferring agency identifier of the SIP.
+     *
+     * @param transferringAgencyIdentifier the transferring agency identifier
+     */
+    public void setTransferringAgencyIdentifier(String transferringAgencyIdentifier) {
+        this.transferringAgencyIdentifier = transferringAgencyIdentifier;
+    }
+
+    /**
+     * Sets the originating agency identifier of the SIP management metadata.
+     *
+     * @param originatingAgencyIdentifier the originating agency identifier
+     */
+    public void setOriginatingAgencyIdentifier(String originatingAgencyIdentifier) {
+        this.originatingAgencyIdentifier = originatingAgencyIdentifier;
+    }
+
+    // compute the SHA-512 digest in hexadecimal form
+    private static String getSha512Digest(byte[] content) throws MailExtractLibException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new MailExtractLibException("mailextractlib: SHA-512 digest not available", e);
+        }
+        byte[] hash = md.digest(content == null ? new byte[0] : content);
+        try (Formatter formatter = new Formatter()) {
+            for (final byte b : hash) formatter.format("%02x", b);
+            return formatter.toString();
+        }
+    }
+
+    // get the extension used in content Uri, as in sedalib
+    private static String getExtension(String filename) {
+        if (filename == null) return "";
+        int i = filename.lastIndexOf('.');
+        return i < 0 ? ".seda" : filename.substring(i);
+    }
+
+    private static String getNormalizedPath(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+
+    private String getNextId() {
+        return "ID" + (++idCounter);
+    }
+
+    // write one content zip entry
+    private void writeContentEntry(ArchiveUnit archiveUnit, String entryName, byte[] content)
+        throws MailExtractLibException {
+        try {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            if (content != null) zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        } catch (IOException e) {
+            throw new MailExtractLibException(
+                "mailextractlib: can't write entry [" +
+                entryName +
+                "] in SIP [" +
+                sipFileName +
+                "] for writing unit \"" +
+                archiveUnit.getName() +
+                "\"",
+                e
+            );
+        }
+    }
+
+    // write the DataObjectGroup with all the objects of the ArchiveUnit, and their content
+    private void writeDataObjectGroup(ArchiveUnit archiveUnit, String dogId, String[] digests)
+        throws MailExtractLibException, IOException {
+        MetadataXMLList dogList = new MetadataXMLList();
+        int i = 0;
+        for (ArchiveUnit.ArchiveObject o : archiveUnit.getObjects()) {
+            String bdoId = getNextId();
+            String filename = (o.getFilename() == null) || o.getFilename().isEmpty() ? "undefined" : o.getFilename();
+            String uri = "content/" + bdoId + getExtension(filename);
+            writeContentEntry(archiveUnit, uri, o.getRawContent());
+
+            MetadataXMLList bdoList = new MetadataXMLList();
+            bdoList.addMetadataXMLNode(new MetadataXMLNode("DataObjectVersion", o.getUsage() + "_" + o.getVersion()));
+            bdoList.addMetadataXMLNode(new MetadataXMLNode("Uri", uri));
+            bdoList.addMetadataXMLNode(new MetadataXMLNode("MessageDigest", "algorithm", "SHA-512", digests[i++]));
+            bdoList.addMetadataXMLNode(
+                new MetadataXMLNode("Size", Integer.toString(o.getRawContent() == null ? 0 : o.getRawContent().length))
+            );
+            MetadataXMLList fileInfoList = new MetadataXMLList();
+            fileInfoList.addMetadataXMLNode(new MetadataXMLNode("Filename", filename));
+            bdoList.addMetadataXMLNode(new MetadataXMLNode("FileInfo", fileInfoList));
+            dogList.addMetadataXMLNode(new MetadataXMLNode("BinaryDataObject", "id", bdoId, bdoList));
+        }
+        dataObjectsPartWriter.write(new MetadataXMLNode("DataObjectGroup", "id", dogId, dogList).writeXML());
+        dataObjectsPartWriter.write('\n');
+    }
+
+    @Override
+    public void write(ArchiveUnit archiveUnit) throws MailExtractLibException {
+        String fullName = getNormalizedPath(archiveUnit.getFullName());
+        String rootPath = getNormalizedPath(archiveUnit.getRootPath());
+
+        // digests are computed out of the lock, as the heavy part
+        List<ArchiveUnit.ArchiveObject> objects = archiveUnit.getObjects();
+        String[] digests = new String[objects.size()];
+        for (int i = 0; i < digests.length; i++) digests[i] = getSha512Digest(objects.get(i).getRawContent());
+
+        synchronized (this) {
+            try {
+                String auId = getNextId();
+                String dogId = null;
+                if (!objects.isEmpty()) {
+                    dogId = getNextId();
+                    writeDataObjectGroup(archiveUnit, dogId, digests);
+                }
+
+                StringBuilder sb = new StringBuilder();
+                sb.append("<ArchiveUnit id=\"").append(auId).append("\">\n");
+                sb.append(archiveUnit.getMetadataXml()).append('\n');
+                List<String> childrenIds = childrenIdsMap.remove(fullName);
+                if (childrenIds != null) for (String childId : childrenIds) sb
+                    .append("<ArchiveUnit id=\"RefID")
+                    .append(++refIdCounter)
+                    .append("\">\n<ArchiveUnitRefId>")
+                    .append(childId)
+                    .append("</ArchiveUnitRefId>\n</ArchiveUnit>\n");
+                if (dogId != null) sb
+                    .append("<DataObjectReference>\n<DataObjectGroupReferenceId>")
+                    .append(dogId)
+                    .append("</DataObjectGroupReferenceId>\n</DataObjectReference>\n");
+                sb.append("</ArchiveUnit>\n");
+                archiveUnitsPartWriter.write(sb.toString());
+
+                childrenIdsMap.computeIfAbsent(rootPath, k -> new ArrayList<>()).add(auId);
+            } catch (IOException e) {
+                throw new MailExtractLibException(
+                    "mailextractlib: can't write manifest part for unit \"" + archiveUnit.getName() + "\"",
+                    e
+                );
+            }
+        }
+    }
+
+    // write a simple element, if value is defined or if mandatory
+    private static void appendElement(StringBuilder sb, String tag, String value, boolean mandatory) {
+        if ((value != null) && !value.isEmpty()) sb.append(new MetadataXMLNode(tag, value).writeXML()).append('\n');
+        else if (mandatory) sb.append('<').append(tag).append("/>\n");
+    }
+
+    private String getManifestHeader() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append(
+            "<ArchiveTransfer xmlns=\"fr:gouv:culture:archivesdefrance:seda:v2.1\" " +
+            "xmlns:xlink=\"http://www.w3.org/1999/xlink\" xmlns:pr=\"info:lc/xmlns/premis-v2\" " +
+            "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" " +
+            "xsi:schemaLocation=\"fr:gouv:culture:archivesdefrance:seda:v2.1 seda-2.1-main.xsd\">\n"
+        );
+        appendElement(sb, "Comment", comment, false);
+        appendElement(sb, "Date", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString(), true);
+        appendElement(sb, "MessageIdentifier", messageIdentifier, true);
+        appendElement(sb, "ArchivalAgreement", archivalAgreement, false);
+        sb.append("<CodeListVersions>\n");
+        for (String codeList : new String[] {
+            "ReplyCodeListVersion",
+            "MessageDigestAlgorithmCodeListVersion",
+            "MimeTypeCodeListVersion",
+            "EncodingCodeListVersion",
+            "FileFormatCodeListVersion",
+            "CompressionAlgorithmCodeListVersion",
+            "DataObjectVersionCodeListVersion",
+            "StorageRuleCodeListVersion",
+            "AppraisalRuleCodeListVersion",
+            "AccessRuleCodeListVersion",
+            "DisseminationRuleCodeListVersion",
+            "ReuseRuleCodeListVersion",
+            "ClassificationRuleCodeListVersion",
+            "AuthorizationReasonCodeListVersion",
+            "RelationshipCodeListVersion",
+        }) appendElement(sb, codeList, codeList, true);
+        sb.append("</CodeListVersions>\n");
+        sb.append("<DataObjectPackage>\n");
+        return sb.toString();
+    }
+
+    private String getManifestFooter() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("</DescriptiveMetadata>\n");
+        sb.append("<ManagementMetadata>\n");
+        appendElement(sb, "OriginatingAgencyIdentifier", originatingAgencyIdentifier, false);
+        sb.append("</ManagementMetadata>\n");
+        sb.append("</DataObjectPackage>\n");
+        sb.append("<ArchivalAgency>\n");
+        appendElement(sb, "Identifier", archivalAgencyIdentifier, true);
+        sb.append("</ArchivalAgency>\n");
+        sb.append("<TransferringAgency>\n");
+        appendElement(sb, "Identifier", transferringAgencyIdentifier, true);
+        sb.append("</TransferringAgency>\n");
+        sb.append("</ArchiveTransfer>\n");
+        return sb.toString();
+    }
+
+    // count the units waiting for a father which is inside the extraction, so already written
+    private int getLateChildrenCount() {
+        List<Path> fathersPaths = new ArrayList<>();
+        for (String fatherName : childrenIdsMap.keySet()) fathersPaths.add(Paths.get(fatherName));
+        int count = 0;
+        for (Map.Entry<String, List<String>> e : childrenIdsMap.entrySet()) {
+            Path fatherPath = Paths.get(e.getKey());
+            for (Path otherPath : fathersPaths) {
+                if (!otherPath.equals(fatherPath) && fatherPath.startsWith(otherPath)) {
+                    count += e.getValue().size();
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write the manifest.xml from the temporary parts, and complete and close the SIP zip file. The temporary parts
+     * are removed in any case.
+     *
+     * @throws MailExtractLibException if the SIP can't be completed, or if some Archive Units were written after
+     *                                 their father and are left at root level
+     */
+    @Override
+    public synchronized void close() throws MailExtractLibException {
+        try {
+            dataObjectsPartWriter.close();
+            archiveUnitsPartWriter.close();
+            zipOutputStream.putNextEntry(new ZipEntry("manifest.xml"));
+            zipOutputStream.write(getManifestHeader().getBytes(StandardCharsets.UTF_8));
+            Files.copy(dataObjectsPartPath, zipOutputStream);
+            zipOutputStream.write("<DescriptiveMetadata>\n".getBytes(StandardCharsets.UTF_8));
+            Files.copy(archiveUnitsPartPath, zipOutputStream);
+            zipOutputStream.write(getManifestFooter().getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+            zipOutputStream.close();
+        } catch (IOException e) {
+            throw new MailExtractLibException("mailextractlib: can't complete SIP file [" + sipFileName + "]", e);
+        } finally {
+            closeQuietly(dataObjectsPartWriter);
+            closeQuietly(archiveUnitsPartWriter);
+            closeQuietly(zipOutputStream);
+            deleteQuietly(dataObjectsPartPath);
+            deleteQuietly(archiveUnitsPartPath);
+        }
+
+        int lateChildrenCount = getLateChildrenCount();
+        if (lateChildrenCount > 0) throw new MailExtractLibException(
+            "mailextractlib: " +
+            lateChildrenCount +
+            " unit(s) written after their father are not referenced by it and are at root level in SIP [" +
+            sipFileName +
+            "]",
+            null
+        );
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.nodes;
+
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ArchiveUnit sink writing the same directory/file structure as the on disk
+ * representation, but as entries of one zip file.
+ * <p>
+ * The zip file is written sequentially, the Archive Units being appended as
+ * they are written by the extraction, so that a whole mailbox is extracted in
+ * one large file instead of millions of small files and directories.
+ * <p>
+ * The sink has to be closed at the end of the extraction to complete the zip file.
+ */
+public class ZipArchiveUnitSink implements ArchiveUnitSink, AutoCloseable {
+
+    // size of the buffer before the zip file
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final String zipFileName;
+    private final Path basePath;
+    private final ZipOutputStream zipOutputStream;
+
+    /**
+     * Instantiates a new zip ArchiveUnit sink.
+     * <p>
+     * The entries are named with the Archive Units paths relative to the base
+     * directory, usually the parent of the extraction destination directory, so
+     * that the zip file content is the same as the on disk extraction.
+     *
+     * @param zipFileName   the zip file name
+     * @param baseDirectory the base directory of the entries names
+     * @throws MailExtractLibException if the zip file can't be created
+     */
+    public ZipArchiveUnitSink(String zipFileName, String baseDirectory) throws MailExtractLibException {
+        this.zipFileName = zipFileName;
+        this.basePath = Paths.get(baseDirectory).toAbsolutePath().normalize();
+        try {
+            this.zipOutputStream = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(zipFileName)), BUFFER_SIZE)
+            );
+        } catch (IOException e) {
+            throw new MailExtractLibException("mailextractlib: can't create zip file [" + zipFileName + "]", e);
+        }
+    }
+
+    // get the zip entry directory of the Archive Unit, with '/' separator
+    private String getEntryDirectory(ArchiveUnit archiveUnit) {
+        Path unitPath = Paths.get(archiveUnit.getFullName()).toAbsolutePath().normalize();
+        String entryDirectory = basePath.relativize(unitPath).toString().replace(File.separatorChar, '/');
+        return entryDirectory.isEmpty() ? "" : entryDirectory + "/";
+    }
+
+    // write one zip entry
+    private void writeEntry(ArchiveUnit archiveUnit, String entryName, byte[] content)
+        throws MailExtractLibException {
+        try {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            if (content != null) zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        } catch (IOException e) {
+            throw new MailExtractLibException(
+                "mailextractlib: can't write zip entry [" +
+                entryName +
+                "] in [" +
+                zipFileName +
+                "] for writing unit \"" +
+                archiveUnit.getName() +
+                "\"",
+                e
+            );
+        }
+    }
+
+    @Override
+    public synchronized void write(ArchiveUnit archiveUnit) throws MailExtractLibException {
+        String entryDirectory = getEntryDirectory(archiveUnit);
+        writeEntry(
+            archiveUnit,
+            entryDirectory + archiveUnit.getMetadataFilename(),
+            archiveUnit.getMetadataXml().getBytes(StandardCharsets.UTF_8)
+        );
+        for (ArchiveUnit.ArchiveObject o : archiveUnit.getObjects()) writeEntry(
+            archiveUnit,
+            entryDirectory + archiveUnit.getObjectFilename(o),
+            o.getRawContent()
+        );
+    }
+
+    /**
+     * Complete and close the zip file.
+     *
+     * @throws MailExtractLibException if the zip file can't be completed
+     */
+    @Override
+    public synchronized void close() throws MailExtractLibException {
+        try {
+            zipOutputStream.close();
+        } catch (IOException e) {
+            throw new MailExtractLibException("mailextractlib: can't close zip file [" + zipFileName + "]", e);
+        }
+    }
+}
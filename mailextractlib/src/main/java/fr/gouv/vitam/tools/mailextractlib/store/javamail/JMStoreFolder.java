@@ -38,20 +38,18 @@
 package fr.gouv.vitam.tools.mailextractlib.store.javamail;
 
 import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractor;
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractorScheduler;
 import fr.gouv.vitam.tools.mailextractlib.core.StoreFolder;
 import fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnit;
 import fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox.MboxFolder;
 import fr.gouv.vitam.tools.mailextractlib.store.javamail.thunderbird.ThunderbirdFolder;
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
-import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
 import jakarta.mail.Flags;
 import jakarta.mail.Folder;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
-import java.util.concurrent.*;
-
 /**
  * StoreFolder sub-class for mail boxes extracted through JavaMail library.
  * <p>
@@ -74,10 +72,14 @@ public class JMStoreFolder extends StoreFolder {
     private JMStoreFolder(StoreExtractor storeExtractor, final Folder folder, StoreFolder father) {
         super(storeExtractor);
         this.folder = folder;
-        if (folder instanceof ThunderbirdFolder) ((ThunderbirdFolder) folder).setLogger(
-                storeExtractor.getProgressLogger()
-            );
-        else if (folder instanceof MboxFolder) ((MboxFolder) folder).setLogger(storeExtractor.getProgressLogger());
+        String mboxIndexDirectory = storeExtractor.getOptions().mboxIndexDirectory;
+        if (folder instanceof ThunderbirdFolder) {
+            ((ThunderbirdFolder) folder).setLogger(storeExtractor.getProgressLogger());
+            ((ThunderbirdFolder) folder).setIndexDirectoryName(mboxIndexDirectory);
+        } else if (folder instanceof MboxFolder) {
+            ((MboxFolder) folder).setLogger(storeExtractor.getProgressLogger());
+            ((MboxFolder) folder).setIndexDirectoryName(mboxIndexDirectory);
+        }
         if (father != null) finalizeStoreFolder(father);
     }
 
@@ -100,6 +102,44 @@ public class JMStoreFolder extends StoreFolder {
         return result;
     }
 
+    // processing of one message of the folder, extraction or listing
+    @FunctionalInterface
+    private interface JMStoreMessageProcessor {
+        void process(JMStoreMessage jMStoreMessage) throws MailExtractLibException, InterruptedException;
+    }
+
+    // process all the folder messages, distributed in the extractor scheduler for the root store extractor
+    private void processFolderMessages(JMStoreMessageProcessor processor)
+        throws MailExtractLibException, InterruptedException {
+        int msgTotal;
+        Message message;
+
+        // only root storeExtractor can distribute
+        StoreExtractorScheduler.TaskGroup taskGroup = storeExtractor.isRoot()
+            ? storeExtractor.getScheduler().createTaskGroup(getProgressLogger(), "mailextractlib.javamail")
+            : null;
+
+        try {
+            folder.open(Folder.READ_ONLY);
+            msgTotal = folder.getMessageCount();
+            for (int i = 1; i <= msgTotal; i++) {
+                message = folder.getMessage(i);
+                if (!((MimeMessage) message).isSet(Flags.Flag.DELETED)) {
+                    final JMStoreMessage jMStoreMessage = new JMStoreMessage(this, (MimeMessage) message);
+                    if (taskGroup != null) taskGroup.submit(() -> processor.process(jMStoreMessage));
+                    else processor.process(jMStoreMessage);
+                }
+            }
+            if (taskGroup != null) taskGroup.waitForAll();
+            folder.close(false);
+        } catch (MessagingException e) {
+            throw new MailExtractLibException(
+                "mailextractlib.javamail: can't get messages from folder " + getFullName(),
+                e
+            );
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -108,81 +148,7 @@ public class JMStoreFolder extends StoreFolder {
      */
     @Override
     protected void doExtractFolderElements(boolean writeFlag) throws MailExtractLibException, InterruptedException {
-        int msgTotal;
-        Message message;
-
-        // only root storeExtractor can distibute
-        if (storeExtractor.isRoot()) {
-            ExecutorService pool = Executors.newFixedThreadPool(storeExtractor.getMaxParallelThreads());
-            CompletionService<Void> completionService = new ExecutorCompletionService<>(pool);
-            int submittedTasks = 0;
-
-            try {
-                folder.open(Folder.READ_ONLY);
-                msgTotal = folder.getMessageCount();
-                for (int i = 1; i <= msgTotal; i++) {
-                    message = folder.getMessage(i);
-                    if (!((MimeMessage) message).isSet(Flags.Flag.DELETED)) {
-                        // Encapsulate the instance in an AtomicReference to capture it
-                        final JMStoreMessage jmStoreMessage = new JMStoreMessage(this, (MimeMessage) message);
-                        completionService.submit(() -> {
-                            jmStoreMessage.processElement(writeFlag);
-                            return null;
-                        });
-                        submittedTasks++;
-                    }
-                }
-                folder.close(false);
-
-                // Retrieve the results with a maximum wait of 60 seconds per task
-                for (int i = 0; i < submittedTasks; i++) {
-                    Future<Void> future = completionService.poll(60, TimeUnit.SECONDS);
-                    if (future == null) {
-                        throw new MailExtractLibException(
-                            "mailextractlib.javamail: Timeout: no message extracted within 60 seconds, folder extraction aborted.",
-                            null
-                        );
-                    }
-                    try {
-                        future.get(); // Retrieve the task result or propagate any exception
-                    } catch (ExecutionException e) {
-                        MailExtractProgressLogger.doProgressLogWithoutInterruption(
-                            getStoreExtractor().getProgressLogger(),
-                            MailExtractProgressLogger.MESSAGE,
-                            "mailextractlib.javamail: Error during a message processing, it's dropped.",
-                            e
-                        );
-                    }
-                }
-            } catch (MessagingException e) {
-                throw new MailExtractLibException(
-                    "mailextractlib.javamail: cannot retrieve messages from folder " +
-                    getFullName() +
-                    ", folder extraction aborted",
-                    e
-                );
-            } finally {
-                pool.shutdownNow();
-            }
-        } else {
-            try {
-                folder.open(Folder.READ_ONLY);
-                msgTotal = folder.getMessageCount();
-                for (int i = 1; i <= msgTotal; i++) {
-                    message = folder.getMessage(i);
-                    if (!((MimeMessage) message).isSet(Flags.Flag.DELETED)) {
-                        JMStoreMessage jMStoreMessage = new JMStoreMessage(this, (MimeMessage) message);
-                        jMStoreMessage.processElement(writeFlag);
-                    }
-                }
-                folder.close(false);
-            } catch (MessagingException e) {
-                throw new MailExtractLibException(
-                    "mailextractlib.javamail: can't get messages from folder " + getFullName(),
-                    e
-                );
-            }
-        }
+        processFolderMessages(jMStoreMessage -> jMStoreMessage.processElement(writeFlag));
     }
 
     /*
@@ -275,81 +241,7 @@ public class JMStoreFolder extends StoreFolder {
      */
     @Override
     protected void doListFolderElements(boolean stats) throws MailExtractLibException, InterruptedException {
-        int msgTotal;
-        Message message;
-
-        // only root storeExtractor can distribute
-        if (storeExtractor.isRoot()) {
-            ExecutorService pool = Executors.newFixedThreadPool(storeExtractor.getMaxParallelThreads());
-            CompletionService<Void> completionService = new ExecutorCompletionService<>(pool);
-            int submittedTasks = 0;
-
-            try {
-                folder.open(Folder.READ_ONLY);
-                msgTotal = folder.getMessageCount();
-                for (int i = 1; i <= msgTotal; i++) {
-                    message = folder.getMessage(i);
-                    if (!((MimeMessage) message).isSet(Flags.Flag.DELETED)) {
-                        // Encapsulate the instance in an AtomicReference to capture it
-                        final JMStoreMessage jmStoreMessage = new JMStoreMessage(this, (MimeMessage) message);
-                        completionService.submit(() -> {
-                            jmStoreMessage.listElement(stats);
-                            return null;
-                        });
-                        submittedTasks++;
-                    }
-                }
-                folder.close(false);
-
-                // Retrieve the results with a maximum wait of 60 seconds per task
-                for (int i = 0; i < submittedTasks; i++) {
-                    Future<Void> future = completionService.poll(60, TimeUnit.SECONDS);
-                    if (future == null) {
-                        throw new MailExtractLibException(
-                            "mailextractlib.javamail: Timeout: no message extracted within 60 seconds, folder extrcation aborted.",
-                            null
-                        );
-                    }
-                    try {
-                        future.get(); // Retrieve the task result or propagate any exception
-                    } catch (ExecutionException e) {
-                        MailExtractProgressLogger.doProgressLogWithoutInterruption(
-                            getStoreExtractor().getProgressLogger(),
-                            MailExtractProgressLogger.MESSAGE,
-                            "mailextractlib.javamail: Error during a message processing, it's dropped.",
-                            e
-                        );
-                    }
-                }
-            } catch (MessagingException e) {
-                throw new MailExtractLibException(
-                    "mailextractlib.javamail: cannot retrieve messages from folder " +
-                    getFullName() +
-                    ", folder listing aborted",
-                    e
-                );
-            } finally {
-                pool.shutdownNow();
-            }
-        } else {
-            try {
-                folder.open(Folder.READ_ONLY);
-                msgTotal = folder.getMessageCount();
-                for (int i = 1; i <= msgTotal; i++) {
-                    message = folder.getMessage(i);
-                    if (!((MimeMessage) message).isSet(Flags.Flag.DELETED)) {
-                        JMStoreMessage jMStoreMessage = new JMStoreMessage(this, (MimeMessage) message);
-                        jMStoreMessage.listElement(stats);
-                    }
-                }
-                folder.close(false);
-            } catch (MessagingException e) {
-                throw new MailExtractLibException(
-                    "mailextractlib.javamail: can't get messages from folder " + getFullName(),
-                    e
-                );
-            }
-        }
+        processFolderMessages(jMStoreMessage -> jMStoreMessage.listElement(stats));
     }
 
     /*
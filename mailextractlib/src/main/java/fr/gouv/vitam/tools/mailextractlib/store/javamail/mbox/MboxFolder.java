@@ -43,8 +43,6 @@ import jakarta.mail.*;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * JavaMail Folder for mbox file structure.
@@ -60,19 +58,10 @@ public class MboxFolder extends Folder {
     private MboxStore mboxstore;
     private MboxReader mboxfilereader;
     private MailExtractProgressLogger logger;
-    private List<MessageFork> messages;
+    private String indexDirectoryName;
+    private MboxIndex messages;
     private int total; // total number of messages in mailbox
 
-    private class MessageFork {
-
-        long beg, end;
-
-        MessageFork(long beg, long end) {
-            this.beg = beg;
-            this.end = end;
-        }
-    }
-
     /**
      * Sets the logger
      * <p>
@@ -86,6 +75,19 @@ public class MboxFolder extends Folder {
         this.logger = logger;
     }
 
+    /**
+     * Sets the work directory in which the messages index is kept
+     * <p>
+     * This method is directly called from MailExtract library to enable this
+     * class to reuse the index of an unchanged mbox file
+     *
+     * @param indexDirectoryName
+     *            Index work directory name, or null for no index file
+     */
+    public void setIndexDirectoryName(String indexDirectoryName) {
+        this.indexDirectoryName = indexDirectoryName;
+    }
+
     /**
      * Instantiates a new mbox simulated folder.
      *
@@ -265,9 +267,6 @@ public class MboxFolder extends Folder {
                 break;
         }
 
-        messages = new ArrayList<MessageFork>();
-        MessageFork mf;
-
         try {
             if (mboxstore.getObjectContent() != null) mboxfilereader = new MboxReader(
                 logger,
@@ -275,16 +274,13 @@ public class MboxFolder extends Folder {
             );
             else mboxfilereader = new MboxReader(logger, new File(mboxstore.getContainer()));
             opened = true; // now really opened
-            long beg, end;
-
-            mboxfilereader.getNextFromLineBeg();
-            beg = mboxfilereader.getLastFromLineEnd();
-            while (beg != -1) {
-                end = mboxfilereader.getNextFromLineBeg();
-                mf = new MessageFork(beg, end);
-                messages.add(mf);
-                beg = mboxfilereader.getLastFromLineEnd();
-            }
+            if (mboxstore.getObjectContent() != null) messages = MboxIndex.scan(mboxfilereader);
+            else messages = MboxIndex.getIndex(
+                mboxfilereader,
+                new File(mboxstore.getContainer()),
+                indexDirectoryName,
+                logger
+            );
         } catch (IOException e) {
             throw new MessagingException("mbox: open failure, can't read: " + mboxstore.getContainer() + " file");
         }
@@ -336,7 +332,7 @@ public class MboxFolder extends Folder {
         // optimal for the extraction usage with only one get by message
         m = new JMMimeMessage(
             this,
-            mboxfilereader.newStream(messages.get(msgno - 1).beg, messages.get(msgno - 1).end),
+            mboxfilereader.newStream(messages.getBeg(msgno - 1), messages.getEnd(msgno - 1)),
             msgno
         );
 
@@ -0,0 +1,264 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox;
+
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Formatter;
+
+import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger.doProgressLogWithoutInterruption;
+
+/**
+ * Messages index of a mbox file, with the begin and end positions of each
+ * message.
+ * <p>
+ * The index can be kept in a sidecar file in a work directory, never next to
+ * the mbox file, so that next openings of the same unchanged mbox file don't
+ * scan it again. The sidecar file is named from the mbox file canonical path
+ * digest, and is valid only if the mbox file path, size and last modification
+ * time are the same.
+ */
+public class MboxIndex {
+
+    // "MBXI" and format version
+    private static final int MAGIC = 0x4D425849;
+    private static final int VERSION = 1;
+
+    private long[] begs;
+    private long[] ends;
+    private int size;
+
+    private MboxIndex(int capacity) {
+        this.begs = new long[Math.max(16, capacity)];
+        this.ends = new long[Math.max(16, capacity)];
+    }
+
+    private void add(long beg, long end) {
+        if (size == begs.length) {
+            begs = Arrays.copyOf(begs, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        begs[size] = beg;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * Gets the number of messages.
+     *
+     * @return the messages count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the begin position of a message, just after its "From " line.
+     *
+     * @param index the message index, from 0
+     * @return the begin position
+     */
+    public long getBeg(int index) {
+        return begs[index];
+    }
+
+    /**
+     * Gets the end position of a message, the next "From " line start, or -1
+     * for the last message which ends at the end of file.
+     *
+     * @param index the message index, from 0
+     * @return the end position
+     */
+    public long getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Scan all the mbox content with a reader, from the beginning.
+     *
+     * @param reader the mbox reader
+     * @return the mbox index
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static MboxIndex scan(MboxReader reader) throws IOException {
+        MboxIndex result = new MboxIndex(0);
+        long beg, end;
+
+        reader.getNextFromLineBeg();
+        beg = reader.getLastFromLineEnd();
+        while (beg != -1) {
+            end = reader.getNextFromLineBeg();
+            result.add(beg, end);
+            beg = reader.getLastFromLineEnd();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of a mbox file, loaded from the work directory if there is
+     * a valid one, or else scanned with the reader and then saved in the work
+     * directory.
+     * <p>
+     * If the work directory is null, the mbox file is simply scanned. Failures
+     * to save the index are only logged.
+     *
+     * @param reader             the mbox reader on the file
+     * @param mboxFile           the mbox file
+     * @param indexDirectoryName the work directory name, or null
+     * @param logger             the logger
+     * @return the mbox index
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static MboxIndex getIndex(
+        MboxReader reader,
+        File mboxFile,
+        String indexDirectoryName,
+        MailExtractProgressLogger logger
+    ) throws IOException {
+        if (indexDirectoryName == null) return scan(reader);
+
+        File canonicalFile = mboxFile.getCanonicalFile();
+        Path indexPath = Paths.get(indexDirectoryName, getIndexFilename(canonicalFile));
+        MboxIndex result = load(indexPath, canonicalFile);
+        if (result != null) {
+            doProgressLogWithoutInterruption(
+                logger,
+                MailExtractProgressLogger.MESSAGE_DETAILS,
+                "mbox: reuse index " + indexPath + " for " + canonicalFile,
+                null
+            );
+            return result;
+        }
+
+        result = scan(reader);
+        try {
+            result.save(indexPath, canonicalFile);
+        } catch (IOException e) {
+            doProgressLogWithoutInterruption(
+                logger,
+                MailExtractProgressLogger.WARNING,
+                "mbox: can't save index " + indexPath + " for " + canonicalFile,
+                e
+            );
+        }
+        return result;
+    }
+
+    // digest of the canonical path, so that different mbox files with the same name don't share an index
+    private static String getIndexFilename(File canonicalFile) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            Formatter formatter = new Formatter();
+            for (byte b : md.digest(canonicalFile.getPath().getBytes(StandardCharsets.UTF_8))) formatter.format(
+                "%02x",
+                b
+            );
+            return formatter.toString() + ".mboxidx";
+        } catch (NoSuchAlgorithmException e) {
+            // can't happen, SHA-256 is always provided
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // load the index if it exists and is valid for this mbox file, else null
+    private static MboxIndex load(Path indexPath, File canonicalFile) {
+        if (!Files.isRegularFile(indexPath)) return null;
+        try (
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))
+        ) {
+            long mboxLength = canonicalFile.length();
+            if ((dis.readInt() != MAGIC) || (dis.readInt() != VERSION)) return null;
+            if (!dis.readUTF().equals(canonicalFile.getPath())) return null;
+            if (dis.readLong() != mboxLength) return null;
+            if (dis.readLong() != canonicalFile.lastModified()) return null;
+            // a damaged count can't be more than the messages the mbox file or the index file can hold
+            int count = dis.readInt();
+            if ((count < 0) || (count > mboxLength) || (16L * count > Files.size(indexPath))) return null;
+            MboxIndex result = new MboxIndex(count);
+            long previousEnd = 0;
+            for (int i = 0; i < count; i++) {
+                long beg = dis.readLong();
+                long end = dis.readLong();
+                // messages are ordered in the file, and only the last one ends at the end of file
+                if ((beg < previousEnd) || (beg > mboxLength)) return null;
+                if ((end == -1) ? (i != count - 1) : ((end < beg) || (end > mboxLength))) return null;
+                result.add(beg, end);
+                previousEnd = end;
+            }
+            if (dis.read() != -1) return null;
+            return result;
+        } catch (IOException e) {
+            // truncated or unreadable index, scan again
+            return null;
+        }
+    }
+
+    // save the index, written in a temporary file and then moved to be never seen partially written
+    private void save(Path indexPath, File canonicalFile) throws IOException {
+        Files.createDirectories(indexPath.getParent());
+        Path tmpPath = Files.createTempFile(indexPath.getParent(), "mboxidx", ".tmp");
+        try {
+            try (
+                DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))
+            ) {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                dos.writeUTF(canonicalFile.getPath());
+                dos.writeLong(canonicalFile.length());
+                dos.writeLong(canonicalFile.lastModified());
+                dos.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    dos.writeLong(begs[i]);
+                    dos.writeLong(ends[i]);
+                }
+            }
+            Files.move(tmpPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+}
@@ -38,14 +38,23 @@
 package fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox;
 
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
-import jakarta.mail.internet.SharedInputStream;
 import jakarta.mail.util.SharedByteArrayInputStream;
 import jakarta.mail.util.SharedFileInputStream;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
- * Optimized buffered mbox file reader for Thunderbird mbox file.
+ * Optimized mbox file reader for Thunderbird mbox file.
+ * <p>
+ * The file is memory mapped by large windows in which the "From " lines are
+ * searched eight bytes at a time, and messages streams are views on the
+ * mapped message region. Messages are sliced from shared windows mappings, only
+ * messages larger than a window are mapped on their own, so that the number of
+ * mappings stays far below the system limit.
  * <p>
  * <b>Warning:</b>Only for reading and without file locking or new messages
  * management.
@@ -56,20 +65,34 @@ public class MboxReader {
 
     private String filePath;
 
-    // for random access to data when file
-    private RandomAccessFile raf;
+    // for mapped access to data when file
+    private FileChannel channel;
+
+    // for stream access to data when byte[], or when a message can't be mapped
+    private SharedByteArrayInputStream sbais;
+    private SharedFileInputStream sfis;
+
+    // mapped window in which lines are scanned
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private final int windowSize;
+    private ByteBuffer window;
+    private long windowStart;
+    private long size;
 
-    private SharedInputStream sifs;
+    // mapped window from which messages streams are sliced
+    private ByteBuffer streamWindow;
+    private long streamWindowStart;
+    private int streamMappingsCount;
 
-    // for buffered access to RandomAccessFile
-    private static int BUFFER_SIZE = 4096;
-    private byte[] buffer = new byte[BUFFER_SIZE];
-    private int len = 0;
-    private long bufferPos = 0;
-    private int curPos = 0;
-    private int lineNum = 0;
+    // scanning state
+    private long curPos = 0;
     private long fromLineEnd = 0;
 
+    // eight '\n' bytes, to find new lines in a long word
+    private static final long NEW_LINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
     /**
      * Instantiates a new thunder mbox file reader.
      *
@@ -78,10 +101,16 @@ public class MboxReader {
      * @throws IOException Unable to open the file.
      */
     public MboxReader(MailExtractProgressLogger logger, File file) throws IOException {
+        this(logger, file, WINDOW_SIZE);
+    }
+
+    // constructor with a specific window size, for tests
+    MboxReader(MailExtractProgressLogger logger, File file, int windowSize) throws IOException {
         this.logger = logger;
         this.filePath = file.getPath();
-        sifs = new SharedFileInputStream(file);
-        raf = new RandomAccessFile(file, "r");
+        this.windowSize = windowSize;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        size = channel.size();
     }
 
     /**
@@ -92,7 +121,11 @@ public class MboxReader {
      */
     public MboxReader(MailExtractProgressLogger logger, byte[] source) {
         this.logger = logger;
-        sifs = new SharedByteArrayInputStream(source);
+        this.windowSize = source.length;
+        sbais = new SharedByteArrayInputStream(source);
+        window = ByteBuffer.wrap(source).order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = 0;
+        size = source.length;
     }
 
     /**
@@ -115,8 +148,13 @@ public class MboxReader {
      * @throws IOException Unable to close the file.
      */
     public void close() throws IOException {
-        if (raf != null) raf.close();
-        if (sifs instanceof InputStream) ((InputStream) sifs).close();
+        window = null;
+        synchronized (this) {
+            streamWindow = null;
+        }
+        if (channel != null) channel.close();
+        if (sfis != null) sfis.close();
+        if (sbais != null) sbais.close();
     }
 
     /**
@@ -130,59 +168,78 @@ public class MboxReader {
      * @return the input stream
      */
     public InputStream newStream(long start, long end) {
-        return sifs.newStream(start, end);
-    }
-
-    // buffered read
-    private final int read() throws IOException {
-        if (raf != null) {
-            // if File
-            if (curPos >= len) {
-                bufferPos = raf.getFilePointer();
-                if ((len = raf.read(buffer)) == -1) return -1;
-                curPos = 0;
+        if (sbais != null) return sbais.newStream(start, end);
+        if (end == -1) end = size;
+        if (end - start <= Integer.MAX_VALUE) {
+            try {
+                return new MappedSharedInputStream(getMappedRegion(start, end));
+            } catch (IOException e) {
+                // can't map, use a shared file input stream
             }
-        } else {
-            // if byte[]
-            // TODO get rid of buffer when byte[]
-            if (curPos >= len) {
-                bufferPos = sifs.getPosition();
-                if ((len = ((ByteArrayInputStream) sifs).read(buffer)) == -1) return -1;
-                curPos = 0;
+        }
+        synchronized (this) {
+            try {
+                if (sfis == null) sfis = new SharedFileInputStream(filePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            return sfis.newStream(start, end);
         }
-        return buffer[curPos++];
     }
 
-    // buffered get file pointer
-    private final long getPointer() {
-        return bufferPos + curPos;
+    // get a view on the bytes from start to end-1, sliced from the current stream window or from a new window
+    // beginning at start, or mapped on its own if larger than a window
+    private synchronized ByteBuffer getMappedRegion(long start, long end) throws IOException {
+        if (end - start > windowSize) {
+            streamMappingsCount++;
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        if ((streamWindow == null) || (start < streamWindowStart) || (end > streamWindowStart + streamWindow.limit())) {
+            streamWindow = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+            streamWindowStart = start;
+            streamMappingsCount++;
+        }
+        ByteBuffer view = streamWindow.duplicate();
+        view.limit((int) (end - streamWindowStart));
+        view.position((int) (start - streamWindowStart));
+        return view;
     }
 
-    // read a complete line but return only first 64 bytes
-    private final int readFirstBytesLine(byte[] buffer) throws IOException {
-        int i = 0;
-        int b;
+    // number of mappings done for messages streams, for tests
+    synchronized int getStreamMappingsCount() {
+        return streamMappingsCount;
+    }
 
-        lineNum++;
-        while (true) {
-            b = read();
-            if (b == -1) return -1;
-            if (b == '\n') return i;
-            if (i < 64) {
-                buffer[i++] = (byte) b;
-            }
-        }
+    // map if needed a window containing the bytes from pos to pos+need-1, or to the end of file
+    private void ensureWindow(long pos, int need) throws IOException {
+        long neededEnd = Math.min(pos + need, size);
+        if ((window != null) && (pos >= windowStart) && (neededEnd <= windowStart + window.limit())) return;
+        windowStart = pos;
+        window = channel
+            .map(FileChannel.MapMode.READ_ONLY, pos, Math.min(windowSize, size - pos))
+            .order(ByteOrder.LITTLE_ENDIAN);
     }
 
-    // construct a String from buffer
-    private String constructLine(byte[] buffer, int len) {
-        StringBuilder stringBuilder = new StringBuilder();
-        for (int i = 0; i < len; i++) {
-            final char c = (char) (buffer[i]);
-            if (c >= 32) stringBuilder.append(c);
+    // find the next '\n' position from pos, or -1 if none, testing eight bytes at a time
+    private long indexOfNewLine(long pos) throws IOException {
+        while (pos < size) {
+            ensureWindow(pos, 1);
+            int i = (int) (pos - windowStart);
+            int limit = window.limit();
+            while (i + 8 <= limit) {
+                // the lowest high bit set marks the first '\n' byte, little endian being in file order
+                long word = window.getLong(i) ^ NEW_LINES;
+                long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+                if (found != 0) return windowStart + i + (Long.numberOfTrailingZeros(found) >>> 3);
+                i += 8;
+            }
+            while (i < limit) {
+                if (window.get(i) == '\n') return windowStart + i;
+                i++;
+            }
+            pos = windowStart + limit;
         }
-        return stringBuilder.toString();
+        return -1;
     }
 
     // verify line compliance to the delimiter pattern
@@ -198,11 +255,17 @@ public class MboxReader {
     //
     //After the "From " line is the message itself in RFC 5322 format. The final line is a completely blank line with no spaces or tabs.
     // WARNING: due to tested mbox files diversity the only kept filter is the beginning "From " pattern!
-    private boolean isCompliantMBoxDelimiterLine(byte[] buffer, int len) {
-        if (
-            (buffer[0] == 'F') && (buffer[1] == 'r') && (buffer[2] == 'o') && (buffer[3] == 'm') && (buffer[4] == ' ')
-        ) return true;
-        else return false;
+    private boolean isCompliantMBoxDelimiterLine(long lineBeg) throws IOException {
+        if (lineBeg + 5 > size) return false;
+        ensureWindow(lineBeg, 5);
+        int i = (int) (lineBeg - windowStart);
+        return (
+            (window.get(i) == 'F') &&
+            (window.get(i + 1) == 'r') &&
+            (window.get(i + 2) == 'o') &&
+            (window.get(i + 3) == 'm') &&
+            (window.get(i + 4) == ' ')
+        );
     }
 
     /**
@@ -212,21 +275,23 @@ public class MboxReader {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public long getNextFromLineBeg() throws IOException {
-        long beg;
-        int len;
-        byte[] buffer = new byte[64];
+        long beg = curPos;
+        long end;
 
         while (true) {
-            beg = getPointer();
-            len = readFirstBytesLine(buffer);
-            if (len == -1) {
+            // a last line without end of line is ignored
+            end = indexOfNewLine(beg);
+            if (end == -1) {
+                curPos = size;
                 fromLineEnd = -1;
                 return -1;
             }
-            if (isCompliantMBoxDelimiterLine(buffer, len)) {
-                fromLineEnd = getPointer();
+            if (isCompliantMBoxDelimiterLine(beg)) {
+                curPos = end + 1;
+                fromLineEnd = curPos;
                 return beg;
             }
+            beg = end + 1;
         }
     }
 
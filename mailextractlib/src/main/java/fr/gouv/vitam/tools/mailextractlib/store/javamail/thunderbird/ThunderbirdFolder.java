@@ -38,6 +38,7 @@
 package fr.gouv.vitam.tools.mailextractlib.store.javamail.thunderbird;
 
 import fr.gouv.vitam.tools.mailextractlib.store.javamail.JMMimeMessage;
+import fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox.MboxIndex;
 import fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox.MboxReader;
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
 import jakarta.mail.*;
@@ -46,7 +47,6 @@ import org.eclipse.angus.mail.imap.protocol.BASE64MailboxDecoder;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map.Entry;
 
 import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger.doProgressLogWithoutInterruption;
@@ -65,21 +65,12 @@ public class ThunderbirdFolder extends Folder {
     private int total; // total number of messages in mailbox
     private volatile boolean opened = false;
     private int holdsFlags;
-    private List<MessageFork> messages;
+    private MboxIndex messages;
     private ThunderbirdStore mstore;
     private File folderFile;
     private MboxReader mboxfilereader;
     private MailExtractProgressLogger logger;
-
-    private class MessageFork {
-
-        long beg, end;
-
-        MessageFork(long beg, long end) {
-            this.beg = beg;
-            this.end = end;
-        }
-    }
+    private String indexDirectoryName;
 
     /**
      * Sets the logger
@@ -94,6 +85,19 @@ public class ThunderbirdFolder extends Folder {
         this.logger = logger;
     }
 
+    /**
+     * Sets the work directory in which the messages index is kept
+     * <p>
+     * This method is directly called from MailExtract library to enable this
+     * class to reuse the index of an unchanged mbox file
+     *
+     * @param indexDirectoryName
+     *            Index work directory name, or null for no index file
+     */
+    public void setIndexDirectoryName(String indexDirectoryName) {
+        this.indexDirectoryName = indexDirectoryName;
+    }
+
     /**
      * Instantiates a new thunder mbox folder.
      *
@@ -501,22 +505,10 @@ public class ThunderbirdFolder extends Folder {
                 break;
         }
 
-        messages = new ArrayList<MessageFork>();
-        MessageFork mf;
-
         try {
             mboxfilereader = new MboxReader(logger, folderFile);
             opened = true; // now really opened
-            long beg, end;
-
-            mboxfilereader.getNextFromLineBeg();
-            beg = mboxfilereader.getLastFromLineEnd();
-            while (beg != -1) {
-                end = mboxfilereader.getNextFromLineBeg();
-                mf = new MessageFork(beg, end);
-                messages.add(mf);
-                beg = mboxfilereader.getLastFromLineEnd();
-            }
+            messages = MboxIndex.getIndex(mboxfilereader, folderFile, indexDirectoryName, logger);
         } catch (IOException e) {
             throw new MessagingException("ThunderMBox: open failure, can't read: " + folderFile.getPath());
         }
@@ -568,7 +560,7 @@ public class ThunderbirdFolder extends Folder {
         // optimal for the extraction usage with only one get by message
         m = new JMMimeMessage(
             this,
-            mboxfilereader.newStream(messages.get(msgno - 1).beg, messages.get(msgno - 1).end),
+            mboxfilereader.newStream(messages.getBeg(msgno - 1), messages.getEnd(msgno - 1)),
             msgno
         );
 
@@ -0,0 +1,200 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.store.microsoft.pst;
+
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel extraction engine for a pst file.
+ * <p>
+ * It is owned by the root {@link PstStoreExtractor} and shared by all the folders of the extraction. Whole folders
+ * and batches of messages are dispatched as tasks to one work-stealing pool, so that a folder waiting for its
+ * sub-folders or messages helps executing them, and that idle workers steal messages batches from big folders.
+ * <p>
+ * Workers share the pst file, whose reads are positional and lock-free, and each message is loaded from its
+ * descriptor identifier only in the worker that extracts it.
+ * <p>
+ * As no folder owns its workers anymore, the former per folder timeout is replaced by an inactivity timeout on the
+ * whole extraction: if no message nor work is processed within {@link #INACTIVITY_TIMEOUT_SECONDS}, the extraction
+ * is aborted.
+ */
+class PstExtractionEngine {
+
+    /**
+     * Number of messages loaded and extracted in the same task.
+     */
+    static final int MESSAGES_BATCH_SIZE = 16;
+
+    /**
+     * Maximum time without any processed message or work before aborting the extraction.
+     */
+    static final long INACTIVITY_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Unit of work, able to throw the extraction checked exceptions.
+     */
+    @FunctionalInterface
+    interface PstWork {
+        /**
+         * Do the work.
+         *
+         * @throws MailExtractLibException Any unrecoverable extraction exception
+         * @throws InterruptedException    the interrupted exception
+         */
+        void run() throws MailExtractLibException, InterruptedException;
+    }
+
+    // fork/join wrapper keeping the work exception to rethrow it as is
+    private class PstWorkAction extends RecursiveAction {
+
+        private final transient PstWork work;
+        private transient Exception failure;
+
+        PstWorkAction(PstWork work) {
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                work.run();
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                notifyProgress();
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final AtomicLong progress;
+
+    /**
+     * Instantiates a new pst extraction engine.
+     *
+     * @param parallelism the number of workers
+     */
+    PstExtractionEngine(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.progress = new AtomicLong();
+    }
+
+    /**
+     * Notify that a message or a work has been processed, which resets the inactivity timeout.
+     */
+    void notifyProgress() {
+        progress.incrementAndGet();
+    }
+
+    /**
+     * Run all the works in the engine pool and wait for their completion.
+     * <p>
+     * When called from an engine worker, the works are forked in the current task, otherwise they are submitted to
+     * the pool and waited for with the inactivity timeout. Once all works are done, the first exception raised, if
+     * any, is thrown.
+     *
+     * @param works the works
+     * @throws MailExtractLibException Any unrecoverable extraction exception
+     * @throws InterruptedException    the interrupted exception
+     */
+    void runAll(List<PstWork> works) throws MailExtractLibException, InterruptedException {
+        final List<PstWorkAction> actions = new ArrayList<>(works.size());
+        for (PstWork work : works) actions.add(new PstWorkAction(work));
+
+        if (ForkJoinTask.getPool() == pool) ForkJoinTask.invokeAll(actions);
+        else {
+            Future<?> future = pool.submit(() -> ForkJoinTask.invokeAll(actions));
+            try {
+                waitWithInactivityTimeout(future);
+            } catch (InterruptedException | MailExtractLibException e) {
+                future.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                throw new MailExtractLibException("mailextractlib.pst: parallel extraction failure", e.getCause());
+            }
+        }
+
+        for (PstWorkAction action : actions) {
+            if (action.failure instanceof MailExtractLibException) throw (MailExtractLibException) action.failure;
+            else if (action.failure instanceof InterruptedException) throw (InterruptedException) action.failure;
+            else if (action.failure != null) throw new MailExtractLibException(
+                "mailextractlib.pst: parallel extraction failure",
+                action.failure
+            );
+        }
+    }
+
+    // wait for the future as long as messages or works are processed
+    private void waitWithInactivityTimeout(Future<?> future)
+        throws MailExtractLibException, InterruptedException, ExecutionException {
+        long lastProgress = progress.get();
+        while (true) {
+            try {
+                future.get(INACTIVITY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long currentProgress = progress.get();
+                if (currentProgress == lastProgress) throw new MailExtractLibException(
+                    "mailextractlib.pst: Timeout: no message processed within " +
+                    INACTIVITY_TIMEOUT_SECONDS +
+                    " seconds, extraction aborted.",
+                    null
+                );
+                lastProgress = currentProgress;
+            }
+        }
+    }
+
+    /**
+     * Shutdown the engine pool.
+     */
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -43,9 +43,7 @@ import fr.gouv.vitam.tools.javalibpst.PSTException;
 import fr.gouv.vitam.tools.mailextractlib.core.StoreContact;
 import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.LinkedHashSet;
 
 /**
@@ -249,14 +247,7 @@ public class PstStoreContact extends StoreContact {
                 if (attachment.isContactPhoto()) {
                     pictureFileName = attachment.getLongFilename();
                     try {
-                        InputStream is = attachment.getFileInputStream();
-                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                        byte[] buf = new byte[4096];
-                        int bytesRead;
-                        while ((bytesRead = is.read(buf)) != -1) {
-                            baos.write(buf, 0, bytesRead);
-                        }
-                        pictureData = baos.toByteArray();
+                        pictureData = PstStoreMessageAttachment.readAttachmentContent(attachment);
                         break;
                     } catch (PSTException | IOException e) {
                         pictureFileName = null;
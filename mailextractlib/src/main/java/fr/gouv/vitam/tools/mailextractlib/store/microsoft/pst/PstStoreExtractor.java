@@ -82,6 +82,11 @@ public class PstStoreExtractor extends StoreExtractor {
      */
     private PSTFile pstFile;
 
+    /**
+     * The parallel extraction engine, only for the root store extractor.
+     */
+    private PstExtractionEngine extractionEngine;
+
     /**
      * Instantiates a new LP store extractor.
      *
@@ -308,12 +313,40 @@ public class PstStoreExtractor extends StoreExtractor {
         }
     }
 
+    /**
+     * Gets the PST File object.
+     *
+     * @return the pst file
+     */
+    PSTFile getPstFile() {
+        return pstFile;
+    }
+
+    /**
+     * Gets the parallel extraction engine, created at first call.
+     * <p>
+     * Only the root store extractor has one, nested extractions being already done in an engine worker.
+     *
+     * @return the extraction engine, or null if not the root store extractor
+     */
+    synchronized PstExtractionEngine getExtractionEngine() {
+        if (!isRoot()) return null;
+        if (extractionEngine == null) extractionEngine = new PstExtractionEngine(getMaxParallelThreads());
+        return extractionEngine;
+    }
+
     /* (non-Javadoc)
      * @see fr.gouv.vitam.tools.mailextractlib.core.StoreExtractor#endStoreExtractor()
      */
     @Override
     public void endStoreExtractor() throws MailExtractLibException {
         super.endStoreExtractor();
+        synchronized (this) {
+            if (extractionEngine != null) {
+                extractionEngine.shutdown();
+                extractionEngine = null;
+            }
+        }
         try {
             if (pstFile != null) pstFile.close();
         } catch (IOException e) {
@@ -47,8 +47,9 @@ import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
-import java.util.concurrent.*;
 
 import static fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger.doProgressLog;
 
@@ -185,58 +186,100 @@ public class PstStoreFolder extends StoreFolder {
         }
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see fr.gouv.vitam.tools.mailextract.core.MailBoxFolder#
-     * doExtractFolderMessages()
-     */
-    @Override
-    protected void doExtractFolderElements(boolean writeFlag) throws MailExtractLibException, InterruptedException {
-        PSTMessage message;
-
-        if (storeExtractor.isRoot()) {
-            ExecutorService pool = Executors.newFixedThreadPool(storeExtractor.getMaxParallelThreads());
-            CompletionService<Void> completionService = new ExecutorCompletionService<>(pool);
-            int submittedTasks = 0;
+    // processing of one message of the folder, extraction or listing
+    @FunctionalInterface
+    private interface PstMessageProcessor {
+        void process(PSTMessage message, int count) throws InterruptedException;
+    }
 
-            try {
-                // Collect all tasks before starting execution
-                while (true) {
-                    final int messageRank = submittedTasks + 1; // Task index
-                    message = getNextPSTObject(messageRank);
-                    if (message == null) break;
-                    final PSTMessage msg = message;
-                    completionService.submit(() -> {
-                        extractPSTObject(msg, messageRank, writeFlag);
-                        return null;
-                    });
-                    submittedTasks = messageRank;
-                }
+    // cut the folder messages in batches, each loaded and processed by one engine work
+    private List<PstExtractionEngine.PstWork> getMessagesBatchesWorks(PstMessageProcessor processor)
+        throws MailExtractLibException {
+        final List<Integer> childIdentifiers;
+        try {
+            childIdentifiers = pstFolder.getChildDescriptorIdentifiers();
+        } catch (IOException e) {
+            throw new MailExtractLibException("mailextractlib.pst: can't use pst file", e);
+        } catch (PSTException e) {
+            throw new MailExtractLibException("mailextractlib.pst: can't get elements from folder " + getFullName(), e);
+        }
 
-                // Retrieve the results with a maximum wait of 60 seconds per task
-                for (int i = 0; i < submittedTasks; i++) {
-                    Future<Void> future = completionService.poll(60, TimeUnit.SECONDS);
-                    if (future == null) {
-                        throw new MailExtractLibException(
-                            "mailextractlib.pst: Timeout: no message extracted within 60 seconds, folder extraction aborted.",
-                            null
-                        );
-                    }
+        final PstExtractionEngine engine = ((PstStoreExtractor) storeExtractor).getExtractionEngine();
+        List<PstExtractionEngine.PstWork> works = new ArrayList<>();
+        for (int start = 0; start < childIdentifiers.size(); start += PstExtractionEngine.MESSAGES_BATCH_SIZE) {
+            final int batchStart = start;
+            final int batchEnd = Math.min(start + PstExtractionEngine.MESSAGES_BATCH_SIZE, childIdentifiers.size());
+            works.add(() -> {
+                for (int i = batchStart; i < batchEnd; i++) {
+                    // one message failure doesn't abort the rest of the batch
                     try {
-                        future.get(); // Retrieve the task result or propagate any exception
-                    } catch (ExecutionException e) {
+                        PSTMessage message = loadPSTMessage(childIdentifiers.get(i), i + 1);
+                        if (message != null) processor.process(message, i + 1);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Throwable e) {
                         MailExtractProgressLogger.doProgressLogWithoutInterruption(
                             getStoreExtractor().getProgressLogger(),
                             MailExtractProgressLogger.MESSAGE,
                             "mailextractlib.pst: Error during a message processing, it's dropped.",
                             e
                         );
+                    } finally {
+                        engine.notifyProgress();
                     }
                 }
-            } finally {
-                pool.shutdownNow();
-            }
+            });
+        }
+        return works;
+    }
+
+    // load a folder message from its descriptor identifier, null if not a message or on error
+    private PSTMessage loadPSTMessage(int descriptorIdentifier, int count) throws InterruptedException {
+        try {
+            PSTObject po = PSTObject.detectAndLoadPSTObject(
+                ((PstStoreExtractor) storeExtractor).getPstFile(),
+                descriptorIdentifier
+            );
+            if (po instanceof PSTMessage) return (PSTMessage) po;
+            logMessageWarning(
+                "mailextractlib.pst: unexpected element " + count + " in folder " + this.getName() + ", it's dropped",
+                null
+            );
+        } catch (Exception e) {
+            logMessageWarning(
+                "mailextractlib.pst: can't load element " +
+                count +
+                "/" +
+                pstFolder.getContentCount() +
+                " in folder " +
+                this.getName(),
+                e
+            );
+        }
+        return null;
+    }
+
+    // extract one sub folder and accumulate its results in this folder
+    private void extractSubFolder(PSTFolder subfolder, int level, boolean writeFlag)
+        throws MailExtractLibException, InterruptedException {
+        PstStoreFolder lPMailBoxSubFolder = new PstStoreFolder(storeExtractor, subfolder, this);
+        if (lPMailBoxSubFolder.extractFolder(level + 1, writeFlag)) incFolderSubFoldersCount();
+        extendDateRange(lPMailBoxSubFolder.getDateRange());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.gouv.vitam.tools.mailextract.core.MailBoxFolder#
+     * doExtractFolderMessages()
+     */
+    @Override
+    protected void doExtractFolderElements(boolean writeFlag) throws MailExtractLibException, InterruptedException {
+        PSTMessage message;
+
+        PstExtractionEngine engine = ((PstStoreExtractor) storeExtractor).getExtractionEngine();
+        if (engine != null) {
+            engine.runAll(getMessagesBatchesWorks((msg, rank) -> extractPSTObject(msg, rank, writeFlag)));
         } else {
             int messageCount = 1;
             while (true) {
@@ -258,14 +301,17 @@ public class PstStoreFolder extends StoreFolder {
     @Override
     protected void doExtractSubFolders(int level, boolean writeFlag)
         throws MailExtractLibException, InterruptedException {
-        PstStoreFolder lPMailBoxSubFolder;
-
         try {
             final Vector<PSTFolder> subfolders = pstFolder.getSubFolders();
-            for (final PSTFolder subfolder : subfolders) {
-                lPMailBoxSubFolder = new PstStoreFolder(storeExtractor, subfolder, this);
-                if (lPMailBoxSubFolder.extractFolder(level + 1, writeFlag)) incFolderSubFoldersCount();
-                extendDateRange(lPMailBoxSubFolder.getDateRange());
+            PstExtractionEngine engine = ((PstStoreExtractor) storeExtractor).getExtractionEngine();
+            if (engine != null) {
+                List<PstExtractionEngine.PstWork> works = new ArrayList<>(subfolders.size());
+                for (final PSTFolder subfolder : subfolders) {
+                    works.add(() -> extractSubFolder(subfolder, level, writeFlag));
+                }
+                engine.runAll(works);
+            } else {
+                for (final PSTFolder subfolder : subfolders) extractSubFolder(subfolder, level, writeFlag);
             }
         } catch (IOException e) {
             throw new MailExtractLibException("mailextract.pst: can't use pst file", e);
@@ -371,48 +417,9 @@ public class PstStoreFolder extends StoreFolder {
     protected void doListFolderElements(boolean stats) throws MailExtractLibException, InterruptedException {
         PSTMessage message;
 
-        if (storeExtractor.isRoot()) {
-            ExecutorService pool = Executors.newFixedThreadPool(storeExtractor.getMaxParallelThreads());
-            CompletionService<Void> completionService = new ExecutorCompletionService<>(pool);
-            int submittedTasks = 0;
-
-            try {
-                // Collect all tasks before starting execution
-                while (true) {
-                    final int messageRank = submittedTasks + 1; // Task index
-                    message = getNextPSTObject(messageRank);
-                    if (message == null) break;
-                    final PSTMessage msg = message;
-                    completionService.submit(() -> {
-                        listPSTObject(msg, messageRank, stats);
-                        return null;
-                    });
-                    submittedTasks = messageRank;
-                }
-
-                // Retrieve the results with a maximum wait of 60 seconds per task
-                for (int i = 0; i < submittedTasks; i++) {
-                    Future<Void> future = completionService.poll(60, TimeUnit.SECONDS);
-                    if (future == null) {
-                        throw new MailExtractLibException(
-                            "mailextractlib.pst: Timeout: no message listed within 60 seconds, folder extraction aborted.",
-                            null
-                        );
-                    }
-                    try {
-                        future.get(); // Retrieve the task result or propagate any exception
-                    } catch (ExecutionException e) {
-                        MailExtractProgressLogger.doProgressLogWithoutInterruption(
-                            getStoreExtractor().getProgressLogger(),
-                            MailExtractProgressLogger.MESSAGE,
-                            "mailextractlib.pst: Error during a message processing, it's dropped.",
-                            e
-                        );
-                    }
-                }
-            } finally {
-                pool.shutdownNow();
-            }
+        PstExtractionEngine engine = ((PstStoreExtractor) storeExtractor).getExtractionEngine();
+        if (engine != null) {
+            engine.runAll(getMessagesBatchesWorks((msg, rank) -> listPSTObject(msg, rank, stats)));
         } else {
             int messageCount = 1;
             while (true) {
@@ -40,6 +40,7 @@ package fr.gouv.vitam.tools.mailextractlib.store.microsoft.pst;
 import fr.gouv.vitam.tools.javalibpst.PSTAttachment;
 import fr.gouv.vitam.tools.javalibpst.PSTException;
 import fr.gouv.vitam.tools.javalibpst.PSTMessage;
+import fr.gouv.vitam.tools.javalibpst.PSTNodeInputStream;
 import fr.gouv.vitam.tools.mailextractlib.store.microsoft.MicrosoftStoreMessageAttachment;
 
 import java.io.ByteArrayOutputStream;
@@ -63,14 +64,7 @@ public class PstStoreMessageAttachment extends MicrosoftStoreMessageAttachment {
             modificationTime = attachment.getModificationTime();
             displayName = attachment.getDisplayName();
             try {
-                InputStream is = attachment.getFileInputStream();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buf = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = is.read(buf)) != -1) {
-                    baos.write(buf, 0, bytesRead);
-                }
-                byteArray = baos.toByteArray();
+                byteArray = readAttachmentContent(attachment);
             } catch (PSTException | IOException e) {
                 byteArray = null;
             }
@@ -88,4 +82,32 @@ public class PstStoreMessageAttachment extends MicrosoftStoreMessageAttachment {
             // forget it
         }
     }
+
+    /**
+     * Read the whole content of an attachment.
+     * <p>
+     * When the stored content length is known, that is when not compressed, it's read directly in a byte array of
+     * this size, without intermediate buffer growth nor final copy.
+     *
+     * @param attachment the attachment
+     * @return the content
+     * @throws PSTException the pst exception
+     * @throws IOException  the io exception
+     */
+    static byte[] readAttachmentContent(PSTAttachment attachment) throws PSTException, IOException {
+        try (InputStream is = attachment.getFileInputStream()) {
+            if ((is instanceof PSTNodeInputStream) && (((PSTNodeInputStream) is).length() <= Integer.MAX_VALUE - 8)) {
+                byte[] content = new byte[(int) ((PSTNodeInputStream) is).length()];
+                ((PSTNodeInputStream) is).readCompletely(content);
+                return content;
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[8176];
+            int bytesRead;
+            while ((bytesRead = is.read(buf)) != -1) {
+                baos.write(buf, 0, bytesRead);
+            }
+            return baos.toByteArray();
+        }
+    }
 }
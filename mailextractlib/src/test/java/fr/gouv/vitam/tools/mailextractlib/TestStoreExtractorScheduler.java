@@ -0,0 +1,150 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib;
+
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractorScheduler;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestStoreExtractorScheduler implements AllTests {
+
+    private void checkBoundedScheduler(boolean virtualThreads) throws MailExtractLibException, InterruptedException {
+        //given
+        MailExtractProgressLogger mepl = AllTests.initLogger("testStoreExtractorScheduler");
+        StoreExtractorScheduler scheduler = new StoreExtractorScheduler(2, 4, virtualThreads);
+        AtomicInteger pending = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+
+        //when
+        try {
+            for (int folder = 0; folder < 3; folder++) {
+                StoreExtractorScheduler.TaskGroup taskGroup = scheduler.createTaskGroup(mepl, "test");
+                for (int i = 0; i < 50; i++) {
+                    pending.incrementAndGet();
+                    final int rank = i;
+                    taskGroup.submit(() -> {
+                        maxPending.accumulateAndGet(pending.get(), Math::max);
+                        Thread.sleep(1);
+                        pending.decrementAndGet();
+                        if (rank == 10) throw new IllegalStateException("dropped element");
+                        done.incrementAndGet();
+                    });
+                }
+                taskGroup.waitForAll();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+
+        //then
+        assertThat(done.get()).isEqualTo(3 * 49);
+        assertThat(maxPending.get()).isLessThanOrEqualTo(scheduler.getMaxPendingTasks() + 1);
+    }
+
+    @Test
+    public void testBoundedScheduler() throws MailExtractLibException, InterruptedException {
+        checkBoundedScheduler(false);
+    }
+
+    @Test
+    public void testBoundedSchedulerWithVirtualThreads() throws MailExtractLibException, InterruptedException {
+        checkBoundedScheduler(true);
+    }
+
+    @Test
+    public void testForkedComputations() throws MailExtractLibException, InterruptedException {
+        //given
+        MailExtractProgressLogger mepl = AllTests.initLogger("testStoreExtractorScheduler");
+        StoreExtractorScheduler scheduler = new StoreExtractorScheduler(2, 4, false);
+        AtomicInteger done = new AtomicInteger();
+
+        //when
+        try {
+            // each task, as a message, forks computations, as its attachments, more than the scheduler can run
+            StoreExtractorScheduler.TaskGroup taskGroup = scheduler.createTaskGroup(mepl, "test");
+            for (int i = 0; i < 20; i++) {
+                taskGroup.submit(() -> {
+                    List<FutureTask<Integer>> computations = new ArrayList<>();
+                    for (int j = 0; j < 10; j++) {
+                        final int rank = j;
+                        computations.add(
+                            scheduler.fork(() -> {
+                                Thread.sleep(1);
+                                return rank;
+                            })
+                        );
+                    }
+                    for (int j = 0; j < 10; j++) {
+                        assertThat(StoreExtractorScheduler.join(computations.get(j))).isEqualTo(j);
+                    }
+                    done.incrementAndGet();
+                });
+            }
+            taskGroup.waitForAll();
+
+            // slots are all released
+            FutureTask<Integer> failing = scheduler.fork(() -> {
+                throw new IllegalStateException("failed computation");
+            });
+            assertThatThrownBy(() -> StoreExtractorScheduler.join(failing)).isInstanceOf(ExecutionException.class);
+            for (int i = 0; i < scheduler.getMaxPendingTasks(); i++) {
+                FutureTask<Integer> cancelled = scheduler.fork(() -> 0);
+                cancelled.cancel(false);
+            }
+            taskGroup = scheduler.createTaskGroup(mepl, "test");
+            for (int i = 0; i < 2 * scheduler.getMaxPendingTasks(); i++) taskGroup.submit(done::incrementAndGet);
+            taskGroup.waitForAll();
+        } finally {
+            scheduler.shutdown();
+        }
+
+        //then
+        assertThat(done.get()).isEqualTo(20 + 2 * 4);
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib;
+
+import fr.gouv.vitam.tools.mailextractlib.formattools.TikaExtractor;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestTikaExtractor implements AllTests {
+
+    private static byte[] getTextContent(String line, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(line).append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // content stream never returning data and ignoring interrupts, until released
+    private static class HungInputStream extends InputStream {
+
+        private volatile boolean released;
+
+        @Override
+        public int read() {
+            while (!released) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                    // a badly behaving parser goes on
+                }
+            }
+            return -1;
+        }
+
+        private void release() {
+            released = true;
+        }
+    }
+
+    @Test
+    public void testTextLengthLimit() throws MailExtractLibException {
+        //given
+        TikaExtractor tikaExtractor = new TikaExtractor(2, 1000, 60, 0);
+        byte[] content = getTextContent("Texte de la pièce jointe numéro un.", 1000);
+
+        //when
+        String text = tikaExtractor.extractTextFromBinary(content);
+        String streamText = tikaExtractor.extractText(new ByteArrayInputStream(content));
+
+        //then
+        assertThat(text).hasSize(1000).startsWith("Texte de la pièce jointe numéro un.");
+        assertThat(streamText).isEqualTo(text);
+        assertThat(tikaExtractor.extractTextFromBinary(new byte[0])).isNull();
+    }
+
+    @Test
+    public void testTextCache() throws MailExtractLibException {
+        //given
+        TikaExtractor tikaExtractor = new TikaExtractor(2, -1, 60, 1000);
+        byte[] content = getTextContent("Signature", 10);
+        byte[] bigContent = getTextContent("Document", 1000);
+
+        //when
+        String first = tikaExtractor.extractTextFromBinary(content);
+        String second = tikaExtractor.extractTextFromBinary(content.clone());
+        String big = tikaExtractor.extractTextFromBinary(bigContent);
+
+        //then
+        // same content parsed once, and too big texts not cached
+        assertThat(second).isSameAs(first);
+        assertThat(first).contains("Signature");
+        assertThat(tikaExtractor.extractTextFromBinary(bigContent)).isEqualTo(big).isNotSameAs(big);
+        assertThat(TikaExtractor.getDigest(content)).isEqualTo(TikaExtractor.getDigest(content.clone())).hasSize(64);
+    }
+
+    @Test
+    public void testHungParsings() throws Exception {
+        //given
+        TikaExtractor tikaExtractor = new TikaExtractor(1, -1, 1, 0);
+        byte[] content = getTextContent("Texte", 10);
+        HungInputStream firstHung = new HungInputStream();
+        HungInputStream secondHung = new HungInputStream();
+
+        try {
+            //when the first parsing hangs, then its slot is given to the next ones
+            assertThatThrownBy(() -> tikaExtractor.extractText(firstHung)).hasMessageContaining("timeout");
+            assertThat(tikaExtractor.getAbandonedParsingsCount()).isEqualTo(1);
+            assertThat(tikaExtractor.extractText(new ByteArrayInputStream(content))).contains("Texte");
+
+            //when too many parsings hang, then their slots are kept until they end
+            assertThatThrownBy(() -> tikaExtractor.extractText(secondHung)).hasMessageContaining("timeout");
+            assertThat(tikaExtractor.getAbandonedParsingsCount()).isEqualTo(1);
+            assertThatThrownBy(() -> tikaExtractor.extractText(new ByteArrayInputStream(content))).hasMessageContaining(
+                "no parser available"
+            );
+        } finally {
+            firstHung.release();
+            secondHung.release();
+        }
+
+        //then once ended all slots are back
+        assertThat(tikaExtractor.extractText(new ByteArrayInputStream(content))).contains("Texte");
+        Thread.sleep(200);
+        assertThat(tikaExtractor.getAbandonedParsingsCount()).isZero();
+    }
+}
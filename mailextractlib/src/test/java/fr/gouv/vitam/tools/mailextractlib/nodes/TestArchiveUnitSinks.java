@@ -0,0 +1,287 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.nodes;
+
+import fr.gouv.vitam.tools.mailextractlib.AllTests;
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractor;
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractorOptions;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestArchiveUnitSinks implements AllTests {
+
+    private static final String EML_FILE = "src/test/resources/eml/Test message 2.eml";
+
+    private StoreExtractor createStoreExtractor(String testName) throws Exception {
+        AllTests.initializeTests(testName);
+        return createStoreExtractorInPlace(testName);
+    }
+
+    // create a store extractor without cleaning the previous extraction
+    private StoreExtractor createStoreExtractorInPlace(String testName) throws Exception {
+        StoreExtractorOptions storeExtractorOptions = new StoreExtractorOptions(
+            false,
+            true,
+            true,
+            12,
+            "windows-1252",
+            true,
+            true,
+            true,
+            true,
+            true,
+            2
+        );
+        MailExtractProgressLogger mepl = AllTests.initLogger(testName);
+        String urlString = StoreExtractor.composeStoreURL("eml", "", "", "", EML_FILE);
+        return StoreExtractor.createStoreExtractor(
+            urlString,
+            "",
+            "target/tmpJUnit/" + testName,
+            storeExtractorOptions,
+            mepl
+        );
+    }
+
+    private Set<String> extractOnDisk(String testName) throws Exception {
+        StoreExtractor storeExtractor = createStoreExtractor(testName);
+        storeExtractor.extractAllFolders();
+        storeExtractor.endStoreExtractor();
+
+        Path root = Paths.get("target/tmpJUnit/" + testName);
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .map(p -> root.relativize(p).toString().replace(File.separatorChar, '/'))
+                .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    private Set<String> getZipEntryNames(String zipFileName) throws Exception {
+        try (ZipFile zipFile = new ZipFile(zipFileName)) {
+            return Collections.list(zipFile.entries())
+                .stream()
+                .map(e -> e.getName())
+                .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    @Test
+    public void testZipArchiveUnitSink() throws Exception {
+        //given
+        Set<String> diskFiles = extractOnDisk("testZipArchiveUnitSinkDisk");
+        StoreExtractor storeExtractor = createStoreExtractor("testZipArchiveUnitSink");
+        Files.createDirectories(Paths.get("target/tmpJUnit/testZipArchiveUnitSink"));
+        String zipFileName = "target/tmpJUnit/testZipArchiveUnitSink/extract.zip";
+
+        //when
+        try (ZipArchiveUnitSink sink = new ZipArchiveUnitSink(zipFileName, "target/tmpJUnit/testZipArchiveUnitSink")) {
+            storeExtractor.setArchiveUnitSink(sink);
+            storeExtractor.extractAllFolders();
+            storeExtractor.endStoreExtractor();
+        }
+
+        //then
+        assertThat(getZipEntryNames(zipFileName)).isEqualTo(diskFiles);
+    }
+
+    @Test
+    public void testSedaSipArchiveUnitSink() throws Exception {
+        //given
+        Set<String> diskFiles = extractOnDisk("testSedaSipArchiveUnitSinkDisk");
+        StoreExtractor storeExtractor = createStoreExtractor("testSedaSipArchiveUnitSink");
+        Files.createDirectories(Paths.get("target/tmpJUnit/testSedaSipArchiveUnitSink"));
+        String sipFileName = "target/tmpJUnit/testSedaSipArchiveUnitSink/SIP.zip";
+
+        //when
+        try (SedaSipArchiveUnitSink sink = new SedaSipArchiveUnitSink(sipFileName)) {
+            sink.setArchivalAgencyIdentifier("ArchivalAgency");
+            sink.setTransferringAgencyIdentifier("TransferringAgency");
+            storeExtractor.setArchiveUnitSink(sink);
+            storeExtractor.extractAllFolders();
+            storeExtractor.endStoreExtractor();
+        }
+
+        //then
+        long diskMetadataCount = diskFiles.stream().filter(f -> f.endsWith("__ArchiveUnitMetadata.xml")).count();
+        long diskObjectCount = diskFiles.size() - diskMetadataCount;
+        Set<String> entryNames = getZipEntryNames(sipFileName);
+        assertThat(entryNames).contains("manifest.xml");
+        assertThat(entryNames.stream().filter(e -> e.startsWith("content/")).count()).isEqualTo(diskObjectCount);
+
+        Document manifest;
+        try (ZipFile zipFile = new ZipFile(sipFileName); InputStream is = zipFile.getInputStream(zipFile.getEntry("manifest.xml"))) {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            manifest = dbf.newDocumentBuilder().parse(is);
+        }
+        assertThat(manifest.getElementsByTagName("BinaryDataObject").getLength()).isEqualTo((int) diskObjectCount);
+        // every extracted unit has its content, and all but the root are referenced once by their father
+        assertThat(manifest.getElementsByTagName("Content").getLength()).isEqualTo((int) diskMetadataCount);
+        assertThat(manifest.getElementsByTagName("ArchiveUnitRefId").getLength()).isEqualTo(
+            (int) diskMetadataCount - 1
+        );
+        assertThat(
+            Files.list(Paths.get("target/tmpJUnit/testSedaSipArchiveUnitSink")).map(p -> p.getFileName().toString())
+        ).containsExactly("SIP.zip");
+    }
+
+    @Test
+    public void testSedaSipArchiveUnitSinkLateChild() throws Exception {
+        //given
+        String rootPath = "target/tmpJUnit/testSedaSipArchiveUnitSinkLateChild";
+        StoreExtractor storeExtractor = createStoreExtractor("testSedaSipArchiveUnitSinkLateChild");
+        Files.createDirectories(Paths.get(rootPath));
+        String sipFileName = rootPath + "/SIP.zip";
+        ArchiveUnit rootNode = new ArchiveUnit(storeExtractor, rootPath, "root");
+        rootNode.addMetadata("Title", "root", true);
+        ArchiveUnit childNode = new ArchiveUnit(storeExtractor, rootNode, "Attachment", "child");
+        childNode.addMetadata("Title", "child", true);
+        SedaSipArchiveUnitSink sink = new SedaSipArchiveUnitSink(sipFileName);
+
+        //when the child is written after its father
+        sink.write(rootNode);
+        sink.write(childNode);
+
+        //then the SIP is completed, without temporary parts, but the closing fails
+        assertThatThrownBy(sink::close).isInstanceOf(MailExtractLibException.class).hasMessageContaining(
+            "1 unit(s) written after their father"
+        );
+        assertThat(getZipEntryNames(sipFileName)).containsExactly("manifest.xml");
+        assertThat(Files.list(Paths.get(rootPath)).map(p -> p.getFileName().toString())).containsExactly("SIP.zip");
+    }
+
+    @Test
+    public void testDirectoryArchiveUnitSinkDeduplication() throws Exception {
+        //given
+        StoreExtractor storeExtractor = createStoreExtractor("testDirectoryArchiveUnitSinkDeduplication");
+        storeExtractor.getOptions().deduplicateObjects = true;
+        ArchiveUnit rootNode = new ArchiveUnit(
+            storeExtractor,
+            "target/tmpJUnit/testDirectoryArchiveUnitSinkDeduplication",
+            "root"
+        );
+        byte[] logo = new byte[4096];
+        for (int i = 0; i < logo.length; i++) logo[i] = (byte) i;
+        byte[] smallContent = "Small content".getBytes();
+        DirectoryArchiveUnitSink sink = new DirectoryArchiveUnitSink();
+
+        //when
+        ArchiveUnit[] attachmentNodes = new ArchiveUnit[3];
+        for (int i = 0; i < attachmentNodes.length; i++) {
+            attachmentNodes[i] = new ArchiveUnit(storeExtractor, rootNode, "Attachment", "logo");
+            attachmentNodes[i].addMetadata("Title", "logo", true);
+            attachmentNodes[i].addObject(logo, "logo.png", "BinaryMaster", 1);
+            attachmentNodes[i].addObject(smallContent, "logo.txt", "TextContent", 1);
+            sink.write(attachmentNodes[i]);
+        }
+
+        //then
+        Path[] logoFiles = new Path[3];
+        Path[] smallFiles = new Path[3];
+        for (int i = 0; i < attachmentNodes.length; i++) {
+            for (ArchiveUnit.ArchiveObject o : attachmentNodes[i].getObjects()) {
+                Path file = Paths.get(attachmentNodes[i].getFullName(), attachmentNodes[i].getObjectFilename(o));
+                assertThat(file).isRegularFile();
+                if (o.getUsage().equals("BinaryMaster")) logoFiles[i] = file;
+                else smallFiles[i] = file;
+            }
+        }
+        assertThat(Files.readAllBytes(logoFiles[2])).isEqualTo(logo);
+        assertThat(Files.isSameFile(logoFiles[0], logoFiles[1])).isTrue();
+        assertThat(Files.isSameFile(logoFiles[0], logoFiles[2])).isTrue();
+        assertThat(Files.isSameFile(smallFiles[0], smallFiles[1])).isFalse();
+        assertThat(storeExtractor.getObjectsIndex().getDeduplicatedObjectsCount()).isEqualTo(2);
+        assertThat(storeExtractor.getObjectsIndex().getSavedBytes()).isEqualTo(2 * 4096);
+    }
+
+    @Test
+    public void testDirectoryArchiveUnitSinkReExtraction() throws Exception {
+        //given a deduplicated extraction
+        String rootPath = "target/tmpJUnit/testDirectoryArchiveUnitSinkReExtraction";
+        byte[] logo = new byte[4096];
+        for (int i = 0; i < logo.length; i++) logo[i] = (byte) i;
+        byte[] otherLogo = new byte[4096];
+        Path[] logoFiles = new Path[3];
+        StoreExtractor storeExtractor = createStoreExtractor("testDirectoryArchiveUnitSinkReExtraction");
+        storeExtractor.getOptions().deduplicateObjects = true;
+        ArchiveUnit rootNode = new ArchiveUnit(storeExtractor, rootPath, "root");
+        DirectoryArchiveUnitSink sink = new DirectoryArchiveUnitSink();
+        for (int i = 0; i < logoFiles.length; i++) {
+            ArchiveUnit attachmentNode = new ArchiveUnit(storeExtractor, rootNode, "Attachment", "logo" + i);
+            attachmentNode.addMetadata("Title", "logo", true);
+            attachmentNode.addObject(logo, "logo.png", "BinaryMaster", 1);
+            sink.write(attachmentNode);
+            ArchiveUnit.ArchiveObject o = attachmentNode.getObjects().get(0);
+            logoFiles[i] = Paths.get(attachmentNode.getFullName(), attachmentNode.getObjectFilename(o));
+        }
+        assertThat(Files.isSameFile(logoFiles[0], logoFiles[1])).isTrue();
+
+        //when the first file is extracted again in the same place with another content
+        StoreExtractor newStoreExtractor = createStoreExtractorInPlace("testDirectoryArchiveUnitSinkReExtraction");
+        newStoreExtractor.getOptions().deduplicateObjects = true;
+        ArchiveUnit newRootNode = new ArchiveUnit(newStoreExtractor, rootPath, "root");
+        ArchiveUnit newAttachmentNode = new ArchiveUnit(newStoreExtractor, newRootNode, "Attachment", "logo0");
+        newAttachmentNode.addMetadata("Title", "logo", true);
+        newAttachmentNode.addObject(otherLogo, "logo.png", "BinaryMaster", 1);
+        sink.write(newAttachmentNode);
+
+        //then the files previously linked to it are unchanged
+        assertThat(Files.readAllBytes(logoFiles[0])).isEqualTo(otherLogo);
+        assertThat(Files.readAllBytes(logoFiles[1])).isEqualTo(logo);
+        assertThat(Files.readAllBytes(logoFiles[2])).isEqualTo(logo);
+    }
+}
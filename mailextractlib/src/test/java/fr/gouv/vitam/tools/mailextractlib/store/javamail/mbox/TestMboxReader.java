@@ -0,0 +1,265 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.mailextractlib.store.javamail.mbox;
+
+import fr.gouv.vitam.tools.mailextractlib.AllTests;
+import jakarta.mail.internet.SharedInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMboxReader implements AllTests {
+
+    private static byte[] createMbox() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0; i < 20; i++) {
+            baos.write(("From sender" + i + "@test.fr Mon Jan  1 00:00:00 2024\n").getBytes(StandardCharsets.US_ASCII));
+            baos.write(("Subject: message " + i + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            // lines of all lengths, quoted and not quoted From, and 8 bits content
+            for (int j = 0; j < i; j++) {
+                for (int k = 0; k < j; k++) baos.write('a' + k);
+                baos.write('\n');
+            }
+            baos.write(">From quoted\nFrom\nFromage\n".getBytes(StandardCharsets.US_ASCII));
+            baos.write(new byte[] { (byte) 0xFF, (byte) 0xE9, '\n', '\n' });
+        }
+        // last line without end of line is ignored
+        baos.write("From last@test.fr".getBytes(StandardCharsets.US_ASCII));
+        return baos.toByteArray();
+    }
+
+    // reference line by line parsing
+    private static List<long[]> getReferenceForks(byte[] mbox) {
+        List<long[]> forks = new ArrayList<>();
+        long beg = -1;
+        int lineBeg = 0;
+        for (int i = 0; i < mbox.length; i++) {
+            if (mbox[i] != '\n') continue;
+            if (new String(mbox, lineBeg, Math.min(5, i - lineBeg), StandardCharsets.US_ASCII).equals("From ")) {
+                if (beg != -1) forks.add(new long[] { beg, lineBeg });
+                beg = i + 1;
+            }
+            lineBeg = i + 1;
+        }
+        if (beg != -1) forks.add(new long[] { beg, -1 });
+        return forks;
+    }
+
+    private static List<long[]> getForks(MboxReader reader) throws IOException {
+        List<long[]> forks = new ArrayList<>();
+        long beg, end;
+        reader.getNextFromLineBeg();
+        beg = reader.getLastFromLineEnd();
+        while (beg != -1) {
+            end = reader.getNextFromLineBeg();
+            forks.add(new long[] { beg, end });
+            beg = reader.getLastFromLineEnd();
+        }
+        return forks;
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int n;
+        while ((n = is.read(buffer)) != -1) baos.write(buffer, 0, n);
+        return baos.toByteArray();
+    }
+
+    private static void checkReader(MboxReader reader, byte[] mbox, List<long[]> referenceForks) throws IOException {
+        List<long[]> forks = getForks(reader);
+        assertThat(forks).hasSameSizeAs(referenceForks);
+        for (int i = 0; i < forks.size(); i++) {
+            assertThat(forks.get(i)).isEqualTo(referenceForks.get(i));
+            long beg = forks.get(i)[0];
+            long end = forks.get(i)[1] == -1 ? mbox.length : forks.get(i)[1];
+            InputStream is = reader.newStream(forks.get(i)[0], forks.get(i)[1]);
+            byte[] content = readAll(is);
+            assertThat(content).isEqualTo(Arrays.copyOfRange(mbox, (int) beg, (int) end));
+            assertThat(new String(content, 0, 10, StandardCharsets.US_ASCII)).isEqualTo("Subject: m");
+            // sub streams are relative to the message
+            InputStream sub = ((SharedInputStream) is).newStream(9, 16);
+            assertThat(new String(readAll(sub), StandardCharsets.US_ASCII)).isEqualTo("message");
+        }
+        reader.close();
+    }
+
+    @Test
+    public void testMboxReader() throws IOException {
+        //given
+        byte[] mbox = createMbox();
+        File mboxFile = new File("target/tmpJUnit/testMboxReader/test.mbox");
+        Files.createDirectories(mboxFile.toPath().getParent());
+        Files.write(mboxFile.toPath(), mbox);
+        List<long[]> referenceForks = getReferenceForks(mbox);
+
+        //when then
+        assertThat(referenceForks).hasSize(20);
+        checkReader(new MboxReader(null, mbox), mbox, referenceForks);
+        checkReader(new MboxReader(null, mboxFile), mbox, referenceForks);
+        // windows boundaries inside lines and "From " patterns
+        for (int windowSize : new int[] { 5, 7, 64, 1000 }) {
+            checkReader(new MboxReader(null, mboxFile, windowSize), mbox, referenceForks);
+        }
+    }
+
+    @Test
+    public void testMboxReaderStreamMappings() throws IOException {
+        //given
+        byte[] mbox = createMbox();
+        File mboxFile = new File("target/tmpJUnit/testMboxReaderStreamMappings/test.mbox");
+        Files.createDirectories(mboxFile.toPath().getParent());
+        Files.write(mboxFile.toPath(), mbox);
+        List<long[]> referenceForks = getReferenceForks(mbox);
+        int windowSize = mbox.length / 3;
+
+        //when
+        MboxReader reader = new MboxReader(null, mboxFile, windowSize);
+        MboxReader wholeReader = new MboxReader(null, mboxFile, mbox.length);
+        checkReader(reader, mbox, referenceForks);
+        checkReader(wholeReader, mbox, referenceForks);
+
+        //then messages are sliced from windows, not mapped one by one
+        assertThat(reader.getStreamMappingsCount()).isBetween(3, 4);
+        assertThat(wholeReader.getStreamMappingsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMboxIndex() throws IOException {
+        //given
+        byte[] mbox = createMbox();
+        File mboxFile = new File("target/tmpJUnit/testMboxIndex/test.mbox");
+        File indexDirectory = new File("target/tmpJUnit/testMboxIndex/work");
+        Files.createDirectories(mboxFile.toPath().getParent());
+        Files.write(mboxFile.toPath(), mbox);
+        List<long[]> referenceForks = getReferenceForks(mbox);
+
+        //when
+        MboxReader reader = new MboxReader(null, mboxFile);
+        MboxIndex scanned = MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null);
+        // an exhausted reader finds no more message, so that a reused index is recognized
+        MboxIndex reused = MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null);
+        reader.close();
+
+        //then
+        assertThat(indexDirectory.list()).hasSize(1);
+        assertThat(scanned.size()).isEqualTo(referenceForks.size());
+        assertThat(reused.size()).isEqualTo(referenceForks.size());
+        for (int i = 0; i < referenceForks.size(); i++) {
+            assertThat(new long[] { reused.getBeg(i), reused.getEnd(i) }).isEqualTo(referenceForks.get(i));
+        }
+
+        // a changed mbox file is scanned again
+        Files.write(mboxFile.toPath(), Arrays.copyOf(mbox, (int) referenceForks.get(9)[1]));
+        reader = new MboxReader(null, mboxFile);
+        assertThat(MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null).size()).isEqualTo(10);
+        reader.close();
+        reader = new MboxReader(null, mboxFile);
+        reader.getNextFromLineBeg();
+        while (reader.getNextFromLineBeg() != -1);
+        assertThat(MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null).size()).isEqualTo(10);
+        reader.close();
+    }
+
+    // overwrite, in the only index file of the directory, the last bytes of a big endian value at a position from
+    // the end of file, and get the index again
+    private static MboxIndex getIndexWithDamagedSidecar(
+        File mboxFile,
+        File indexDirectory,
+        long positionFromEnd,
+        long value,
+        int length
+    ) throws IOException {
+        File indexFile = indexDirectory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+            raf.seek(indexFile.length() - positionFromEnd);
+            raf.write(ByteBuffer.allocate(8).putLong(value).array(), 8 - length, length);
+        }
+        MboxReader reader = new MboxReader(null, mboxFile);
+        MboxIndex result = MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null);
+        reader.close();
+        return result;
+    }
+
+    @Test
+    public void testMboxIndexDamaged() throws IOException {
+        //given
+        byte[] mbox = createMbox();
+        File mboxFile = new File("target/tmpJUnit/testMboxIndexDamaged/test.mbox");
+        File indexDirectory = new File("target/tmpJUnit/testMboxIndexDamaged/work");
+        Files.createDirectories(mboxFile.toPath().getParent());
+        Files.write(mboxFile.toPath(), mbox);
+        List<long[]> referenceForks = getReferenceForks(mbox);
+        MboxReader reader = new MboxReader(null, mboxFile);
+        MboxIndex.getIndex(reader, mboxFile, indexDirectory.getPath(), null);
+        reader.close();
+
+        //when the count or an offset is damaged, then the mbox file is scanned again
+        long countPosition = 4 + 16L * referenceForks.size();
+        for (long[] damage : new long[][] {
+            { countPosition, Integer.MAX_VALUE, 4 },
+            { countPosition, -1, 4 },
+            { 16L * 5, mbox.length + 1000L, 8 },
+            { 16L * 5 - 8, -1, 8 },
+        }) {
+            MboxIndex index = getIndexWithDamagedSidecar(
+                mboxFile,
+                indexDirectory,
+                damage[0],
+                damage[1],
+                (int) damage[2]
+            );
+            assertThat(index.size()).isEqualTo(referenceForks.size());
+            for (int i = 0; i < referenceForks.size(); i++) {
+                assertThat(new long[] { index.getBeg(i), index.getEnd(i) }).isEqualTo(referenceForks.get(i));
+            }
+        }
+    }
+}
@@ -59,7 +59,10 @@ import fr.gouv.vitam.tools.sedalib.inout.exporter.ArchiveTransferToSIPExporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.CSVMetadataToDataObjectPackageImporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.SIPToArchiveTransferImporter;
+import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
+import fr.gouv.vitam.tools.sedalib.utils.TechnicalElementsCache;
+import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLValidator;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -155,6 +158,19 @@ import java.util.Map;
  * <td>--verbatim</td>
  * <td>log level (OFF|ERROR|GLOBAL|STEP|OBJECTS_GROUP|OBJECTS|OBJECTS_WARNINGS)</td>
  * </tr>
+ * <tr>
+ * <td>--cache</td>
+ * <td>use the technical elements (digest, format) cache kept in the working directory, files being taken as unchanged
+ * when their path, size and modification time are unchanged</td>
+ * </tr>
+ * <tr>
+ * <td>--clearcache</td>
+ * <td>empty the technical elements cache before the import, when used</td>
+ * </tr>
+ * <tr>
+ * <td>--parallelism</td>
+ * <td>number of files whose technical elements (digest, format) are computed in parallel during diskimport</td>
+ * </tr>
  * </table>
  * <p>
  * Long options can be reduced to short ones (for example -h is equivalent to
@@ -268,9 +284,60 @@ public class ResipApp {
         Option sedaversion = new Option("V", "sedaversion", true, "sous-version du SEDA 2 (1|2), à 1 par défaut");
         options.addOption(sedaversion);
 
+        Option cache = Option.builder()
+            .longOpt("cache")
+            .desc(
+                "utilise le cache des éléments techniques (empreinte, format) du répertoire de travail, " +
+                "un fichier de même chemin, taille et date de modification étant considéré inchangé"
+            )
+            .build();
+        options.addOption(cache);
+
+        Option clearcache = Option.builder()
+            .longOpt("clearcache")
+            .desc("vide le cache des éléments techniques avant l'import, s'il est utilisé")
+            .build();
+        options.addOption(clearcache);
+
+        Option parallelism = Option.builder()
+            .longOpt("parallelism")
+            .hasArg()
+            .desc("nombre de fichiers dont les éléments techniques sont calculés en parallèle lors d'un diskimport")
+            .build();
+        options.addOption(parallelism);
+
         return options;
     }
 
+    /**
+     * Activates, or deactivates, the technical elements cache kept in the working directory, used to avoid computing
+     * again digest and format identification of unchanged files. A cache that can't be opened is only logged, and the
+     * technical elements are then always computed.
+     *
+     * @param workDir    the working directory
+     * @param enabled    true if the cache has to be used
+     * @param invalidate true if the cache has to be emptied
+     */
+    public static void configureTechnicalElementsCache(String workDir, boolean enabled, boolean invalidate) {
+        if (!enabled) {
+            TechnicalElementsCache.setActiveCache(null);
+            return;
+        }
+        Path cacheFile = Paths.get(workDir, TechnicalElementsCache.DEFAULT_CACHE_FILENAME).toAbsolutePath().normalize();
+        try {
+            TechnicalElementsCache cache = TechnicalElementsCache.getActiveCache();
+            if ((cache == null) || !cache.getCacheFile().equals(cacheFile)) {
+                cache = TechnicalElementsCache.open(cacheFile);
+                TechnicalElementsCache.setActiveCache(cache);
+            }
+            if (invalidate) cache.invalidate();
+        } catch (SEDALibException e) {
+            TechnicalElementsCache.setActiveCache(null);
+            ResipLogger.getGlobalLogger()
+                .log(ResipLogger.ERROR, "Resip: impossible d'utiliser le cache des éléments techniques", e);
+        }
+    }
+
     private static String[] importStringArray(String filename) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
 
@@ -420,6 +487,9 @@ public class ResipApp {
             EventBus.publish(new SedaVersionChangedEvent(version));
         }
 
+        // compile SEDA schemas in background for the first validations
+        SEDAXMLValidator.warmUpSEDASchemaCache();
+
         // define the global logger
         ResipLogger.createGlobalLogger(workdirString + File.separator + "log.txt", logLevel);
         ResipLogger.getGlobalLogger()
@@ -430,6 +500,9 @@ public class ResipApp {
                 null
             );
 
+        // define the technical elements cache
+        configureTechnicalElementsCache(workdirString, cmd.hasOption("cache"), cmd.hasOption("clearcache"));
+
         // define the convenient import context
         if (cmd.hasOption("diskimport")) {
             String[] excludePatterns = new String[0];
@@ -453,6 +526,23 @@ public class ResipApp {
                 cmd.getOptionValue("diskimport"),
                 workdirString
             );
+            if (cmd.hasOption("parallelism")) {
+                try {
+                    int technicalElementsParallelism = Integer.parseInt(cmd.getOptionValue("parallelism"));
+                    if (technicalElementsParallelism <= 0) throw new NumberFormatException(
+                        "Number not strictly positive"
+                    );
+                    ((DiskImportContext) creationContext).setTechnicalElementsParallelism(
+                        technicalElementsParallelism
+                    );
+                } catch (NumberFormatException e) {
+                    System.err.println(
+                        "Resip: L'argument de parallélisme doit être un nombre strictement supérieur à 0\n->" +
+                        e.getMessage()
+                    );
+                    System.exit(1);
+                }
+            }
         } else if (cmd.hasOption("sipimport")) creationContext = new SIPImportContext(
             cmd.getOptionValue("sipimport"),
             workdirString
@@ -514,6 +604,7 @@ public class ResipApp {
                         spl
                     );
                     for (String ip : diskImportContext.getIgnorePatternList()) di.addIgnorePattern(ip);
+                    di.setTechnicalElementsParallelism(diskImportContext.getTechnicalElementsParallelism());
                     di.doImport();
                     packet = di.getArchiveTransfer();
                 } else if (creationContext instanceof SIPImportContext) { //noinspection ConstantConditions
@@ -528,7 +619,13 @@ public class ResipApp {
                         target,
                         spl
                     );
+                    // files are inflated in parallel and verified against the manifest digests
+                    si.setExtractionParallelism(Runtime.getRuntime().availableProcessors());
+                    si.setDigestVerification(true);
                     si.doImport();
+                    for (String error : si.getDigestVerificationErrors()) {
+                        ResipLogger.getGlobalLogger().log(ResipLogger.GLOBAL, "Resip: " + error, null);
+                    }
                     packet = si.getArchiveTransfer();
                 } else if (creationContext instanceof CSVImportContext) {
                     CSVMetadataImportContext cSVMetadataImportContext = (CSVMetadataImportContext) creationContext;
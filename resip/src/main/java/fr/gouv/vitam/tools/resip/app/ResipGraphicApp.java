@@ -58,6 +58,7 @@ import fr.gouv.vitam.tools.resip.utils.ResipLogger;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
 import fr.gouv.vitam.tools.sedalib.droid.DroidIdentifier;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
+import fr.gouv.vitam.tools.sedalib.utils.TechnicalElementsCache;
 
 import javax.swing.*;
 import java.awt.*;
@@ -222,6 +223,11 @@ public class ResipGraphicApp implements ActionListener, Runnable {
             getGlobalLogger().log(ResipLogger.ERROR, "Erreur fatale, impossible de créer les outils Droid", e);
             System.exit(1);
         }
+        ResipApp.configureTechnicalElementsCache(
+            new CreationContext(Preferences.getInstance()).getWorkDir(),
+            treatmentParameters.isTechnicalElementsCacheFlag(),
+            false
+        );
         EventQueue.invokeLater(this);
     }
 
@@ -325,6 +331,11 @@ public class ResipGraphicApp implements ActionListener, Runnable {
         actionByMenuItem.put(menuItem, "EmptyWorkDir");
         fileMenu.add(menuItem);
 
+        menuItem = new JMenuItem("Vider le cache des éléments techniques...");
+        menuItem.addActionListener(this);
+        actionByMenuItem.put(menuItem, "ClearTechnicalElementsCache");
+        fileMenu.add(menuItem);
+
         fileMenu.add(new JSeparator());
 
         menuItem = new JMenuItem("Quitter");
@@ -566,6 +577,9 @@ public class ResipGraphicApp implements ActionListener, Runnable {
                 case "EmptyWorkDir":
                     emptyWorkDir();
                     break;
+                case "ClearTechnicalElementsCache":
+                    clearTechnicalElementsCache();
+                    break;
                 // Treat Menu
                 case "Search":
                     search();
@@ -723,6 +737,18 @@ public class ResipGraphicApp implements ActionListener, Runnable {
         searchDialog.emptyDialog();
     }
 
+    /**
+     * Replace the current work, closing the SIP zip files kept open by the previous one.
+     *
+     * @param work the new work, or null
+     */
+    public void replaceCurrentWork(Work work) {
+        if (
+            (currentWork != null) && (currentWork != work) && (currentWork.getDataObjectPackage() != null)
+        ) currentWork.getDataObjectPackage().closeZipEntryExtractors();
+        currentWork = work;
+    }
+
     /**
      * Sets filename work.
      *
@@ -790,7 +816,7 @@ public class ResipGraphicApp implements ActionListener, Runnable {
                     treatmentParameters.toPrefs(Preferences.getInstance());
                 }
                 mainWindow.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                currentWork = Work.createFromFile(filename);
+                replaceCurrentWork(Work.createFromFile(filename));
                 getGlobalLogger().log(ResipLogger.GLOBAL, "Fichier [" + filename + "] chargé", null);
                 mainWindow.load();
                 mainWindow.setCursor(Cursor.getDefaultCursor());
@@ -892,7 +918,7 @@ public class ResipGraphicApp implements ActionListener, Runnable {
                     OK_DIALOG
             ) return;
 
-            currentWork = null;
+            replaceCurrentWork(null);
             setFilenameWork(null);
             setModifiedContext(false);
             setContextLoaded(false);
@@ -942,6 +968,12 @@ public class ResipGraphicApp implements ActionListener, Runnable {
                     preferencesDialog.cc.getWorkDir() + File.separator + "log.txt",
                     getGlobalLogger().getProgressLogLevel()
                 );
+                treatmentParameters.setTechnicalElementsCacheFlag(preferencesDialog.tp.isTechnicalElementsCacheFlag());
+                ResipApp.configureTechnicalElementsCache(
+                    preferencesDialog.cc.getWorkDir(),
+                    treatmentParameters.isTechnicalElementsCacheFlag(),
+                    false
+                );
             }
         } catch (ResipException e) {
             UserInteractionDialog.getUserAnswer(
@@ -956,6 +988,49 @@ public class ResipGraphicApp implements ActionListener, Runnable {
         }
     }
 
+    // MenuItem Clear technical elements cache
+
+    private void clearTechnicalElementsCache() {
+        TechnicalElementsCache cache = TechnicalElementsCache.getActiveCache();
+        if (cache == null) {
+            UserInteractionDialog.getUserAnswer(
+                mainWindow,
+                "Le cache des éléments techniques n'est pas utilisé, voir les préférences",
+                "Information",
+                UserInteractionDialog.IMPORTANT_DIALOG,
+                null
+            );
+            return;
+        }
+        if (
+            UserInteractionDialog.getUserAnswer(
+                mainWindow,
+                "Vous allez vider le cache des éléments techniques (empreintes et formats) en\n" +
+                cache.getCacheFile().toString() +
+                "\n" +
+                "Ils seront recalculés pour tous les fichiers lors des prochains imports.\n" +
+                "Voulez-vous continuer?",
+                "Confirmation",
+                UserInteractionDialog.WARNING_DIALOG,
+                null
+            ) !=
+            OK_DIALOG
+        ) return;
+        try {
+            cache.invalidate();
+        } catch (SEDALibException e) {
+            UserInteractionDialog.getUserAnswer(
+                mainWindow,
+                "Erreur, impossible de vider le cache des éléments techniques \n->" + e.getMessage(),
+                "Erreur",
+                UserInteractionDialog.ERROR_DIALOG,
+                null
+            );
+            getGlobalLogger()
+                .log(ResipLogger.ERROR, "resip.graphicapp: impossible de vider le cache des éléments techniques", e);
+        }
+    }
+
     // MenuItem Empty WorkDir
 
     private void emptyWorkDir() {
@@ -100,8 +100,10 @@ public class PreferencesDialog extends JDialog {
     private final JCheckBox messageMetadataCheckBox;
     private final JCheckBox attachementMetadataCheckBox;
     private final JCheckBox allowsExternalToolsForTextExtractionCheckBox;
+    private final JTextField mboxIndexDirTextField;
     private final JTextArea ignorePatternsTextArea;
     private final JCheckBox ignoreLinksChexBox;
+    private final JTextField technicalElementsParallelismTextField;
     private final JComboBox<String> csvCharsetCombobox;
     private final JTextField csvDelimiterTextField;
 
@@ -130,6 +132,7 @@ public class PreferencesDialog extends JDialog {
     private final JRadioButton structuredInterfaceRadioButton;
     private final JCheckBox debugModeCheckBox;
     private final JCheckBox experimentalModeCheckBox;
+    private final JCheckBox technicalElementsCacheCheckBox;
 
     private final JFrame owner;
 
@@ -983,6 +986,28 @@ public class PreferencesDialog extends JDialog {
         importParametersPanel.add(allowsExternalToolsForTextExtractionCheckBox, gbc);
         allowsExternalToolsForTextExtractionCheckBox.setSelected(mic.isAllowsExternalToolsForTextExtraction());
 
+        JLabel mboxIndexDirLabel = new JLabel("Répertoire des index mbox :");
+        mboxIndexDirLabel.setToolTipText(
+            "Répertoire conservant les index des messages mbox et thunderbird entre deux imports, vide pour aucun"
+        );
+        gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.EAST;
+        gbc.insets = new Insets(0, 0, 5, 5);
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        importParametersPanel.add(mboxIndexDirLabel, gbc);
+
+        mboxIndexDirTextField = new JTextField();
+        mboxIndexDirTextField.setText(mic.getMboxIndexDirectory() == null ? "" : mic.getMboxIndexDirectory());
+        gbc = new GridBagConstraints();
+        gbc.insets = new Insets(0, 0, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridwidth = 2;
+        gbc.gridx = 1;
+        gbc.gridy = 5;
+        importParametersPanel.add(mboxIndexDirTextField, gbc);
+        mboxIndexDirTextField.setColumns(10);
+
         JLabel diskImportLabel = new JLabel("Import des hiérarchies sur disque");
         diskImportLabel.setFont(MainWindow.BOLD_LABEL_FONT);
         gbc = new GridBagConstraints();
@@ -992,7 +1017,7 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.NORTHWEST;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.gridx = 0;
-        gbc.gridy = 5;
+        gbc.gridy = 6;
         importParametersPanel.add(diskImportLabel, gbc);
 
         JScrollPane scrollPane5 = new JScrollPane();
@@ -1003,7 +1028,7 @@ public class PreferencesDialog extends JDialog {
         gbc.fill = GridBagConstraints.BOTH;
         gbc.insets = new Insets(0, 5, 5, 5);
         gbc.gridx = 1;
-        gbc.gridy = 6;
+        gbc.gridy = 7;
         importParametersPanel.add(scrollPane5, gbc);
 
         ignorePatternsTextArea = new JTextArea();
@@ -1021,7 +1046,7 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.EAST;
         gbc.insets = new Insets(0, 5, 5, 5);
         gbc.gridx = 0;
-        gbc.gridy = 6;
+        gbc.gridy = 7;
         gbc.weighty = 1.0;
         importParametersPanel.add(ignorePatternsLabel, gbc);
 
@@ -1034,9 +1059,34 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.CENTER;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.gridx = 1;
-        gbc.gridy = 7;
+        gbc.gridy = 8;
         importParametersPanel.add(ignoreLinksChexBox, gbc);
 
+        JLabel technicalElementsParallelismLabel = new JLabel("Parallélisme des calculs techniques :");
+        technicalElementsParallelismLabel.setToolTipText(
+            "Nombre de fichiers dont l'empreinte et le format sont calculés en parallèle lors des imports"
+        );
+        gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.EAST;
+        gbc.insets = new Insets(0, 5, 5, 5);
+        gbc.gridx = 0;
+        gbc.gridy = 9;
+        importParametersPanel.add(technicalElementsParallelismLabel, gbc);
+
+        technicalElementsParallelismTextField = new JTextField();
+        ((AbstractDocument) technicalElementsParallelismTextField.getDocument()).setDocumentFilter(
+            new NumericFilter()
+        );
+        technicalElementsParallelismTextField.setText(Integer.toString(dic.getTechnicalElementsParallelism()));
+        technicalElementsParallelismTextField.setFont(MainWindow.DETAILS_FONT);
+        technicalElementsParallelismTextField.setColumns(4);
+        gbc = new GridBagConstraints();
+        gbc.insets = new Insets(0, 0, 5, 5);
+        gbc.gridx = 1;
+        gbc.gridy = 9;
+        gbc.anchor = GridBagConstraints.WEST;
+        importParametersPanel.add(technicalElementsParallelismTextField, gbc);
+
         JLabel csvImportLabel = new JLabel("Import/export des csv");
         csvImportLabel.setFont(MainWindow.BOLD_LABEL_FONT);
         gbc = new GridBagConstraints();
@@ -1046,7 +1096,7 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.NORTHWEST;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.gridx = 0;
-        gbc.gridy = 8;
+        gbc.gridy = 10;
         importParametersPanel.add(csvImportLabel, gbc);
 
         JLabel csvCharsetLabel = new JLabel("Encodage des csv :");
@@ -1054,7 +1104,7 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.EAST;
         gbc.insets = new Insets(0, 0, 5, 5);
         gbc.gridx = 0;
-        gbc.gridy = 9;
+        gbc.gridy = 11;
         importParametersPanel.add(csvCharsetLabel, gbc);
 
         csvCharsetCombobox = new JComboBox<>(charsetStrings);
@@ -1063,7 +1113,7 @@ public class PreferencesDialog extends JDialog {
         gbc.insets = new Insets(0, 0, 5, 5);
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.gridx = 1;
-        gbc.gridy = 9;
+        gbc.gridy = 11;
         importParametersPanel.add(csvCharsetCombobox, gbc);
         csvCharsetCombobox.setSelectedItem(cic.getCsvCharsetName());
 
@@ -1072,7 +1122,7 @@ public class PreferencesDialog extends JDialog {
         gbc.anchor = GridBagConstraints.EAST;
         gbc.insets = new Insets(0, 5, 5, 5);
         gbc.gridx = 0;
-        gbc.gridy = 10;
+        gbc.gridy = 12;
         importParametersPanel.add(lblCsvDelimiter, gbc);
 
         csvDelimiterTextField = new JTextField();
@@ -1082,7 +1132,7 @@ public class PreferencesDialog extends JDialog {
         gbc.insets = new Insets(0, 0, 5, 5);
         gbc.gridwidth = 2;
         gbc.gridx = 1;
-        gbc.gridy = 10;
+        gbc.gridy = 12;
         gbc.anchor = GridBagConstraints.WEST;
         importParametersPanel.add(csvDelimiterTextField, gbc);
         csvDelimiterTextField.setColumns(1);
@@ -1311,8 +1361,8 @@ public class PreferencesDialog extends JDialog {
             null
         );
         GridBagLayout gblTreatmentParametersPanel = new GridBagLayout();
-        gblTreatmentParametersPanel.rowHeights = new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0 };
-        gblTreatmentParametersPanel.rowWeights = new double[] { 0, 0, 0, 0, 0, 0, 0, 0, 1.0 };
+        gblTreatmentParametersPanel.rowHeights = new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+        gblTreatmentParametersPanel.rowWeights = new double[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 1.0 };
         treatmentParametersPanel.setLayout(gblTreatmentParametersPanel);
 
         JLabel workDirLabel = new JLabel("Répertoire de travail");
@@ -1480,6 +1530,27 @@ public class PreferencesDialog extends JDialog {
         gbc.gridy = 8;
         treatmentParametersPanel.add(experimentalModeCheckBox, gbc);
 
+        JLabel technicalElementsCacheLabel = new JLabel("Cache des éléments techniques:");
+        gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.NORTHEAST;
+        gbc.insets = new Insets(0, 0, 5, 5);
+        gbc.gridx = 0;
+        gbc.gridy = 9;
+        treatmentParametersPanel.add(technicalElementsCacheLabel, gbc);
+
+        technicalElementsCacheCheckBox = new JCheckBox("réutiliser empreintes et formats des fichiers inchangés");
+        technicalElementsCacheCheckBox.setToolTipText(
+            "Un fichier de même chemin, taille et date de modification est considéré inchangé"
+        );
+        technicalElementsCacheCheckBox.setSelected(tp.isTechnicalElementsCacheFlag());
+        gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.NORTHWEST;
+        gbc.insets = new Insets(0, 0, 5, 5);
+        gbc.gridwidth = 2;
+        gbc.gridx = 1;
+        gbc.gridy = 9;
+        treatmentParametersPanel.add(technicalElementsCacheCheckBox, gbc);
+
         // Buttons
         JButton cancelButton = new JButton("Annuler");
         cancelButton.setFont(MainWindow.CLICK_FONT);
@@ -1616,6 +1687,20 @@ public class PreferencesDialog extends JDialog {
 
         dic.setIgnorePatternList(Arrays.asList(ignorePatternsTextArea.getText().split("\\s*\n\\s*")));
         dic.setNoLinkFlag(ignoreLinksChexBox.isSelected());
+        try {
+            tmp = getPositiveInt(technicalElementsParallelismTextField.getText());
+        } catch (NumberFormatException e) {
+            tabbedPane.setSelectedIndex(3);
+            UserInteractionDialog.getUserAnswer(
+                ResipGraphicApp.getTheWindow(),
+                "Le parallélisme des calculs techniques doit être un nombre strictement supérieur à 0.",
+                "Information",
+                UserInteractionDialog.IMPORTANT_DIALOG,
+                null
+            );
+            return false;
+        }
+        dic.setTechnicalElementsParallelism(tmp);
 
         mic.setExtractMessageTextMetadata(messageMetadataCheckBox.isSelected());
         mic.setExtractAttachmentTextMetadata(attachementMetadataCheckBox.isSelected());
@@ -1624,6 +1709,7 @@ public class PreferencesDialog extends JDialog {
         // Warning: This flag takes effect on bootstrap (requires restart).
         mic.setAllowsExternalToolsForTextExtraction(allowsExternalToolsForTextExtractionCheckBox.isSelected());
         mic.setDefaultCharsetName((String) defaultMailCharsetCombobox.getSelectedItem());
+        mic.setMboxIndexDirectory(mboxIndexDirTextField.getText().trim());
 
         gmc.setHierarchicalArchiveUnits(hierarchicalRadioButton.isSelected());
         gmc.setIndented(indentedRadioButton.isSelected());
@@ -1741,6 +1827,7 @@ public class PreferencesDialog extends JDialog {
             return false;
         }
         tp.setDupMax(tmp);
+        tp.setTechnicalElementsCacheFlag(technicalElementsCacheCheckBox.isSelected());
 
         SedaVersion selectedVersion = sedaVersionSelector.getSelectedVersion();
 
@@ -46,6 +46,8 @@ import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
 import fr.gouv.vitam.tools.resip.app.ResipGraphicApp;
 import fr.gouv.vitam.tools.resip.utils.ResipException;
 import fr.gouv.vitam.tools.resip.utils.ResipLogger;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
+import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 
 import java.text.DecimalFormat;
 import java.time.Duration;
@@ -108,6 +110,11 @@ public class MailImporter {
      */
     MailExtractProgressLogger mailExtractProgressLogger;
 
+    /**
+     * The sink building directly the DataObjectPackage, or null if the extraction is only written on disk.
+     */
+    MailToDataObjectPackageSink mailToDataObjectPackageSink;
+
     /**
      * Instantiates a new mail importer.
      *
@@ -186,6 +193,7 @@ public class MailImporter {
                 storeExtractorOptions,
                 mailExtractProgressLogger
             );
+            if (mailToDataObjectPackageSink != null) storeExtractor.setArchiveUnitSink(mailToDataObjectPackageSink);
             storeExtractor.extractAllFolders();
             summary = "Extraction " + storeExtractor.getSummary();
             storeExtractor.endStoreExtractor();
@@ -226,6 +234,37 @@ public class MailImporter {
         return result;
     }
 
+    /**
+     * Build directly the DataObjectPackage during extraction, only the objects files being written on disk.
+     *
+     * @param targetAsRoot true if the target ArchiveUnit is the DataObjectPackage root, false if its children are
+     */
+    public void setDataObjectPackageBuilding(boolean targetAsRoot) {
+        this.mailToDataObjectPackageSink = new MailToDataObjectPackageSink(target, targetAsRoot);
+    }
+
+    /**
+     * Sets the work directory keeping mbox messages indexes between extractions.
+     *
+     * @param mboxIndexDirectory the mbox index directory, null or empty for no indexes
+     */
+    public void setMboxIndexDirectory(String mboxIndexDirectory) {
+        storeExtractorOptions.mboxIndexDirectory = (mboxIndexDirectory == null || mboxIndexDirectory.isEmpty())
+            ? null
+            : mboxIndexDirectory;
+    }
+
+    /**
+     * Gets the DataObjectPackage built during extraction.
+     *
+     * @return the DataObjectPackage, or null if not built during extraction
+     * @throws SEDALibException if the DataObjectPackage can't be finalised
+     */
+    public DataObjectPackage getDataObjectPackage() throws SEDALibException {
+        if (mailToDataObjectPackageSink == null) return null;
+        return mailToDataObjectPackageSink.getDataObjectPackage();
+    }
+
     /**
      * Gets the target.
      *
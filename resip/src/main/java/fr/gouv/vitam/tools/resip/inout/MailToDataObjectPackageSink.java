@@ -0,0 +1,215 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.resip.inout;
+
+import fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnitSink;
+import fr.gouv.vitam.tools.mailextractlib.nodes.DirectoryArchiveUnitSink;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractLibException;
+import fr.gouv.vitam.tools.sedalib.core.ArchiveUnit;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectGroup;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
+import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Class MailToDataObjectPackageSink.
+ * <p>
+ * ArchiveUnit sink building directly a DataObjectPackage from the mail extraction, instead of writing the
+ * metadata files on disk and importing back the whole hierarchy. Only the objects files are written on disk,
+ * as the BinaryDataObjects refer to them, and their technical elements are computed from the extracted content
+ * still in memory.
+ * <p>
+ * The resulting DataObjectPackage is the same as the one imported from the on disk extraction, with the
+ * ArchiveUnits in the same on disk paths and the children sorted the same way.
+ */
+public class MailToDataObjectPackageSink implements ArchiveUnitSink {
+
+    /**
+     * The DataObjectPackage built.
+     */
+    private final DataObjectPackage dataObjectPackage;
+
+    /**
+     * The ArchiveUnits by mail extraction full name, created when first written or referenced as father.
+     */
+    private final Map<String, ArchiveUnit> archiveUnitMap;
+
+    /**
+     * The sink used to write only the objects files on disk.
+     */
+    private final DirectoryArchiveUnitSink objectsFilesSink;
+
+    /**
+     * The full name of the extraction target directory.
+     */
+    private final String target;
+
+    /**
+     * The flag defining if the target ArchiveUnit is the root, or if its children are.
+     */
+    private final boolean targetAsRoot;
+
+    /**
+     * Instantiates a new mail to DataObjectPackage sink.
+     *
+     * @param target       the extraction target directory
+     * @param targetAsRoot true if the target ArchiveUnit is the DataObjectPackage root, false if its children are
+     */
+    public MailToDataObjectPackageSink(String target, boolean targetAsRoot) {
+        this.dataObjectPackage = new DataObjectPackage();
+        this.archiveUnitMap = new HashMap<>();
+        this.objectsFilesSink = new DirectoryArchiveUnitSink();
+        this.target = Paths.get(target).toAbsolutePath().normalize().toString();
+        this.targetAsRoot = targetAsRoot;
+    }
+
+    // get or create the ArchiveUnit for a full name, has to be called in synchronized block
+    private ArchiveUnit getArchiveUnit(String fullName) {
+        ArchiveUnit au = archiveUnitMap.get(fullName);
+        if (au == null) {
+            au = new ArchiveUnit(dataObjectPackage);
+            au.setOnDiskPath(Paths.get(fullName));
+            archiveUnitMap.put(fullName, au);
+        }
+        return au;
+    }
+
+    // link the ArchiveUnit to its father, or to the ghost root, has to be called in synchronized block
+    private void linkToFather(ArchiveUnit au, String fullName, String rootPath) {
+        if (targetAsRoot ? fullName.equals(target) : rootPath.equals(target)) dataObjectPackage.addRootAu(au);
+        else getArchiveUnit(rootPath).addChildArchiveUnit(au);
+    }
+
+    @Override
+    public void write(fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnit mailArchiveUnit)
+        throws MailExtractLibException {
+        String fullName = Paths.get(mailArchiveUnit.getFullName()).toAbsolutePath().normalize().toString();
+        String rootPath = Paths.get(mailArchiveUnit.getRootPath()).toAbsolutePath().normalize().toString();
+
+        // the target ArchiveUnit is dropped when its children are the roots
+        if (!targetAsRoot && fullName.equals(target)) return;
+
+        // objects files and technical elements are done out of the lock, as the heavy part
+        objectsFilesSink.writeObjects(mailArchiveUnit);
+        List<BinaryDataObject> bdoList = new ArrayList<>();
+        for (fr.gouv.vitam.tools.mailextractlib.nodes.ArchiveUnit.ArchiveObject o : mailArchiveUnit.getObjects()) {
+            Path path = Paths.get(fullName, mailArchiveUnit.getObjectFilename(o));
+            BinaryDataObject bdo = new BinaryDataObject(
+                null,
+                path,
+                (o.getFilename() == null) || o.getFilename().isEmpty() ? "undefined" : o.getFilename(),
+                o.getUsage() + "_" + o.getVersion()
+            );
+            try {
+                bdo.extractTechnicalElements(o.getRawContent(), null);
+            } catch (SEDALibException e) {
+                throw new MailExtractLibException(
+                    "resip: impossible d'obtenir les infos techniques pour le fichier [" + path + "]",
+                    e
+                );
+            }
+            bdoList.add(bdo);
+        }
+
+        synchronized (this) {
+            try {
+                ArchiveUnit au = getArchiveUnit(fullName);
+                boolean alreadyWritten = au.getContentXmlData() != null;
+                au.fromSedaXmlFragments(mailArchiveUnit.getMetadataXml());
+                if (!bdoList.isEmpty()) {
+                    DataObjectGroup dog = new DataObjectGroup(dataObjectPackage, null);
+                    for (BinaryDataObject bdo : bdoList) {
+                        dataObjectPackage.addDataObjectPackageIdElement(bdo);
+                        dog.addDataObject(bdo);
+                    }
+                    au.addDataObjectById(dog.getInDataObjectPackageId());
+                }
+                if (!alreadyWritten) linkToFather(au, fullName, rootPath);
+            } catch (SEDALibException e) {
+                throw new MailExtractLibException(
+                    "resip: impossible d'intégrer l'ArchiveUnit [" + fullName + "] au DataObjectPackage",
+                    e
+                );
+            }
+        }
+    }
+
+    /**
+     * Gets the DataObjectPackage built, to be called at the end of the extraction.
+     * <p>
+     * As in the import from disk, the ArchiveUnits which were never written get a default content and the
+     * children of all ArchiveUnits are sorted by on disk path.
+     *
+     * @return the DataObjectPackage
+     * @throws SEDALibException if default content can't be created (not supposed to occur)
+     */
+    public synchronized DataObjectPackage getDataObjectPackage() throws SEDALibException {
+        Deque<String> unwrittenFullNames = new ArrayDeque<>();
+        for (Map.Entry<String, ArchiveUnit> e : archiveUnitMap.entrySet()) if (
+            e.getValue().getContentXmlData() == null
+        ) unwrittenFullNames.push(e.getKey());
+        while (!unwrittenFullNames.isEmpty()) {
+            String fullName = unwrittenFullNames.pop();
+            Path path = Paths.get(fullName);
+            String rootPath = path.getParent().toString();
+            boolean knownFather = archiveUnitMap.containsKey(rootPath);
+            ArchiveUnit au = getArchiveUnit(fullName);
+            au.setDefaultContent(path.getFileName().toString(), "RecordGrp");
+            linkToFather(au, fullName, rootPath);
+            if (!knownFather && archiveUnitMap.containsKey(rootPath)) unwrittenFullNames.push(rootPath);
+        }
+
+        Comparator<ArchiveUnit> byOnDiskPath = Comparator.comparing(ArchiveUnit::getOnDiskPathToString);
+        dataObjectPackage.getGhostRootAu().getChildrenAuList().getArchiveUnitList().sort(byOnDiskPath);
+        for (ArchiveUnit au : archiveUnitMap.values()) au
+            .getChildrenAuList()
+            .getArchiveUnitList()
+            .sort(byOnDiskPath);
+        return dataObjectPackage;
+    }
+}
@@ -60,6 +60,11 @@ public class DiskImportContext extends CreationContext {
      */
     boolean noLinkFlag;
 
+    /**
+     * The number of files whose technical elements (digest, format) are computed in parallel.
+     */
+    int technicalElementsParallelism;
+
     // session element
     /**
      * The model version.
@@ -86,6 +91,7 @@ public class DiskImportContext extends CreationContext {
         if (ignorePatternList == null) this.ignorePatternList = new ArrayList<String>();
         else this.ignorePatternList = ignorePatternList;
         this.noLinkFlag = noLinkFlag;
+        this.technicalElementsParallelism = 1;
     }
 
     /**
@@ -103,6 +109,16 @@ public class DiskImportContext extends CreationContext {
         noLinkFlag = Boolean.parseBoolean(
             preferences.getPrefProperties().getProperty("importContext.disk.noLinkFlag", "false")
         );
+        try {
+            technicalElementsParallelism = Math.max(
+                1,
+                Integer.parseInt(
+                    preferences.getPrefProperties().getProperty("importContext.disk.technicalElementsParallelism", "1")
+                )
+            );
+        } catch (NumberFormatException e) {
+            technicalElementsParallelism = 1;
+        }
     }
 
     /* (non-Javadoc)
@@ -113,6 +129,12 @@ public class DiskImportContext extends CreationContext {
             .getPrefProperties()
             .setProperty("importContext.disk.ignorePatternList", String.join("\n", ignorePatternList));
         preferences.getPrefProperties().setProperty("importContext.disk.noLinkFlag", Boolean.toString(noLinkFlag));
+        preferences
+            .getPrefProperties()
+            .setProperty(
+                "importContext.disk.technicalElementsParallelism",
+                Integer.toString(technicalElementsParallelism)
+            );
     }
 
     /* (non-Javadoc)
@@ -122,6 +144,7 @@ public class DiskImportContext extends CreationContext {
         super.setDefaultPrefs();
         ignorePatternList = Arrays.asList("Thumbs.db", "pagefile.sys");
         noLinkFlag = false;
+        technicalElementsParallelism = 1;
     }
 
     // Getters and setters
@@ -162,6 +185,24 @@ public class DiskImportContext extends CreationContext {
         this.noLinkFlag = noLinkFlag;
     }
 
+    /**
+     * Gets the technical elements parallelism.
+     *
+     * @return the number of files whose technical elements are computed in parallel
+     */
+    public int getTechnicalElementsParallelism() {
+        return technicalElementsParallelism;
+    }
+
+    /**
+     * Sets the technical elements parallelism.
+     *
+     * @param technicalElementsParallelism the number of files whose technical elements are computed in parallel
+     */
+    public void setTechnicalElementsParallelism(int technicalElementsParallelism) {
+        this.technicalElementsParallelism = technicalElementsParallelism;
+    }
+
     /**
      * Gets the model version.
      *
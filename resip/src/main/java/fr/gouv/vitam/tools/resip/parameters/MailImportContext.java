@@ -82,6 +82,11 @@ public class MailImportContext extends CreationContext {
      */
     String defaultCharsetName;
 
+    /**
+     * The work directory keeping mbox messages indexes between imports, empty for no indexes.
+     */
+    String mboxIndexDirectory;
+
     // session elements
     /**
      * The mail folder.
@@ -128,6 +133,7 @@ public class MailImportContext extends CreationContext {
         this.protocol = protocol;
         this.mailFolder = "";
         this.defaultCharsetName = defaultCharsetName;
+        this.mboxIndexDirectory = "";
     }
 
     /**
@@ -159,6 +165,9 @@ public class MailImportContext extends CreationContext {
         this.defaultCharsetName = preferences
             .getPrefProperties()
             .getProperty("importContext.mail.defaultCharsetName", "windows-1252");
+        this.mboxIndexDirectory = preferences
+            .getPrefProperties()
+            .getProperty("importContext.mail.mboxIndexDirectory", "");
     }
 
     /* (non-Javadoc)
@@ -193,6 +202,12 @@ public class MailImportContext extends CreationContext {
                 "importContext.mail.defaultCharsetName",
                 (defaultCharsetName == null ? "" : defaultCharsetName)
             );
+        preferences
+            .getPrefProperties()
+            .setProperty(
+                "importContext.mail.mboxIndexDirectory",
+                (mboxIndexDirectory == null ? "" : mboxIndexDirectory)
+            );
     }
 
     /* (non-Javadoc)
@@ -208,6 +223,7 @@ public class MailImportContext extends CreationContext {
         this.protocol = "thunderbird";
         this.mailFolder = "";
         this.defaultCharsetName = "windows-1252";
+        this.mboxIndexDirectory = "";
     }
 
     // Getters and setters
@@ -355,6 +371,24 @@ public class MailImportContext extends CreationContext {
         this.defaultCharsetName = defaultCharsetName;
     }
 
+    /**
+     * Gets the mbox index directory.
+     *
+     * @return the mbox index directory, empty for no indexes
+     */
+    public String getMboxIndexDirectory() {
+        return mboxIndexDirectory;
+    }
+
+    /**
+     * Sets the mbox index directory.
+     *
+     * @param mboxIndexDirectory the mbox index directory, empty for no indexes
+     */
+    public void setMboxIndexDirectory(String mboxIndexDirectory) {
+        this.mboxIndexDirectory = mboxIndexDirectory;
+    }
+
     @Override
     public void setOnDiskInput(String onDiskInput) {
         this.onDiskInput = onDiskInput;
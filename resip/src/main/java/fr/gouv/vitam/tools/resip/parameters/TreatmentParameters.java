@@ -68,6 +68,12 @@ public class TreatmentParameters {
      */
     SedaVersion sedaVersion;
 
+    /**
+     * The technical elements cache flag, off by default as a file rewritten without size nor modification time change
+     * would keep its former digest and format.
+     */
+    boolean technicalElementsCacheFlag;
+
     /**
      * Instantiates a new creation context.
      */
@@ -117,6 +123,10 @@ public class TreatmentParameters {
             dupMax = 1000;
         }
 
+        technicalElementsCacheFlag = Boolean.parseBoolean(
+            preferences.getPrefProperties().getProperty("treatmentParameters.technicalElementsCacheFlag", "false")
+        );
+
         final String defaultConfiguredSedaVersion = SedaVersion.V2_1.toString();
         final String configuredSedaVersion = preferences
             .getPrefProperties()
@@ -144,6 +154,12 @@ public class TreatmentParameters {
         }
         preferences.getPrefProperties().setProperty("treatmentParameters.dupMax", Integer.toString(dupMax));
         preferences.getPrefProperties().setProperty("treatmentParameters.seda2Version", sedaVersion.toString());
+        preferences
+            .getPrefProperties()
+            .setProperty(
+                "treatmentParameters.technicalElementsCacheFlag",
+                Boolean.toString(technicalElementsCacheFlag)
+            );
     }
 
     /**
@@ -379,6 +395,7 @@ public class TreatmentParameters {
         formatByCategoryMap.put("Autres...", List.of("Other"));
         dupMax = 1000;
         sedaVersion = SedaVersion.V2_1;
+        technicalElementsCacheFlag = false;
     }
 
     // Getters and setters
@@ -437,6 +454,24 @@ public class TreatmentParameters {
         this.sedaVersion = version;
     }
 
+    /**
+     * Is technical elements cache flag boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isTechnicalElementsCacheFlag() {
+        return technicalElementsCacheFlag;
+    }
+
+    /**
+     * Sets technical elements cache flag.
+     *
+     * @param technicalElementsCacheFlag the technical elements cache flag
+     */
+    public void setTechnicalElementsCacheFlag(boolean technicalElementsCacheFlag) {
+        this.technicalElementsCacheFlag = technicalElementsCacheFlag;
+    }
+
     private SedaVersion parseSedaVersion(String version) {
         final List<String> allowedVersions = List.of("1", "2", "3", "2.1", "2.2", "2.3");
         final String defaultVersion = allowedVersions.get(0);
@@ -236,9 +236,20 @@ public class TreeDataObjectPackageEditorPanel extends JPanel {
                 } else if (stn.getDataObject() != null) {
                     // is DataObject
                     path = ((DataObjectPackageIdElement) stn.getDataObject()).getOnDiskPath();
+                    if (stn.getDataObject() instanceof BinaryDataObject) (
+                        (BinaryDataObject) stn.getDataObject()
+                    ).extractFromZipIfNeeded();
                 }
             }
             if (path != null) Desktop.getDesktop().open(path.toFile());
+        } catch (SEDALibException e) {
+            UserInteractionDialog.getUserAnswer(
+                ResipGraphicApp.getTheWindow(),
+                "Impossible d'extraire le fichier à ouvrir [" + path + "] \n->" + e.getMessage(),
+                "Erreur",
+                UserInteractionDialog.ERROR_DIALOG,
+                null
+            );
         } catch (IOException e) {
             // too bad
         }
@@ -210,6 +210,18 @@ public class XMLDataObjectGroupEditorPanel extends JPanel implements DataObjectG
             if ((displayedDataObject instanceof BinaryDataObject)) {
                 path = ((BinaryDataObject) displayedDataObject).getOnDiskPath();
                 if (path != null) {
+                    try {
+                        ((BinaryDataObject) displayedDataObject).extractFromZipIfNeeded();
+                    } catch (SEDALibException e) {
+                        UserInteractionDialog.getUserAnswer(
+                            ResipGraphicApp.getTheWindow(),
+                            "Impossible d'extraire le fichier à ouvrir [" + path.toString() + "] \n->" + e.getMessage(),
+                            "Erreur",
+                            UserInteractionDialog.ERROR_DIALOG,
+                            null
+                        );
+                        return;
+                    }
                     try {
                         // Office bug workaround
                         // This is a special patch to prevent Office to change a file when opening it to see the content...
@@ -182,10 +182,30 @@ public class BinaryDataObjectEditor extends AbstractUnitaryDataObjectEditor {
         return true;
     }
 
+    private boolean extractFromZipIfNeeded() {
+        // only the BinaryDataObject own file can be in its zip file, not a newly defined one
+        if (!editedOnDiskPath.equals(getBinaryDataObject().getOnDiskPath())) return true;
+        try {
+            getBinaryDataObject().extractFromZipIfNeeded();
+        } catch (SEDALibException e) {
+            UserInteractionDialog.getUserAnswer(
+                ResipGraphicApp.getTheWindow(),
+                "Impossible d'extraire le fichier à ouvrir [" + editedOnDiskPath + "] \n->" + e.getMessage(),
+                "Erreur",
+                UserInteractionDialog.ERROR_DIALOG,
+                null
+            );
+            return false;
+        }
+        return true;
+    }
+
     private void openButton() {
         if (editedOnDiskPath != null) {
             try {
-                if (setReadOnly(editedOnDiskPath)) Desktop.getDesktop().open(editedOnDiskPath.toFile());
+                if (extractFromZipIfNeeded() && setReadOnly(editedOnDiskPath)) Desktop.getDesktop().open(
+                    editedOnDiskPath.toFile()
+                );
             } catch (IOException ignored) {} //NOSONAR
         }
     }
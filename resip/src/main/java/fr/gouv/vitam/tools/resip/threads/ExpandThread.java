@@ -215,6 +215,7 @@ public class ExpandThread extends SwingWorker<String, String> {
                 null
             );
 
+            bdoToExpand.extractFromZipIfNeeded();
             ZipImportContext zic = new ZipImportContext(Preferences.getInstance());
             String target = getTmpDirTarget(
                 zic.getWorkDir(),
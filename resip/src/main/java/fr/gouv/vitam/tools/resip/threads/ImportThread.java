@@ -55,10 +55,7 @@ import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
 import javax.swing.*;
 import java.io.File;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
 
 import static fr.gouv.vitam.tools.resip.frame.UsedTmpDirDialog.*;
 import static fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger.*;
@@ -194,6 +191,7 @@ public class ImportThread extends SwingWorker<String, String> {
             spl
         );
         for (String ip : diskImportContext.getIgnorePatternList()) di.addIgnorePattern(ip);
+        di.setTechnicalElementsParallelism(diskImportContext.getTechnicalElementsParallelism());
         di.doImport();
         diskImportContext.setModelVersion(di.getModelVersion());
         setWorkFromArchiveTransfer(di.getArchiveTransfer());
@@ -207,6 +205,8 @@ public class ImportThread extends SwingWorker<String, String> {
         SIPImportContext sic = (SIPImportContext) work.getCreationContext();
         String target = getTmpDirTarget(sic.getWorkDir(), sic.getOnDiskInput());
         SIPToArchiveTransferImporter si = new SIPToArchiveTransferImporter(sic.getOnDiskInput(), target, spl);
+        // BinaryDataObject files are extracted only when needed, so that even big SIPs are opened quickly
+        si.setLazyExtraction(true);
         si.doImport();
         setWorkFromArchiveTransfer(si.getArchiveTransfer());
         summary = si.getSummary();
@@ -303,18 +303,15 @@ public class ImportThread extends SwingWorker<String, String> {
             target,
             mepl
         );
+        mi.setMboxIndexDirectory(mic.getMboxIndexDirectory());
+        mi.setDataObjectPackageBuilding(true);
         mi.doExtract();
         doProgressLog(spl, GLOBAL, "resip: extraction terminée\n" + mi.getSummary(), null);
 
-        List<Path> lp = new ArrayList<>();
-        lp.add(Paths.get(mi.getTarget()));
-        DiskToArchiveTransferImporter di = new DiskToArchiveTransferImporter(lp, spl);
-        for (String ip : new DiskImportContext(Preferences.getInstance()).getIgnorePatternList()) di.addIgnorePattern(
-            ip
-        );
-        di.doImport();
-        setWorkFromArchiveTransfer(di.getArchiveTransfer());
-        summary = mi.getSummary() + "\n" + di.getSummary();
+        ArchiveTransfer archiveTransfer = new ArchiveTransfer();
+        archiveTransfer.setDataObjectPackage(mi.getDataObjectPackage());
+        setWorkFromArchiveTransfer(archiveTransfer);
+        summary = mi.getSummary();
     }
 
     @Override
@@ -381,7 +378,7 @@ public class ImportThread extends SwingWorker<String, String> {
             );
         } else {
             work.getCreationContext().setSummary(summary);
-            theApp.currentWork = work;
+            theApp.replaceCurrentWork(work);
             theApp.setFilenameWork(null);
             theApp.setModifiedContext(true);
             theApp.setContextLoaded(true);
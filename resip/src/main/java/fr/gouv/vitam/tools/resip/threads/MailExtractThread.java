@@ -45,7 +45,6 @@ import fr.gouv.vitam.tools.resip.frame.InOutDialog;
 import fr.gouv.vitam.tools.resip.frame.UsedTmpDirDialog;
 import fr.gouv.vitam.tools.resip.frame.UserInteractionDialog;
 import fr.gouv.vitam.tools.resip.inout.MailImporter;
-import fr.gouv.vitam.tools.resip.parameters.DiskImportContext;
 import fr.gouv.vitam.tools.resip.parameters.MailImportContext;
 import fr.gouv.vitam.tools.resip.parameters.Preferences;
 import fr.gouv.vitam.tools.resip.sedaobjecteditor.components.viewers.DataObjectPackageTreeModel;
@@ -56,17 +55,14 @@ import fr.gouv.vitam.tools.sedalib.core.ArchiveUnit;
 import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
 import fr.gouv.vitam.tools.sedalib.core.DataObject;
 import fr.gouv.vitam.tools.sedalib.core.DataObjectGroup;
-import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
 
 import javax.swing.*;
 import java.io.File;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 
 import static fr.gouv.vitam.tools.resip.frame.UsedTmpDirDialog.*;
@@ -83,7 +79,7 @@ public class MailExtractThread extends SwingWorker<String, String> {
     private BinaryDataObject bdoToExpand;
     private InOutDialog inOutDialog;
     //run output
-    private DiskToArchiveTransferImporter di;
+    private DataObjectPackage extractedDataObjectPackage;
     private String summary;
     private Throwable exitThrowable;
     private int fileCounter;
@@ -245,6 +241,7 @@ public class MailExtractThread extends SwingWorker<String, String> {
                 1000
             );
             mepl.setDebugFlag(ResipGraphicApp.getTheApp().interfaceParameters.isDebugFlag());
+            bdoToExpand.extractFromZipIfNeeded();
             MailImportContext mic = new MailImportContext(Preferences.getInstance());
             String target = getTmpDirTarget(
                 mic.getWorkDir(),
@@ -265,20 +262,12 @@ public class MailExtractThread extends SwingWorker<String, String> {
                 target,
                 mepl
             );
+            mi.setMboxIndexDirectory(mic.getMboxIndexDirectory());
+            mi.setDataObjectPackageBuilding(false);
             mi.doExtract();
             doProgressLog(spl, GLOBAL, "resip: extraction de messages terminée\n" + mi.getSummary(), null);
-            List<Path> lp = new ArrayList<>();
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(mi.getTarget()))) {
-                for (Path path : stream) {
-                    if (!path.toString().endsWith("__ArchiveUnitMetadata.xml")) lp.add(path);
-                }
-            }
-            di = new DiskToArchiveTransferImporter(lp, spl);
-            for (String ip : new DiskImportContext(
-                Preferences.getInstance()
-            ).getIgnorePatternList()) di.addIgnorePattern(ip);
-            di.doImport();
-            summary = mi.getSummary() + "\n" + di.getSummary();
+            extractedDataObjectPackage = mi.getDataObjectPackage();
+            summary = mi.getSummary();
         } catch (Throwable e) {
             exitThrowable = e;
             return "KO";
@@ -304,19 +293,14 @@ public class MailExtractThread extends SwingWorker<String, String> {
         );
         else {
             ResipGraphicApp.getTheApp().currentWork = this.work;
-            List<ArchiveUnit> addedNodes = di
-                .getArchiveTransfer()
-                .getDataObjectPackage()
+            List<ArchiveUnit> addedNodes = extractedDataObjectPackage
                 .getGhostRootAu()
                 .getChildrenAuList()
                 .getArchiveUnitList();
             targetNode
                 .getArchiveUnit()
                 .getDataObjectPackage()
-                .moveContentFromDataObjectPackage(
-                    di.getArchiveTransfer().getDataObjectPackage(),
-                    targetNode.getArchiveUnit()
-                );
+                .moveContentFromDataObjectPackage(extractedDataObjectPackage, targetNode.getArchiveUnit());
             DataObject dataObject = targetNode.getArchiveUnit().getDataObjectRefList().getDataObjectList().get(0);
             if (dataObject instanceof DataObjectGroup) {
                 DataObjectGroup dog = (DataObjectGroup) dataObject;
@@ -0,0 +1,152 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.resip.inout;
+
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractor;
+import fr.gouv.vitam.tools.mailextractlib.core.StoreExtractorOptions;
+import fr.gouv.vitam.tools.mailextractlib.utils.MailExtractProgressLogger;
+import fr.gouv.vitam.tools.resip.UseTestFiles;
+import fr.gouv.vitam.tools.resip.utils.ResipLogger;
+import fr.gouv.vitam.tools.sedalib.core.ArchiveUnit;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
+import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
+import fr.gouv.vitam.tools.sedalib.utils.digest.DigestSha512;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The type Mail to DataObjectPackage sink test.
+ */
+class MailToDataObjectPackageSinkTest implements UseTestFiles {
+
+    private static final String EML_FILE =
+        "src/test/resources/PacketSamples/SampleWithoutLinksModelV2/Root/Node 1/##Test ObjectGroup##/__BinaryMaster_1__-79980C36BA239C449A957.eml";
+
+    private StoreExtractor extract(String target, MailToDataObjectPackageSink sink) throws Exception {
+        FileUtils.deleteDirectory(new File(target));
+        StoreExtractor.initDefaultExtractors(false);
+        StoreExtractorOptions storeExtractorOptions = new StoreExtractorOptions(
+            true,
+            true,
+            false,
+            12,
+            "windows-1252",
+            true,
+            true,
+            true,
+            true,
+            true,
+            2
+        );
+        MailExtractProgressLogger mepl = new MailExtractProgressLogger(
+            ResipLogger.getGlobalLogger().getLogger(),
+            MailExtractProgressLogger.GLOBAL
+        );
+        StoreExtractor storeExtractor = StoreExtractor.createStoreExtractor(
+            StoreExtractor.composeStoreURL("eml", null, null, null, EML_FILE),
+            "",
+            target,
+            storeExtractorOptions,
+            mepl
+        );
+        storeExtractor.setArchiveUnitSink(sink);
+        storeExtractor.extractAllFolders();
+        storeExtractor.endStoreExtractor();
+        return storeExtractor;
+    }
+
+    private List<String> getRelativeBinaryDataObjectPaths(DataObjectPackage dataObjectPackage, String target) {
+        Path targetPath = Paths.get(target).toAbsolutePath().normalize();
+        List<String> result = new ArrayList<>();
+        for (BinaryDataObject bdo : dataObjectPackage.getBdoInDataObjectPackageIdMap().values()) result.add(
+            targetPath.relativize(bdo.getOnDiskPath()).toString()
+        );
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    void TestMailExtractionToDataObjectPackageLikeDiskImport() throws Exception {
+        // Given
+        String diskTarget = "target/tmpJunit/MailToDataObjectPackageSink/disk";
+        String sinkTarget = "target/tmpJunit/MailToDataObjectPackageSink/sink";
+        extract(diskTarget, null);
+        DiskToArchiveTransferImporter di = new DiskToArchiveTransferImporter(
+            Collections.singletonList(Paths.get(diskTarget)),
+            null
+        );
+        di.doImport();
+        DataObjectPackage diskDataObjectPackage = di.getArchiveTransfer().getDataObjectPackage();
+
+        // When
+        MailToDataObjectPackageSink sink = new MailToDataObjectPackageSink(sinkTarget, true);
+        extract(sinkTarget, sink);
+        DataObjectPackage sinkDataObjectPackage = sink.getDataObjectPackage();
+
+        // Then
+        assertEquals(
+            diskDataObjectPackage.getAuInDataObjectPackageIdMap().size(),
+            sinkDataObjectPackage.getAuInDataObjectPackageIdMap().size()
+        );
+        assertEquals(
+            diskDataObjectPackage.getDogInDataObjectPackageIdMap().size(),
+            sinkDataObjectPackage.getDogInDataObjectPackageIdMap().size()
+        );
+        assertEquals(
+            getRelativeBinaryDataObjectPaths(diskDataObjectPackage, diskTarget),
+            getRelativeBinaryDataObjectPaths(sinkDataObjectPackage, sinkTarget)
+        );
+        assertEquals(1, sinkDataObjectPackage.getGhostRootAu().getChildrenAuList().getCount());
+        ArchiveUnit root = sinkDataObjectPackage.getGhostRootAu().getChildrenAuList().getArchiveUnitList().get(0);
+        assertEquals(Paths.get(sinkTarget).toAbsolutePath().normalize(), root.getOnDiskPath());
+        for (BinaryDataObject bdo : sinkDataObjectPackage.getBdoInDataObjectPackageIdMap().values()) assertEquals(
+            DigestSha512.compute(bdo.getOnDiskPath()),
+            bdo.getMetadataMessageDigest().getValue()
+        );
+    }
+}
@@ -50,9 +50,7 @@ import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLValidator;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 import javax.xml.validation.Schema;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 
 import static fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger.doProgressLog;
 
@@ -382,42 +380,62 @@ public class ArchiveTransfer {
 
     // SEDA Validator
 
-    public void sedaSchemaValidate(SEDALibProgressLogger sedaLibProgressLogger)
+    /**
+     * Write the SEDA XML manifest, in indented hierarchical form, in an output stream which is not closed.
+     *
+     * @param os                    the output stream
+     * @param sedaLibProgressLogger the progress logger or null if no progress log expected
+     * @throws SEDALibException     if the XML can't be written
+     * @throws InterruptedException if export process is interrupted
+     */
+    private void writeManifest(OutputStream os, SEDALibProgressLogger sedaLibProgressLogger)
         throws SEDALibException, InterruptedException {
-        String manifest;
-        try (
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            SEDAXMLStreamWriter ixsw = new SEDAXMLStreamWriter(baos, IndentXMLTool.STANDARD_INDENT)
-        ) {
+        try (SEDAXMLStreamWriter ixsw = new SEDAXMLStreamWriter(os, IndentXMLTool.STANDARD_INDENT)) {
             toSedaXml(ixsw, true, sedaLibProgressLogger);
-            manifest = baos.toString(StandardCharsets.UTF_8);
-        } catch (XMLStreamException | IOException e) {
+        } catch (XMLStreamException e) {
             throw new SEDALibException("Echec d'écriture XML du manifest", e);
         }
+    }
+
+    /**
+     * Validate the SEDA XML manifest with the SEDA schema of the current SEDA version.
+     * <p>
+     * The manifest is validated while it is written, without being held in memory.
+     *
+     * @param sedaLibProgressLogger the progress logger or null if no progress log expected
+     * @throws SEDALibException     if the manifest can't be written or is not valid
+     * @throws InterruptedException if export process is interrupted
+     */
+    public void sedaSchemaValidate(SEDALibProgressLogger sedaLibProgressLogger)
+        throws SEDALibException, InterruptedException {
         SEDAXMLValidator sedaXMLvalidator = new SEDAXMLValidator();
         Schema sedaSchema = SEDAXMLValidator.getSEDASchema();
-        sedaXMLvalidator.checkWithXSDSchema(manifest, sedaSchema);
+        sedaXMLvalidator.checkWithXSDSchema(os -> writeManifest(os, sedaLibProgressLogger), sedaSchema);
     }
 
+    /**
+     * Validate the SEDA XML manifest with a profile, in RNG form if the file name ends with ".rng" or else in XSD
+     * form.
+     * <p>
+     * The manifest is validated while it is written, without being held in memory.
+     *
+     * @param profileFileName       the profile file name
+     * @param sedaLibProgressLogger the progress logger or null if no progress log expected
+     * @throws SEDALibException     if the profile can't be loaded, the manifest can't be written or is not valid
+     * @throws InterruptedException if export process is interrupted
+     */
     public void sedaProfileValidate(String profileFileName, SEDALibProgressLogger sedaLibProgressLogger)
         throws SEDALibException, InterruptedException {
-        String manifest;
-        try (
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            SEDAXMLStreamWriter ixsw = new SEDAXMLStreamWriter(baos, IndentXMLTool.STANDARD_INDENT)
-        ) {
-            toSedaXml(ixsw, true, sedaLibProgressLogger);
-            manifest = baos.toString(StandardCharsets.UTF_8);
-        } catch (XMLStreamException | IOException e) {
-            throw new SEDALibException("Echec d'écriture XML du manifest", e);
-        }
         SEDAXMLValidator sedaXMLvalidator = new SEDAXMLValidator();
         Schema sedaSchema;
         if (profileFileName.endsWith(".rng")) sedaSchema = sedaXMLvalidator.getSchemaFromRNGFile(profileFileName);
         else sedaSchema = sedaXMLvalidator.getSchemaFromXSDFile(profileFileName);
 
-        if (profileFileName.endsWith(".rng")) sedaXMLvalidator.checkWithRNGSchema(manifest, sedaSchema);
-        else sedaXMLvalidator.checkWithXSDSchema(manifest, sedaSchema);
+        if (profileFileName.endsWith(".rng")) sedaXMLvalidator.checkWithRNGSchema(
+            os -> writeManifest(os, sedaLibProgressLogger),
+            sedaSchema
+        );
+        else sedaXMLvalidator.checkWithXSDSchema(os -> writeManifest(os, sedaLibProgressLogger), sedaSchema);
     }
 
     // Getters and setters
@@ -38,6 +38,7 @@
 package fr.gouv.vitam.tools.sedalib.core;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
 import fr.gouv.vitam.tools.sedalib.droid.DroidIdentifier;
 import fr.gouv.vitam.tools.sedalib.metadata.content.PersistentIdentifier;
@@ -48,6 +49,8 @@ import fr.gouv.vitam.tools.sedalib.metadata.data.Relationship;
 import fr.gouv.vitam.tools.sedalib.metadata.namedtype.*;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
+import fr.gouv.vitam.tools.sedalib.utils.TechnicalElementsCache;
+import fr.gouv.vitam.tools.sedalib.utils.ZipEntryExtractor;
 import fr.gouv.vitam.tools.sedalib.utils.digest.DigestSha512;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
@@ -123,6 +126,13 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
         return map;
     }
 
+    /**
+     * Maximum size of the files read only once, in memory, for both digest computation and format identification.
+     * <p>
+     * Bigger files are streamed for the digest, DROID then reading only the parts needed for identification.
+     */
+    private static final long SINGLE_READ_MAX_SIZE = 4L * 1024 * 1024;
+
     @ComplexListMetadataMap(sedaVersion = { SedaVersion.V2_1 })
     public static final Map<String, ComplexListMetadataKind> METADATA_MAP_V1 = createMetadataMapForVersion(1);
 
@@ -157,6 +167,22 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
     @JsonIgnore
     private DataObjectGroup dataObjectGroup;
 
+    /**
+     * The zip file holding the BinaryDataObject content when it is extracted on disk only when needed, or null.
+     */
+    private String onZipFile;
+
+    /**
+     * The entry name of the BinaryDataObject content in the zip file, or null.
+     */
+    private String onZipEntry;
+
+    /**
+     * The flag true when the BinaryDataObject content has been extracted from its zip file entry, a file already on
+     * disk at the extraction place, for example left by a previous import, being never taken as extracted.
+     */
+    private boolean onZipExtracted;
+
     // Constructors
 
     /**
@@ -309,8 +335,9 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
      * @param path   The path to the file to identify
      * @return The DROID identification result, or null if identification failed
      */
-    private IdentificationResult identifyFormat(SEDALibProgressLogger logger, Path path) {
+    private IdentificationResult identifyFormat(SEDALibProgressLogger logger, Path path, byte[] content) {
         try {
+            if (content != null) return DroidIdentifier.getInstance().getIdentificationResult(path, content);
             return DroidIdentifier.getInstance().getIdentificationResult(path);
         } catch (SEDALibException e) {
             doProgressLogWithoutInterruption(
@@ -333,8 +360,29 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
      *                          can't access file)
      */
     public void extractTechnicalElements(SEDALibProgressLogger sedaLibProgressLogger) throws SEDALibException {
+        extractTechnicalElements(null, sedaLibProgressLogger);
+    }
+
+    /**
+     * Extract technical elements (lastmodified date, size, format, digest...) from
+     * file and complete the BinaryDataObject metadata, using the file content
+     * already in memory, if any, instead of reading it again.
+     * <p>
+     * This is used when the file has just been written from this content, so the
+     * technical elements cache is not used either.
+     *
+     * @param content               the file content, or null if it has to be read
+     *                              from disk
+     * @param sedaLibProgressLogger the progress logger or null if no progress log
+     *                              expected
+     * @throws SEDALibException if unable to get size or lastmodified date (probably
+     *                          can't access file)
+     */
+    public void extractTechnicalElements(byte[] content, SEDALibProgressLogger sedaLibProgressLogger)
+        throws SEDALibException {
         long size;
         FileTime lastModifiedTime;
+        extractFromZipIfNeeded();
         try {
             size = Files.size(onDiskPath);
             lastModifiedTime = Files.getLastModifiedTime(onDiskPath);
@@ -346,16 +394,59 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
         }
 
         updateFileInfo(lastModifiedTime);
-        addMetadata(
-            new DigestType("MessageDigest", DigestSha512.compute(onDiskPath, sedaLibProgressLogger), "SHA-512")
-        );
         addMetadata(new IntegerType("Size", size));
 
-        IdentificationResult idResult = identifyFormat(sedaLibProgressLogger, onDiskPath);
-        if (idResult != null) addMetadata(
-            new FormatIdentification(idResult.getName(), idResult.getMimeType(), idResult.getPuid(), null)
+        TechnicalElementsCache cache = content == null ? TechnicalElementsCache.getActiveCache() : null;
+        if (cache != null) {
+            cache.checkSignaturesVersion(DroidIdentifier.getInstance().getSignaturesVersion());
+            TechnicalElementsCache.Entry entry = cache.lookup(onDiskPath, size, lastModifiedTime.toMillis());
+            if (entry != null) {
+                addMetadata(new DigestType("MessageDigest", entry.getDigest(), entry.getDigestAlgorithm()));
+                addMetadata(
+                    new FormatIdentification(entry.getFormatName(), entry.getMimeType(), entry.getPuid(), null)
+                );
+                return;
+            }
+        }
+
+        // small files are read only once for both digest and format identification
+        if ((content == null) && (size <= SINGLE_READ_MAX_SIZE)) {
+            try {
+                content = Files.readAllBytes(onDiskPath);
+            } catch (IOException e) {
+                throw new SEDALibException("Impossible de lire le fichier [" + onDiskPath.toString() + "]", e);
+            }
+        }
+
+        String digest = content != null
+            ? DigestSha512.compute(content)
+            : DigestSha512.compute(onDiskPath, sedaLibProgressLogger);
+        addMetadata(new DigestType("MessageDigest", digest, "SHA-512"));
+
+        IdentificationResult idResult = identifyFormat(sedaLibProgressLogger, onDiskPath, content);
+        String formatName = "Unknown";
+        String mimeType = null;
+        String puid = "UNKNOWN";
+        if (idResult != null) {
+            formatName = idResult.getName();
+            mimeType = idResult.getMimeType();
+            puid = idResult.getPuid();
+        }
+        addMetadata(new FormatIdentification(formatName, mimeType, puid, null));
+
+        // a failed or unknown identification is not cached, to be done again next time
+        if ((cache != null) && (idResult != null)) cache.store(
+            onDiskPath,
+            new TechnicalElementsCache.Entry(
+                size,
+                lastModifiedTime.toMillis(),
+                digest,
+                "SHA-512",
+                puid,
+                mimeType,
+                formatName
+            )
         );
-        else addMetadata(new FormatIdentification("Unknown", null, "UNKNOWN", null));
     }
 
     /**
@@ -470,4 +561,78 @@ public class BinaryDataObject extends AbstractUnitaryDataObject implements DataO
     public FormatIdentification getMetadataFormatIdentification() {
         return (FormatIdentification) getFirstNamedMetadata("FormatIdentification");
     }
+
+    // Getters and setters
+
+    /**
+     * Extract the BinaryDataObject content from its zip file entry, if any and not already extracted.
+     * <p>
+     * The onDiskPath getter has no side effect, so this has to be called before any read of the content of a
+     * BinaryDataObject which may have been lazily imported from a SIP. Any file already at the onDiskPath before the
+     * first extraction is replaced.
+     *
+     * @throws SEDALibException if the zip entry can't be extracted
+     */
+    public synchronized void extractFromZipIfNeeded() throws SEDALibException {
+        if ((onZipEntry == null) || (onDiskPath == null) || onZipExtracted) return;
+        ZipEntryExtractor.getInstance(onZipFile).extract(onZipEntry, onDiskPath);
+        onZipExtracted = true;
+    }
+
+    /**
+     * Checks if the BinaryDataObject content has already been extracted from its zip file entry.
+     *
+     * @return true, if extracted
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isOnZipExtracted() {
+        return onZipExtracted;
+    }
+
+    /**
+     * Sets the flag of BinaryDataObject content extracted from its zip file entry.
+     *
+     * @param onZipExtracted true if extracted
+     */
+    public void setOnZipExtracted(boolean onZipExtracted) {
+        this.onZipExtracted = onZipExtracted;
+    }
+
+    /**
+     * Gets the zip file holding the BinaryDataObject content, when it is extracted on disk only when needed.
+     *
+     * @return the zip file name or null
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getOnZipFile() {
+        return onZipFile;
+    }
+
+    /**
+     * Sets the zip file holding the BinaryDataObject content.
+     *
+     * @param onZipFile the zip file name or null
+     */
+    public void setOnZipFile(String onZipFile) {
+        this.onZipFile = onZipFile;
+    }
+
+    /**
+     * Gets the entry name of the BinaryDataObject content in the zip file.
+     *
+     * @return the zip entry name or null
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getOnZipEntry() {
+        return onZipEntry;
+    }
+
+    /**
+     * Sets the entry name of the BinaryDataObject content in the zip file.
+     *
+     * @param onZipEntry the zip entry name or null
+     */
+    public void setOnZipEntry(String onZipEntry) {
+        this.onZipEntry = onZipEntry;
+    }
 }
@@ -41,6 +41,7 @@ import fr.gouv.vitam.tools.sedalib.metadata.content.Content;
 import fr.gouv.vitam.tools.sedalib.metadata.namedtype.IntegerType;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
+import fr.gouv.vitam.tools.sedalib.utils.ZipEntryExtractor;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
 
@@ -1024,6 +1025,19 @@ public class DataObjectPackage {
         return id1.compareTo(id2);
     };
 
+    /**
+     * Close the zip files kept open for the BinaryDataObjects lazily imported from a SIP.
+     * <p>
+     * Their content can still be extracted afterwards, the zip files being then opened again.
+     */
+    public void closeZipEntryExtractors() {
+        Set<String> zipFiles = new HashSet<>();
+        for (BinaryDataObject bdo : bdoInDataObjectPackageIdMap.values()) {
+            if (bdo.getOnZipFile() != null) zipFiles.add(bdo.getOnZipFile());
+        }
+        for (String zipFile : zipFiles) ZipEntryExtractor.close(zipFile);
+    }
+
     /**
      * Export data object package, DataObjects part, of SEDA DataObjectPackage XML.
      *
@@ -142,6 +142,9 @@ public class SedaVersionConverter {
             BinaryDataObject targetBdo = target.getBdoInDataObjectPackageIdMap().get(id);
             if (targetBdo != null) {
                 targetBdo.setOnDiskPath(sourceBdo.getOnDiskPath());
+                targetBdo.setOnZipFile(sourceBdo.getOnZipFile());
+                targetBdo.setOnZipEntry(sourceBdo.getOnZipEntry());
+                targetBdo.setOnZipExtracted(sourceBdo.isOnZipExtracted());
             }
         }
     }
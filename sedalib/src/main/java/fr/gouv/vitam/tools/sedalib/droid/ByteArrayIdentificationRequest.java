@@ -0,0 +1,143 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.droid;
+
+import net.byteseek.io.reader.ByteArrayReader;
+import net.byteseek.io.reader.WindowReader;
+import uk.gov.nationalarchives.droid.core.interfaces.IdentificationRequest;
+import uk.gov.nationalarchives.droid.core.interfaces.RequestIdentifier;
+import uk.gov.nationalarchives.droid.core.interfaces.resource.RequestMetaData;
+import uk.gov.nationalarchives.droid.core.interfaces.resource.ResourceUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The Class ByteArrayIdentificationRequest.
+ * <p>
+ * DROID identification request on a file content already read in memory, so that the file is not read again for
+ * format identification.
+ */
+class ByteArrayIdentificationRequest implements IdentificationRequest<byte[]> {
+
+    /** The request metadata. */
+    private final RequestMetaData requestMetaData;
+
+    /** The request identifier. */
+    private final RequestIdentifier identifier;
+
+    /** The file name. */
+    private final String fileName;
+
+    /** The file extension. */
+    private final String extension;
+
+    /** The content. */
+    private byte[] content;
+
+    /** The content reader. */
+    private WindowReader reader;
+
+    /**
+     * Instantiates a new byte array identification request.
+     *
+     * @param requestMetaData the request metadata
+     * @param identifier      the request identifier
+     */
+    ByteArrayIdentificationRequest(RequestMetaData requestMetaData, RequestIdentifier identifier) {
+        this.requestMetaData = requestMetaData;
+        this.identifier = identifier;
+        this.fileName = requestMetaData.getName();
+        this.extension = ResourceUtils.getExtension(fileName);
+    }
+
+    @Override
+    public void open(byte[] content) {
+        this.content = content;
+        this.reader = new ByteArrayReader(content);
+    }
+
+    @Override
+    public byte getByte(long position) throws IOException {
+        if ((position < 0) || (position >= content.length)) throw new IOException("No byte at position " + position);
+        return content[(int) position];
+    }
+
+    @Override
+    public WindowReader getWindowReader() {
+        return reader;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public long size() {
+        return content.length;
+    }
+
+    @Override
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public InputStream getSourceInputStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public RequestMetaData getRequestMetaData() {
+        return requestMetaData;
+    }
+
+    @Override
+    public RequestIdentifier getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) reader.close();
+        reader = null;
+        content = null;
+    }
+}
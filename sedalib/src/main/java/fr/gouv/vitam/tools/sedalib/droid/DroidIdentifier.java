@@ -88,7 +88,7 @@ public class DroidIdentifier {
     private static final String CONTAINER_SIGNATURE_FILE = "container-signature-20240715.xml";
 
     /** Singleton. */
-    private static DroidIdentifier instance = null;
+    private static volatile DroidIdentifier instance = null;
 
     /** The config directory. */
     private String configDir;
@@ -105,6 +105,9 @@ public class DroidIdentifier {
     /** The container content identifier map. */
     private HashMap<String, ContainerDroidIdentifier> containerContentIdentierMap;
 
+    /** The signatures version, from the binary and container signature files names. */
+    private String signaturesVersion;
+
     /**
      * Instantiates a new DROID identifier.
      *
@@ -126,7 +129,7 @@ public class DroidIdentifier {
      * @return single instance of DroidIdentifier
      * @throws SEDALibException if the identifier can't be initialised, may be due to wrong signatures files
      */
-    public static DroidIdentifier init(SEDALibProgressLogger sedaLibProgressLogger, String configDir)
+    public static synchronized DroidIdentifier init(SEDALibProgressLogger sedaLibProgressLogger, String configDir)
         throws SEDALibException {
         instance = new DroidIdentifier(sedaLibProgressLogger, configDir);
         return instance;
@@ -134,19 +137,35 @@ public class DroidIdentifier {
 
     /**
      * Gets the single instance of DroidIdentifier.
+     * <p>
+     * This method is thread-safe, so that files can be identified in parallel.
      *
      * @return single instance of DroidIdentifier
      */
     public static DroidIdentifier getInstance() {
-        if (instance == null) try {
-            instance = new DroidIdentifier(null, "./config");
-        } catch (SEDALibException e) {
-            System.err.println(getAllJavaStackString(e));
-            System.exit(1);
+        if (instance == null) {
+            synchronized (DroidIdentifier.class) {
+                if (instance == null) try {
+                    instance = new DroidIdentifier(null, "./config");
+                } catch (SEDALibException e) {
+                    System.err.println(getAllJavaStackString(e));
+                    System.exit(1);
+                }
+            }
         }
         return instance;
     }
 
+    /**
+     * Gets the signatures version, which changes with the binary or container signature files used for
+     * identification.
+     *
+     * @return the signatures version
+     */
+    public String getSignaturesVersion() {
+        return signaturesVersion;
+    }
+
     /**
      * Gets the binary signature file name.
      * <p>
@@ -218,6 +237,7 @@ public class DroidIdentifier {
         binarySignatureIdentifier = new BinarySignatureIdentifier();
 
         String sigFileName = getBinarySignatureFileName(sedaLibProgressLogger);
+        signaturesVersion = new File(sigFileName).getName();
         binarySignatureIdentifier.setSignatureFile(sigFileName);
         try {
             binarySignatureIdentifier.init();
@@ -305,6 +325,7 @@ public class DroidIdentifier {
     private void initContainerDroid(SEDALibProgressLogger sedaLibProgressLogger) throws SEDALibException {
         // get container signature definitions
         String containerSigFileName = getContainerSignatureFileName(sedaLibProgressLogger);
+        signaturesVersion += "/" + new File(containerSigFileName).getName();
         try (InputStream in = new FileInputStream(containerSigFileName)) {
             ContainerSignatureSaxParser parser = new ContainerSignatureSaxParser();
             containerSignatureDefinitions = parser.parse(in);
@@ -377,7 +398,6 @@ public class DroidIdentifier {
      * @throws SEDALibException if the file can't be read
      */
     public IdentificationResult getIdentificationResult(Path path) throws SEDALibException {
-        List<IdentificationResult> irl;
         String filename = path.normalize().toString();
         FileSystemIdentificationRequest request = null;
 
@@ -397,6 +417,47 @@ public class DroidIdentifier {
             throw new SEDALibException("Impossible d'accéder au fichier [" + filename + "]");
         }
 
+        return getIdentificationResult(request, filename);
+    }
+
+    /**
+     * Gets the identification result of a file whose content has already been read in memory.
+     * <p>
+     * The identification is the same as the one done from the file path, but the file is not read again.
+     *
+     * @param path    the path of file to identify
+     * @param content the whole file content
+     * @return the identification result
+     * @throws SEDALibException if the file metadata can't be read
+     */
+    public IdentificationResult getIdentificationResult(Path path, byte[] content) throws SEDALibException {
+        String filename = path.normalize().toString();
+        ByteArrayIdentificationRequest request;
+
+        try {
+            RequestMetaData metaData = new RequestMetaData(
+                (long) content.length,
+                Files.getLastModifiedTime(path).toMillis(),
+                filename
+            );
+            RequestIdentifier identifier = new RequestIdentifier(path.toUri());
+            identifier.setParentId(1L);
+            request = new ByteArrayIdentificationRequest(metaData, identifier);
+            request.open(content);
+        } catch (IOException e) {
+            throw new SEDALibException("Impossible d'accéder au fichier [" + filename + "]");
+        }
+
+        return getIdentificationResult(request, filename);
+    }
+
+    // identify from an opened request, and close it
+    private IdentificationResult getIdentificationResult(
+        @SuppressWarnings("rawtypes") final IdentificationRequest request,
+        String filename
+    ) throws SEDALibException {
+        List<IdentificationResult> irl;
+
         IdentificationResultCollection resultsSignatureCollection = getSignatureResults(request);
         IdentificationResultCollection resultsContainerCollection;
         try {
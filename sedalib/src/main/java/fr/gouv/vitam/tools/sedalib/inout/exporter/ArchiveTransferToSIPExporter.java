@@ -44,9 +44,18 @@ import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
 import fr.gouv.vitam.tools.sedalib.xml.IndentXMLTool;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
+import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLValidator;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStoreSupplier;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 
 import javax.xml.stream.XMLStreamException;
+import javax.xml.validation.Schema;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -54,8 +63,16 @@ import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -70,6 +87,71 @@ import static fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger.doProgress
  */
 public class ArchiveTransferToSIPExporter {
 
+    /**
+     * The PUIDs of already compressed formats (zip and zip based office documents, 7z, rar, gzip, jpeg, png, gif,
+     * mp3, mp4, pdf...), stored without deflate in parallel SIP export.
+     */
+    static final Set<String> COMPRESSED_FORMAT_PUIDS = Set.of(
+        // zip, 7z, rar, gzip, bzip2
+        "x-fmt/263",
+        "fmt/484",
+        "fmt/411",
+        "x-fmt/264",
+        "x-fmt/266",
+        "x-fmt/267",
+        // open document and office open xml
+        "fmt/290",
+        "fmt/291",
+        "fmt/294",
+        "fmt/295",
+        "fmt/292",
+        "fmt/293",
+        "fmt/412",
+        "fmt/214",
+        "fmt/215",
+        "fmt/189",
+        // jpeg, jpeg2000, png, gif
+        "fmt/41",
+        "fmt/42",
+        "fmt/43",
+        "fmt/44",
+        "fmt/645",
+        "x-fmt/398",
+        "x-fmt/390",
+        "x-fmt/391",
+        "x-fmt/392",
+        "fmt/463",
+        "fmt/11",
+        "fmt/12",
+        "fmt/13",
+        "fmt/3",
+        "fmt/4",
+        // mp3, mp4, mpeg, quicktime
+        "fmt/134",
+        "fmt/199",
+        "fmt/649",
+        "fmt/640",
+        "x-fmt/384",
+        // pdf
+        "fmt/14",
+        "fmt/15",
+        "fmt/16",
+        "fmt/17",
+        "fmt/18",
+        "fmt/19",
+        "fmt/20",
+        "fmt/95",
+        "fmt/276",
+        "fmt/354",
+        "fmt/476",
+        "fmt/477",
+        "fmt/478",
+        "fmt/479",
+        "fmt/480",
+        "fmt/481",
+        "fmt/1129"
+    );
+
     /** The archiveTransfer. */
     protected ArchiveTransfer archiveTransfer;
 
@@ -91,6 +173,15 @@ public class ArchiveTransferToSIPExporter {
     /** The export mode. */
     private boolean manifestOnly;
 
+    /** The number of threads compressing BinaryDataObject files in SIP export, 1 for a sequential export. */
+    private int zipParallelism;
+
+    /** The schema validating the manifest while it is exported, or null if no validation. */
+    private Schema validationSchema;
+
+    /** The RNG validation schema flag. */
+    private boolean validationRNGFlag;
+
     /**
      * Instantiates a new ArchiveTransfer to SIP exporter.
      *
@@ -100,10 +191,49 @@ public class ArchiveTransferToSIPExporter {
     public ArchiveTransferToSIPExporter(ArchiveTransfer archiveTransfer, SEDALibProgressLogger sedaLibProgressLogger) {
         this.archiveTransfer = archiveTransfer;
         this.sedaLibProgressLogger = sedaLibProgressLogger;
+        this.zipParallelism = 1;
+    }
+
+    /**
+     * Sets the number of threads compressing BinaryDataObject files in SIP export.
+     * <p>
+     * With more than one thread, files are deflated in parallel in independent streams, assembled in the SIP after
+     * the manifest, and files in already compressed formats are stored without deflate. Entries order in the SIP
+     * then doesn't follow the DataObjectGroups order. By default, the export is sequential.
+     *
+     * @param zipParallelism the number of threads, 1 for a sequential export
+     */
+    public void setZipParallelism(int zipParallelism) {
+        this.zipParallelism = Math.max(1, zipParallelism);
+    }
+
+    /**
+     * Gets the number of threads compressing BinaryDataObject files in SIP export.
+     *
+     * @return the number of threads
+     */
+    public int getZipParallelism() {
+        return zipParallelism;
+    }
+
+    /**
+     * Sets the schema validating the manifest while it is exported, in manifest or SIP export.
+     * <p>
+     * The manifest is validated as it is written, so that it is generated only once, and the export fails if it is
+     * not valid. By default, the manifest is not validated.
+     *
+     * @param validationSchema the validation schema, or null if no validation
+     * @param rngFlag          the flag true if the schema is a RNG one, false if it is a XSD one
+     */
+    public void setValidationSchema(Schema validationSchema, boolean rngFlag) {
+        this.validationSchema = validationSchema;
+        this.validationRNGFlag = rngFlag;
     }
 
     /**
      * Export SEDA XML manifest output stream.
+     * <p>
+     * If a validation schema is defined, the manifest is validated while it is written.
      *
      * @param os               the OutputStream
      * @param hierarchicalFlag the hierarchical flag
@@ -112,6 +242,19 @@ public class ArchiveTransferToSIPExporter {
      * @throws InterruptedException if export process is interrupted
      */
     public void exportManifestOutputStream(OutputStream os, boolean hierarchicalFlag, boolean indentedFlag)
+        throws SEDALibException, InterruptedException {
+        if (validationSchema == null) {
+            writeManifest(os, hierarchicalFlag, indentedFlag);
+            return;
+        }
+        SEDAXMLValidator sedaXMLValidator = new SEDAXMLValidator();
+        SEDAXMLValidator.ManifestWriter manifestWriter = vos ->
+            writeManifest(new TeeOutputStream(os, vos), hierarchicalFlag, indentedFlag);
+        if (validationRNGFlag) sedaXMLValidator.checkWithRNGSchema(manifestWriter, validationSchema);
+        else sedaXMLValidator.checkWithXSDSchema(manifestWriter, validationSchema);
+    }
+
+    private void writeManifest(OutputStream os, boolean hierarchicalFlag, boolean indentedFlag)
         throws SEDALibException, InterruptedException {
         try (
             SEDAXMLStreamWriter ixsw = new SEDAXMLStreamWriter(os, (indentedFlag ? IndentXMLTool.STANDARD_INDENT : 0))
@@ -202,7 +345,6 @@ public class ArchiveTransferToSIPExporter {
      */
     public void doExportToSEDASIP(String fileName, boolean hierarchicalFlag, boolean indentedFlag)
         throws SEDALibException, InterruptedException {
-        int counter = 0;
         Date d = new Date();
         start = Instant.now();
         String log = "sedalib: début de l'export d'un ArchiveTransfer dans un SIP\n";
@@ -225,6 +367,21 @@ public class ArchiveTransferToSIPExporter {
                 e1
             );
         }
+        if (zipParallelism > 1) exportSIPInParallel(fileName, hierarchicalFlag, indentedFlag);
+        else exportSIP(fileName, hierarchicalFlag, indentedFlag);
+
+        doProgressLog(
+            sedaLibProgressLogger,
+            SEDALibProgressLogger.GLOBAL,
+            "sedalib: export d'un ArchiveTransfer dans un SIP terminé",
+            null
+        );
+        end = Instant.now();
+    }
+
+    private void exportSIP(String fileName, boolean hierarchicalFlag, boolean indentedFlag)
+        throws SEDALibException, InterruptedException {
+        int counter = 0;
         try (ZipOutputStream zipout = new ZipOutputStream(new FileOutputStream(fileName))) {
             ZipEntry e = new ZipEntry("manifest.xml");
             // manifest
@@ -243,6 +400,7 @@ public class ArchiveTransferToSIPExporter {
                         for (BinaryDataObject bo : og.getBinaryDataObjectList()) {
                             e = new ZipEntry(bo.getMetadataUri().getValue());
                             zipout.putNextEntry(e);
+                            bo.extractFromZipIfNeeded();
                             try (FileInputStream fis = new FileInputStream(bo.getOnDiskPath().toFile())) {
                                 IOUtils.copy(fis, zipout);
                             }
@@ -261,14 +419,153 @@ public class ArchiveTransferToSIPExporter {
         } catch (IOException | SEDALibException e) {
             throw new SEDALibException("Echec de l'export du SIP dans le fichier [" + fileName + "]", e);
         }
+    }
 
-        doProgressLog(
-            sedaLibProgressLogger,
-            SEDALibProgressLogger.GLOBAL,
-            "sedalib: export d'un ArchiveTransfer dans un SIP terminé",
-            null
+    private void exportSIPInParallel(String fileName, boolean hierarchicalFlag, boolean indentedFlag)
+        throws SEDALibException, InterruptedException {
+        int counter = 0;
+        AtomicInteger zippedCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(zipParallelism);
+        // compressed streams are scattered in temporary files next to the SIP before being gathered in it
+        TrackingBackingStoreSupplier backingStoreSupplier = new TrackingBackingStoreSupplier(
+            Paths.get(fileName).toAbsolutePath().getParent()
         );
-        end = Instant.now();
+        ParallelScatterZipCreator scatterZipCreator = new ParallelScatterZipCreator(
+            pool,
+            backingStoreSupplier,
+            Deflater.DEFAULT_COMPRESSION
+        );
+        try (ZipArchiveOutputStream zipout = new ZipArchiveOutputStream(Paths.get(fileName))) {
+            ZipArchiveEntry e = new ZipArchiveEntry("manifest.xml");
+            // manifest
+            zipout.putArchiveEntry(e);
+            exportManifestOutputStream(zipout, hierarchicalFlag, indentedFlag);
+            zipout.closeArchiveEntry();
+            doProgressLog(sedaLibProgressLogger, SEDALibProgressLogger.GLOBAL, "sedalib: manifest exporté", null);
+            // all binary objects, digests are those already in metadata, only zip CRCs are computed
+            for (DataObjectGroup og : archiveTransfer
+                .getDataObjectPackage()
+                .getDogInDataObjectPackageIdMap()
+                .values()) {
+                if (og.getBinaryDataObjectList() == null) continue;
+                for (BinaryDataObject bo : og.getBinaryDataObjectList()) {
+                    if (Thread.interrupted()) throw new InterruptedException("sedalib: export du SIP interrompu");
+                    Path onDiskPath = bo.getOnDiskPath();
+                    e = new ZipArchiveEntry(bo.getMetadataUri().getValue());
+                    e.setMethod(isCompressedFormat(bo) ? ZipEntry.STORED : ZipEntry.DEFLATED);
+                    e.setTime(start.toEpochMilli());
+                    scatterZipCreator.addArchiveEntry(e, () -> {
+                        try {
+                            if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException(
+                                "sedalib: export du SIP interrompu"
+                            );
+                            // lazily imported files are extracted from their SIP by the zip threads
+                            bo.extractFromZipIfNeeded();
+                            // the zip thread closes the stream once the entry is compressed
+                            return new FilterInputStream(Files.newInputStream(onDiskPath)) {
+                                @Override
+                                public void close() throws IOException {
+                                    super.close();
+                                    logZippedObject(zippedCounter.incrementAndGet());
+                                }
+                            };
+                        } catch (SEDALibException ex) {
+                            throw new UncheckedIOException(new IOException(ex.getMessage(), ex));
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+                    counter++;
+                }
+            }
+            scatterZipCreator.writeTo(zipout);
+            doProgressLog(
+                sedaLibProgressLogger,
+                SEDALibProgressLogger.OBJECTS_GROUP,
+                "sedalib: " + counter + " fichiers BinaryDataObject exportés",
+                null
+            );
+        } catch (ExecutionException e) {
+            throw new SEDALibException("Echec de l'export du SIP dans le fichier [" + fileName + "]", e.getCause());
+        } catch (IOException | SEDALibException e) {
+            throw new SEDALibException("Echec de l'export du SIP dans le fichier [" + fileName + "]", e);
+        } finally {
+            pool.shutdownNow();
+            // already done by the gathering in the SIP, but not when interrupted or failed before
+            backingStoreSupplier.closeAll();
+        }
+    }
+
+    /**
+     * The supplier of the scatter temporary files, keeping track of them so that they can be closed and deleted
+     * even when the gathering in the SIP, which normally does it, is not reached.
+     */
+    private static class TrackingBackingStoreSupplier implements ScatterGatherBackingStoreSupplier {
+
+        private final Path directory;
+        private final AtomicInteger storeNum = new AtomicInteger();
+        private final List<ScatterGatherBackingStore> stores = new ArrayList<>();
+        private boolean closed;
+
+        TrackingBackingStoreSupplier(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public ScatterGatherBackingStore get() throws IOException {
+            // once per zip thread, so serialized with the final close
+            synchronized (stores) {
+                if (closed) throw new InterruptedIOException("sedalib: export du SIP interrompu");
+                Path file = Files.createTempFile(directory, "parallelscatter", "n" + storeNum.incrementAndGet());
+                ScatterGatherBackingStore store;
+                try {
+                    store = new FileBasedScatterGatherBackingStore(file);
+                } catch (IOException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+                stores.add(store);
+                return store;
+            }
+        }
+
+        void closeAll() {
+            synchronized (stores) {
+                closed = true;
+                for (ScatterGatherBackingStore store : stores) {
+                    try {
+                        // closing a file based store also deletes its file
+                        store.close();
+                    } catch (IOException ignored) {
+                        // ignored
+                    }
+                }
+                stores.clear();
+            }
+        }
+    }
+
+    // progress log of the zip threads, serialized as the logger step state is shared
+    private void logZippedObject(int count) throws InterruptedIOException {
+        try {
+            synchronized (this) {
+                doProgressLogIfStep(
+                    sedaLibProgressLogger,
+                    SEDALibProgressLogger.OBJECTS_GROUP,
+                    count,
+                    "sedalib: " + count + " fichiers BinaryDataObject compressés"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("sedalib: export du SIP interrompu");
+        }
+    }
+
+    private static boolean isCompressedFormat(BinaryDataObject bo) {
+        if (bo.getMetadataFormatIdentification() == null) return false;
+        String puid = bo.getMetadataFormatIdentification().getSimpleMetadata("FormatId");
+        return (puid != null) && COMPRESSED_FORMAT_PUIDS.contains(puid);
     }
 
     /**
@@ -751,7 +751,10 @@ public class DataObjectPackageToCSVMetadataExporter {
         if ((objectList != null) && !objectList.isEmpty()) {
             for (BinaryDataObject bdo : objectList) {
                 filename = constructObjectFileName(auRelativePath, bdo, objectList.size() == 1, true);
-                if (fileExportFlag) copyFile(bdo.getOnDiskPath(), auRelativePath.resolve(filename));
+                if (fileExportFlag) {
+                    bdo.extractFromZipIfNeeded();
+                    copyFile(bdo.getOnDiskPath(), auRelativePath.resolve(filename));
+                }
             }
         }
         return filename;
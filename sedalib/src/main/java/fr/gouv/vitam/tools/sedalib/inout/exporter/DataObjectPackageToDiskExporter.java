@@ -340,6 +340,7 @@ public class DataObjectPackageToDiskExporter {
         );
         filesPathSet.add(targetOnDiskPath);
         try {
+            bdo.extractFromZipIfNeeded();
             Files.copy(bdo.getOnDiskPath(), targetOnDiskPath, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new SEDALibException(
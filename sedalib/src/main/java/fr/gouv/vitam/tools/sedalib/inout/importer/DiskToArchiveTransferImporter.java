@@ -241,6 +241,16 @@ public class DiskToArchiveTransferImporter {
         diskToDataObjectPackageImporter.addIgnorePattern(patternString);
     }
 
+    /**
+     * Sets the number of files analysed in parallel when extracting technical elements (see
+     * {@link DiskToDataObjectPackageImporter#setTechnicalElementsParallelism}).
+     *
+     * @param technicalElementsParallelism the technical elements parallelism
+     */
+    public void setTechnicalElementsParallelism(int technicalElementsParallelism) {
+        diskToDataObjectPackageImporter.setTechnicalElementsParallelism(technicalElementsParallelism);
+    }
+
     /**
      * Process the GlobalMetadata file.
      *
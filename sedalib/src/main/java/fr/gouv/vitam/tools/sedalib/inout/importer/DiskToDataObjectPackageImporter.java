@@ -55,6 +55,10 @@ import java.text.ParseException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -227,6 +231,16 @@ public class DiskToDataObjectPackageImporter {
      */
     private SEDALibProgressLogger sedaLibProgressLogger;
 
+    /**
+     * The number of files analysed in parallel for technical elements (digest, format identification...).
+     */
+    private int technicalElementsParallelism;
+
+    /**
+     * The number of submitted analyses, running or waiting, allowed per thread.
+     */
+    private static final int PENDING_ANALYSES_PER_THREAD = 4;
+
     private DiskToDataObjectPackageImporter(
         boolean noLinkFlag,
         Function<String, String> extractTitleFromFileNameFunction,
@@ -246,6 +260,7 @@ public class DiskToDataObjectPackageImporter {
 
         this.inCounter = 0;
         this.sedaLibProgressLogger = sedaLibProgressLogger;
+        this.technicalElementsParallelism = 1;
     }
 
     /**
@@ -330,6 +345,28 @@ public class DiskToDataObjectPackageImporter {
         dataObjectPackage = new DataObjectPackage();
     }
 
+    /**
+     * Sets the number of files analysed in parallel, when extracting technical elements (digest, format
+     * identification...) of the imported BinaryDataObjects.
+     * <p>
+     * Default is 1, that is to say sequential analysis. Whatever the parallelism, the progress is logged in the
+     * BinaryDataObjects order and the extracted metadata are the same.
+     *
+     * @param technicalElementsParallelism the technical elements parallelism
+     */
+    public void setTechnicalElementsParallelism(int technicalElementsParallelism) {
+        this.technicalElementsParallelism = Math.max(1, technicalElementsParallelism);
+    }
+
+    /**
+     * Gets the number of files analysed in parallel when extracting technical elements.
+     *
+     * @return the technical elements parallelism
+     */
+    public int getTechnicalElementsParallelism() {
+        return technicalElementsParallelism;
+    }
+
     /**
      * Adds the ignore pattern.
      *
@@ -947,18 +984,12 @@ public class DiskToDataObjectPackageImporter {
         }
 
         inCounter = 0;
-        for (Map.Entry<String, BinaryDataObject> pair : dataObjectPackage.getBdoInDataObjectPackageIdMap().entrySet()) {
-            FileInfo fileInfo = pair.getValue().getMetadataFileInfo();
-            if (fileInfo.getSimpleMetadata("LastModified") == null) pair
-                .getValue()
-                .extractTechnicalElements(sedaLibProgressLogger);
-            inCounter++;
-            doProgressLogIfStep(
-                sedaLibProgressLogger,
-                SEDALibProgressLogger.OBJECTS_GROUP,
-                inCounter,
-                "sedalib: " + inCounter + " fichiers BinaryDataObject analysés"
-            );
+        if (technicalElementsParallelism > 1) extractTechnicalElementsInParallel();
+        else {
+            for (BinaryDataObject bdo : dataObjectPackage.getBdoInDataObjectPackageIdMap().values()) {
+                extractTechnicalElementsIfNeeded(bdo);
+                logAnalysedBinaryDataObject();
+            }
         }
         doProgressLog(
             sedaLibProgressLogger,
@@ -969,6 +1000,61 @@ public class DiskToDataObjectPackageImporter {
         end = Instant.now();
     }
 
+    // extract technical elements if not already defined in metadata
+    private void extractTechnicalElementsIfNeeded(BinaryDataObject bdo) throws SEDALibException {
+        FileInfo fileInfo = bdo.getMetadataFileInfo();
+        if (fileInfo.getSimpleMetadata("LastModified") == null) bdo.extractTechnicalElements(sedaLibProgressLogger);
+    }
+
+    private void logAnalysedBinaryDataObject() throws InterruptedException {
+        inCounter++;
+        doProgressLogIfStep(
+            sedaLibProgressLogger,
+            SEDALibProgressLogger.OBJECTS_GROUP,
+            inCounter,
+            "sedalib: " + inCounter + " fichiers BinaryDataObject analysés"
+        );
+    }
+
+    /**
+     * Extract technical elements of all BinaryDataObjects with a pool of threads.
+     * <p>
+     * The number of submitted analyses is bounded and their results are collected in submission order, so that the
+     * progress log is ordered and the first error encountered in this order is the one thrown.
+     *
+     * @throws SEDALibException     any technical elements extraction exception
+     * @throws InterruptedException if export process is interrupted
+     */
+    private void extractTechnicalElementsInParallel() throws SEDALibException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(technicalElementsParallelism);
+        Deque<Future<Void>> pendingAnalyses = new ArrayDeque<>();
+        int maxPendingAnalyses = technicalElementsParallelism * PENDING_ANALYSES_PER_THREAD;
+        try {
+            for (BinaryDataObject bdo : dataObjectPackage.getBdoInDataObjectPackageIdMap().values()) {
+                if (pendingAnalyses.size() >= maxPendingAnalyses) waitForAnalysis(pendingAnalyses.poll());
+                pendingAnalyses.add(
+                    pool.submit(() -> {
+                        extractTechnicalElementsIfNeeded(bdo);
+                        return null;
+                    })
+                );
+            }
+            while (!pendingAnalyses.isEmpty()) waitForAnalysis(pendingAnalyses.poll());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void waitForAnalysis(Future<Void> analysis) throws SEDALibException, InterruptedException {
+        try {
+            analysis.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SEDALibException) throw (SEDALibException) e.getCause();
+            throw new SEDALibException("Erreur dans l'analyse des fichiers BinaryDataObject", e.getCause());
+        }
+        logAnalysedBinaryDataObject();
+    }
+
     /**
      * Gets the DataObjectPackage.
      *
@@ -38,8 +38,12 @@
 package fr.gouv.vitam.tools.sedalib.inout.importer;
 
 import fr.gouv.vitam.tools.sedalib.core.ArchiveTransfer;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
+import fr.gouv.vitam.tools.sedalib.metadata.namedtype.DigestType;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
+import fr.gouv.vitam.tools.sedalib.utils.ZipEntryExtractor;
+import fr.gouv.vitam.tools.sedalib.utils.digest.DigestSha512;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
@@ -50,13 +54,27 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger.doProgressLog;
 import static fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger.doProgressLogIfStep;
@@ -94,6 +112,56 @@ public class SIPToArchiveTransferImporter {
      */
     private SEDALibProgressLogger sedaLibProgressLogger;
 
+    /**
+     * The lazy extraction flag, true if the manifest is read in the zip file and BinaryDataObject files are
+     * extracted only when needed.
+     */
+    private boolean lazyExtraction;
+
+    /**
+     * The number of threads extracting the SIP files.
+     */
+    private int extractionParallelism = 1;
+
+    /**
+     * The digest verification flag, true if the BinaryDataObject files digests are verified during extraction.
+     */
+    private boolean digestVerification;
+
+    /**
+     * The digest verification errors of the extraction, or null if no verification was done.
+     */
+    private List<String> digestVerificationErrors;
+
+    /**
+     * The number of files whose digest was verified during the extraction.
+     */
+    private int verifiedFileCount;
+
+    /**
+     * Gets the name of a zip entry once extracted in the uncompress directory.
+     * <p>
+     * Any case ConTenT is changed to lowercase content on import as in fromSEDA in BinaryDataObject.
+     *
+     * @param entryName the entry name
+     * @return the extracted file name
+     */
+    private static String getExtractedFileName(String entryName) {
+        String fileName = entryName.trim();
+        if (fileName.toLowerCase().startsWith("content")) fileName = "content" + fileName.substring(7);
+        return fileName;
+    }
+
+    /**
+     * Test if an extracted file name is the manifest one (name has to begin by manifest in any case).
+     *
+     * @param fileName the extracted file name
+     * @return true if it is a manifest
+     */
+    private static boolean isManifestFileName(String fileName) {
+        return fileName.toLowerCase().matches("[^/\\\\]*manifest.*\\.xml");
+    }
+
     /**
      * Unzip file.
      *
@@ -120,17 +188,14 @@ public class SIPToArchiveTransferImporter {
             // get the zipped file list entry
             ArchiveEntry ze;
             while ((ze = zais.getNextEntry()) != null) {
-                String fileName = ze.getName().trim();
-                // change any case ConTenT to lowercase content on import as in fromSEDA in
-                // BinaryDataObject
-                if (fileName.toLowerCase().startsWith("content")) fileName = "content" + fileName.substring(7);
+                String fileName = getExtractedFileName(ze.getName());
 
                 Path newPath = Paths.get(outputFolder + File.separator + fileName);
 
                 if (fileName.endsWith("/")) {
                     if (!Files.exists(newPath)) Files.createDirectories(newPath);
                 } else {
-                    if (fileName.toLowerCase().matches("[^/\\\\]*manifest.*\\.xml")) {
+                    if (isManifestFileName(fileName)) {
                         if (manifest != null) throw new SEDALibException(
                             "SIP mal formé, plusieurs fichiers manifest potentiels"
                         );
@@ -216,6 +281,66 @@ public class SIPToArchiveTransferImporter {
         this.sedaLibProgressLogger = sedaLibProgressLogger;
     }
 
+    /**
+     * Sets the lazy extraction flag.
+     * <p>
+     * In lazy extraction mode, the manifest is read directly in the zip file, through its central directory, and
+     * BinaryDataObject files are extracted in the uncompress directory only when their content is needed (export,
+     * digest or format computation, viewing...), so that even big SIPs are opened quickly and without scratch space.
+     * By default, the whole SIP is uncompressed before the manifest is read.
+     *
+     * @param lazyExtraction the lazy extraction flag
+     */
+    public void setLazyExtraction(boolean lazyExtraction) {
+        this.lazyExtraction = lazyExtraction;
+    }
+
+    /**
+     * Sets the number of threads extracting the SIP files.
+     * <p>
+     * With more than one thread, the manifest is read directly in the zip file, then the files are inflated
+     * concurrently, using the zip central directory. By default, the extraction is sequential. This has no effect in
+     * lazy extraction mode.
+     *
+     * @param extractionParallelism the number of threads, 1 for a sequential extraction
+     */
+    public void setExtractionParallelism(int extractionParallelism) {
+        this.extractionParallelism = Math.max(1, extractionParallelism);
+    }
+
+    /**
+     * Sets the digest verification flag.
+     * <p>
+     * When set, the manifest is read directly in the zip file, and the digest of each BinaryDataObject file is
+     * computed during its extraction, whatever the number of extraction threads, and compared with the manifest
+     * MessageDigest. Differences and missing files are then listed in the digest verification errors, without failing
+     * the import. This has no effect in lazy extraction mode.
+     *
+     * @param digestVerification the digest verification flag
+     */
+    public void setDigestVerification(boolean digestVerification) {
+        this.digestVerification = digestVerification;
+    }
+
+    /**
+     * Gets the digest verification errors of the extraction.
+     *
+     * @return the errors list, empty if all digests are verified or if no verification was done
+     */
+    public List<String> getDigestVerificationErrors() {
+        if (digestVerificationErrors == null) return Collections.emptyList();
+        return digestVerificationErrors;
+    }
+
+    /**
+     * Gets the number of files whose digest was verified during the extraction.
+     *
+     * @return the verified file count
+     */
+    public int getVerifiedFileCount() {
+        return verifiedFileCount;
+    }
+
     /**
      * Do import the SEDA SIP to ArchiveTransfer.
      *
@@ -224,8 +349,6 @@ public class SIPToArchiveTransferImporter {
      * @throws InterruptedException if export process is interrupted
      */
     public void doImport() throws SEDALibException, InterruptedException {
-        String manifest;
-
         Date d = new Date();
         start = Instant.now();
         String log = "sedalib: début de l'import du SIP\n";
@@ -233,7 +356,15 @@ public class SIPToArchiveTransferImporter {
         log += " date=" + DateFormat.getDateTimeInstance().format(d);
         doProgressLog(sedaLibProgressLogger, SEDALibProgressLogger.GLOBAL, log, null);
 
-        manifest = unZipSip(zipFile, unCompressDirectory);
+        if (lazyExtraction || digestVerification || (extractionParallelism > 1)) importFromZip();
+        else importFromUncompressedSip();
+
+        end = Instant.now();
+        doProgressLog(sedaLibProgressLogger, SEDALibProgressLogger.GLOBAL, "sedalib: import du SIP terminé", null);
+    }
+
+    private void importFromUncompressedSip() throws SEDALibException, InterruptedException {
+        String manifest = unZipSip(zipFile, unCompressDirectory);
 
         try (
             FileInputStream fis = new FileInputStream(unCompressDirectory + File.separator + manifest);
@@ -243,9 +374,210 @@ public class SIPToArchiveTransferImporter {
         } catch (XMLStreamException | IOException e) {
             throw new SEDALibException("Impossible d'importer le fichier [" + manifest + "] comme manifest du SIP", e);
         }
+    }
 
-        end = Instant.now();
-        doProgressLog(sedaLibProgressLogger, SEDALibProgressLogger.GLOBAL, "sedalib: import du SIP terminé", null);
+    private void importFromZip() throws SEDALibException, InterruptedException {
+        String manifest = null;
+        Map<String, String> entryNameByFileName = new HashMap<>();
+        ZipEntryExtractor zipEntryExtractor = ZipEntryExtractor.getInstance(zipFile);
+        try {
+            for (String entryName : zipEntryExtractor.getFileEntryNames()) {
+                String fileName = getExtractedFileName(entryName);
+                if (isManifestFileName(fileName)) {
+                    if (manifest != null) throw new SEDALibException(
+                        "SIP mal formé, plusieurs fichiers manifest potentiels"
+                    );
+                    manifest = entryName;
+                }
+                entryNameByFileName.put(fileName, entryName);
+            }
+            if (manifest == null) throw new SEDALibException("SIP mal formé, pas de manifest");
+            doProgressLog(
+                sedaLibProgressLogger,
+                SEDALibProgressLogger.OBJECTS,
+                "sedalib: lecture directe du manifest [" + zipFile + "]",
+                null
+            );
+
+            try (
+                InputStream is = zipEntryExtractor.getInputStream(manifest);
+                SEDAXMLEventReader xmlReader = new SEDAXMLEventReader(is)
+            ) {
+                archiveTransfer = ArchiveTransfer.fromSedaXml(xmlReader, unCompressDirectory, sedaLibProgressLogger);
+            } catch (XMLStreamException | IOException e) {
+                throw new SEDALibException(
+                    "Impossible d'importer le fichier [" + manifest + "] comme manifest du SIP",
+                    e
+                );
+            }
+
+            // link each BinaryDataObject to its entry, extracted where the whole SIP uncompress would put it
+            String absoluteZipFile = Paths.get(zipFile).toAbsolutePath().normalize().toString();
+            Map<String, BinaryDataObject> bdoByEntryName = new HashMap<>();
+            if (!lazyExtraction && digestVerification) digestVerificationErrors = new ArrayList<>();
+            for (BinaryDataObject bdo : archiveTransfer
+                .getDataObjectPackage()
+                .getBdoInDataObjectPackageIdMap()
+                .values()) {
+                if (bdo.getMetadataUri() == null) continue;
+                String fileName = getExtractedFileName(bdo.getMetadataUri().getValue());
+                String entryName = entryNameByFileName.get(fileName);
+                if (entryName == null) {
+                    if (digestVerificationErrors != null) digestVerificationErrors.add(
+                        "Fichier [" +
+                        bdo.getMetadataUri().getValue() +
+                        "] du BinaryDataObject [" +
+                        bdo.getInDataObjectPackageId() +
+                        "] absent du SIP"
+                    );
+                    continue;
+                }
+                bdo.setOnDiskPath(getExtractionTarget(fileName, entryName));
+                if (lazyExtraction) {
+                    bdo.setOnZipFile(absoluteZipFile);
+                    bdo.setOnZipEntry(entryName);
+                } else bdoByEntryName.put(entryName, bdo);
+            }
+            if (!lazyExtraction) extractInParallel(zipEntryExtractor, entryNameByFileName, bdoByEntryName);
+        } finally {
+            // the zip file is kept open only for lazy extraction
+            if (!lazyExtraction) ZipEntryExtractor.close(zipFile);
+        }
+    }
+
+    /**
+     * The result of one entry extraction.
+     */
+    private static class ExtractionResult {
+
+        /**
+         * The flag true if the entry digest has been verified, false if there was no digest to verify.
+         */
+        final boolean verified;
+
+        /**
+         * The digest verification error, or null if none.
+         */
+        final String error;
+
+        ExtractionResult(boolean verified, String error) {
+            this.verified = verified;
+            this.error = error;
+        }
+    }
+
+    private void extractInParallel(
+        ZipEntryExtractor zipEntryExtractor,
+        Map<String, String> entryNameByFileName,
+        Map<String, BinaryDataObject> bdoByEntryName
+    ) throws SEDALibException, InterruptedException {
+        List<Future<ExtractionResult>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(extractionParallelism);
+        try {
+            for (Map.Entry<String, String> pair : entryNameByFileName.entrySet()) {
+                Path target = getExtractionTarget(pair.getKey(), pair.getValue());
+                BinaryDataObject bdo = (digestVerification ? bdoByEntryName.get(pair.getValue()) : null);
+                futures.add(pool.submit(() -> extractAndVerify(zipEntryExtractor, pair.getValue(), target, bdo)));
+            }
+            int counter = 0;
+            for (Future<ExtractionResult> future : futures) {
+                ExtractionResult result = future.get();
+                if (result.verified) verifiedFileCount++;
+                if ((result.error != null) && (digestVerificationErrors != null)) digestVerificationErrors.add(
+                    result.error
+                );
+                counter++;
+                doProgressLogIfStep(
+                    sedaLibProgressLogger,
+                    SEDALibProgressLogger.OBJECTS_GROUP,
+                    counter,
+                    Integer.toString(counter) + " fichiers extraits"
+                );
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SEDALibException) throw (SEDALibException) e.getCause();
+            throw new SEDALibException(
+                "Impossible de décompresser le fichier [" +
+                zipFile +
+                "] dans le répertoire [" +
+                unCompressDirectory +
+                "]",
+                e.getCause()
+            );
+        } finally {
+            pool.shutdownNow();
+        }
+        doProgressLog(
+            sedaLibProgressLogger,
+            SEDALibProgressLogger.OBJECTS_GROUP,
+            "sedalib: " + futures.size() + " fichiers extraits, " + verifiedFileCount + " empreintes vérifiées",
+            null
+        );
+    }
+
+    /**
+     * Gets the path where an entry is extracted, checking that it stays in the uncompress directory.
+     *
+     * @param fileName  the entry name once extracted
+     * @param entryName the entry name
+     * @return the extraction target path
+     * @throws SEDALibException if the target path goes out of the uncompress directory
+     */
+    private Path getExtractionTarget(String fileName, String entryName) throws SEDALibException {
+        Path rootPath = Paths.get(unCompressDirectory).toAbsolutePath().normalize();
+        Path target = rootPath.resolve(fileName).normalize();
+        if (!target.startsWith(rootPath) || target.equals(rootPath)) throw new SEDALibException(
+            "SIP mal formé, l'entrée [" + entryName + "] sort du répertoire d'extraction"
+        );
+        return target;
+    }
+
+    private static ExtractionResult extractAndVerify(
+        ZipEntryExtractor zipEntryExtractor,
+        String entryName,
+        Path target,
+        BinaryDataObject bdo
+    ) throws SEDALibException {
+        DigestType expectedDigest = (bdo == null ? null : bdo.getMetadataMessageDigest());
+        MessageDigest messageDigest = null;
+        String error = null;
+        if ((expectedDigest != null) && (expectedDigest.getValue() != null)) {
+            try {
+                if (expectedDigest.getAlgorithm() == null) throw new NoSuchAlgorithmException();
+                messageDigest = MessageDigest.getInstance(expectedDigest.getAlgorithm());
+            } catch (NoSuchAlgorithmException e) {
+                error =
+                    "Algorithme d'empreinte [" +
+                    expectedDigest.getAlgorithm() +
+                    "] inconnu pour le BinaryDataObject [" +
+                    bdo.getInDataObjectPackageId() +
+                    "]";
+            }
+        }
+
+        try (InputStream is = zipEntryExtractor.getInputStream(entryName)) {
+            Files.createDirectories(target.getParent());
+            if (messageDigest == null) Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+            else try (DigestInputStream dis = new DigestInputStream(is, messageDigest)) {
+                Files.copy(dis, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new SEDALibException("Impossible d'extraire l'entrée [" + entryName + "] en [" + target + "]", e);
+        }
+
+        if (messageDigest == null) return new ExtractionResult(false, error);
+        String digest = DigestSha512.bytesToHex(messageDigest.digest());
+        if (!digest.equalsIgnoreCase(expectedDigest.getValue().trim())) {
+            error =
+                "Empreinte " +
+                expectedDigest.getAlgorithm() +
+                " du fichier [" +
+                entryName +
+                "] différente de celle du BinaryDataObject [" +
+                bdo.getInDataObjectPackageId() +
+                "] dans le manifest";
+        }
+        return new ExtractionResult(true, error);
     }
 
     /**
@@ -267,6 +599,10 @@ public class SIPToArchiveTransferImporter {
 
         result = archiveTransfer.getDescription() + "\n";
         if (start != null) result += "chargé en " + Duration.between(start, end).toString().substring(2) + "\n";
+        if (digestVerificationErrors != null) {
+            result += verifiedFileCount + " empreintes vérifiées, " + digestVerificationErrors.size() + " erreurs\n";
+            for (String error : digestVerificationErrors) result += "- " + error + "\n";
+        }
         return result;
     }
 }
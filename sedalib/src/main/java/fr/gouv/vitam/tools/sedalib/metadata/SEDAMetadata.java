@@ -47,15 +47,12 @@ import fr.gouv.vitam.tools.sedalib.metadata.namedtype.*;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
-import org.apache.commons.lang3.reflect.ConstructorUtils;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 
@@ -144,6 +141,8 @@ public abstract class SEDAMetadata {
 
     /**
      * Return the SEDAMetadata object from an XML event reader.
+     * <p>
+     * The construction goes through the {@link SEDAMetadataFactory} of the target class.
      *
      * @param xmlReader the xml reader
      * @param target    the target sub-class of SEDAMetadata
@@ -151,32 +150,7 @@ public abstract class SEDAMetadata {
      * @throws SEDALibException if XML read exception or inappropriate sub-class
      */
     public static SEDAMetadata fromSedaXml(SEDAXMLEventReader xmlReader, Class<?> target) throws SEDALibException {
-        try {
-            boolean needName = target.getName().contains(".namedtype.");
-            SEDAMetadata sm;
-            if (needName) {
-                XMLEvent event = xmlReader.peekUsefullEvent();
-                sm = (SEDAMetadata) ConstructorUtils.invokeConstructor(
-                    target,
-                    event.asStartElement().getName().getLocalPart()
-                );
-            } else sm = (SEDAMetadata) ConstructorUtils.invokeConstructor(target, (Object[]) null);
-            if (sm.fillFromSedaXml(xmlReader)) return sm;
-            Method method = target.getMethod("fromSedaXml", SEDAXMLEventReader.class);
-            return (SEDAMetadata) method.invoke(null, xmlReader);
-        } catch (
-            IllegalAccessException
-            | IllegalArgumentException
-            | NoSuchMethodException
-            | SecurityException
-            | InstantiationException e
-        ) {
-            throw new SEDALibException("Erreur de construction du " + target.getSimpleName(), e);
-        } catch (InvocationTargetException te) {
-            throw new SEDALibException("Erreur de construction du " + target.getSimpleName(), te.getTargetException());
-        } catch (XMLStreamException e) {
-            throw new SEDALibException("Erreur de lecture XML dans un élément de type " + target.getSimpleName(), e);
-        }
+        return SEDAMetadataFactory.forClass(target).fromSedaXml(xmlReader);
     }
 
     /**
@@ -0,0 +1,383 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.metadata;
+
+import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
+import fr.gouv.vitam.tools.sedalib.metadata.namedtype.ComplexListInterface;
+import fr.gouv.vitam.tools.sedalib.metadata.namedtype.ComplexListMetadataKind;
+import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
+import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Class SEDAMetadataFactory.
+ * <p>
+ * Per class registry of the constructors and parsing methods of a SEDAMetadata sub-class, and of the versioned
+ * metadata maps of ComplexListInterface implementations.
+ * <p>
+ * The reflective lookups are done only once per class, or per class and constructor arguments types, and are then
+ * kept as {@link MethodHandle}s, so that manifest and csv imports don't pay the reflection cost for each parsed or
+ * built metadata.
+ */
+public final class SEDAMetadataFactory {
+
+    /**
+     * Builds a SEDAMetadata from the element name and the constructor arguments.
+     */
+    @FunctionalInterface
+    private interface MetadataConstructor {
+        SEDAMetadata construct(String elementName, Object[] args) throws Throwable;
+    }
+
+    /**
+     * The factories by metadata class.
+     */
+    private static final ClassValue<SEDAMetadataFactory> FACTORIES = new ClassValue<SEDAMetadataFactory>() {
+        @Override
+        protected SEDAMetadataFactory computeValue(Class<?> type) {
+            return new SEDAMetadataFactory(type);
+        }
+    };
+
+    /**
+     * The marker of arguments types for which there is no constructor.
+     */
+    private static final MetadataConstructor NO_CONSTRUCTOR = (elementName, args) -> null;
+
+    /**
+     * The lookup used to convert public constructors and methods in method handles.
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    /**
+     * The metadata class.
+     */
+    private final Class<?> metadataClass;
+
+    /**
+     * The named type flag, the named types constructors take the element name as first argument.
+     */
+    private final boolean namedType;
+
+    /**
+     * The constructor used for XML parsing, (String)SEDAMetadata for named types and ()SEDAMetadata for others.
+     */
+    private volatile MethodHandle xmlConstructor;
+
+    /**
+     * The static fromSedaXml(SEDAXMLEventReader) method, used when fillFromSedaXml doesn't conclude.
+     */
+    private volatile MethodHandle staticFromSedaXml;
+
+    /**
+     * The constructors by arguments types.
+     */
+    private final Map<List<Class<?>>, MetadataConstructor> constructorsByArgsTypes;
+
+    /**
+     * The metadata maps by SEDA version.
+     */
+    private volatile Map<SedaVersion, Map<String, ComplexListMetadataKind>> metadataDefinitions;
+
+    /**
+     * The not expandable flags by SEDA version.
+     */
+    private volatile Map<SedaVersion, Boolean> notExpandableFlags;
+
+    /**
+     * Instantiates a new SEDAMetadata factory.
+     *
+     * @param metadataClass the metadata class
+     */
+    private SEDAMetadataFactory(Class<?> metadataClass) {
+        this.metadataClass = metadataClass;
+        this.namedType = metadataClass.getName().contains(".namedtype.");
+        this.constructorsByArgsTypes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the factory of a SEDAMetadata sub-class.
+     *
+     * @param metadataClass the metadata class
+     * @return the factory
+     */
+    public static SEDAMetadataFactory forClass(Class<?> metadataClass) {
+        return FACTORIES.get(metadataClass);
+    }
+
+    /**
+     * Return the SEDAMetadata object from an XML event reader.
+     *
+     * @param xmlReader the xml reader
+     * @return the read SEDAMetadata object
+     * @throws SEDALibException if XML read exception or inappropriate sub-class
+     */
+    public SEDAMetadata fromSedaXml(SEDAXMLEventReader xmlReader) throws SEDALibException {
+        SEDAMetadata sm;
+        try {
+            if (namedType) {
+                XMLEvent event = xmlReader.peekUsefullEvent();
+                sm = (SEDAMetadata) getXmlConstructor().invokeExact(event.asStartElement().getName().getLocalPart());
+            } else sm = (SEDAMetadata) getXmlConstructor().invokeExact();
+        } catch (XMLStreamException e) {
+            throw new SEDALibException(
+                "Erreur de lecture XML dans un élément de type " + metadataClass.getSimpleName(),
+                e
+            );
+        } catch (Throwable t) {
+            throw constructionException(t);
+        }
+        if (sm.fillFromSedaXml(xmlReader)) return sm;
+        try {
+            return (SEDAMetadata) getStaticFromSedaXml().invokeExact(xmlReader);
+        } catch (Throwable t) {
+            throw constructionException(t);
+        }
+    }
+
+    /**
+     * Constructs a new SEDAMetadata with the first public constructor compatible with the arguments.
+     * <p>
+     * For named types the element name is prepended to the arguments. If there's no compatible constructor, a
+     * constructor with a variable argument list (Object... args) is used. The constructor is resolved once for each
+     * arguments types combination.
+     *
+     * @param elementName the name of the metadata element
+     * @param args        the arguments for the constructor (can be empty)
+     * @return the constructed SEDAMetadata
+     * @throws SEDALibException if no suitable constructor is found or if the construction fails
+     */
+    public SEDAMetadata newInstance(String elementName, Object[] args) throws SEDALibException {
+        Class<?>[] argsTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) argsTypes[i] = (args[i] == null ? null : args[i].getClass());
+        MetadataConstructor constructor = constructorsByArgsTypes.computeIfAbsent(
+            Arrays.asList(argsTypes),
+            k -> resolveConstructor(elementName, args)
+        );
+        if (constructor == NO_CONSTRUCTOR) throw new SEDALibException(
+            "Pas de constructeur de l'élément [" + elementName + "]"
+        );
+        try {
+            return constructor.construct(elementName, args);
+        } catch (Throwable t) {
+            if (t instanceof Error) throw (Error) t;
+            throw new SEDALibException("Impossible de construire l'élément [" + elementName + "]", t);
+        }
+    }
+
+    /**
+     * Gets the metadata maps by SEDA version, defined in the {@link
+     * fr.gouv.vitam.tools.sedalib.metadata.namedtype.ComplexListMetadataMap} annotated static variables.
+     *
+     * @return the metadata maps by SEDA version
+     */
+    public Map<SedaVersion, Map<String, ComplexListMetadataKind>> getMetadataDefinitions() {
+        Map<SedaVersion, Map<String, ComplexListMetadataKind>> result = metadataDefinitions;
+        if (result == null) {
+            result = Collections.unmodifiableMap(ComplexListInterface.metadataDefinitions(metadataClass));
+            metadataDefinitions = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the not expandable flags by SEDA version.
+     *
+     * @return the not expandable flags by SEDA version
+     */
+    public Map<SedaVersion, Boolean> getNotExpandableFlags() {
+        Map<SedaVersion, Boolean> result = notExpandableFlags;
+        if (result == null) {
+            result = Collections.unmodifiableMap(ComplexListInterface.notExpandableFlags(metadataClass));
+            notExpandableFlags = result;
+        }
+        return result;
+    }
+
+    /**
+     * Wraps a construction failure in a SEDALibException, errors are rethrown.
+     *
+     * @param t the throwable
+     * @return the SEDA lib exception
+     */
+    private SEDALibException constructionException(Throwable t) {
+        if (t instanceof Error) throw (Error) t;
+        return new SEDALibException("Erreur de construction du " + metadataClass.getSimpleName(), t);
+    }
+
+    /**
+     * Gets the constructor used for XML parsing, resolved at first use.
+     *
+     * @return the constructor method handle
+     * @throws ReflectiveOperationException if there's no accessible constructor
+     */
+    private MethodHandle getXmlConstructor() throws ReflectiveOperationException {
+        MethodHandle result = xmlConstructor;
+        if (result == null) {
+            Constructor<?> constructor = (namedType
+                    ? ConstructorUtils.getMatchingAccessibleConstructor(metadataClass, String.class)
+                    : ConstructorUtils.getMatchingAccessibleConstructor(metadataClass));
+            if (constructor == null) throw new NoSuchMethodException(
+                "Pas de constructeur accessible pour " + metadataClass.getName()
+            );
+            result = LOOKUP.unreflectConstructor(constructor)
+                .asType(
+                    namedType
+                        ? MethodType.methodType(SEDAMetadata.class, String.class)
+                        : MethodType.methodType(SEDAMetadata.class)
+                );
+            xmlConstructor = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the static fromSedaXml(SEDAXMLEventReader) method, resolved at first use.
+     *
+     * @return the method handle
+     * @throws ReflectiveOperationException if there's no accessible method
+     */
+    private MethodHandle getStaticFromSedaXml() throws ReflectiveOperationException {
+        MethodHandle result = staticFromSedaXml;
+        if (result == null) {
+            Method method = metadataClass.getMethod("fromSedaXml", SEDAXMLEventReader.class);
+            result = LOOKUP.unreflect(method).asType(
+                MethodType.methodType(SEDAMetadata.class, SEDAXMLEventReader.class)
+            );
+            staticFromSedaXml = result;
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the constructor compatible with the arguments types.
+     *
+     * @param elementName the name of the metadata element
+     * @param args        the arguments for the constructor
+     * @return the metadata constructor, or NO_CONSTRUCTOR if there's none
+     */
+    private MetadataConstructor resolveConstructor(String elementName, Object[] args) {
+        Object[] constructorArgs = prepareConstructorArgs(elementName, args);
+        try {
+            for (Constructor<?> constructor : metadataClass.getConstructors()) {
+                if (areArgsCompatible(constructorArgs, constructor.getParameterTypes())) {
+                    MethodHandle spreader = LOOKUP.unreflectConstructor(constructor)
+                        .asFixedArity()
+                        .asSpreader(Object[].class, constructorArgs.length)
+                        .asType(MethodType.methodType(SEDAMetadata.class, Object[].class));
+                    return (name, a) -> (SEDAMetadata) spreader.invokeExact(prepareConstructorArgs(name, a));
+                }
+            }
+            // Try to use a constructor with a variable argument list (Object... args) pattern
+            if (namedType) {
+                MethodHandle varArgs = LOOKUP.unreflectConstructor(
+                    metadataClass.getConstructor(String.class, Object[].class)
+                )
+                    .asFixedArity()
+                    .asType(MethodType.methodType(SEDAMetadata.class, String.class, Object[].class));
+                return (name, a) -> (SEDAMetadata) varArgs.invokeExact(name, a);
+            }
+            MethodHandle varArgs = LOOKUP.unreflectConstructor(metadataClass.getConstructor(Object[].class))
+                .asFixedArity()
+                .asType(MethodType.methodType(SEDAMetadata.class, Object[].class));
+            return (name, a) -> (SEDAMetadata) varArgs.invokeExact(a);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return NO_CONSTRUCTOR;
+        }
+    }
+
+    /**
+     * Prepares constructor arguments by adding the element name as the first argument for named types.
+     *
+     * @param elementName the name of the element
+     * @param args        the original arguments
+     * @return the constructor arguments
+     */
+    private Object[] prepareConstructorArgs(String elementName, Object[] args) {
+        if (!namedType) return args;
+        Object[] prefixed = new Object[args.length + 1];
+        prefixed[0] = elementName;
+        System.arraycopy(args, 0, prefixed, 1, args.length);
+        return prefixed;
+    }
+
+    /**
+     * Wraps primitive types in their corresponding object wrapper classes.
+     *
+     * @param type the class type to wrap
+     * @return the wrapped class type for primitives, or the original type if not primitive
+     */
+    private static Class<?> wrapPrimitives(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /**
+     * Checks if the provided arguments are compatible with the expected parameter types.
+     *
+     * @param args       the actual arguments to check
+     * @param paramTypes the expected parameter types from a constructor
+     * @return true if the arguments are compatible, false otherwise
+     */
+    private static boolean areArgsCompatible(Object[] args, Class<?>[] paramTypes) {
+        if (args.length != paramTypes.length) return false;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            Class<?> expectedType = paramTypes[i];
+            if (arg == null) {
+                if (expectedType.isPrimitive()) return false;
+                continue;
+            }
+            if (!wrapPrimitives(expectedType).isAssignableFrom(arg.getClass())) return false;
+        }
+        return true;
+    }
+}
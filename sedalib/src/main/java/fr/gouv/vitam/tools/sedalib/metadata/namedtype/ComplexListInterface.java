@@ -40,6 +40,7 @@ package fr.gouv.vitam.tools.sedalib.metadata.namedtype;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaContext;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
 import fr.gouv.vitam.tools.sedalib.metadata.SEDAMetadata;
+import fr.gouv.vitam.tools.sedalib.metadata.SEDAMetadataFactory;
 import fr.gouv.vitam.tools.sedalib.metadata.content.Gps;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLEventReader;
@@ -48,9 +49,7 @@ import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
 import javax.xml.stream.XMLStreamException;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
@@ -224,8 +223,9 @@ public interface ComplexListInterface {
      */
     static Map<String, ComplexListMetadataKind> getMetadataMap(Class<?> complexListTypeMetadataClass)
         throws SEDALibException {
-        final Map<SedaVersion, Map<String, ComplexListMetadataKind>> metadataDefinitions =
-            ComplexListInterface.metadataDefinitions(complexListTypeMetadataClass);
+        final Map<SedaVersion, Map<String, ComplexListMetadataKind>> metadataDefinitions = SEDAMetadataFactory.forClass(
+            complexListTypeMetadataClass
+        ).getMetadataDefinitions();
 
         if (metadataDefinitions.containsKey(SedaContext.getVersion())) {
             return metadataDefinitions.get(SedaContext.getVersion());
@@ -252,9 +252,9 @@ public interface ComplexListInterface {
      * @return true, if is not expendable
      */
     static Boolean isNotExpandable(Class<?> complexListTypeMetadataClass) {
-        final Map<SedaVersion, Boolean> notExpandableFlags = ComplexListInterface.notExpandableFlags(
+        final Map<SedaVersion, Boolean> notExpandableFlags = SEDAMetadataFactory.forClass(
             complexListTypeMetadataClass
-        );
+        ).getNotExpandableFlags();
 
         if (notExpandableFlags.containsKey(SedaContext.getVersion())) {
             return notExpandableFlags.get(SedaContext.getVersion());
@@ -304,149 +304,11 @@ public interface ComplexListInterface {
      */
     String getXmlElementName();
 
-    /**
-     * Wraps primitive types in their corresponding object wrapper classes.
-     * <p>
-     * This method converts primitive type classes to their equivalent wrapper classes:
-     * If the input is not a primitive type, returns the original type unchanged.
-     *
-     * @param type the class type to wrap
-     * @return the wrapped class type for primitives, or the original type if not primitive
-     */
-    private static Class<?> wrapPrimitives(Class<?> type) {
-        if (!type.isPrimitive()) return type;
-        if (type == int.class) return (Integer.class);
-        if (type == long.class) return (Long.class);
-        if (type == double.class) return (Double.class);
-        if (type == float.class) return (Float.class);
-        if (type == boolean.class) return (Boolean.class);
-        if (type == char.class) return (Character.class);
-        if (type == byte.class) return (Byte.class);
-        if (type == short.class) return (Short.class);
-        return type;
-    }
-
-    /**
-     * Checks if the provided arguments are compatible with the expected parameter types.
-     * <p>
-     * Verifies that:
-     * <ul>
-     *   <li>The number of arguments matches the number of parameters</li>
-     *   <li>Each argument can be assigned to its corresponding parameter type</li>
-     *   <li>Handles null values and primitive type parameters appropriately</li>
-     * </ul>
-     *
-     * @param args       the actual arguments to check
-     * @param paramTypes the expected parameter types from a constructor
-     * @return true if the arguments are compatible, false otherwise
-     */
-    private static boolean areArgsCompatible(Object[] args, Class<?>[] paramTypes) {
-        if (args.length != paramTypes.length) return false;
-        for (int i = 0; i < args.length; i++) {
-            Object arg = args[i];
-            Class<?> expectedType = paramTypes[i];
-            if (arg == null) {
-                if (expectedType.isPrimitive()) return false;
-                continue;
-            }
-            if (!wrapPrimitives(expectedType).isAssignableFrom(arg.getClass())) return false;
-        }
-        return true;
-    }
-
-    /**
-     * Returns the first constructor from the given class that is compatible with the provided arguments.
-     * <p>
-     * A constructor is considered compatible if its parameter types match the runtime types of the arguments,
-     * accounting for primitive types and their wrapper classes.
-     *
-     * @param clazz the class to search for compatible constructors
-     * @param args  array of arguments to match against constructor parameters
-     * @return the first compatible constructor found, or null if no compatible constructor exists
-     */
-    private static Constructor<?> getCompatibleConstructor(Class<?> clazz, Object[] args) {
-        Constructor<?>[] constructors = clazz.getConstructors();
-        for (Constructor<?> constructor : constructors) {
-            if (areArgsCompatible(args, constructor.getParameterTypes())) return constructor;
-        }
-        return null;
-    }
-
-    /**
-     * Prepares constructor arguments by optionally adding the element name as the first argument.
-     * <p>
-     * For named types (classes in the .namedtype package), this method prepends the element name
-     * to the original arguments array. For non-named types, returns the original arguments unchanged.
-     *
-     * @param isNamedType  whether this is a named type that requires the element name
-     * @param elementName  name of the element to prepend if needed
-     * @param originalArgs array of original constructor arguments
-     * @return array of arguments with element name prepended if needed
-     */
-    private static Object[] prepareConstructorArgs(boolean isNamedType, String elementName, Object[] originalArgs) {
-        if (!isNamedType) {
-            return originalArgs;
-        }
-        Object[] prefixed = new Object[originalArgs.length + 1];
-        prefixed[0] = elementName;
-        System.arraycopy(originalArgs, 0, prefixed, 1, originalArgs.length);
-        return prefixed;
-    }
-
-    /**
-     * Constructs an instance of SEDAMetadata using a suitable constructor based on the provided arguments.
-     * <p>
-     * If the class belongs to the ".namedtype." package, the element name is prepended to the arguments.
-     * Otherwise, the arguments are used directly to match an available constructor.
-     *
-     * @param metadataClass the class of the metadata to be constructed
-     * @param elementName   the name of the metadata element
-     * @param args          the arguments for the constructor (can be empty)
-     * @return an initialized instance of SEDAMetadata
-     * @throws SEDALibException          if no suitable constructor is found or instantiation fails
-     * @throws IllegalAccessException    if access to the constructor is denied
-     * @throws InvocationTargetException if constructor invocation results in an exception
-     * @throws InstantiationException    if the metadataClass cannot be instantiated
-     */
-    private static SEDAMetadata getClassMemberConstructedFromArgs(
-        Class<?> metadataClass,
-        String elementName,
-        Object[] args
-    ) throws SEDALibException, IllegalAccessException, InvocationTargetException, InstantiationException {
-        boolean isNamedType = metadataClass.getName().contains(".namedtype.");
-        SEDAMetadata sm;
-
-        Object[] constructorArgs = prepareConstructorArgs(isNamedType, elementName, args);
-        Constructor<?> compatibleCtor = getCompatibleConstructor(metadataClass, constructorArgs);
-
-        if (compatibleCtor == null) {
-            // Try to use a constructor with a variable argument list (Object... args) pattern
-            try {
-                if (isNamedType) sm = (SEDAMetadata) metadataClass
-                    .getConstructor(String.class, Object[].class)
-                    .newInstance(elementName, args);
-                else sm = (SEDAMetadata) metadataClass
-                    .getConstructor(Object[].class)
-                    .newInstance(new Object[] { args });
-            } catch (NoSuchMethodException e) {
-                throw new SEDALibException("Pas de constructeur de l'élément [" + elementName + "]", e);
-            }
-        } else {
-            // TODO vérifier que ce cas est bien illégitime!
-            //        Type[] paramTypes = compatibleCtor.getGenericParameterTypes();
-            //        if (paramTypes.length == 1 && paramTypes[0].equals(Object[].class)) {
-            //            return (SEDAMetadata) compatibleCtor.newInstance(new Object[] { args });
-            //        }
-            return (SEDAMetadata) compatibleCtor.newInstance(constructorArgs);
-        }
-        return sm;
-    }
-
     /**
      * Constructs a new instance of SEDA metadata.
      * <p>
-     * Retrieves the metadata class from the map using the element name and dynamically instantiates the object.
-     * If the element name is not found, an {@code AnyXMLType} fallback class is used.
+     * Retrieves the metadata class from the map using the element name and instantiates the object with the
+     * constructor cached by the {@link SEDAMetadataFactory} of this class. If the element name is not found, an {@code AnyXMLType} fallback class is used.
      *
      * @param elementName the name of the metadata element to create
      * @param args        the arguments passed to the constructor of the metadata element
@@ -460,18 +322,8 @@ public interface ComplexListInterface {
             null
         );
         ComplexListMetadataKind metadataKind = metadataMap.get(elementName);
-        try {
-            Class<?> metadataClass = (metadataKind != null ? metadataKind.getMetadataClass() : AnyXMLType.class);
-            SEDAMetadata metadata = getClassMemberConstructedFromArgs(metadataClass, elementName, args);
-            if (metadata == null) throw new SEDALibException(
-                "Impossible de construire l'élément [" + elementName + "]"
-            );
-            return metadata;
-        } catch (SecurityException | InstantiationException | IllegalAccessException | IllegalArgumentException e) {
-            throw new SEDALibException("Impossible de construire l'élément [" + elementName + "]", e);
-        } catch (InvocationTargetException te) {
-            throw new SEDALibException("Impossible de construire l'élément [" + elementName + "]", te.getCause());
-        }
+        Class<?> metadataClass = (metadataKind != null ? metadataKind.getMetadataClass() : AnyXMLType.class);
+        return SEDAMetadataFactory.forClass(metadataClass).newInstance(elementName, args);
     }
 
     /**
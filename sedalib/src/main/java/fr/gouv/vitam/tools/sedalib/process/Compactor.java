@@ -363,6 +363,7 @@ public class Compactor {
                 StringType dataObjectVersion = bdo.getMetadataDataObjectVersion();
                 String radical = dataObjectVersion.getValue().split("_")[0];
                 if (subDocumentObjectVersionFilter.contains(radical)) {
+                    bdo.extractFromZipIfNeeded();
                     compactedFileURI = getExtendedCompactedFileName(
                         auURI + "-" + dataObjectVersion.getValue(),
                         bdo.getOnDiskPath()
@@ -395,6 +396,7 @@ public class Compactor {
                 StringType dataObjectVersion = bdo.getMetadataDataObjectVersion();
                 String radical = dataObjectVersion.getValue().split("_")[0];
                 if (documentObjectVersionFilter.contains(radical)) {
+                    bdo.extractFromZipIfNeeded();
                     compactedFileURI = getExtendedCompactedFileName(
                         auURI + "-" + dataObjectVersion.getValue(),
                         bdo.getOnDiskPath()
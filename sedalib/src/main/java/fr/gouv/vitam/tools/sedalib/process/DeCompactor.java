@@ -457,6 +457,7 @@ public class DeCompactor {
                 packAU.getInDataObjectPackageId() +
                 "]"
             );
+            packAU.getTheDataObjectGroup().getBinaryDataObjectList().get(0).extractFromZipIfNeeded();
             CompressUtility compressUtility = new CompressUtility(
                 packAU.getTheDataObjectGroup().getBinaryDataObjectList().get(0).getOnDiskPath(),
                 packDirPath,
@@ -0,0 +1,546 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Class TechnicalElementsCache.
+ * <p>
+ * Persistent cache of the technical elements (digest and format identification) computed for on disk files, so that
+ * re-importing an unchanged tree doesn't hash and identify again every file. An entry is keyed by the absolute path,
+ * the size and the last modification time of the file, so any change of the file makes its entry obsolete. The whole
+ * cache is bound to the DROID signatures version, and is reset when identification is done with other signatures.
+ * <p>
+ * The cache is an append-only UTF-8 text file with one tab separated entry by line, the last entry of a file
+ * prevailing. Obsolete lines are dropped by rewriting the file when it's opened. It's used by {@link fr.gouv.vitam.tools.sedalib.core.BinaryDataObject#extractTechnicalElements} only
+ * when defined as the active cache, and none is active by default.
+ */
+public class TechnicalElementsCache implements AutoCloseable {
+
+    /**
+     * The default cache file name, to be used in a work directory.
+     */
+    public static final String DEFAULT_CACHE_FILENAME = "technicalElementsCache.txt";
+
+    /**
+     * The beginning of the first line of a cache file, to recognise the format version. It's followed by a tab and
+     * the DROID signatures version.
+     */
+    private static final String HEADER = "#sedalib-technical-elements-cache-v2";
+
+    /**
+     * The number of fields in an entry line.
+     */
+    private static final int FIELDS_COUNT = 8;
+
+    /**
+     * The active cache, used by technical elements extraction, or null if none.
+     */
+    private static volatile TechnicalElementsCache activeCache;
+
+    /**
+     * The cache file path.
+     */
+    private final Path cacheFile;
+
+    /**
+     * The entries by absolute file path.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * The DROID signatures version of the entries, empty if not known yet.
+     */
+    private volatile String signaturesVersion;
+
+    /**
+     * The writer appending new entries to the cache file.
+     */
+    private BufferedWriter writer;
+
+    /**
+     * The Class Entry, technical elements of a file in a given state.
+     */
+    public static class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+        private final String digestAlgorithm;
+        private final String puid;
+        private final String mimeType;
+        private final String formatName;
+
+        /**
+         * Instantiates a new entry.
+         *
+         * @param size            the file size
+         * @param lastModified    the file last modification time in milliseconds
+         * @param digest          the digest
+         * @param digestAlgorithm the digest algorithm
+         * @param puid            the format PUID
+         * @param mimeType        the MIME type, can be null
+         * @param formatName      the format name
+         */
+        public Entry(
+            long size,
+            long lastModified,
+            String digest,
+            String digestAlgorithm,
+            String puid,
+            String mimeType,
+            String formatName
+        ) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.digestAlgorithm = digestAlgorithm;
+            this.puid = puid;
+            this.mimeType = mimeType;
+            this.formatName = formatName;
+        }
+
+        /**
+         * Gets the file size.
+         *
+         * @return the size
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the file last modification time in milliseconds.
+         *
+         * @return the last modification time
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the digest.
+         *
+         * @return the digest
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Gets the digest algorithm.
+         *
+         * @return the digest algorithm
+         */
+        public String getDigestAlgorithm() {
+            return digestAlgorithm;
+        }
+
+        /**
+         * Gets the format PUID.
+         *
+         * @return the PUID
+         */
+        public String getPuid() {
+            return puid;
+        }
+
+        /**
+         * Gets the MIME type.
+         *
+         * @return the MIME type, or null
+         */
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * Gets the format name.
+         *
+         * @return the format name
+         */
+        public String getFormatName() {
+            return formatName;
+        }
+    }
+
+    private TechnicalElementsCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        this.entries = new ConcurrentHashMap<>();
+        this.signaturesVersion = "";
+    }
+
+    /**
+     * Opens a cache file, loading all its entries, or creates it if it doesn't exist. A file in an unknown format is
+     * reset.
+     *
+     * @param cacheFile the cache file path
+     * @return the technical elements cache
+     * @throws SEDALibException if the cache file can't be read or written
+     */
+    public static TechnicalElementsCache open(Path cacheFile) throws SEDALibException {
+        TechnicalElementsCache cache = new TechnicalElementsCache(cacheFile.toAbsolutePath().normalize());
+        cache.load();
+        return cache;
+    }
+
+    /**
+     * Gets the active cache.
+     *
+     * @return the active cache, or null if none
+     */
+    public static TechnicalElementsCache getActiveCache() {
+        return activeCache;
+    }
+
+    /**
+     * Sets the active cache, used by all technical elements extractions. The previous active cache, if any and
+     * different, is closed.
+     *
+     * @param cache the cache, or null to disable caching
+     */
+    public static synchronized void setActiveCache(TechnicalElementsCache cache) {
+        TechnicalElementsCache previous = activeCache;
+        activeCache = cache;
+        if ((previous != null) && (previous != cache)) previous.close();
+    }
+
+    private void load() throws SEDALibException {
+        boolean valid = false;
+        int linesCount = 0;
+        if (Files.isRegularFile(cacheFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                String header = reader.readLine();
+                valid = (header != null) && header.startsWith(HEADER + "\t");
+                if (valid) signaturesVersion = unescape(header.substring(HEADER.length() + 1));
+                String line;
+                while (valid && ((line = reader.readLine()) != null)) {
+                    parseLine(line);
+                    linesCount++;
+                }
+            } catch (IOException e) {
+                throw new SEDALibException(
+                    "Impossible de lire le cache des éléments techniques [" + cacheFile.toString() + "]",
+                    e
+                );
+            }
+        }
+        if (!valid) {
+            entries.clear();
+            signaturesVersion = "";
+        } else if (linesCount > entries.size()) compact();
+        openWriter(!valid);
+    }
+
+    // rewrite the cache file with only the prevailing entries
+    private void compact() throws SEDALibException {
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try (BufferedWriter tmpWriter = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+                tmpWriter.write(getHeaderLine());
+                tmpWriter.newLine();
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    tmpWriter.write(getEntryLine(e.getKey(), e.getValue()));
+                    tmpWriter.newLine();
+                }
+            }
+            try {
+                Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            try {
+                if (tmpFile != null) Files.deleteIfExists(tmpFile);
+            } catch (IOException ignored) {
+                // forget it
+            }
+            throw new SEDALibException(
+                "Impossible d'écrire le cache des éléments techniques [" + cacheFile.toString() + "]",
+                e
+            );
+        }
+    }
+
+    private String getHeaderLine() {
+        return HEADER + "\t" + escape(signaturesVersion);
+    }
+
+    private static String getEntryLine(String key, Entry entry) {
+        return String.join(
+            "\t",
+            escape(key),
+            Long.toString(entry.getSize()),
+            Long.toString(entry.getLastModified()),
+            escape(entry.getDigest()),
+            escape(entry.getDigestAlgorithm()),
+            escape(entry.getPuid()),
+            escape(entry.getMimeType()),
+            escape(entry.getFormatName())
+        );
+    }
+
+    private void parseLine(String line) {
+        String[] fields = line.split("\t", -1);
+        // a truncated last line, after an interrupted write, is ignored
+        if (fields.length != FIELDS_COUNT) return;
+        try {
+            entries.put(
+                unescape(fields[0]),
+                new Entry(
+                    Long.parseLong(fields[1]),
+                    Long.parseLong(fields[2]),
+                    unescape(fields[3]),
+                    unescape(fields[4]),
+                    unescape(fields[5]),
+                    fields[6].isEmpty() ? null : unescape(fields[6]),
+                    unescape(fields[7])
+                )
+            );
+        } catch (NumberFormatException ignored) {
+            // a corrupted line is ignored
+        }
+    }
+
+    private void openWriter(boolean reset) throws SEDALibException {
+        try {
+            if (cacheFile.getParent() != null) Files.createDirectories(cacheFile.getParent());
+            if (reset) {
+                writer = Files.newBufferedWriter(
+                    cacheFile,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE
+                );
+                writer.write(getHeaderLine());
+                writer.newLine();
+                writer.flush();
+            } else writer = Files.newBufferedWriter(
+                cacheFile,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND
+            );
+        } catch (IOException e) {
+            throw new SEDALibException(
+                "Impossible d'écrire le cache des éléments techniques [" + cacheFile.toString() + "]",
+                e
+            );
+        }
+    }
+
+    private static String getKey(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Gets the cached technical elements of a file, if they were computed for the same size and last modification
+     * time.
+     *
+     * @param path         the file path
+     * @param size         the current file size
+     * @param lastModified the current file last modification time in milliseconds
+     * @return the entry, or null if none is valid for this file state
+     */
+    public Entry lookup(Path path, long size, long lastModified) {
+        Entry entry = entries.get(getKey(path));
+        if ((entry == null) || (entry.getSize() != size) || (entry.getLastModified() != lastModified)) return null;
+        return entry;
+    }
+
+    /**
+     * Stores the technical elements of a file, in memory and appended to the cache file.
+     *
+     * @param path  the file path
+     * @param entry the entry
+     * @throws SEDALibException if the cache file can't be written
+     */
+    public void store(Path path, Entry entry) throws SEDALibException {
+        String key = getKey(path);
+        entries.put(key, entry);
+        String line = getEntryLine(key, entry);
+        synchronized (this) {
+            if (writer == null) return;
+            try {
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                throw new SEDALibException(
+                    "Impossible d'écrire le cache des éléments techniques [" + cacheFile.toString() + "]",
+                    e
+                );
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cache, dropping all the entries in memory and in the cache file.
+     *
+     * @throws SEDALibException if the cache file can't be written
+     */
+    public synchronized void invalidate() throws SEDALibException {
+        closeWriter();
+        entries.clear();
+        openWriter(true);
+    }
+
+    /**
+     * Gets the DROID signatures version of the entries.
+     *
+     * @return the signatures version, empty if not known yet
+     */
+    public String getSignaturesVersion() {
+        return signaturesVersion;
+    }
+
+    /**
+     * Checks that the entries were identified with the given DROID signatures version, and if not invalidates the
+     * cache, then bound to this version.
+     *
+     * @param signaturesVersion the DROID signatures version in use
+     * @throws SEDALibException if the cache file can't be written
+     */
+    public void checkSignaturesVersion(String signaturesVersion) throws SEDALibException {
+        if (this.signaturesVersion.equals(signaturesVersion)) return;
+        synchronized (this) {
+            if (this.signaturesVersion.equals(signaturesVersion)) return;
+            closeWriter();
+            entries.clear();
+            this.signaturesVersion = signaturesVersion;
+            openWriter(true);
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the cache file path.
+     *
+     * @return the cache file path
+     */
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // nothing more can be done, the entries were flushed at each store
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Closes the cache file, the entries stay available for lookup but are no more stored.
+     */
+    @Override
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c == '\\') && (i + 1 < value.length())) {
+                char n = value.charAt(++i);
+                switch (n) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(n);
+                }
+            } else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
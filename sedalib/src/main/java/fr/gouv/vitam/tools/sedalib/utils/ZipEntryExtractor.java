@@ -0,0 +1,221 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Class ZipEntryExtractor.
+ * <p>
+ * Random access reader of a zip file, through its central directory, used to extract entries only when needed.
+ * There is one shared instance by zip file, kept open until closed.
+ */
+public class ZipEntryExtractor {
+
+    /**
+     * The shared extractors by zip file absolute path.
+     */
+    private static final Map<String, ZipEntryExtractor> EXTRACTORS = new ConcurrentHashMap<>();
+
+    /**
+     * The zip file name.
+     */
+    private final String zipFileName;
+
+    /**
+     * The zip file, opened on first use.
+     */
+    private ZipFile zipFile;
+
+    /**
+     * The locks of the extractions in progress by target path, so that different targets are extracted concurrently.
+     */
+    private final Map<Path, Object> targetLocks = new ConcurrentHashMap<>();
+
+    private ZipEntryExtractor(String zipFileName) {
+        this.zipFileName = zipFileName;
+    }
+
+    /**
+     * Gets the shared extractor of a zip file.
+     *
+     * @param zipFileName the zip file name
+     * @return the zip entry extractor
+     */
+    public static ZipEntryExtractor getInstance(String zipFileName) {
+        return EXTRACTORS.computeIfAbsent(
+            Paths.get(zipFileName).toAbsolutePath().normalize().toString(),
+            ZipEntryExtractor::new
+        );
+    }
+
+    /**
+     * Close the shared extractor of a zip file, if any.
+     *
+     * @param zipFileName the zip file name
+     */
+    public static void close(String zipFileName) {
+        ZipEntryExtractor extractor = EXTRACTORS.remove(Paths.get(zipFileName).toAbsolutePath().normalize().toString());
+        if (extractor != null) extractor.closeZipFile();
+    }
+
+    private synchronized ZipFile getZipFile() throws SEDALibException {
+        if (zipFile == null) {
+            try {
+                zipFile = ZipFile.builder().setFile(zipFileName).get();
+            } catch (IOException e) {
+                throw new SEDALibException("Impossible d'ouvrir le fichier zip [" + zipFileName + "]", e);
+            }
+        }
+        return zipFile;
+    }
+
+    private synchronized void closeZipFile() {
+        if (zipFile != null) {
+            try {
+                zipFile.close();
+            } catch (IOException ignored) {
+                // ignored
+            }
+            zipFile = null;
+        }
+    }
+
+    /**
+     * Gets the names of the file entries, directories excluded, in the zip file order.
+     *
+     * @return the entry names list
+     * @throws SEDALibException if the zip file can't be opened
+     */
+    public List<String> getFileEntryNames() throws SEDALibException {
+        List<String> result = new ArrayList<>();
+        Enumeration<ZipArchiveEntry> entries = getZipFile().getEntriesInPhysicalOrder();
+        while (entries.hasMoreElements()) {
+            ZipArchiveEntry entry = entries.nextElement();
+            if (!entry.isDirectory()) result.add(entry.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Gets an input stream on an entry content, read directly in the zip file.
+     *
+     * @param entryName the entry name
+     * @return the input stream
+     * @throws SEDALibException if the zip file can't be opened or the entry doesn't exist
+     */
+    public InputStream getInputStream(String entryName) throws SEDALibException {
+        ZipFile zf = getZipFile();
+        ZipArchiveEntry entry = zf.getEntry(entryName);
+        if (entry == null) throw new SEDALibException(
+            "Pas d'entrée [" + entryName + "] dans le fichier zip [" + zipFileName + "]"
+        );
+        try {
+            return zf.getInputStream(entry);
+        } catch (IOException e) {
+            throw new SEDALibException(
+                "Impossible de lire l'entrée [" + entryName + "] du fichier zip [" + zipFileName + "]",
+                e
+            );
+        }
+    }
+
+    /**
+     * Extract an entry in a file, replacing any existing one.
+     * <p>
+     * The entry is first extracted in a temporary file next to the target, then moved, so that the target is never
+     * seen partially written. Extractions of different targets run concurrently.
+     *
+     * @param entryName the entry name
+     * @param target    the target file path
+     * @throws SEDALibException if the entry can't be read or the target can't be written
+     */
+    public void extract(String entryName, Path target) throws SEDALibException {
+        Object lock = targetLocks.computeIfAbsent(target, k -> new Object());
+        try {
+            synchronized (lock) {
+                doExtract(entryName, target);
+            }
+        } finally {
+            targetLocks.remove(target, lock);
+        }
+    }
+
+    private void doExtract(String entryName, Path target) throws SEDALibException {
+        Path tmpTarget = null;
+        try (InputStream is = getInputStream(entryName)) {
+            Files.createDirectories(target.getParent());
+            tmpTarget = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            Files.copy(is, tmpTarget, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpTarget, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmpTarget = null;
+        } catch (IOException e) {
+            throw new SEDALibException(
+                "Impossible d'extraire l'entrée [" +
+                entryName +
+                "] du fichier zip [" +
+                zipFileName +
+                "] en [" +
+                target +
+                "]",
+                e
+            );
+        } finally {
+            if (tmpTarget != null) {
+                try {
+                    Files.deleteIfExists(tmpTarget);
+                } catch (IOException ignored) {
+                    // ignored
+                }
+            }
+        }
+    }
+}
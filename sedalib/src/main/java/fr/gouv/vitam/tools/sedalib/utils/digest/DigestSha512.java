@@ -85,7 +85,29 @@ public class DigestSha512 {
         return compute(path, null);
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    /**
+     * compute SHA-512 digest for a content already in memory.
+     *
+     * @param content the content
+     * @return the hex string of the digest
+     * @throws SEDALibException if an error occurs
+     */
+    public static String compute(byte[] content) throws SEDALibException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(SHA512_ALGORITHM);
+            return bytesToHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new SEDALibException("Impossible de mobiliser l'algorithme de hashage " + SHA512_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Convert a digest to its lowercase hex string form.
+     *
+     * @param bytes the digest bytes
+     * @return the hex string
+     */
+    public static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder(bytes.length * 2);
         for (byte b : bytes) {
             sb.append(String.format("%02x", b));
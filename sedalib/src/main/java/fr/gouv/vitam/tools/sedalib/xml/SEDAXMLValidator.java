@@ -38,6 +38,7 @@
 package fr.gouv.vitam.tools.sedalib.xml;
 
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaContext;
+import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import org.apache.xerces.util.XMLCatalogResolver;
 import org.xml.sax.SAXException;
@@ -53,14 +54,58 @@ import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class SEDAXMLValidator {
 
+    /**
+     * The manifest writer, used to validate a manifest while it is generated.
+     */
+    @FunctionalInterface
+    public interface ManifestWriter {
+        /**
+         * Write the XML manifest in the output stream, which must not be closed.
+         *
+         * @param os the output stream
+         * @throws SEDALibException     if writing has failed
+         * @throws InterruptedException if writing process is interrupted
+         */
+        void writeTo(OutputStream os) throws SEDALibException, InterruptedException;
+    }
+
+    /**
+     * The size of the pipe between the manifest writer and the validator.
+     */
+    private static final int PIPE_SIZE = 1024 * 1024;
+
+    /**
+     * The number of last read lines kept to contextualize validation errors in streaming validation.
+     */
+    private static final int CONTEXT_LINES = 4096;
+
+    /**
+     * The maximum length of a line kept to contextualize validation errors in streaming validation.
+     */
+    private static final int CONTEXT_LINE_MAX_LENGTH = 1024;
+
     private static final String SEDA_VITAM_VALIDATION_RESOURCE_2_1 = "seda2_1/seda-vitam-2.1-main.xsd";
     private static final String SEDA_VITAM_VALIDATION_RESOURCE_2_2 = "seda2_2/seda-vitam-2.2-main.xsd";
     private static final String SEDA_VITAM_VALIDATION_RESOURCE_2_3 = "seda2_3/seda-2.3-main.xsd";
@@ -69,26 +114,124 @@ public class SEDAXMLValidator {
     private static final String RNG_FACTORY = "com.thaiopensource.relaxng.jaxp.XMLSyntaxSchemaFactory";
     private static final String RNG_PROPERTY_KEY = "javax.xml.validation.SchemaFactory:" + XMLConstants.RELAXNG_NS_URI;
 
-    public static Schema getSEDASchema() throws SEDALibException {
-        switch (SedaContext.getVersion()) {
+    /**
+     * The process wide cache of compiled schemas, by resource URL or by profile file path. Compiled schemas are
+     * immutable and thread safe, only validators have to be created for each validation.
+     */
+    private static final Map<String, CachedSchema> SCHEMA_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * A compiled schema, or its compilation in progress, and the last modification time of its file.
+     */
+    private static class CachedSchema {
+
+        private final long lastModified;
+        private final FutureTask<Schema> compilation;
+
+        CachedSchema(long lastModified, Callable<Schema> compiler) {
+            this.lastModified = lastModified;
+            this.compilation = new FutureTask<>(compiler);
+        }
+    }
+
+    private static URL getSEDASchemaResource(SedaVersion sedaVersion) throws SEDALibException {
+        switch (sedaVersion) {
             case V2_1:
-                return getSchemaFromXSDResource(
-                    SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_1)
-                );
+                return SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_1);
             case V2_2:
-                return getSchemaFromXSDResource(
-                    SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_2)
-                );
+                return SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_2);
             case V2_3:
-                return getSchemaFromXSDResource(
-                    SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_3)
-                );
+                return SEDAXMLValidator.class.getClassLoader().getResource(SEDA_VITAM_VALIDATION_RESOURCE_2_3);
             default:
-                throw new SEDALibException("Version [" + SedaContext.getVersion() + "] sans schéma", null);
+                throw new SEDALibException("Version [" + sedaVersion + "] sans schéma", null);
+        }
+    }
+
+    /**
+     * Gets the compiled schema of the current SEDA version, compiled only once by process.
+     *
+     * @return the SEDA schema
+     * @throws SEDALibException the seda lib exception
+     */
+    public static Schema getSEDASchema() throws SEDALibException {
+        return getSchemaFromXSDResource(getSEDASchemaResource(SedaContext.getVersion()));
+    }
+
+    /**
+     * Compile in background the schemas of all the SEDA versions, beginning with the current one, so that they are
+     * ready when first validations are done. Compilation failures are ignored and will be raised on use.
+     */
+    public static void warmUpSEDASchemaCache() {
+        Thread warmUpThread = new Thread(
+            () -> {
+                List<SedaVersion> sedaVersions = new ArrayList<>(Arrays.asList(SedaVersion.values()));
+                SedaVersion currentVersion = SedaContext.getVersion();
+                if (currentVersion != null) {
+                    sedaVersions.remove(currentVersion);
+                    sedaVersions.add(0, currentVersion);
+                }
+                for (SedaVersion sedaVersion : sedaVersions) {
+                    try {
+                        getSchemaFromXSDResource(getSEDASchemaResource(sedaVersion));
+                    } catch (SEDALibException ignored) {
+                        // no schema for this version or raised again on use
+                    }
+                }
+            },
+            "SEDAXMLValidator-warmup"
+        );
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    /**
+     * Clear the compiled schemas cache.
+     */
+    public static void clearSchemaCache() {
+        SCHEMA_CACHE.clear();
+    }
+
+    private static Schema getCachedSchema(String key, long lastModified, Callable<Schema> compiler)
+        throws SEDALibException {
+        CachedSchema cachedSchema = SCHEMA_CACHE.compute(key, (k, c) ->
+            ((c == null) || (c.lastModified != lastModified) ? new CachedSchema(lastModified, compiler) : c)
+        );
+        // compile in this thread if not already done or in progress in another one
+        cachedSchema.compilation.run();
+        try {
+            return cachedSchema.compilation.get();
+        } catch (ExecutionException e) {
+            // compilation failures are not cached
+            SCHEMA_CACHE.remove(key, cachedSchema);
+            if (e.getCause() instanceof SEDALibException) throw (SEDALibException) e.getCause();
+            throw new SEDALibException("Impossible de charger le schéma " + key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SEDALibException("Chargement du schéma " + key + " interrompu", e);
         }
     }
 
+    private static long getLastModified(String fileName) {
+        return new File(fileName).lastModified();
+    }
+
+    private static String getPathKey(String fileName) {
+        return new File(fileName).getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    /**
+     * Gets schema from xsd resource, compiled only once by process.
+     *
+     * @param xsdResource the xsd resource
+     * @return the schema from xsd resource
+     * @throws SEDALibException the seda lib exception
+     */
     public static Schema getSchemaFromXSDResource(URL xsdResource) throws SEDALibException {
+        if (xsdResource == null) throw new SEDALibException("Ressource de schéma introuvable", null);
+        return getCachedSchema(xsdResource.toString(), 0, () -> compileSchemaFromXSDResource(xsdResource));
+    }
+
+    private static Schema compileSchemaFromXSDResource(URL xsdResource) throws SEDALibException {
         // Was XMLConstants.W3C_XML_SCHEMA_NS_URI
         try {
             SchemaFactory factory = SchemaFactory.newInstance(HTTP_WWW_W3_ORG_XML_XML_SCHEMA_V1_1);
@@ -103,18 +246,26 @@ public class SEDAXMLValidator {
     }
 
     /**
-     * Gets schema from xsd file.
+     * Gets schema from xsd file, compiled only once by process as long as the file is not modified.
      *
      * @param xsdFile the xsd file
      * @return the schema from xsd file
      * @throws SEDALibException the seda lib exception
      */
     public Schema getSchemaFromXSDFile(String xsdFile) throws SEDALibException {
+        return getCachedSchema(
+            "xsd:" + getPathKey(xsdFile),
+            getLastModified(xsdFile),
+            () -> compileSchemaFromXSDFile(xsdFile)
+        );
+    }
+
+    private static Schema compileSchemaFromXSDFile(String xsdFile) throws SEDALibException {
         try {
             SchemaFactory factory = SchemaFactory.newInstance(HTTP_WWW_W3_ORG_XML_XML_SCHEMA_V1_1);
 
             // Load catalog to resolve external schemas even offline.
-            final URL catalogUrl = getClass().getClassLoader().getResource(CATALOG_FILENAME);
+            final URL catalogUrl = SEDAXMLValidator.class.getClassLoader().getResource(CATALOG_FILENAME);
             factory.setResourceResolver(new XMLCatalogResolver(new String[] { catalogUrl.toString() }, false));
 
             return factory.newSchema(new File(xsdFile));
@@ -124,18 +275,26 @@ public class SEDAXMLValidator {
     }
 
     /**
-     * Gets schema from rng file.
+     * Gets schema from rng file, compiled only once by process as long as the file is not modified.
      *
      * @param rngFile the rng file
      * @return the schema from rng file
      * @throws SEDALibException the seda lib exception
      */
     public Schema getSchemaFromRNGFile(String rngFile) throws SEDALibException {
+        return getCachedSchema(
+            "rng:" + getPathKey(rngFile),
+            getLastModified(rngFile),
+            () -> compileSchemaFromRNGFile(rngFile)
+        );
+    }
+
+    private static Schema compileSchemaFromRNGFile(String rngFile) throws SEDALibException {
         System.setProperty(RNG_PROPERTY_KEY, RNG_FACTORY);
         try {
             SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.RELAXNG_NS_URI);
             // Load catalog to resolve external schemas even offline.
-            final URL catalogUrl = getClass().getClassLoader().getResource(CATALOG_FILENAME);
+            final URL catalogUrl = SEDAXMLValidator.class.getClassLoader().getResource(CATALOG_FILENAME);
             factory.setResourceResolver(new XMLCatalogResolver(new String[] { catalogUrl.toString() }, false));
 
             return factory.newSchema(new File(rngFile));
@@ -146,7 +305,7 @@ public class SEDAXMLValidator {
 
     private String getContextualErrorMessage(String manifest, SAXParseException e) {
         int i = 0;
-        String line = "", inArchiveUnit = "", result;
+        String line = "", inArchiveUnit = "";
 
         Scanner scanner = new Scanner(manifest);
         while (scanner.hasNextLine() && (i < e.getLineNumber())) {
@@ -154,21 +313,26 @@ public class SEDAXMLValidator {
             if (line.trim().startsWith("<ArchiveUnit ")) inArchiveUnit = line.trim();
             i++;
         }
-        result = "Contexte de l'erreur: " +
-        (inArchiveUnit.isEmpty() ? "hors AU" : inArchiveUnit) +
-        "\n" +
-        "position de l'erreur identifiée: ligne " +
-        e.getLineNumber() +
-        ", colonne " +
-        e.getColumnNumber() +
-        "\n" +
-        "ligne: " +
-        line +
-        "\n" +
-        "erreur brute: " +
-        e.getMessage();
         scanner.close();
-        return result;
+        return getContextualErrorMessage(inArchiveUnit, line, e);
+    }
+
+    private String getContextualErrorMessage(String inArchiveUnit, String line, SAXParseException e) {
+        return (
+            "Contexte de l'erreur: " +
+            (inArchiveUnit.isEmpty() ? "hors AU" : inArchiveUnit) +
+            "\n" +
+            "position de l'erreur identifiée: ligne " +
+            e.getLineNumber() +
+            ", colonne " +
+            e.getColumnNumber() +
+            "\n" +
+            "ligne: " +
+            line +
+            "\n" +
+            "erreur brute: " +
+            e.getMessage()
+        );
     }
 
     /**
@@ -230,4 +394,242 @@ public class SEDAXMLValidator {
             throw new SEDALibException("Erreur d'accès au flux XML", e);
         }
     }
+
+    /**
+     * Check with xsd schema the XML manifest while it is written.
+     * <p>
+     * The manifest writer, run in the calling thread, is piped to the validator, run in a dedicated thread, so that
+     * the manifest is never held in memory and its validation overlaps its generation.
+     *
+     * @param manifestWriter the XML manifest writer
+     * @param xmlSchema      the xml schema
+     * @return true if validated
+     * @throws SEDALibException     the seda lib exception
+     * @throws InterruptedException if writing process is interrupted
+     */
+    public boolean checkWithXSDSchema(ManifestWriter manifestWriter, Schema xmlSchema)
+        throws SEDALibException, InterruptedException {
+        return checkWhileWriting(manifestWriter, xmlSchema, false);
+    }
+
+    /**
+     * Check with rng schema the XML manifest while it is written.
+     * <p>
+     * The manifest writer, run in the calling thread, is piped to the validator, run in a dedicated thread, so that
+     * the manifest is never held in memory and its validation overlaps its generation.
+     *
+     * @param manifestWriter the XML manifest writer
+     * @param rngSchema      the rng schema
+     * @return true if validated
+     * @throws SEDALibException     the seda lib exception
+     * @throws InterruptedException if writing process is interrupted
+     */
+    public boolean checkWithRNGSchema(ManifestWriter manifestWriter, Schema rngSchema)
+        throws SEDALibException, InterruptedException {
+        return checkWhileWriting(manifestWriter, rngSchema, true);
+    }
+
+    private boolean checkWhileWriting(ManifestWriter manifestWriter, Schema schema, boolean isRNG)
+        throws SEDALibException, InterruptedException {
+        PipedInputStream pis = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream pos;
+        try {
+            pos = new PipedOutputStream(pis);
+        } catch (IOException e) {
+            throw new SEDALibException("Erreur d'accès au flux XML", e);
+        }
+        ContextTrackingInputStream ctis = new ContextTrackingInputStream(pis);
+        StreamValidation streamValidation = new StreamValidation(ctis, schema, isRNG);
+        Thread validationThread = new Thread(streamValidation, "SEDAXMLValidator");
+        validationThread.setDaemon(true);
+        validationThread.start();
+
+        SEDALibException writingException = null;
+        boolean writingFailedFirst = false;
+        try {
+            manifestWriter.writeTo(pos);
+        } catch (SEDALibException e) {
+            // when the validation has already closed the pipe, the writing failure is only its consequence
+            writingException = e;
+            writingFailedFirst = !ctis.closed;
+        } finally {
+            try {
+                pos.close();
+            } catch (IOException ignored) {
+                // ignored
+            }
+        }
+        validationThread.join();
+
+        if (writingFailedFirst) throw writingException;
+        if (streamValidation.exception != null) throw streamValidation.exception;
+        if (writingException != null) throw writingException;
+        return true;
+    }
+
+    private void validate(ContextTrackingInputStream is, Schema schema, boolean isRNG) throws SEDALibException {
+        XMLStreamReader xmlStreamReader = null;
+        try {
+            final Validator validator = schema.newValidator();
+            if (isRNG) validator.validate(new StreamSource(is));
+            else {
+                XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+                xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+                xmlStreamReader = xmlInputFactory.createXMLStreamReader(is, "UTF-8");
+                validator.validate(new StAXSource(xmlStreamReader));
+            }
+        } catch (IOException e) {
+            throw new SEDALibException("Erreur d'accès au flux XML", e);
+        } catch (XMLStreamException e) {
+            throw new SEDALibException("Impossible d'ouvrir le flux XML", e);
+        } catch (SAXParseException e) {
+            throw new SEDALibException(
+                "Le flux XML n'est pas conforme\n-> " +
+                getContextualErrorMessage(is.getArchiveUnitLine(e.getLineNumber()), is.getLine(e.getLineNumber()), e)
+            );
+        } catch (SAXException e) {
+            throw new SEDALibException("Le flux XML n'est pas conforme", e);
+        } finally {
+            if (xmlStreamReader != null) {
+                try {
+                    xmlStreamReader.close();
+                } catch (XMLStreamException ignored) {
+                    // ignored
+                }
+            }
+        }
+    }
+
+    /**
+     * The validation of a piped manifest, run in a dedicated thread.
+     */
+    private class StreamValidation implements Runnable {
+
+        /**
+         * The piped manifest input stream.
+         */
+        private final ContextTrackingInputStream is;
+
+        /**
+         * The schema.
+         */
+        private final Schema schema;
+
+        /**
+         * The RNG schema flag.
+         */
+        private final boolean isRNG;
+
+        /**
+         * The validation exception, or null if validated.
+         */
+        private SEDALibException exception;
+
+        StreamValidation(ContextTrackingInputStream is, Schema schema, boolean isRNG) {
+            this.is = is;
+            this.schema = schema;
+            this.isRNG = isRNG;
+        }
+
+        @Override
+        public void run() {
+            try {
+                validate(is, schema, isRNG);
+            } catch (SEDALibException e) {
+                exception = e;
+            } finally {
+                // unblock the writer if validation stopped before the end of the manifest
+                try {
+                    is.close();
+                } catch (IOException ignored) {
+                    // ignored
+                }
+            }
+        }
+    }
+
+    /**
+     * Input stream keeping the last read lines, and the last ArchiveUnit opening line before each of them, to
+     * contextualize validation errors without keeping the whole manifest.
+     */
+    private static class ContextTrackingInputStream extends FilterInputStream {
+
+        private final long[] lineNumbers;
+        private final String[] lines;
+        private final String[] archiveUnitLines;
+        private final ByteArrayOutputStream currentLine;
+        private long currentLineNumber;
+        private String archiveUnitLine;
+        private volatile boolean closed;
+
+        ContextTrackingInputStream(InputStream in) {
+            super(in);
+            this.lineNumbers = new long[CONTEXT_LINES];
+            this.lines = new String[CONTEXT_LINES];
+            this.archiveUnitLines = new String[CONTEXT_LINES];
+            this.currentLine = new ByteArrayOutputStream();
+            this.currentLineNumber = 1;
+            this.archiveUnitLine = "";
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) track((byte) b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            for (int i = 0; i < count; i++) track(b[off + i]);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int count = read(buffer, 0, buffer.length);
+            return Math.max(count, 0);
+        }
+
+        private void track(byte b) {
+            if (b == '\n') {
+                String line = getCurrentLine();
+                int index = (int) (currentLineNumber % CONTEXT_LINES);
+                lineNumbers[index] = currentLineNumber;
+                lines[index] = line;
+                archiveUnitLines[index] = archiveUnitLine;
+                currentLine.reset();
+                currentLineNumber++;
+            } else if (currentLine.size() < CONTEXT_LINE_MAX_LENGTH) currentLine.write(b);
+        }
+
+        private String getCurrentLine() {
+            String line = currentLine.toString(StandardCharsets.UTF_8);
+            if (line.trim().startsWith("<ArchiveUnit ")) archiveUnitLine = line.trim();
+            return line;
+        }
+
+        String getLine(int lineNumber) {
+            if (lineNumber == currentLineNumber) return getCurrentLine();
+            int index = lineNumber % CONTEXT_LINES;
+            return (lineNumbers[index] == lineNumber ? lines[index] : "");
+        }
+
+        String getArchiveUnitLine(int lineNumber) {
+            if (lineNumber == currentLineNumber) {
+                getCurrentLine();
+                return archiveUnitLine;
+            }
+            int index = lineNumber % CONTEXT_LINES;
+            return (lineNumbers[index] == lineNumber ? archiveUnitLines[index] : "");
+        }
+    }
 }
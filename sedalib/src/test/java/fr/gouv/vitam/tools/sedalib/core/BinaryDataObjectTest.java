@@ -46,19 +46,28 @@ import fr.gouv.vitam.tools.sedalib.core.json.DataObjectPackageDeserializer;
 import fr.gouv.vitam.tools.sedalib.core.json.DataObjectPackageSerializer;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaContext;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
+import fr.gouv.vitam.tools.sedalib.droid.DroidIdentifier;
 import fr.gouv.vitam.tools.sedalib.inout.importer.SIPToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.metadata.content.PersistentIdentifier;
 import fr.gouv.vitam.tools.sedalib.metadata.namedtype.IntegerType;
 import fr.gouv.vitam.tools.sedalib.metadata.namedtype.StringType;
 import fr.gouv.vitam.tools.sedalib.utils.ResourceUtils;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
+import fr.gouv.vitam.tools.sedalib.utils.digest.DigestSha512;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import uk.gov.nationalarchives.droid.core.interfaces.IdentificationResult;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -309,4 +318,64 @@ class BinaryDataObjectTest {
         );
         SedaContext.setVersion(SedaVersion.V2_1);
     }
+
+    // create a pdf file bigger than the single read threshold, padded by a comment after the header line
+    private static Path createBigPdf(Path pdf, Path bigPdf) throws IOException {
+        byte[] content = Files.readAllBytes(pdf);
+        int headerEnd = 0;
+        while (content[headerEnd] != '\n') headerEnd++;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(content, 0, headerEnd + 1);
+        baos.write('%');
+        byte[] padding = new byte[5 * 1024 * 1024];
+        Arrays.fill(padding, (byte) 'a');
+        baos.write(padding);
+        baos.write("\n".getBytes(StandardCharsets.US_ASCII));
+        baos.write(content, headerEnd + 1, content.length - headerEnd - 1);
+        Files.createDirectories(bigPdf.getParent());
+        Files.write(bigPdf, baos.toByteArray());
+        return bigPdf;
+    }
+
+    @Test
+    void testSingleReadTechnicalElementsMatchPathBasedOnes() throws SEDALibException, IOException {
+        // Given files below the single read threshold, binary and container formats, and one above
+        Path bigPdf = createBigPdf(
+            Paths.get("src/test/resources/Procedure/Dossiers/ID10087-16-09-06-réponse.pdf"),
+            Paths.get("target/tmpJunit/BinaryDataObjectTest/big.pdf")
+        );
+        Path[] files = new Path[] {
+            Paths.get("src/test/resources/Procedure/Dossiers/ID10087-16-09-06-réponse.pdf"),
+            Paths.get("src/test/resources/Procedure/Contexte/cerfa_1244771-01-Cyborg-Main.doc"),
+            Paths.get("src/test/resources/Procedure/Dossiers/ID10008-19-08-04-Cerfa1244771.odt"),
+            Paths.get(
+                "src/test/resources/Procedure/Contexte/Arrêté_du_30_février_2104_version_consolidee_au_21181006.docx"
+            ),
+            bigPdf,
+        };
+        assertThat(Files.size(bigPdf)).isGreaterThan(4L * 1024 * 1024);
+
+        for (Path file : files) {
+            // When
+            byte[] content = Files.readAllBytes(file);
+            DroidIdentifier droidIdentifier = DroidIdentifier.getInstance();
+            IdentificationResult singleReadResult = droidIdentifier.getIdentificationResult(file, content);
+            IdentificationResult pathResult = droidIdentifier.getIdentificationResult(file);
+            BinaryDataObject bdo = new BinaryDataObject(null, file, null, null);
+            bdo.extractTechnicalElements(null);
+
+            // Then
+            assertThat(pathResult).as(file.toString()).isNotNull();
+            assertThat(singleReadResult.getPuid()).as(file.toString()).isEqualTo(pathResult.getPuid());
+            assertThat(singleReadResult.getName()).as(file.toString()).isEqualTo(pathResult.getName());
+            assertThat(singleReadResult.getMimeType()).as(file.toString()).isEqualTo(pathResult.getMimeType());
+            assertThat(DigestSha512.compute(content)).as(file.toString()).isEqualTo(DigestSha512.compute(file));
+            assertThat(bdo.getMetadataFormatIdentification().getSimpleMetadata("FormatId"))
+                .as(file.toString())
+                .isEqualTo(pathResult.getPuid());
+            assertThat(bdo.getMetadataMessageDigest().getValue()).as(file.toString()).isEqualTo(
+                DigestSha512.compute(file)
+            );
+        }
+    }
 }
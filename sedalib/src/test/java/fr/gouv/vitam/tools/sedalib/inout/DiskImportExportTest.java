@@ -236,6 +236,35 @@ class DiskImportExportTest implements UseTestFiles {
         assertThat(sau).isEqualToNormalizingNewlines(testau);
     }
 
+    @Test
+    void TestDiskImportWithParallelTechnicalElements() throws Exception {
+        // do sequential and parallel imports of test directory
+        DiskToArchiveTransferImporter sequential = new DiskToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SampleWithoutLinksModelV1",
+            null
+        );
+        sequential.doImport();
+        DiskToArchiveTransferImporter parallel = new DiskToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SampleWithoutLinksModelV1",
+            null
+        );
+        parallel.setTechnicalElementsParallelism(4);
+        parallel.doImport();
+
+        // create jackson object mapper
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(DataObjectPackage.class, new DataObjectPackageSerializer());
+        mapper.registerModule(module);
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+
+        // assert same technical elements
+        assertEquals(
+            mapper.writeValueAsString(sequential.getArchiveTransfer().getDataObjectPackage()),
+            mapper.writeValueAsString(parallel.getArchiveTransfer().getDataObjectPackage())
+        );
+    }
+
     @Test
     void TestDiskImportWithLink() throws Exception {
         // do import of test directory
@@ -45,11 +45,13 @@ import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
 import fr.gouv.vitam.tools.sedalib.core.GlobalMetadata;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaContext;
 import fr.gouv.vitam.tools.sedalib.core.seda.SedaVersion;
+import fr.gouv.vitam.tools.sedalib.inout.exporter.ArchiveTransferToSIPExporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.SIPToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.metadata.namedtype.StringType;
 import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLStreamWriter;
+import fr.gouv.vitam.tools.sedalib.xml.SEDAXMLValidator;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -57,6 +59,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -237,9 +241,9 @@ class SEDAValidationTest implements UseTestFiles {
         au.setContentXmlData("");
 
         // validation
-        assertThatThrownBy(() -> di.getArchiveTransfer().sedaSchemaValidate(null)).hasMessageContaining(
-            "The content of element 'ArchiveUnit' is not complete"
-        );
+        assertThatThrownBy(() -> di.getArchiveTransfer().sedaSchemaValidate(null))
+            .hasMessageContaining("The content of element 'ArchiveUnit' is not complete")
+            .hasMessageContaining("Contexte de l'erreur: <ArchiveUnit id=\"ID38\"");
     }
 
     @Test
@@ -275,5 +279,44 @@ class SEDAValidationTest implements UseTestFiles {
             () -> si.getArchiveTransfer().sedaProfileValidate("src/test/resources/PacketSamples/profile.rng", null)
         ).hasMessageContaining("\"Title\" invalid; must be equal to \"Versement de la matrice cadastrale numérique\"");
     }
+
+    @Test
+    void testSedaRNGProfileValidationWhileExportingManifest()
+        throws IllegalArgumentException, SEDALibException, InterruptedException {
+        // given
+        TestUtilities.eraseAll("target/tmpJunit/OK_468.zip-tmpdir");
+        TestUtilities.eraseAll("target/tmpJunit/KO_468.zip-tmpdir");
+        SIPToArchiveTransferImporter siOK = new SIPToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/OK_468.zip",
+            "target/tmpJunit/OK_468.zip-tmpdir",
+            null
+        );
+        siOK.doImport();
+        SIPToArchiveTransferImporter siKO = new SIPToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/KO_468.zip",
+            "target/tmpJunit/KO_468.zip-tmpdir",
+            null
+        );
+        siKO.doImport();
+        SEDAXMLValidator sedaXMLValidator = new SEDAXMLValidator();
+
+        // when
+        ArchiveTransferToSIPExporter manifestOK = new ArchiveTransferToSIPExporter(siOK.getArchiveTransfer(), null);
+        manifestOK.setValidationSchema(
+            sedaXMLValidator.getSchemaFromRNGFile("src/test/resources/PacketSamples/profile.rng"),
+            true
+        );
+        manifestOK.doExportToSEDAXMLManifest("target/tmpJunit/OK_468-manifest.xml", true, true);
+        ArchiveTransferToSIPExporter manifestKO = new ArchiveTransferToSIPExporter(siKO.getArchiveTransfer(), null);
+        manifestKO.setValidationSchema(
+            sedaXMLValidator.getSchemaFromRNGFile("src/test/resources/PacketSamples/profile.rng"),
+            true
+        );
+
+        // then
+        assertThat(Files.exists(Paths.get("target/tmpJunit/OK_468-manifest.xml"))).isTrue();
+        assertThatThrownBy(() -> manifestKO.doExportToSEDAXMLManifest("target/tmpJunit/KO_468-manifest.xml", true, true))
+            .hasStackTraceContaining("\"Title\" invalid; must be equal to \"Versement de la matrice cadastrale numérique\"");
+    }
     // TODO testWithXSD
 }
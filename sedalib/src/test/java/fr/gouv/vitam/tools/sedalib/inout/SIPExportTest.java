@@ -0,0 +1,243 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.inout;
+
+import fr.gouv.vitam.tools.sedalib.SedaContextExtension;
+import fr.gouv.vitam.tools.sedalib.UseTestFiles;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectGroup;
+import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
+import fr.gouv.vitam.tools.sedalib.core.GlobalMetadata;
+import fr.gouv.vitam.tools.sedalib.inout.exporter.ArchiveTransferToSIPExporter;
+import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
+import fr.gouv.vitam.tools.sedalib.utils.SEDALibProgressLogger;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SedaContextExtension.class)
+class SIPExportTest implements UseTestFiles {
+
+    @Test
+    void TestSIPExportWithZipParallelism() throws Exception {
+        // do import of test directory
+        DiskToArchiveTransferImporter di = new DiskToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SampleWithoutLinksModelV1",
+            null
+        );
+        di.doImport();
+        di.getArchiveTransfer().setGlobalMetadata(new GlobalMetadata());
+        di.getArchiveTransfer().getGlobalMetadata().date = "2018-09-30T14:33:24";
+        di.getArchiveTransfer().getGlobalMetadata().setNowFlag(false);
+
+        // do sequential and parallel SIP exports
+        ArchiveTransferToSIPExporter sequential = new ArchiveTransferToSIPExporter(di.getArchiveTransfer(), null);
+        sequential.doExportToSEDASIP("target/tmpJunit/SequentialSIP.zip", true, false);
+        ArchiveTransferToSIPExporter parallel = new ArchiveTransferToSIPExporter(di.getArchiveTransfer(), null);
+        parallel.setZipParallelism(4);
+        parallel.doExportToSEDASIP("target/tmpJunit/ParallelSIP.zip", true, false);
+
+        // assert same entries content, and already compressed formats stored
+        try (
+            ZipFile sequentialZip = new ZipFile("target/tmpJunit/SequentialSIP.zip");
+            ZipFile parallelZip = new ZipFile("target/tmpJunit/ParallelSIP.zip")
+        ) {
+            assertEquals(sequentialZip.size(), parallelZip.size());
+            assertEquals("manifest.xml", parallelZip.entries().nextElement().getName());
+            for (ZipEntry e : Collections.list(sequentialZip.entries())) {
+                ZipEntry pe = parallelZip.getEntry(e.getName());
+                assertNotNull(pe);
+                try (
+                    InputStream is = sequentialZip.getInputStream(e);
+                    InputStream pis = parallelZip.getInputStream(pe)
+                ) {
+                    assertTrue(IOUtils.contentEquals(is, pis));
+                }
+            }
+        }
+        int storedCount = 0;
+        try (ZipFile parallelZip = new ZipFile("target/tmpJunit/ParallelSIP.zip")) {
+            for (ZipEntry e : Collections.list(parallelZip.entries())) {
+                if (e.getMethod() == ZipEntry.STORED) storedCount++;
+            }
+        }
+        assertTrue(storedCount > 0);
+
+        // assert parallel SIP readable as a stream, as done in SIP import
+        int streamedCount = 0;
+        try (
+            ZipArchiveInputStream zais = new ZipArchiveInputStream(
+                new FileInputStream("target/tmpJunit/ParallelSIP.zip")
+            )
+        ) {
+            while (zais.getNextEntry() != null) {
+                IOUtils.consume(zais);
+                streamedCount++;
+            }
+        }
+        assertEquals(
+            di.getArchiveTransfer().getDataObjectPackage().getBdoInDataObjectPackageIdMap().size() + 1,
+            streamedCount
+        );
+    }
+
+    @Test
+    void TestSIPExportWithZipParallelismProgressLog() throws Exception {
+        // do import of test directory
+        DiskToArchiveTransferImporter di = new DiskToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SampleWithoutLinksModelV1",
+            null
+        );
+        di.doImport();
+        di.getArchiveTransfer().setGlobalMetadata(new GlobalMetadata());
+        int bdoCount = di.getArchiveTransfer().getDataObjectPackage().getBdoInDataObjectPackageIdMap().size();
+
+        // do parallel SIP export following each compressed file
+        Set<Integer> zippedCounts = new ConcurrentSkipListSet<>();
+        SEDALibProgressLogger pl = new SEDALibProgressLogger(
+            LoggerFactory.getLogger("SIPExportTest"),
+            SEDALibProgressLogger.OBJECTS_GROUP,
+            (count, log) -> {
+                if (log.contains("compressés")) zippedCounts.add(count);
+            },
+            1
+        );
+        ArchiveTransferToSIPExporter parallel = new ArchiveTransferToSIPExporter(di.getArchiveTransfer(), pl);
+        parallel.setZipParallelism(4);
+        parallel.doExportToSEDASIP("target/tmpJunit/ParallelProgressSIP.zip", true, false);
+
+        // assert progress logged once by file
+        assertEquals(
+            IntStream.rangeClosed(1, bdoCount).boxed().collect(Collectors.toCollection(TreeSet::new)),
+            zippedCounts
+        );
+    }
+
+    @Test
+    void TestSIPExportWithZipParallelismInterruptedLeavesNoScatterFile() throws Exception {
+        // do import of test directory
+        DiskToArchiveTransferImporter di = new DiskToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SampleWithoutLinksModelV1",
+            null
+        );
+        di.doImport();
+        di.getArchiveTransfer().setGlobalMetadata(new GlobalMetadata());
+        File exportDir = new File("target/tmpJunit/InterruptedSIP");
+        FileUtils.deleteDirectory(exportDir);
+        exportDir.mkdirs();
+
+        // do parallel SIP export, interrupted while adding the files to zip, once the first one is compressed
+        Thread exportThread = Thread.currentThread();
+        AtomicBoolean manifestExported = new AtomicBoolean();
+        AtomicInteger filesListing = new AtomicInteger();
+        CountDownLatch firstCompressed = new CountDownLatch(1);
+        DataObjectPackage dataObjectPackage = di.getArchiveTransfer().getDataObjectPackage();
+        for (DataObjectGroup og : dataObjectPackage.getDogInDataObjectPackageIdMap().values()) {
+            og.setBinaryDataObjectList(
+                new ArrayList<BinaryDataObject>(og.getBinaryDataObjectList()) {
+                    @Override
+                    public Iterator<BinaryDataObject> iterator() {
+                        if (
+                            manifestExported.get() &&
+                            (Thread.currentThread() == exportThread) &&
+                            (filesListing.incrementAndGet() == 2)
+                        ) {
+                            try {
+                                firstCompressed.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException ignored) {
+                                // interrupted below anyway
+                            }
+                            exportThread.interrupt();
+                        }
+                        return super.iterator();
+                    }
+                }
+            );
+        }
+        SEDALibProgressLogger pl = new SEDALibProgressLogger(
+            LoggerFactory.getLogger("SIPExportTest"),
+            SEDALibProgressLogger.OBJECTS_GROUP,
+            (count, log) -> {
+                if (log.contains("manifest exporté")) manifestExported.set(true);
+                else if (log.contains("compressés")) firstCompressed.countDown();
+            },
+            1
+        );
+        ArchiveTransferToSIPExporter parallel = new ArchiveTransferToSIPExporter(di.getArchiveTransfer(), pl);
+        parallel.setZipParallelism(4);
+        try {
+            assertThrows(
+                InterruptedException.class,
+                () -> parallel.doExportToSEDASIP("target/tmpJunit/InterruptedSIP/SIP.zip", true, false)
+            );
+        } finally {
+            Thread.interrupted();
+        }
+
+        // assert no scatter temporary file left next to the SIP
+        String[] leftFiles = exportDir.list((dir, name) -> name.startsWith("parallelscatter"));
+        assertNotNull(leftFiles);
+        assertEquals(0, leftFiles.length);
+    }
+}
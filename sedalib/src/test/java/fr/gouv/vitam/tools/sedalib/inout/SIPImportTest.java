@@ -45,6 +45,7 @@ import fr.gouv.vitam.tools.sedalib.SedaContextExtension;
 import fr.gouv.vitam.tools.sedalib.TestUtilities;
 import fr.gouv.vitam.tools.sedalib.UseTestFiles;
 import fr.gouv.vitam.tools.sedalib.core.ArchiveUnit;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
 import fr.gouv.vitam.tools.sedalib.core.DataObjectGroup;
 import fr.gouv.vitam.tools.sedalib.core.DataObjectPackage;
 import fr.gouv.vitam.tools.sedalib.core.json.DataObjectPackageDeserializer;
@@ -55,12 +56,23 @@ import fr.gouv.vitam.tools.sedalib.inout.importer.DiskToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.inout.importer.SIPToArchiveTransferImporter;
 import fr.gouv.vitam.tools.sedalib.utils.ResourceUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -286,6 +298,142 @@ class SIPImportTest implements UseTestFiles {
         assertThat(management).isEqualToNormalizingNewlines(testManagement);
     }
 
+    @Test
+    void TestSIPOKLazyExtractionImport() throws Exception {
+        // do import of test SIP without uncompressing it
+        TestUtilities.eraseAll("target/tmpJunit/SipOKLazy.zip-tmpdir");
+        SIPToArchiveTransferImporter si = new SIPToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SIP_OK.zip",
+            "target/tmpJunit/SipOKLazy.zip-tmpdir",
+            null
+        );
+        si.setLazyExtraction(true);
+        si.doImport();
+
+        // assert macro results and that no file has been extracted
+        assertEquals(28, si.getArchiveTransfer().getDataObjectPackage().getAuInDataObjectPackageIdMap().size());
+        assertEquals(4, si.getArchiveTransfer().getDataObjectPackage().getDogInDataObjectPackageIdMap().size());
+        assertThat(new File("target/tmpJunit/SipOKLazy.zip-tmpdir/content").exists()).isFalse();
+
+        // assert the file is extracted when needed
+        BinaryDataObject bdo = si
+            .getArchiveTransfer()
+            .getDataObjectPackage()
+            .getBdoInDataObjectPackageIdMap()
+            .get("ID13");
+        assertThat(bdo.getOnZipEntry()).isEqualTo("Content/ID13.txt");
+        File bdoFile = bdo.getOnDiskPath().toFile();
+        assertThat(bdoFile.exists()).isFalse();
+        bdo.extractFromZipIfNeeded();
+        assertTrue(bdoFile.isFile());
+        assertEquals(6, bdoFile.length());
+        assertThat(bdoFile.toPath().endsWith(Paths.get("content", "ID13.txt"))).isTrue();
+
+        // assert the SIP can be exported again with all its files
+        ArchiveTransferToSIPExporter sm = new ArchiveTransferToSIPExporter(si.getArchiveTransfer(), null);
+        sm.doExportToSEDASIP("target/tmpJunit/SipOKLazy-export.zip", true, true);
+        try (ZipFile zipFile = new ZipFile("target/tmpJunit/SipOKLazy-export.zip")) {
+            assertEquals(
+                si.getArchiveTransfer().getDataObjectPackage().getBdoInDataObjectPackageIdMap().size() + 1,
+                zipFile.size()
+            );
+        }
+        si.getArchiveTransfer().getDataObjectPackage().closeZipEntryExtractors();
+    }
+
+    @Test
+    void TestSIPOKLazyExtractionImportReplacesStaleFiles() throws Exception {
+        // given a tmpdir left by the import of another SIP with the same name
+        TestUtilities.eraseAll("target/tmpJunit/SipOKLazyStale.zip-tmpdir");
+        new File("target/tmpJunit/SipOKLazyStale.zip-tmpdir/content").mkdirs();
+        Path staleFile = Paths.get("target/tmpJunit/SipOKLazyStale.zip-tmpdir/content/ID13.txt");
+        Files.write(staleFile, "stale content".getBytes(StandardCharsets.UTF_8));
+
+        // when lazily imported
+        SIPToArchiveTransferImporter si = new SIPToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SIP_OK.zip",
+            "target/tmpJunit/SipOKLazyStale.zip-tmpdir",
+            null
+        );
+        si.setLazyExtraction(true);
+        si.doImport();
+        BinaryDataObject bdo = si
+            .getArchiveTransfer()
+            .getDataObjectPackage()
+            .getBdoInDataObjectPackageIdMap()
+            .get("ID13");
+        assertThat(bdo.isOnZipExtracted()).isFalse();
+        bdo.extractFromZipIfNeeded();
+
+        // then the stale file is replaced by the SIP one
+        assertThat(bdo.isOnZipExtracted()).isTrue();
+        assertEquals(6, Files.size(staleFile));
+        assertThat(new String(Files.readAllBytes(staleFile), StandardCharsets.UTF_8)).isNotEqualTo("stale content");
+        si.getArchiveTransfer().getDataObjectPackage().closeZipEntryExtractors();
+    }
+
+    @Test
+    void TestSIPOKParallelExtractionImport() throws Exception {
+        // given a copy of the test SIP with one altered file
+        new File("target/tmpJunit").mkdirs();
+        try (
+            ZipFile zipFile = new ZipFile("src/test/resources/PacketSamples/SIP_OK.zip");
+            ZipOutputStream zos = new ZipOutputStream(new FileOutputStream("target/tmpJunit/SipAltered.zip"))
+        ) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                zos.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().equals("Content/ID13.txt")) zos.write("altered".getBytes());
+                else try (InputStream is = zipFile.getInputStream(entry)) {
+                    IOUtils.copy(is, zos);
+                }
+                zos.closeEntry();
+            }
+        }
+
+        // when extracting in parallel
+        TestUtilities.eraseAll("target/tmpJunit/SipOKParallel.zip-tmpdir");
+        SIPToArchiveTransferImporter si = new SIPToArchiveTransferImporter(
+            "src/test/resources/PacketSamples/SIP_OK.zip",
+            "target/tmpJunit/SipOKParallel.zip-tmpdir",
+            null
+        );
+        si.setExtractionParallelism(4);
+        si.setDigestVerification(true);
+        si.doImport();
+        TestUtilities.eraseAll("target/tmpJunit/SipAltered.zip-tmpdir");
+        SIPToArchiveTransferImporter sia = new SIPToArchiveTransferImporter(
+            "target/tmpJunit/SipAltered.zip",
+            "target/tmpJunit/SipAltered.zip-tmpdir",
+            null
+        );
+        sia.setExtractionParallelism(4);
+        sia.setDigestVerification(true);
+        sia.doImport();
+        TestUtilities.eraseAll("target/tmpJunit/SipAlteredSequential.zip-tmpdir");
+        SIPToArchiveTransferImporter sis = new SIPToArchiveTransferImporter(
+            "target/tmpJunit/SipAltered.zip",
+            "./target/tmpJunit/SipAlteredSequential.zip-tmpdir",
+            null
+        );
+        sis.setDigestVerification(true);
+        sis.doImport();
+
+        // then all files are extracted and their digests verified
+        int bdoCount = si.getArchiveTransfer().getDataObjectPackage().getBdoInDataObjectPackageIdMap().size();
+        assertEquals(28, si.getArchiveTransfer().getDataObjectPackage().getAuInDataObjectPackageIdMap().size());
+        assertEquals(bdoCount, si.getVerifiedFileCount());
+        assertTrue(si.getDigestVerificationErrors().isEmpty());
+        assertTrue(new File("target/tmpJunit/SipOKParallel.zip-tmpdir/content/ID13.txt").isFile());
+        assertTrue(new File("target/tmpJunit/SipOKParallel.zip-tmpdir/manifest.xml").isFile());
+        assertEquals(bdoCount, sia.getVerifiedFileCount());
+        assertEquals(1, sia.getDigestVerificationErrors().size());
+        assertThat(sia.getDigestVerificationErrors().get(0)).contains("Content/ID13.txt").contains("ID13");
+        assertThat(sia.getSummary()).contains(bdoCount + " empreintes vérifiées, 1 erreurs");
+        // and also verified with only one extraction thread
+        assertEquals(bdoCount, sis.getVerifiedFileCount());
+        assertEquals(1, sis.getDigestVerificationErrors().size());
+    }
+
     @Test
     void TestSipWrongDogReferences() throws Exception {
         // create jackson object mapper
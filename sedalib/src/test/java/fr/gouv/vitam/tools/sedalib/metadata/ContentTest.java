@@ -367,6 +367,26 @@ class ContentTest {
         ).hasStackTraceContaining("Impossible de construire l'élément [Keyword]");
     }
 
+    @Test
+    void testMetadataFactoryCache() throws SEDALibException {
+        // Given
+        SEDAMetadataFactory factory = SEDAMetadataFactory.forClass(Keyword.class);
+        Content c = new Content();
+
+        // When constructed twice with the same arguments types and parsed back
+        c.addNewMetadata("Keyword", "TestKeywordContent", "TestKeywordReference", "corpname");
+        c.addNewMetadata("Keyword", "TestKeywordContent2", "TestKeywordReference2", "geogname");
+        SEDAMetadata parsed = SEDAMetadata.fromString(c.getFirstNamedMetadata("Keyword").toString(), Keyword.class);
+
+        // Then the factory and the metadata maps are shared, and the metadata are distinct
+        assertThat(SEDAMetadataFactory.forClass(Keyword.class)).isSameAs(factory);
+        assertThat(factory.getMetadataDefinitions()).isSameAs(factory.getMetadataDefinitions());
+        assertThat(factory.getMetadataDefinitions().get(SedaVersion.V2_1)).containsKey("KeywordContent");
+        assertThat(c.getMetadataList()).hasSize(2);
+        assertThat(c.getMetadataList().get(1).toString()).contains("TestKeywordContent2");
+        assertThat(parsed.toString()).isEqualTo(c.getFirstNamedMetadata("Keyword").toString());
+    }
+
     @Test
     void testAddNewMetadata() throws SEDALibException, FileNotFoundException {
         // Given
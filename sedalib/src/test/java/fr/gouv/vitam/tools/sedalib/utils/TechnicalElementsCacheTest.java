@@ -0,0 +1,198 @@
+/**
+ * Copyright French Prime minister Office/SGMAP/DINSIC/Vitam Program (2019-2022)
+ * and the signatories of the "VITAM - Accord du Contributeur" agreement.
+ *
+ * contact@programmevitam.fr
+ *
+ * This software is a computer program whose purpose is to provide
+ * tools for construction and manipulation of SIP (Submission
+ * Information Package) conform to the SEDA (Standard d’Échange
+ * de données pour l’Archivage) standard.
+ *
+ * This software is governed by the CeCILL-C license under French law and
+ * abiding by the rules of distribution of free software.  You can  use,
+ * modify and/ or redistribute the software under the terms of the CeCILL-C
+ * license as circulated by CEA, CNRS and INRIA at the following URL
+ * "http://www.cecill.info".
+ *
+ * As a counterpart to the access to the source code and  rights to copy,
+ * modify and redistribute granted by the license, users are provided only
+ * with a limited warranty  and the software's author,  the holder of the
+ * economic rights,  and the successive licensors  have only  limited
+ * liability.
+ *
+ * In this respect, the user's attention is drawn to the risks associated
+ * with loading,  using,  modifying and/or developing or reproducing the
+ * software by the user in light of its specific status of free software,
+ * that may mean  that it is complicated to manipulate,  and  that  also
+ * therefore means  that it is reserved for developers  and  experienced
+ * professionals having in-depth computer knowledge. Users are therefore
+ * encouraged to load and test the software's suitability as regards their
+ * requirements in conditions enabling the security of their systems and/or
+ * data to be ensured and,  more generally, to use and operate it in the
+ * same conditions as regards security.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package fr.gouv.vitam.tools.sedalib.utils;
+
+import fr.gouv.vitam.tools.sedalib.SedaContextExtension;
+import fr.gouv.vitam.tools.sedalib.core.BinaryDataObject;
+import fr.gouv.vitam.tools.sedalib.utils.digest.DigestSha512;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SedaContextExtension.class)
+class TechnicalElementsCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void resetActiveCache() {
+        TechnicalElementsCache.setActiveCache(null);
+    }
+
+    @Test
+    void testEntriesArePersistedAndKeyedByFileState() throws SEDALibException {
+        // Given
+        Path cacheFile = tempDir.resolve(TechnicalElementsCache.DEFAULT_CACHE_FILENAME);
+        Path file = tempDir.resolve("dir\twith tab").resolve("file.txt");
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            cache.store(file, new TechnicalElementsCache.Entry(12, 1000, "abc", "SHA-512", "x-fmt/111", null, "Text"));
+        }
+
+        // When
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            // Then
+            TechnicalElementsCache.Entry entry = cache.lookup(file, 12, 1000);
+            assertThat(entry).isNotNull();
+            assertThat(entry.getDigest()).isEqualTo("abc");
+            assertThat(entry.getPuid()).isEqualTo("x-fmt/111");
+            assertThat(entry.getMimeType()).isNull();
+            assertThat(entry.getFormatName()).isEqualTo("Text");
+            assertThat(cache.lookup(file, 13, 1000)).isNull();
+            assertThat(cache.lookup(file, 12, 1001)).isNull();
+
+            cache.invalidate();
+            assertThat(cache.lookup(file, 12, 1000)).isNull();
+        }
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Test
+    void testExtractTechnicalElementsUsesActiveCache() throws SEDALibException, IOException {
+        // Given
+        Path file = tempDir.resolve("content.txt");
+        Files.writeString(file, "Hello World");
+        TechnicalElementsCache cache = TechnicalElementsCache.open(tempDir.resolve("cache.txt"));
+        TechnicalElementsCache.setActiveCache(cache);
+
+        // When
+        BinaryDataObject bdo = new BinaryDataObject(null, file, null, null);
+        bdo.extractTechnicalElements(null);
+
+        // Then
+        String digest = DigestSha512.compute(file);
+        assertThat(bdo.getMetadataMessageDigest().getValue()).isEqualTo(digest);
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        assertThat(cache.lookup(file, size, lastModified).getDigest()).isEqualTo(digest);
+
+        // When the cached elements differ, they are used without computing again
+        cache.store(
+            file,
+            new TechnicalElementsCache.Entry(size, lastModified, "cached", "SHA-512", "fmt/1", null, "Cached")
+        );
+        BinaryDataObject cachedBdo = new BinaryDataObject(null, file, null, null);
+        cachedBdo.extractTechnicalElements(null);
+
+        // Then
+        assertThat(cachedBdo.getMetadataMessageDigest().getValue()).isEqualTo("cached");
+        assertThat(cachedBdo.getMetadataSize().getValue()).isEqualTo(size);
+    }
+
+    @Test
+    void testSignaturesVersionChangeResetsCache() throws SEDALibException {
+        // Given
+        Path cacheFile = tempDir.resolve(TechnicalElementsCache.DEFAULT_CACHE_FILENAME);
+        Path file = tempDir.resolve("file.txt");
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            cache.checkSignaturesVersion("V1");
+            cache.store(file, new TechnicalElementsCache.Entry(12, 1000, "abc", "SHA-512", "x-fmt/111", null, "Text"));
+        }
+
+        // When
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            // Then
+            assertThat(cache.getSignaturesVersion()).isEqualTo("V1");
+            cache.checkSignaturesVersion("V1");
+            assertThat(cache.lookup(file, 12, 1000)).isNotNull();
+            cache.checkSignaturesVersion("V2");
+            assertThat(cache.lookup(file, 12, 1000)).isNull();
+        }
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            assertThat(cache.getSignaturesVersion()).isEqualTo("V2");
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Test
+    void testCacheFileIsCompactedOnLoad() throws SEDALibException, IOException {
+        // Given
+        Path cacheFile = tempDir.resolve(TechnicalElementsCache.DEFAULT_CACHE_FILENAME);
+        Path file = tempDir.resolve("file.txt");
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            for (int i = 0; i < 3; i++) cache.store(
+                file,
+                new TechnicalElementsCache.Entry(12, 1000 + i, "abc", "SHA-512", "x-fmt/111", null, "Text")
+            );
+        }
+        assertThat(Files.readAllLines(cacheFile)).hasSize(4);
+
+        // When
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            // Then
+            assertThat(Files.readAllLines(cacheFile)).hasSize(2);
+            assertThat(cache.lookup(file, 12, 1002)).isNotNull();
+            assertThat(cache.lookup(file, 12, 1000)).isNull();
+        }
+        try (TechnicalElementsCache cache = TechnicalElementsCache.open(cacheFile)) {
+            assertThat(cache.lookup(file, 12, 1002)).isNotNull();
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(cacheFile);
+        }
+    }
+
+    @Test
+    void testFailedIdentificationIsNotCached() throws SEDALibException, IOException {
+        // Given
+        Path file = tempDir.resolve("content.unknownformat");
+        byte[] content = new byte[256];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) (i * 7);
+        Files.write(file, content);
+        TechnicalElementsCache cache = TechnicalElementsCache.open(tempDir.resolve("cache.txt"));
+        TechnicalElementsCache.setActiveCache(cache);
+
+        // When
+        BinaryDataObject bdo = new BinaryDataObject(null, file, null, null);
+        bdo.extractTechnicalElements(null);
+
+        // Then
+        assertThat(bdo.getMetadataFormatIdentification().getSimpleMetadata("FormatId")).isEqualTo("UNKNOWN");
+        assertThat(cache.lookup(file, Files.size(file), Files.getLastModifiedTime(file).toMillis())).isNull();
+    }
+}
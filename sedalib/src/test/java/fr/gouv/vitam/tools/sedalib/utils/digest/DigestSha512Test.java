@@ -90,6 +90,21 @@ class DigestSha512Test {
         assertThat(digest).isEqualTo(expected);
     }
 
+    @Test
+    void testComputeDigestFromContentMatchesFile() throws IOException, SEDALibException {
+        // Given
+        Path file = tempDir.resolve("content.bin");
+        byte[] data = new byte[100 * 1024];
+        new Random().nextBytes(data);
+        Files.write(file, data);
+
+        // When
+        String digest = DigestSha512.compute(data);
+
+        // Then
+        assertThat(digest).isEqualTo(DigestSha512.compute(file));
+    }
+
     @Test
     void testComputeDigestLargeFile() throws IOException, SEDALibException, NoSuchAlgorithmException {
         // Given: Create a file larger than 20MB to trigger parallel prefetching
@@ -44,6 +44,13 @@ import fr.gouv.vitam.tools.sedalib.utils.SEDALibException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
 import static fr.gouv.vitam.tools.sedalib.TestUtilities.readFileToString;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -64,5 +71,32 @@ public class SEDAValidationTest {
         // Then
         assertThat(isValid).as("Validation process on SEDA 2.1 failed").isTrue();
     }
+
+    @Test
+    public void testCompiledSchemasCache() throws SEDALibException, IOException {
+        // Given
+        SedaContext.setVersion(SedaVersion.V2_1);
+        SEDAXMLValidator validator = new SEDAXMLValidator();
+        File profileFile = new File("target/tmpJunit/cached-profile.rng");
+        Files.createDirectories(profileFile.toPath().getParent());
+        Files.copy(
+            Paths.get("src/test/resources/PacketSamples/profile.rng"),
+            profileFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING
+        );
+
+        // When
+        Schema sedaSchema = SEDAXMLValidator.getSEDASchema();
+        Schema profileSchema = validator.getSchemaFromRNGFile(profileFile.getPath());
+        Schema sameProfileSchema = new SEDAXMLValidator().getSchemaFromRNGFile(profileFile.getAbsolutePath());
+        assertThat(profileFile.setLastModified(profileFile.lastModified() + 2000)).isTrue();
+        Schema modifiedProfileSchema = validator.getSchemaFromRNGFile(profileFile.getPath());
+
+        // Then
+        assertThat(SEDAXMLValidator.getSEDASchema()).isSameAs(sedaSchema);
+        assertThat(sameProfileSchema).isSameAs(profileSchema);
+        assertThat(modifiedProfileSchema).isNotSameAs(profileSchema);
+        assertThat(validator.getSchemaFromRNGFile(profileFile.getPath())).isSameAs(modifiedProfileSchema);
+    }
     // TODO test seda 2.2 et 2.3
 }